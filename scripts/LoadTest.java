@@ -0,0 +1,91 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends GET requests to a running instance, keeping a fixed number of them in flight, and prints the throughput,
+ * the latency percentiles, how many requests were outstanding at most and the status codes. Runs from source on JDK 21:
+ *
+ *   java scripts/LoadTest.java http://localhost:8888/api/articles 400 20000
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: java scripts/LoadTest.java <url> <concurrency> <requests>");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        int requests = Integer.parseInt(args[2]);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        // a few untimed requests so the first ones don't measure class loading and connection setup
+        for (int i = 0; i < Math.min(concurrency, 50); i++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicLong failures = new AtomicLong();
+        Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                workers.submit(() -> {
+                    while (next.getAndIncrement() < requests) {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        long sent = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            statuses.computeIfAbsent(status, code -> new AtomicLong()).incrementAndGet();
+                            latencies.add(System.nanoTime() - sent);
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%s, %d in flight, %d requests%n", uri, concurrency, requests);
+        System.out.printf("  %.1f s, %.0f requests/s, at most %d outstanding%n", seconds, sorted.size() / seconds,
+                maxInFlight.get());
+        System.out.printf("  latency ms: p50 %.1f, p95 %.1f, p99 %.1f, max %.1f%n", percentile(sorted, 50),
+                percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+        System.out.printf("  statuses: %s, failed: %d%n", new TreeMap<>(statuses), failures.get());
+    }
+
+    private static double percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = Math.min(sorted.size() - 1, (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1);
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}
@@ -0,0 +1,67 @@
+package kg.nurtelecom.opinion.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Prepares article_reaction for its unique key. Runs before Hibernate updates the schema, which otherwise fails to
+ * create the key over duplicate rows and carries on without it. Once the key exists there is nothing left to do.
+ */
+@Component
+public class ArticleReactionMigration implements InitializingBean {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(ArticleReactionMigration.class);
+
+    public ArticleReactionMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!tableExists("article_reaction") || uniqueKeyExists()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // keeps the latest reaction of every user
+            int duplicates = jdbcTemplate.update("DELETE r1 FROM article_reaction r1 JOIN article_reaction r2 " +
+                    "ON r1.article_id = r2.article_id AND r1.user_id = r2.user_id AND r1.id < r2.id");
+            if (duplicates == 0) {
+                return;
+            }
+            // the removed rows were counted, every counter may be off, not only the missing ones
+            int articles = columnExists("article", "likes_count") ? jdbcTemplate.update("UPDATE article a SET " +
+                    "a.likes_count = (SELECT COUNT(*) FROM article_reaction r WHERE r.article_id = a.id AND r.reaction_type = 'LIKE'), " +
+                    "a.dislikes_count = (SELECT COUNT(*) FROM article_reaction r WHERE r.article_id = a.id AND r.reaction_type = 'DISLIKE')") : 0;
+            logger.info("Removed " + duplicates + " duplicate reactions, recounted reactions of " + articles + " articles");
+        });
+    }
+
+    private boolean tableExists(String table) {
+        return count("SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?", table) > 0;
+    }
+
+    private boolean columnExists(String table, String column) {
+        return count("SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?", table, column) > 0;
+    }
+
+    private boolean uniqueKeyExists() {
+        return count("SELECT COUNT(*) FROM information_schema.table_constraints " +
+                "WHERE table_schema = DATABASE() AND table_name = 'article_reaction' AND constraint_name = ?",
+                "uk_article_reaction_article_user") > 0;
+    }
+
+    private int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count != null ? count : 0;
+    }
+}
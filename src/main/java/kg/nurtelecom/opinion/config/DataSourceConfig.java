@@ -0,0 +1,68 @@
+package kg.nurtelecom.opinion.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+
+    // the pool settings under spring.datasource.hikari apply to the primary and to every replica
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig hikariConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(DataSourceProperties properties,
+                                                     HikariConfig hikariConfig,
+                                                     @Value("${app.datasource.replica-urls}") List<String> replicaUrls,
+                                                     @Value("${app.datasource.max-lag-seconds}") long maxLagSeconds,
+                                                     @Value("${app.datasource.lag-query}") String lagQuery,
+                                                     @Value("${app.datasource.lag-column}") String lagColumn) {
+        HikariDataSource primary = pool(hikariConfig, properties, properties.determineUrl(), "primary", false);
+
+        // replicas are reached with the credentials of the primary
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            replicas.put(name, pool(hikariConfig, properties, url.trim(), name, true));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagSeconds, lagQuery, lagColumn);
+    }
+
+    // the pool starts on its first connection, as one built by DataSourceBuilder does
+    private static HikariDataSource pool(HikariConfig hikariConfig, DataSourceProperties properties, String url,
+                                         String name, boolean readOnly) {
+        HikariDataSource pool = new HikariDataSource();
+        hikariConfig.copyStateTo(pool);
+        pool.setJdbcUrl(url);
+        pool.setUsername(properties.determineUsername());
+        pool.setPassword(properties.determinePassword());
+        pool.setDriverClassName(properties.determineDriverClassName());
+        pool.setPoolName(name);
+        pool.setReadOnly(readOnly);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.Properties;
 
@@ -18,6 +19,8 @@ public class MailSenderConfig {
     private String username;
     @Value(value = "${spring.mail.password}")
     private String password;
+    @Value(value = "${app.mail.queue.senders}")
+    private int senders;
 
     @Bean
     public JavaMailSender getJavaMailSender() {
@@ -33,9 +36,24 @@ public class MailSenderConfig {
         props.put("mail.smtp.auth", "true");
         props.put("mail.smtp.starttls.enable", "true");
         props.put("mail.debug", "false");
+        props.put("mail.smtp.connectiontimeout", "10000");
+        props.put("mail.smtp.timeout", "10000");
+        props.put("mail.smtp.writetimeout", "10000");
 
         return mailSender;
     }
 
+    @Bean
+    public ThreadPoolTaskExecutor mailSenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(senders);
+        executor.setMaxPoolSize(senders);
+        executor.setQueueCapacity(senders);
+        executor.setThreadNamePrefix("mail-sender-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
 
 }
@@ -0,0 +1,69 @@
+package kg.nurtelecom.opinion.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import kg.nurtelecom.opinion.filter.CompressionFilter;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.PrecompressedPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+/**
+ * Writes the gzipped JSON kept by a cached page without serializing or compressing it again. Clients that don't
+ * accept gzip and requests trimmed with the fields parameter fall through to the Jackson converter.
+ */
+@Component
+public class PrecompressedPageHttpMessageConverter extends AbstractHttpMessageConverter<PrecompressedPage<?>> {
+
+    public PrecompressedPageHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return PrecompressedPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(@NonNull Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@NonNull Class<?> clazz, MediaType mediaType) {
+        if (!super.canWrite(clazz, mediaType)
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        return CompressionFilter.acceptsGzip(request) && request.getParameter(FieldSet.FILTER) == null;
+    }
+
+    @Override
+    @NonNull
+    protected PrecompressedPage<?> readInternal(@NonNull Class<? extends PrecompressedPage<?>> clazz,
+                                                @NonNull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Сжатые страницы только отдаются", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(PrecompressedPage<?> page, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getHeaders().set(HttpHeaders.CONTENT_ENCODING, CompressionFilter.GZIP);
+        outputMessage.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        outputMessage.getBody().write(page.gzippedJson());
+    }
+
+    @Override
+    protected Long getContentLength(PrecompressedPage<?> page, MediaType contentType) {
+        return (long) page.gzippedJson().length;
+    }
+}
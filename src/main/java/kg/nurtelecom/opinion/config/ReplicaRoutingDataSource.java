@@ -0,0 +1,113 @@
+package kg.nurtelecom.opinion.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a replica that is not lagging behind, everything else to the primary.
+ * It has to sit behind a LazyConnectionDataSourceProxy, so that the connection is taken when the transaction
+ * is already marked read-only. Replication lag is probed on a schedule and a replica that cannot be probed or lags
+ * more than allowed is skipped until a later probe finds it healthy again.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagSeconds,
+                                    String lagQuery, String lagColumn) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Keeps the current thread on the primary, for requests that have to see their own writes.
+     */
+    public static void usePrimary() {
+        PRIMARY_ONLY.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        PRIMARY_ONLY.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty() || PRIMARY_ONLY.get() != null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.lag-check-interval-ms}")
+    public void checkReplicationLag() {
+        List<String> usable = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            Long lag = lagOf(replica.getKey(), replica.getValue());
+            if (lag != null && lag <= maxLagSeconds) {
+                usable.add(replica.getKey());
+            }
+        }
+        if (!usable.equals(healthy)) {
+            logger.info("Replicas used for reads: {}", usable);
+        }
+        healthy = List.copyOf(usable);
+    }
+
+    // null when the replica is down, replication is stopped or the lag is unknown
+    private Long lagOf(String name, DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return null;
+            }
+            long lag = resultSet.getLong(lagColumn);
+            return resultSet.wasNull() ? null : lag;
+        } catch (Exception e) {
+            logger.warn("Could not check replication lag of {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource dataSource : replicas.values()) {
+            close(dataSource);
+        }
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package kg.nurtelecom.opinion.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SchemaMigrationConfig {
+
+    // data fixes have to be in place before Hibernate updates the schema on top of them
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor schemaMigrationDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor(ArticleReactionMigration.class, StoredImageMigration.class);
+    }
+}
@@ -0,0 +1,47 @@
+package kg.nurtelecom.opinion.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leaves out of the response the fields the client didn't ask for with the fields parameter. Only payloads
+ * annotated with @JsonFilter(FieldSet.FILTER) are trimmed, nested objects such as the author are kept whole.
+ */
+@RestControllerAdvice
+public class SparseFieldsResponseBodyAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String[] values = servletRequest.getServletRequest().getParameterValues(FieldSet.FILTER);
+        if (values == null) {
+            return;
+        }
+        List<String> fields = new ArrayList<>();
+        for (String value : values) {
+            fields.addAll(List.of(StringUtils.commaDelimitedListToStringArray(value)));
+        }
+        FieldSet fieldSet = FieldSet.of(fields);
+        if (!fieldSet.isAll()) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .addFilter(FieldSet.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fieldSet.names())));
+        }
+    }
+}
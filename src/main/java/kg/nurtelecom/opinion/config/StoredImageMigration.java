@@ -0,0 +1,61 @@
+package kg.nurtelecom.opinion.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Prepares stored_images for its unique URL key. Uploads that re-encoded to the same bytes were indexed twice under the
+ * same content-addressed URL, the rows are merged into the oldest one with their references added up.
+ */
+@Component
+public class StoredImageMigration implements InitializingBean {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(StoredImageMigration.class);
+
+    public StoredImageMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!tableExists() || uniqueKeyExists()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int merged = jdbcTemplate.update("UPDATE stored_images s JOIN (SELECT MIN(id) AS id, " +
+                    "SUM(reference_count) AS reference_count FROM stored_images GROUP BY url HAVING COUNT(*) > 1) d " +
+                    "ON s.id = d.id SET s.reference_count = d.reference_count");
+            if (merged == 0) {
+                return;
+            }
+            int duplicates = jdbcTemplate.update("DELETE s1 FROM stored_images s1 JOIN stored_images s2 " +
+                    "ON s1.url = s2.url AND s1.id > s2.id");
+            logger.info("Merged " + duplicates + " duplicate stored images into " + merged);
+        });
+    }
+
+    private boolean tableExists() {
+        return count("SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?",
+                "stored_images") > 0;
+    }
+
+    private boolean uniqueKeyExists() {
+        return count("SELECT COUNT(*) FROM information_schema.table_constraints " +
+                "WHERE table_schema = DATABASE() AND table_name = 'stored_images' AND constraint_name = ?",
+                "uk_stored_images_url") > 0;
+    }
+
+    private int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count != null ? count : 0;
+    }
+}
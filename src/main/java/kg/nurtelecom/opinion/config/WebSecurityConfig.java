@@ -26,13 +26,16 @@ public class WebSecurityConfig {
             "/v3/api-docs/**",
             "/",
             "/api/articles/**",
+            "/api/tags/{id}/articles",
+            "/api/tags/articles",
             "/api/announcements/**",
             "/api/announcement-comments/**",
             "/api/users/id/{id}/profile",
             "/api/users/nickname/{nickname}/profile",
             "/api/article-comments/**",
             "/api/article-reactions/**",
-            "/api/complaints/on-article/**"
+            "/api/complaints/on-article/**",
+            "/api/images/files/**"
     };
 
     public WebSecurityConfig(JwtAuthenticationFilter jwtAuthFilter, AuthenticationProvider authenticationProvider) {
@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.announcement.AnnouncementResponse;
 import kg.nurtelecom.opinion.service.AnnouncementService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +19,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/announcements")
 @Tag(
@@ -37,8 +40,9 @@ public class AnnouncementController {
             summary = "Получение всех объявлений"
     )
     public ResponseEntity<Page<AnnouncementResponse>> getAnnouncements(@PageableDefault(page = 0, size = 10, sort = "dateTime", direction = Sort.Direction.DESC) Pageable pageable,
+                                                                       @RequestParam(value = "fields", required = false) List<String> fields,
                                                                        @AuthenticationPrincipal User user) {
-        return service.getAnnouncements(pageable, user);
+        return service.getAnnouncements(pageable, user, FieldSet.of(fields));
     }
 
     @GetMapping("/{id}")
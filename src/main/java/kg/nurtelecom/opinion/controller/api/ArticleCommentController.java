@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleCommentRequest;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleCommentResponse;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleNestedCommentResponse;
@@ -18,6 +19,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/article-comments")
 @Tag(
@@ -44,9 +47,10 @@ public class ArticleCommentController {
     @Operation(summary = "Возвращает все комментарии статьи по ee id")
     public ResponseEntity<Page<ArticleNestedCommentResponse>> getAllComments(
             @PathVariable("article-id") Long articleId,
-            @PageableDefault(sort = "date", direction = Sort.Direction.DESC) Pageable pageable
+            @PageableDefault(sort = "date", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(value = "fields", required = false) List<String> fields
     ) {
-        return commentService.getAllComments(articleId, pageable);
+        return commentService.getAllComments(articleId, pageable, FieldSet.of(fields));
     }
 
     @PostMapping("/{article-id}")
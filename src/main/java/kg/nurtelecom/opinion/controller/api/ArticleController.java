@@ -7,6 +7,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article.*;
 import kg.nurtelecom.opinion.service.ArticleService;
 import kg.nurtelecom.opinion.service.DailyVisitService;
@@ -17,11 +18,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/articles")
 @Tag(
@@ -93,9 +97,33 @@ public class ArticleController {
             summary = "Получение всех статей  "
     )
     public ResponseEntity<Page<ArticlesGetDTO>> getArticles(@PageableDefault(page = 0, size = 10, sort = "dateTime", direction = Sort.Direction.DESC) Pageable pageable,
+                                                            @RequestParam(value = "fields", required = false) List<String> fields,
                                                             @AuthenticationPrincipal User user) {
         dailyVisitService.incrementDailyVisitCount();
-        return service.getArticles(pageable, user);
+        return service.getArticles(pageable, user, FieldSet.of(fields));
+    }
+
+    @GetMapping("/trending")
+    @Operation(
+            summary = "Получение популярных статей",
+            description = "Статьи отсортированы по активности, которая со временем теряет вес"
+    )
+    public ResponseEntity<Page<ArticlesGetDTO>> getTrendingArticles(@PageableDefault(page = 0, size = 10) Pageable pageable,
+                                                                    @RequestParam(value = "fields", required = false) List<String> fields,
+                                                                    @AuthenticationPrincipal User user) {
+        return service.getTrendingArticles(pageable, user, FieldSet.of(fields));
+    }
+
+    @GetMapping("/feed")
+    @Operation(
+            summary = "Получение персональной ленты",
+            description = "Статьи подбираются по тегам сохранённых и понравившихся статей и по авторам, с которыми " +
+                    "взаимодействовал пользователь. Без авторизации возвращаются последние статьи"
+    )
+    public ResponseEntity<Page<ArticlesGetDTO>> getFeed(@PageableDefault(page = 0, size = 10) Pageable pageable,
+                                                        @RequestParam(value = "fields", required = false) List<String> fields,
+                                                        @AuthenticationPrincipal User user) {
+        return service.getFeed(pageable, user, FieldSet.of(fields));
     }
 
     @GetMapping("/search")
@@ -104,8 +132,9 @@ public class ArticleController {
     )
     public ResponseEntity<Page<ArticlesGetDTO>> searchArticle(@PageableDefault(page = 0, size = 10, sort = "dateTime") Pageable pageable,
                                                               @RequestParam("query") String searchQuery,
+                                                              @RequestParam(value = "fields", required = false) List<String> fields,
                                                               @AuthenticationPrincipal User user) {
-        return service.searchArticle(pageable, searchQuery, user);
+        return service.searchArticle(pageable, searchQuery, user, FieldSet.of(fields));
     }
 
 
@@ -115,12 +144,13 @@ public class ArticleController {
     )
     @SecurityRequirement(name = "JWT")
     public ResponseEntity<Page<MyArticlesGetDTO>> getMyArticles(@PageableDefault(page = 0, size = 10, sort = "dateTime", direction = Sort.Direction.DESC) Pageable pageable,
+                                                              @RequestParam(value = "fields", required = false) List<String> fields,
                                                               @AuthenticationPrincipal User user) {
 
         if(user == null) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
-        return service.getMyArticles(user, pageable);
+        return service.getMyArticles(user, pageable, FieldSet.of(fields));
     }
 
     @GetMapping("/{userId}/articles")
@@ -128,9 +158,10 @@ public class ArticleController {
             summary = "Получение  статей пользователя"
     )
     public ResponseEntity<Page<ArticlesGetDTO>> getUserArticles(@PathVariable("userId") Long userId,
-                                                                @PageableDefault(page = 0, size = 10, sort = "dateTime", direction = Sort.Direction.DESC) Pageable pageable) {
+                                                                @PageableDefault(page = 0, size = 10, sort = "dateTime", direction = Sort.Direction.DESC) Pageable pageable,
+                                                                @RequestParam(value = "fields", required = false) List<String> fields) {
 
-        return service.getUserArticles(userId, pageable);
+        return service.getUserArticles(userId, pageable, FieldSet.of(fields));
     }
 
 
@@ -141,19 +172,32 @@ public class ArticleController {
             summary = "Получение статьи по ее id из кэша"
     )
     public ResponseEntity<ArticleGetDTO> getArticleFromCache(@PathVariable("id") Long id,
+                                                    @RequestParam(value = "fields", required = false) List<String> fields,
                                                     @AuthenticationPrincipal User user) {
 
-        return new ResponseEntity<>(service.getArticleFromCache(id, user), HttpStatus.OK);
+        return new ResponseEntity<>(service.getArticleFromCache(id, user, FieldSet.of(fields)), HttpStatus.OK);
     }
 
     @GetMapping("/{id}")
     @Operation(
-            summary = "Получение статьи по ее id"
+            summary = "Получение статьи по ее id",
+            description = "Если статья не изменилась с версии из If-None-Match, возвращается 304 без тела"
     )
     public ResponseEntity<ArticleGetDTO> getArticle(@PathVariable("id") Long id,
+                                                    @RequestParam(value = "fields", required = false) List<String> fields,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
                                                     @AuthenticationPrincipal User user) {
 
-        return new ResponseEntity<>(service.getArticle(id, user), HttpStatus.OK);
+        return service.getArticle(id, user, FieldSet.of(fields), ifNoneMatch);
+    }
+
+    @GetMapping("/{id}/related")
+    @Operation(
+            summary = "Получение похожих статей",
+            description = "Похожие статьи подбираются по общим тегам и по пользователям, сохранившим обе статьи"
+    )
+    public ResponseEntity<List<RelatedArticleDTO>> getRelatedArticles(@PathVariable("id") Long id) {
+        return service.getRelatedArticles(id);
     }
 
     @GetMapping("/status/{id}")
@@ -7,6 +7,7 @@ import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.ReactionType;
 import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionRequest;
 import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionResponse;
+import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionStateResponse;
 import kg.nurtelecom.opinion.service.ArticleReactionService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +16,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/article-reactions")
 @Tag(
@@ -48,10 +52,11 @@ public class ArticleReactionController {
 
     @PostMapping
     @Operation(
-            summary = "Добавление реакции на статью"
+            summary = "Добавление реакции на статью",
+            description = "Повторная реакция того же типа снимает ее. Возвращает новую реакцию пользователя и рейтинг статьи"
     )
     @SecurityRequirement(name = "JWT")
-    public ResponseEntity<String> addReactionToArticle(@RequestBody ArticleReactionRequest reaction,
+    public ResponseEntity<ArticleReactionStateResponse> addReactionToArticle(@RequestBody ArticleReactionRequest reaction,
                                                   @AuthenticationPrincipal User user) {
         return articleReactionService.addReactionToArticle(reaction, user);
     }
@@ -65,4 +70,14 @@ public class ArticleReactionController {
         return articleReactionService.getArticleReactionByUser(articleId, user);
     }
 
+    @GetMapping("/reaction-types")
+    @Operation(
+            summary = "Получение реакций пользователя на несколько статей",
+            description = "Возвращает реакции только на те статьи, которые пользователь оценил"
+    )
+    public ResponseEntity<Map<Long, ReactionType>> getArticleReactionsByUser(@RequestParam("article-ids") List<Long> articleIds,
+                                                                             @AuthenticationPrincipal User user) {
+        return articleReactionService.getArticleReactionsByUser(articleIds, user);
+    }
+
 }
@@ -3,17 +3,18 @@ package kg.nurtelecom.opinion.controller.api;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.service.ImageService;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/images")
 @Tag(
@@ -26,44 +27,34 @@ public class ImageController {
         this.imageService = imageService;
     }
 
-    @GetMapping
-    public ResponseEntity<Resource> getImage(@RequestParam("path") String path) {
-        Resource image = imageService.load(path);
-        MediaType mediaType = MediaTypeFactory.getMediaType(image).orElse(MediaType.APPLICATION_OCTET_STREAM);
-        if (image != null) {
-            return ResponseEntity.ok()
-                    .contentType(mediaType)
-                    .body(image);
-        } else {
-            return ResponseEntity.notFound().build();
-        }
-    }
-
-    @PostMapping
+    @GetMapping("/files/{shard}/{subshard}/{name}")
     @Operation(
-            summary = "Сохранение картинки статьи (в том числе и главной ) в облако "
+            summary = "Получение картинки из локального хранилища"
     )
-    @SecurityRequirement(name = "JWT")
-    public ResponseEntity<String> loadImage(@RequestPart("photo") MultipartFile photo) {
-        return new ResponseEntity<>(imageService.loadImage(photo), HttpStatus.CREATED);
+    public void getImage(@PathVariable("shard") String shard,
+                         @PathVariable("subshard") String subshard,
+                         @PathVariable("name") String name,
+                         HttpServletRequest request,
+                         HttpServletResponse response) {
+        imageService.sendImage(shard + "/" + subshard + "/" + name, request, response);
     }
 
-    @DeleteMapping
+    @PostMapping
     @Operation(
-            summary = "Удаление картинки c облака "
+            summary = "Сохранение картинки статьи (в том числе и главной ) в облако "
     )
     @SecurityRequirement(name = "JWT")
-    public ResponseEntity<Void> deleteImage(@RequestParam("image-path") String imagePath) {
-        return imageService.deleteImage(imagePath);
+    public CompletableFuture<ResponseEntity<String>> loadImage(@RequestPart("photo") MultipartFile photo) {
+        return imageService.loadImage(photo)
+                .thenApply(imagePath -> new ResponseEntity<>(imagePath, HttpStatus.CREATED));
     }
 
-
     @PutMapping("/{article-id}")
     @Operation(
             summary = "Изменение главного фото для статьи с таким id"
     )
     @SecurityRequirement(name = "JWT")
-    public ResponseEntity<String> updateCoverImage(@PathVariable("article-id") Long articleId,
+    public CompletableFuture<ResponseEntity<String>> updateCoverImage(@PathVariable("article-id") Long articleId,
                                                  @RequestPart("photo") MultipartFile image,
                                                  @AuthenticationPrincipal User user) {
         return imageService.updateCoverImage(articleId, image, user);
@@ -84,7 +75,7 @@ public class ImageController {
             summary = "Сменить аватарку в профиле пользователя"
     )
     @SecurityRequirement(name = "JWT")
-    public ResponseEntity<Void> changeUserAvatar(@AuthenticationPrincipal User user,
+    public CompletableFuture<ResponseEntity<Void>> changeUserAvatar(@AuthenticationPrincipal User user,
                                                  @RequestPart("photo") MultipartFile photo) {
         return imageService.changeUserAvatar(user, photo);
     }
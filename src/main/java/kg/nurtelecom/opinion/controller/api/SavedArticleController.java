@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
 import kg.nurtelecom.opinion.payload.saved_article.SavedArticleResponse;
 import kg.nurtelecom.opinion.service.SavedArticlesService;
@@ -15,6 +16,8 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/saved-articles")
 @Tag(
@@ -34,8 +37,9 @@ public class SavedArticleController {
     )
     @SecurityRequirement(name = "JWT")
     public ResponseEntity<Page<ArticlesGetDTO>> getSavedArticles(@PageableDefault(page = 0, size = 10) Pageable pageable,
+                                                                 @RequestParam(value = "fields", required = false) List<String> fields,
                                                                  @AuthenticationPrincipal User user) {
-        return savedArticlesService.getSavedArticles(user, pageable);
+        return savedArticlesService.getSavedArticles(user, pageable, FieldSet.of(fields));
     }
 
     @PostMapping("/{article-id}")
@@ -4,15 +4,23 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.TagMatch;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.tag.TagArticlesResponse;
 import kg.nurtelecom.opinion.payload.tag.TagDTO;
 import kg.nurtelecom.opinion.payload.tag.TagRequest;
 import kg.nurtelecom.opinion.service.TagService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/tags")
 @Tag(
@@ -32,9 +40,10 @@ public class TagController {
             summary = "Получение всех тегов"
     )
     @SecurityRequirement(name = "JWT")
-    public ResponseEntity<Page<TagDTO>> getAllTags(@PageableDefault(page = 0, size = 10, sort = "name") Pageable pageable){
+    public ResponseEntity<Page<TagDTO>> getAllTags(@PageableDefault(page = 0, size = 10, sort = "name") Pageable pageable,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
 
-        return tagService.getAll(pageable);
+        return tagService.getAll(pageable, ifNoneMatch);
     }
 
     @PostMapping
@@ -55,5 +64,32 @@ public class TagController {
         return tagService.findTagsByName(tagName, pageable);
     }
 
+    @GetMapping("/{id}/articles")
+    @Operation(
+            summary = "Получение статей с тегом",
+            description = "Статьи отсортированы от новых к старым. Следующая страница запрашивается с курсором из ответа"
+    )
+    public ResponseEntity<TagArticlesResponse> getTagArticles(@PathVariable("id") Long id,
+                                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                                              @RequestParam(value = "size", defaultValue = "10") int size,
+                                                              @RequestParam(value = "fields", required = false) List<String> fields,
+                                                              @AuthenticationPrincipal User user) {
+        return tagService.getTagArticles(id, cursor, size, user, FieldSet.of(fields));
+    }
+
+    @GetMapping("/articles")
+    @Operation(
+            summary = "Получение статей по нескольким тегам",
+            description = "ALL - статьи со всеми указанными тегами, ANY - хотя бы с одним из них"
+    )
+    public ResponseEntity<TagArticlesResponse> getTagsArticles(@RequestParam("tag-ids") List<Long> tagIds,
+                                                               @RequestParam(value = "match", defaultValue = "ANY") TagMatch match,
+                                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                                               @RequestParam(value = "size", defaultValue = "10") int size,
+                                                               @RequestParam(value = "fields", required = false) List<String> fields,
+                                                               @AuthenticationPrincipal User user) {
+        return tagService.getTagsArticles(tagIds, match, cursor, size, user, FieldSet.of(fields));
+    }
+
 
 }
@@ -8,6 +8,7 @@ import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.mapper.UserMapper;
 import kg.nurtelecom.opinion.payload.user.*;
 import kg.nurtelecom.opinion.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -43,16 +44,18 @@ public class UserController {
     @Operation(
             summary = "Получение профиля другого пользователя по его id "
     )
-    public ResponseEntity<GetUserResponse> getUserProfile(@PathVariable("id") Long userId) {
-        return userService.getUserProfile(userId);
+    public ResponseEntity<GetUserResponse> getUserProfile(@PathVariable("id") Long userId,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return userService.getUserProfile(userId, ifNoneMatch);
     }
 
     @GetMapping("/nickname/{nickname}/profile")
     @Operation(
             summary = "Получение профиля другого пользователя по его nickname "
     )
-    public ResponseEntity<GetUserResponse> getUserProfileByNick(@PathVariable("nickname") String userNick) {
-        return userService.getUserProfileByNick(userNick);
+    public ResponseEntity<GetUserResponse> getUserProfileByNick(@PathVariable("nickname") String userNick,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return userService.getUserProfileByNick(userNick, ifNoneMatch);
     }
 
     @DeleteMapping("/delete-account")
@@ -1,12 +1,16 @@
 package kg.nurtelecom.opinion.entity;
 
 import kg.nurtelecom.opinion.enums.AccessType;
+import kg.nurtelecom.opinion.event.AnnouncementEntityListener;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "announcements")
+@Table(name = "announcements", indexes = {
+        @Index(name = "idx_announcements_access_type_date", columnList = "accessType, dateTime")
+})
+@EntityListeners(AnnouncementEntityListener.class)
 public class Announcement extends Post {
     @Enumerated(EnumType.STRING)
     private AccessType accessType;
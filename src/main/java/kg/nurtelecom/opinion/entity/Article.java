@@ -2,8 +2,11 @@ package kg.nurtelecom.opinion.entity;
 
 import jakarta.persistence.*;
 import kg.nurtelecom.opinion.enums.ArticleStatus;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.Type;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -33,14 +36,45 @@ public class Article extends Post implements Serializable {
     private ArticleStatus previousStatus;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "article-tags")
     @JoinTable(name = "tags_articles",
             joinColumns = @JoinColumn(name = "article_id"),
             inverseJoinColumns = @JoinColumn(name = "tag_id"))
     private List<Tag> tags;
 
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "card", column = @Column(name = "cover_card")),
+            @AttributeOverride(name = "thumbnail", column = @Column(name = "cover_thumbnail")),
+            @AttributeOverride(name = "fullWebp", column = @Column(name = "cover_full_webp")),
+            @AttributeOverride(name = "cardWebp", column = @Column(name = "cover_card_webp")),
+            @AttributeOverride(name = "thumbnailWebp", column = @Column(name = "cover_thumbnail_webp"))
+    })
+    private ImageRenditions coverRenditions;
+
+    // changed by the reaction statements only, so a merged copy of the article can't overwrite them
+    @Column(updatable = false)
+    private Long likesCount;
+    @Column(updatable = false)
+    private Long dislikesCount;
+
+    // also moved along when the article's favourites or comments change, the entity tag is derived from it
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
     public Article() {
     }
 
+    @PrePersist
+    void initReactionCounts() {
+        if (likesCount == null) {
+            likesCount = 0L;
+        }
+        if (dislikesCount == null) {
+            dislikesCount = 0L;
+        }
+    }
+
     public String getTitle() {
         return title;
     }
@@ -105,6 +139,23 @@ public class Article extends Post implements Serializable {
         this.coverImage = coverImage;
     }
 
+    public ImageRenditions getCoverRenditions() {
+        return coverRenditions;
+    }
+
+    public void setCoverRenditions(ImageRenditions coverRenditions) {
+        this.coverRenditions = coverRenditions;
+    }
+
+    public String getCoverCardImage() {
+        return coverCardImage(coverImage, coverRenditions == null ? null : coverRenditions.getCard());
+    }
+
+    // feed cards don't need the full size cover, until the card rendition is made they get the original
+    public static String coverCardImage(String coverImage, String card) {
+        return card != null ? card : coverImage;
+    }
+
     public List<Tag> getTags() {
         return tags;
     }
@@ -113,6 +164,30 @@ public class Article extends Post implements Serializable {
         this.tags = tags;
     }
 
+    public Long getLikesCount() {
+        return likesCount;
+    }
+
+    public Long getDislikesCount() {
+        return dislikesCount;
+    }
+
+    // null until the counters of an older article are filled in
+    public Long getRating() {
+        if (likesCount == null || dislikesCount == null) {
+            return null;
+        }
+        return likesCount - dislikesCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public ArticleStatus getPreviousStatus() {
         return previousStatus;
     }
@@ -7,7 +7,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "article_comments")
-public class ArticleComment extends BaseEntity {
+public class ArticleComment extends PooledBaseEntity {
     private String text;
     private LocalDateTime date;
     private boolean altered;
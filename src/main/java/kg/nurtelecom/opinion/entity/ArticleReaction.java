@@ -4,8 +4,9 @@ import jakarta.persistence.*;
 import kg.nurtelecom.opinion.enums.ReactionType;
 
 @Entity
-@Table(name = "article_reaction")
-public class ArticleReaction extends BaseEntity {
+@Table(name = "article_reaction",
+        uniqueConstraints = @UniqueConstraint(name = "uk_article_reaction_article_user", columnNames = {"article_id", "user_id"}))
+public class ArticleReaction extends PooledBaseEntity {
     @Enumerated(EnumType.STRING)
     private ReactionType reactionType;
 
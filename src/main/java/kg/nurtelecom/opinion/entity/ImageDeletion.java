@@ -0,0 +1,71 @@
+package kg.nurtelecom.opinion.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "image_deletion_queue", indexes = {
+        @Index(name = "idx_image_deletion_queue_next_attempt", columnList = "nextAttemptAt"),
+        @Index(name = "idx_image_deletion_queue_key", columnList = "imageKey")
+})
+public class ImageDeletion extends BaseEntity {
+    @Column(nullable = false)
+    private String imageKey;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    public ImageDeletion() {
+    }
+
+    public ImageDeletion(String imageKey) {
+        this.imageKey = imageKey;
+        this.attempts = 0;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+
+    public String getImageKey() {
+        return imageKey;
+    }
+
+    public void setImageKey(String imageKey) {
+        this.imageKey = imageKey;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
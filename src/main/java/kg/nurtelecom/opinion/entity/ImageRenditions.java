@@ -0,0 +1,65 @@
+package kg.nurtelecom.opinion.entity;
+
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+
+@Embeddable
+public class ImageRenditions implements Serializable {
+    private String card;
+    private String thumbnail;
+    private String fullWebp;
+    private String cardWebp;
+    private String thumbnailWebp;
+
+    public ImageRenditions() {
+    }
+
+    public ImageRenditions(String card, String thumbnail, String fullWebp, String cardWebp, String thumbnailWebp) {
+        this.card = card;
+        this.thumbnail = thumbnail;
+        this.fullWebp = fullWebp;
+        this.cardWebp = cardWebp;
+        this.thumbnailWebp = thumbnailWebp;
+    }
+
+    public String getCard() {
+        return card;
+    }
+
+    public void setCard(String card) {
+        this.card = card;
+    }
+
+    public String getThumbnail() {
+        return thumbnail;
+    }
+
+    public void setThumbnail(String thumbnail) {
+        this.thumbnail = thumbnail;
+    }
+
+    public String getFullWebp() {
+        return fullWebp;
+    }
+
+    public void setFullWebp(String fullWebp) {
+        this.fullWebp = fullWebp;
+    }
+
+    public String getCardWebp() {
+        return cardWebp;
+    }
+
+    public void setCardWebp(String cardWebp) {
+        this.cardWebp = cardWebp;
+    }
+
+    public String getThumbnailWebp() {
+        return thumbnailWebp;
+    }
+
+    public void setThumbnailWebp(String thumbnailWebp) {
+        this.thumbnailWebp = thumbnailWebp;
+    }
+}
@@ -0,0 +1,71 @@
+package kg.nurtelecom.opinion.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_lock")
+public class JobLock implements Persistable<String> {
+    @Id
+    @Column(length = 100)
+    private String name;
+    private LocalDateTime lockedUntil;
+    private String lockedBy;
+    // a new lock is always inserted, never merged over a row another instance has just created
+    @Transient
+    private boolean created;
+
+    public JobLock() {
+    }
+
+    public JobLock(String name) {
+        this.name = name;
+        this.created = true;
+    }
+
+    @Override
+    public String getId() {
+        return name;
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    void markLoaded() {
+        created = false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(LocalDateTime lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+
+    public void setLockedBy(String lockedBy) {
+        this.lockedBy = lockedBy;
+    }
+}
@@ -0,0 +1,127 @@
+package kg.nurtelecom.opinion.entity;
+
+import jakarta.persistence.*;
+import kg.nurtelecom.opinion.enums.MailStatus;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "mail_queue", indexes = {
+        @Index(name = "idx_mail_queue_status_next_attempt", columnList = "status, nextAttemptAt")
+})
+public class MailMessage extends BaseEntity {
+    private String sender;
+    private String recipient;
+    private String subject;
+    @Column(columnDefinition = "TEXT")
+    private String content;
+    private boolean html;
+    @Enumerated(EnumType.STRING)
+    private MailStatus status;
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    public MailMessage() {
+    }
+
+    public MailMessage(String sender, String recipient, String subject, String content, boolean html) {
+        this.sender = sender;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.content = content;
+        this.html = html;
+        this.status = MailStatus.PENDING;
+        this.attempts = 0;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+
+    public String getSender() {
+        return sender;
+    }
+
+    public void setSender(String sender) {
+        this.sender = sender;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    public void setHtml(boolean html) {
+        this.html = html;
+    }
+
+    public MailStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(MailStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+}
@@ -0,0 +1,43 @@
+package kg.nurtelecom.opinion.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "mail_quota",
+        uniqueConstraints = @UniqueConstraint(name = "uk_mail_quota_recipient_window", columnNames = {"recipient", "window_start"}))
+public class MailQuota extends BaseEntity {
+    @Column(nullable = false)
+    private String recipient;
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+    private int mailCount;
+
+    public MailQuota() {
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDateTime windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public int getMailCount() {
+        return mailCount;
+    }
+
+    public void setMailCount(int mailCount) {
+        this.mailCount = mailCount;
+    }
+}
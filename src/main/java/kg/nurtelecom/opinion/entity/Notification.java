@@ -7,7 +7,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @MappedSuperclass
-public abstract class Notification extends BaseEntity {
+public abstract class Notification extends PooledBaseEntity {
     String title;
     @Column(columnDefinition = "TEXT")
     String content;
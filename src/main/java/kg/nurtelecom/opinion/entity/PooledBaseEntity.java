@@ -0,0 +1,31 @@
+package kg.nurtelecom.opinion.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+
+/**
+ * Ids are handed out in blocks from the id_generator table, one row per entity table, so that Hibernate can batch
+ * inserts, which an IDENTITY column rules out. Only for tables that nothing else inserts into, since an
+ * AUTO_INCREMENT insert from elsewhere could take an id from a block that is still being used. Native inserts into
+ * these tables take their ids from PooledIdService.
+ */
+@MappedSuperclass
+public abstract class PooledBaseEntity implements Serializable {
+    public static final String GENERATOR_TABLE = "id_generator";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pooled_ids")
+    @TableGenerator(name = "pooled_ids", table = GENERATOR_TABLE, pkColumnName = "table_name", valueColumnName = "next_val",
+            allocationSize = 50)
+    Long id;
+
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+}
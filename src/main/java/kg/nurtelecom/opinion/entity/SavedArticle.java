@@ -7,7 +7,7 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "saved_articles")
-public class SavedArticle extends BaseEntity {
+public class SavedArticle extends PooledBaseEntity {
     @ManyToOne
     @JoinColumn(name = "article_id", referencedColumnName = "id")
     private Article article;
@@ -0,0 +1,71 @@
+package kg.nurtelecom.opinion.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stored_images",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stored_images_url", columnNames = "url"))
+public class StoredImage extends BaseEntity {
+    @Column(nullable = false, unique = true, length = 64)
+    private String hash;
+    @Column(nullable = false)
+    private String url;
+    @Embedded
+    private ImageRenditions renditions;
+    private int referenceCount;
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    public StoredImage() {
+    }
+
+    public StoredImage(String hash, String url, ImageRenditions renditions) {
+        this.hash = hash;
+        this.url = url;
+        this.renditions = renditions;
+        this.referenceCount = 1;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public ImageRenditions getRenditions() {
+        return renditions;
+    }
+
+    public void setRenditions(ImageRenditions renditions) {
+        this.renditions = renditions;
+    }
+
+    public int getReferenceCount() {
+        return referenceCount;
+    }
+
+    public void setReferenceCount(int referenceCount) {
+        this.referenceCount = referenceCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -2,12 +2,15 @@ package kg.nurtelecom.opinion.entity;
 
 import jakarta.persistence.*;
 import kg.nurtelecom.opinion.enums.TagStatus;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.Set;
 
 @Entity
 @Table(name = "tags")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tags")
 public class Tag extends BaseEntity implements Serializable {
     @Column(name = "tag_name")
     private String name;
@@ -3,6 +3,8 @@ package kg.nurtelecom.opinion.entity;
 import jakarta.persistence.*;
 import kg.nurtelecom.opinion.enums.Role;
 import kg.nurtelecom.opinion.enums.Status;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,6 +17,7 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User extends BaseEntity implements UserDetails , Serializable {
 
     private String firstName;
@@ -25,6 +28,15 @@ public class User extends BaseEntity implements UserDetails , Serializable {
     private String email;
     private String password;
     private String avatar;
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "card", column = @Column(name = "avatar_card")),
+            @AttributeOverride(name = "thumbnail", column = @Column(name = "avatar_thumbnail")),
+            @AttributeOverride(name = "fullWebp", column = @Column(name = "avatar_full_webp")),
+            @AttributeOverride(name = "cardWebp", column = @Column(name = "avatar_card_webp")),
+            @AttributeOverride(name = "thumbnailWebp", column = @Column(name = "avatar_thumbnail_webp"))
+    })
+    private ImageRenditions avatarRenditions;
     @Temporal(TemporalType.DATE)
     private Date birthDate;
     @Enumerated(EnumType.STRING)
@@ -95,6 +107,23 @@ public class User extends BaseEntity implements UserDetails , Serializable {
         this.avatar = avatar;
     }
 
+    public ImageRenditions getAvatarRenditions() {
+        return avatarRenditions;
+    }
+
+    public void setAvatarRenditions(ImageRenditions avatarRenditions) {
+        this.avatarRenditions = avatarRenditions;
+    }
+
+    public String getAvatarThumbnail() {
+        return avatarThumbnail(avatar, avatarRenditions == null ? null : avatarRenditions.getThumbnail());
+    }
+
+    // until the thumbnail is made the original avatar is shown
+    public static String avatarThumbnail(String avatar, String thumbnail) {
+        return thumbnail != null ? thumbnail : avatar;
+    }
+
     public Date getBirthDate() {
         return birthDate;
     }
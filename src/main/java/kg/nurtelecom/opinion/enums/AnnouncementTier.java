@@ -0,0 +1,30 @@
+package kg.nurtelecom.opinion.enums;
+
+import kg.nurtelecom.opinion.entity.User;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum AnnouncementTier {
+    PUBLIC(EnumSet.of(AccessType.ALL)),
+    EMPLOYEE(EnumSet.allOf(AccessType.class));
+
+    private final Set<AccessType> accessTypes;
+
+    AnnouncementTier(Set<AccessType> accessTypes) {
+        this.accessTypes = accessTypes;
+    }
+
+    public Set<AccessType> getAccessTypes() {
+        return accessTypes;
+    }
+
+    public boolean allows(AccessType accessType) {
+        return accessTypes.contains(accessType);
+    }
+
+    public static AnnouncementTier of(User user) {
+        Role userRole = (user != null) ? user.getRole() : Role.ROLE_USER;
+        return userRole.equals(Role.ROLE_USER) ? PUBLIC : EMPLOYEE;
+    }
+}
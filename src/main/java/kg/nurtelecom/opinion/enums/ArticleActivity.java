@@ -0,0 +1,16 @@
+package kg.nurtelecom.opinion.enums;
+
+public enum ArticleActivity {
+    // a like taken back takes its weight back, so toggling a like can't push an article up
+    VIEW(1), LIKE(4), COMMENT(5), SAVE(6), UNLIKE(-4);
+
+    private final double weight;
+
+    ArticleActivity(double weight) {
+        this.weight = weight;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+}
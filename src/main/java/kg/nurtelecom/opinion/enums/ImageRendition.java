@@ -0,0 +1,16 @@
+package kg.nurtelecom.opinion.enums;
+
+// ordered from the largest to the smallest, every size is scaled down from the previous one
+public enum ImageRendition {
+    FULL(1920), CARD(480), THUMBNAIL(160);
+
+    private final int maxSide;
+
+    ImageRendition(int maxSide) {
+        this.maxSide = maxSide;
+    }
+
+    public int getMaxSide() {
+        return maxSide;
+    }
+}
@@ -0,0 +1,5 @@
+package kg.nurtelecom.opinion.enums;
+
+public enum MailStatus {
+    PENDING, SENDING, SENT, DEAD
+}
@@ -0,0 +1,7 @@
+package kg.nurtelecom.opinion.enums;
+
+public enum MailType {
+    // password resets and confirmations, never held back by what others send to the same address
+    TRANSACTIONAL,
+    SHARE
+}
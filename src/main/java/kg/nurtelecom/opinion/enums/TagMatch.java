@@ -0,0 +1,5 @@
+package kg.nurtelecom.opinion.enums;
+
+public enum TagMatch {
+    ALL, ANY
+}
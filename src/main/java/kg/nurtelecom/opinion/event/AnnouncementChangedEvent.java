@@ -0,0 +1,7 @@
+package kg.nurtelecom.opinion.event;
+
+/**
+ * @param statsOnly only the favourites or comments of the announcement changed, pages without it stay as they are
+ */
+public record AnnouncementChangedEvent(Long announcementId, boolean statsOnly) {
+}
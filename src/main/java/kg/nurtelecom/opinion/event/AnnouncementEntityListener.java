@@ -0,0 +1,24 @@
+package kg.nurtelecom.opinion.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import kg.nurtelecom.opinion.entity.Announcement;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AnnouncementEntityListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AnnouncementEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Announcement announcement) {
+        eventPublisher.publishEvent(new AnnouncementChangedEvent(announcement.getId(), false));
+    }
+}
@@ -0,0 +1,6 @@
+package kg.nurtelecom.opinion.event;
+
+import java.util.Set;
+
+public record ApprovedArticlesEvent(Set<Long> articleIds) {
+}
@@ -0,0 +1,6 @@
+package kg.nurtelecom.opinion.event;
+
+import kg.nurtelecom.opinion.enums.ArticleActivity;
+
+public record ArticleActivityEvent(Long articleId, ArticleActivity activity) {
+}
@@ -0,0 +1,4 @@
+package kg.nurtelecom.opinion.event;
+
+public record ArticleChangedEvent(Long articleId) {
+}
@@ -0,0 +1,7 @@
+package kg.nurtelecom.opinion.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
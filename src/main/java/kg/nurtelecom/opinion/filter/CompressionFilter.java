@@ -0,0 +1,376 @@
+package kg.nurtelecom.opinion.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips responses for clients that accept it. A response is held back until it reaches the minimum size set for
+ * its content type, smaller ones go out as they are, since compressing them costs more than it saves. From there on
+ * it is compressed as it is written, a large article is never held in memory whole. Content types without a minimum
+ * size and responses that already have a Content-Encoding are passed through untouched.
+ */
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+    public static final String GZIP = "gzip";
+
+    private final Map<String, Integer> minSizes = new HashMap<>();
+    private final int level;
+
+    public CompressionFilter(@Value("${app.compression.min-sizes}") List<String> minSizes,
+                             @Value("${app.compression.level}") int level) {
+        for (String entry : minSizes) {
+            String[] parts = entry.split("=");
+            this.minSizes.put(parts[0].trim().toLowerCase(), Integer.parseInt(parts[1].trim()));
+        }
+        this.level = level;
+    }
+
+    public static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(GZIP) || name.equals("*")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!acceptsGzip(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // an async dispatch writes to the wrapper the request was started with
+        GzipResponse gzipResponse = WebUtils.getNativeResponse(response, GzipResponse.class);
+        if (gzipResponse == null) {
+            gzipResponse = new GzipResponse(response);
+        }
+        // on an exception whatever is still held back is dropped, as if the response had been reset
+        filterChain.doFilter(request, gzipResponse);
+        if (!request.isAsyncStarted()) {
+            gzipResponse.finish();
+        }
+    }
+
+    // the body of an async request is written in the async dispatch, that is where it has to be finished
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private int minSizeOf(String contentType) {
+        if (contentType == null) {
+            return -1;
+        }
+        try {
+            MimeType mimeType = MimeTypeUtils.parseMimeType(contentType);
+            return minSizes.getOrDefault(mimeType.getType() + "/" + mimeType.getSubtype(), -1);
+        } catch (InvalidMimeTypeException e) {
+            return -1;
+        }
+    }
+
+    private class GzipResponse extends HttpServletResponseWrapper {
+        private final HttpServletResponse response;
+        private GzipStream stream;
+        private PrintWriter writer;
+        private long contentLength = -1;
+
+        GzipResponse(HttpServletResponse response) {
+            super(response);
+            this.response = response;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        // the length is only known to be right if the body goes out uncompressed
+        @Override
+        public void setContentLength(int len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            contentLength = len;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                contentLength = Long.parseLong(value);
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                contentLength = Long.parseLong(value);
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            contentLength = -1;
+            if (stream != null) {
+                stream.discard(true);
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (stream != null) {
+                stream.discard(false);
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            } else if (contentLength >= 0) {
+                response.setContentLengthLong(contentLength);
+            }
+        }
+
+        private GzipStream stream() {
+            if (stream == null) {
+                stream = new GzipStream(this);
+            }
+            return stream;
+        }
+    }
+
+    private class GzipStream extends ServletOutputStream {
+        private final GzipResponse response;
+        private final ByteArrayOutputStream held = new ByteArrayOutputStream();
+        private OutputStream target;
+        private LeveledGzipStream gzip;
+        private int minSize = -2;
+        private boolean finished;
+
+        GzipStream(GzipResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(@NonNull byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                if (minSize == -2) {
+                    minSize = compressible() ? minSizeOf(response.getContentType()) : -1;
+                }
+                if (minSize < 0) {
+                    startPlain();
+                } else {
+                    held.write(b, off, len);
+                    if (held.size() >= minSize) {
+                        startCompressed();
+                    }
+                    return;
+                }
+            }
+            target.write(b, off, len);
+        }
+
+        // a flush settles what is held back so far, it can't wait for more
+        @Override
+        public void flush() throws IOException {
+            if (target == null) {
+                if (held.size() == 0) {
+                    return;
+                }
+                settle();
+            }
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        // held back or deflated bytes are in memory, nothing to wait for
+        @Override
+        public boolean isReady() {
+            return !(target instanceof ServletOutputStream plain) || plain.isReady();
+        }
+
+        /**
+         * Non-blocking writes go out uncompressed. The deflater writes to the container in pieces it can't hold back
+         * while the container isn't ready, and an AsyncContext.complete() doesn't pass through the filter to finish
+         * the gzip stream.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (gzip != null) {
+                throw new IllegalStateException("The response is already being compressed");
+            }
+            try {
+                if (target == null) {
+                    startPlain();
+                }
+                response.response.getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (target == null) {
+                if (held.size() == 0) {
+                    if (response.contentLength >= 0) {
+                        response.response.setContentLengthLong(response.contentLength);
+                    }
+                    return;
+                }
+                settle();
+            }
+            if (gzip != null) {
+                gzip.finish();
+            }
+            target.flush();
+            if (gzip != null) {
+                gzip.release();
+            }
+        }
+
+        // whatever was written so far is gone from the container's buffer, a started gzip stream has to start over
+        void discard(boolean headersCleared) {
+            held.reset();
+            if (gzip != null) {
+                gzip.release();
+                gzip = null;
+                target = null;
+                // Content-Encoding stays set unless the headers went too, so the rest has to be compressed
+                minSize = headersCleared ? -2 : 0;
+            } else if (headersCleared) {
+                target = null;
+                minSize = -2;
+            }
+        }
+
+        private boolean compressible() {
+            int status = response.getStatus();
+            return status != HttpServletResponse.SC_NO_CONTENT
+                    && status != HttpServletResponse.SC_NOT_MODIFIED
+                    && status != HttpServletResponse.SC_PARTIAL_CONTENT
+                    && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+        }
+
+        private void settle() throws IOException {
+            if (minSize >= 0 && held.size() >= minSize) {
+                startCompressed();
+            } else {
+                startPlain();
+            }
+        }
+
+        private void startPlain() throws IOException {
+            if (response.contentLength >= 0) {
+                response.response.setContentLengthLong(response.contentLength);
+            }
+            target = response.response.getOutputStream();
+            held.writeTo(target);
+            held.reset();
+        }
+
+        private void startCompressed() throws IOException {
+            if (response.response.getHeader(HttpHeaders.CONTENT_ENCODING) == null) {
+                response.response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                response.response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            gzip = new LeveledGzipStream(response.response.getOutputStream(), level);
+            target = gzip;
+            held.writeTo(target);
+            held.reset();
+        }
+    }
+
+    private static class LeveledGzipStream extends GZIPOutputStream {
+        LeveledGzipStream(OutputStream out, int level) throws IOException {
+            super(out, 8192, true);
+            def.setLevel(level);
+        }
+
+        void release() {
+            def.end();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package kg.nurtelecom.opinion.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import kg.nurtelecom.opinion.config.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Requests that change data read from the primary, and so do the requests of the same client for a short while
+ * afterwards, so that nobody misses their own change because a replica has not caught up yet.
+ * The end of the window travels with the client in a cookie, so every instance behind the balancer honours it.
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String PRIMARY_UNTIL_COOKIE = "primary-until";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration sticky;
+
+    public ReadYourWritesFilter(@Value("${app.datasource.sticky-seconds}") long stickySeconds) {
+        this.sticky = Duration.ofSeconds(stickySeconds);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write) {
+            // set before the body is written, the response may be committed by the time the chain returns
+            ResponseCookie cookie = ResponseCookie.from(PRIMARY_UNTIL_COOKIE,
+                            String.valueOf(System.currentTimeMillis() + sticky.toMillis()))
+                    .path("/")
+                    .maxAge(sticky)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        long now = System.currentTimeMillis();
+        long until = primaryUntil(request);
+        // a value further out than the window was not set here
+        if (write || (until > now && until <= now + sticky.toMillis())) {
+            ReplicaRoutingDataSource.usePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.clear();
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, PRIMARY_UNTIL_COOKIE);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
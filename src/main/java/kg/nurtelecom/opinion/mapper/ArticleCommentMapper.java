@@ -5,10 +5,16 @@ import kg.nurtelecom.opinion.payload.article_comment.ArticleCommentRequest;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleCommentResponse;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleNestedCommentResponse;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 @Mapper(componentModel = "spring")
 public interface ArticleCommentMapper {
     ArticleComment toEntity(ArticleCommentRequest articleCommentRequest);
     ArticleCommentResponse toModel(ArticleComment articleComment);
     ArticleNestedCommentResponse toNestedModel(ArticleComment articleComment);
+
+    @Named("withoutReplies")
+    @Mapping(target = "replies", ignore = true)
+    ArticleNestedCommentResponse toModelWithoutReplies(ArticleComment articleComment);
 }
@@ -3,6 +3,7 @@ package kg.nurtelecom.opinion.mapper;
 import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.payload.user.*;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface UserMapper {
@@ -13,6 +14,7 @@ public interface UserMapper {
 
     GetUserResponse toGetUserResponse(User user);
 
+    @Mapping(target = "avatar", source = "avatarThumbnail")
     UserResponse toUserResponse(User user);
 
     User toUser(UserUpdateRequest user);
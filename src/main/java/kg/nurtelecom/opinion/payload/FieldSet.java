@@ -0,0 +1,36 @@
+package kg.nurtelecom.opinion.payload;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fields of a response the client asked for with the fields parameter, by their names in JSON. Without the
+ * parameter every field is included, the id is included always.
+ */
+public record FieldSet(Set<String> names) {
+    public static final String FILTER = "fields";
+    public static final FieldSet ALL = new FieldSet(null);
+
+    public static FieldSet of(List<String> fields) {
+        if (fields == null || fields.stream().allMatch(String::isBlank)) {
+            return ALL;
+        }
+        Set<String> names = new HashSet<>();
+        names.add("id");
+        for (String field : fields) {
+            if (!field.isBlank()) {
+                names.add(field.trim());
+            }
+        }
+        return new FieldSet(Set.copyOf(names));
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+}
@@ -0,0 +1,21 @@
+package kg.nurtelecom.opinion.payload;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+/**
+ * A cached page that also keeps its JSON gzipped, so it can be written out as it is to clients that accept gzip.
+ * To everything else it is an ordinary page.
+ */
+public class PrecompressedPage<T> extends PageImpl<T> {
+    private final byte[] gzippedJson;
+
+    public PrecompressedPage(Page<T> page, byte[] gzippedJson) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+        this.gzippedJson = gzippedJson;
+    }
+
+    public byte[] gzippedJson() {
+        return gzippedJson;
+    }
+}
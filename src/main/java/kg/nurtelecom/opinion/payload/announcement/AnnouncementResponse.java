@@ -1,11 +1,15 @@
 package kg.nurtelecom.opinion.payload.announcement;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import kg.nurtelecom.opinion.enums.AccessType;
+import kg.nurtelecom.opinion.payload.FieldSet;
 
 import java.time.LocalDateTime;
 
+@JsonFilter(FieldSet.FILTER)
 public class AnnouncementResponse {
+    public static final String IN_FAVOURITES = "in_favourites";
 
     @JsonProperty("id")
     private Long id;
@@ -24,7 +28,7 @@ public class AnnouncementResponse {
     private Long totalFavourites;
     @JsonProperty("total_comments")
     private Long totalComments;
-    @JsonProperty("in_favourites")
+    @JsonProperty(IN_FAVOURITES)
     private boolean inFavourites;
     @JsonProperty("access_type")
     private AccessType accessType;
@@ -53,5 +57,25 @@ public class AnnouncementResponse {
         this.accessType = accessType;
     }
 
+    public Long getId() {
+        return id;
+    }
+
+    public AccessType getAccessType() {
+        return accessType;
+    }
+
+    public Long getTotalViews() {
+        return totalViews;
+    }
+
+    public AnnouncementResponse withInFavourites(boolean inFavourites) {
+        return new AnnouncementResponse(id, title, content, coverImage, dateTime, totalViews,
+                totalFavourites, totalComments, inFavourites, accessType);
+    }
 
+    public AnnouncementResponse withTotalViews(Long totalViews) {
+        return new AnnouncementResponse(id, title, content, coverImage, dateTime, totalViews,
+                totalFavourites, totalComments, inFavourites, accessType);
+    }
 }
@@ -0,0 +1,5 @@
+package kg.nurtelecom.opinion.payload.announcement;
+
+public record AnnouncementStats(long totalFavourites, long totalComments, boolean inFavourites) {
+    public static final AnnouncementStats EMPTY = new AnnouncementStats(0, 0, false);
+}
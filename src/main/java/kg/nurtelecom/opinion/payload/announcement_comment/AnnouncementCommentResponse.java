@@ -1,10 +1,13 @@
 package kg.nurtelecom.opinion.payload.announcement_comment;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.user.UserResponse;
 
 import java.time.LocalDateTime;
 
+@JsonFilter(FieldSet.FILTER)
 public record AnnouncementCommentResponse(
         Long id,
         String text,
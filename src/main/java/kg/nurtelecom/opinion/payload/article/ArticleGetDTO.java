@@ -1,5 +1,6 @@
 package kg.nurtelecom.opinion.payload.article;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import kg.nurtelecom.opinion.payload.tag.TagDTO;
 import kg.nurtelecom.opinion.payload.user.UserResponse;
 
@@ -8,7 +9,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public class ArticleGetDTO extends ArticlesGetDTO  {
+    public static final String CONTENT = "content";
+    public static final String TAGS = "tags";
+
+    @JsonProperty(CONTENT)
     private String content;
+    @JsonProperty(TAGS)
     private List<TagDTO> tags;
 
 
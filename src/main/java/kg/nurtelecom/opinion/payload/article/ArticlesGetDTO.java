@@ -1,5 +1,6 @@
 package kg.nurtelecom.opinion.payload.article;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
@@ -7,12 +8,21 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.user.UserResponse;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
+@JsonFilter(FieldSet.FILTER)
 public class ArticlesGetDTO {
+    // names of the fields that cost a query or a mapping, services skip them when they weren't asked for
+    public static final String AUTHOR = "author";
+    public static final String RATING = "rating";
+    public static final String TOTAL_FAVOURITES = "total_favourites";
+    public static final String TOTAL_COMMENTS = "total_comments";
+    public static final String IN_FAVOURITES = "in_favourites";
+
     private Long id;
     private String title;
     @JsonProperty("short_description")
@@ -24,20 +34,21 @@ public class ArticlesGetDTO {
     @JsonProperty("date_time")
     private LocalDateTime dateTime;
 
+    @JsonProperty(AUTHOR)
     private UserResponse author;
 
-
+    @JsonProperty(RATING)
     private Long rating;
 
-    @JsonProperty("total_favourites")
+    @JsonProperty(TOTAL_FAVOURITES)
     private Long totalFavourites;
 
-    @JsonProperty("total_comments")
+    @JsonProperty(TOTAL_COMMENTS)
     private Long totalComments;
 
     @JsonProperty("total_views")
     private Long viewsCount;
-    @JsonProperty("in_favourites")
+    @JsonProperty(IN_FAVOURITES)
     private Boolean inFavourites;
 
     public ArticlesGetDTO(
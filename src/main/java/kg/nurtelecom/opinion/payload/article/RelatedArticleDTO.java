@@ -0,0 +1,21 @@
+package kg.nurtelecom.opinion.payload.article;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+public record RelatedArticleDTO(
+        Long id,
+        String title,
+
+        @JsonProperty("short_description")
+        String shortDescription,
+
+        @JsonProperty("cover_image")
+        String coverImage,
+
+        @JsonProperty("date_time")
+        LocalDateTime dateTime
+) implements Serializable {
+}
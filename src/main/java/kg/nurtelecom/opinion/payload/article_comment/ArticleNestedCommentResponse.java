@@ -1,11 +1,15 @@
 package kg.nurtelecom.opinion.payload.article_comment;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.user.UserResponse;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+@JsonFilter(FieldSet.FILTER)
 public record ArticleNestedCommentResponse(
         Long id,
         String text,
@@ -14,6 +18,8 @@ public record ArticleNestedCommentResponse(
         Boolean altered,
         UserResponse user,
         Integer depth,
+        @JsonProperty(ArticleNestedCommentResponse.REPLIES)
         List<ArticleNestedCommentResponse> replies
 ) {
+    public static final String REPLIES = "replies";
 }
@@ -0,0 +1,17 @@
+package kg.nurtelecom.opinion.payload.article_reaction;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import kg.nurtelecom.opinion.enums.ReactionType;
+
+public record ArticleReactionStateResponse(
+        @JsonProperty("article_id")
+        Long articleId,
+
+        @JsonProperty("reaction_type")
+        ReactionType reactionType,
+
+        Long likes,
+        Long dislikes,
+        Long rating
+) {
+}
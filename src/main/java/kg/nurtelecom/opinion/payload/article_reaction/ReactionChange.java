@@ -0,0 +1,6 @@
+package kg.nurtelecom.opinion.payload.article_reaction;
+
+import kg.nurtelecom.opinion.enums.ReactionType;
+
+public record ReactionChange(ReactionType previous, ReactionType current) {
+}
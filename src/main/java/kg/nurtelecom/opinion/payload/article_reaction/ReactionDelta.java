@@ -0,0 +1,5 @@
+package kg.nurtelecom.opinion.payload.article_reaction;
+
+public record ReactionDelta(long likes, long dislikes) {
+    public static final ReactionDelta NONE = new ReactionDelta(0, 0);
+}
@@ -0,0 +1,9 @@
+package kg.nurtelecom.opinion.payload.image;
+
+public interface ImageReference {
+    String getImage();
+
+    String getCard();
+
+    String getThumbnail();
+}
@@ -0,0 +1,9 @@
+package kg.nurtelecom.opinion.payload.image;
+
+import kg.nurtelecom.opinion.entity.ImageRenditions;
+
+public record ProcessedImage(
+        String url,
+        ImageRenditions renditions
+) {
+}
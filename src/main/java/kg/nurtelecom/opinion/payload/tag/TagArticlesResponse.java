@@ -0,0 +1,14 @@
+package kg.nurtelecom.opinion.payload.tag;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
+
+import java.util.List;
+
+public record TagArticlesResponse(
+        List<ArticlesGetDTO> articles,
+
+        @JsonProperty("next_cursor")
+        String nextCursor
+) {
+}
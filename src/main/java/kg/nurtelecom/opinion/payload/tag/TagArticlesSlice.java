@@ -0,0 +1,6 @@
+package kg.nurtelecom.opinion.payload.tag;
+
+import java.util.List;
+
+public record TagArticlesSlice(List<Long> articleIds, String nextCursor) {
+}
@@ -5,12 +5,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AnnouncementCommentRepository extends JpaRepository<AnnouncementComment, Long> {
     @Query("SELECT c FROM AnnouncementComment c WHERE c.announcement.id = :announcementId ORDER BY c.date DESC")
     Page<AnnouncementComment> findComments(Long announcementId, Pageable pageable);
 
     Long countByAnnouncementId(Long announcementId);
+
+    @Query("SELECT c.announcement.id AS id, COUNT(c) AS total FROM AnnouncementComment c " +
+            "WHERE c.announcement.id IN :announcementIds GROUP BY c.announcement.id")
+    List<IdCount> countByAnnouncementIds(@Param("announcementIds") Collection<Long> announcementIds);
 }
@@ -1,10 +1,30 @@
 package kg.nurtelecom.opinion.repository;
 
 import kg.nurtelecom.opinion.entity.Announcement;
-import kg.nurtelecom.opinion.entity.Article;
+import kg.nurtelecom.opinion.enums.AccessType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AnnouncementRepository extends JpaRepository<Announcement, Long> {
+    Page<Announcement> findByAccessTypeIn(Collection<AccessType> accessTypes, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Announcement a SET a.viewsCount = COALESCE(a.viewsCount, 0) + :views WHERE a.id = :announcementId")
+    void incrementViewsCount(@Param("announcementId") Long announcementId, @Param("views") long views);
+
+    @Query("SELECT a.coverImage FROM Announcement a WHERE a.coverImage IS NOT NULL")
+    List<String> findCoverImages();
+
+    @Query("SELECT a.content FROM Announcement a WHERE a.content IS NOT NULL ORDER BY a.id")
+    Slice<String> findContents(Pageable pageable);
 }
@@ -0,0 +1,24 @@
+package kg.nurtelecom.opinion.repository;
+
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+
+import java.time.LocalDateTime;
+
+// a class rather than an interface projection, a proxy over a tuple costs more per page than the entities it replaces
+public record ArticleCard(
+        Long id,
+        String title,
+        String shortDescription,
+        String coverImage,
+        String coverCard,
+        LocalDateTime dateTime,
+        Long viewsCount,
+        Long likesCount,
+        Long dislikesCount,
+        ArticleStatus status,
+        Long authorId,
+        String authorNickname,
+        String authorAvatar,
+        String authorAvatarThumbnail
+) {
+}
@@ -4,11 +4,22 @@ import kg.nurtelecom.opinion.entity.ArticleComment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ArticleCommentRepository extends JpaRepository<ArticleComment, Long> {
     Page<ArticleComment> findByArticle_IdAndParentCommentIsNull(Long articleId, Pageable pageable);
 
     Long countByArticleId(Long articleId);
+
+    @Query("SELECT c.article.id AS articleId, COUNT(c) AS count FROM ArticleComment c WHERE c.article.id IN :ids GROUP BY c.article.id")
+    List<ArticleCount> countByArticleIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.article.id FROM ArticleComment c WHERE c.user.id = :userId ORDER BY c.id DESC")
+    List<Long> findArticleIdsByUserId(@Param("userId") Long userId, Pageable pageable);
 }
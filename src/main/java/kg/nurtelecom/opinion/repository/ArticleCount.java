@@ -0,0 +1,7 @@
+package kg.nurtelecom.opinion.repository;
+
+public interface ArticleCount {
+    Long getArticleId();
+
+    Long getCount();
+}
@@ -1,23 +1,52 @@
 package kg.nurtelecom.opinion.repository;
 
-import kg.nurtelecom.opinion.entity.Article;
+import jakarta.persistence.QueryHint;
 import kg.nurtelecom.opinion.entity.ArticleReaction;
-import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.ReactionType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface ArticleReactionRepository extends JpaRepository<ArticleReaction, Long> {
-    Optional<ArticleReaction> findByArticleAndUser(Article article, User user);
-
-    boolean existsByArticleAndUser(Article article, User user);
-
     Page<ArticleReaction> findAllByArticleIdAndReactionType(Long articleId, ReactionType reactionType, Pageable pageable);
 
     Long countByArticleIdAndReactionType(Long articleId, ReactionType reactionType);
+
+    @Query("SELECT r.article.id AS articleId, r.reactionType AS reactionType FROM ArticleReaction r WHERE r.user.id = :userId")
+    List<ArticleReactionState> findStatesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT r.article.id AS articleId, r.reactionType AS reactionType FROM ArticleReaction r " +
+            "WHERE r.user.id = :userId AND r.article.id IN :articleIds")
+    List<ArticleReactionState> findStatesByUserIdAndArticleIds(@Param("userId") Long userId, @Param("articleIds") Collection<Long> articleIds);
+
+    @Query("SELECT r.article.id FROM ArticleReaction r WHERE r.user.id = :userId AND r.reactionType = :reactionType ORDER BY r.id DESC")
+    List<Long> findArticleIdsByUserIdAndReactionType(@Param("userId") Long userId, @Param("reactionType") ReactionType reactionType,
+                                                     Pageable pageable);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "article_reaction"))
+    @Query(value = "DELETE FROM article_reaction WHERE article_id = :articleId AND user_id = :userId AND reaction_type = :reactionType",
+            nativeQuery = true)
+    int deleteReaction(@Param("articleId") Long articleId, @Param("userId") Long userId, @Param("reactionType") String reactionType);
+
+    /**
+     * Returns 1 when the reaction was inserted and 2 when an existing reaction of the other type was replaced. The id is
+     * taken from the pooled generator and only used when a row is inserted.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "article_reaction"))
+    @Query(value = "INSERT INTO article_reaction (id, article_id, user_id, reaction_type) VALUES (:id, :articleId, :userId, :reactionType) " +
+            "ON DUPLICATE KEY UPDATE reaction_type = VALUES(reaction_type)", nativeQuery = true)
+    int upsertReaction(@Param("id") Long id, @Param("articleId") Long articleId, @Param("userId") Long userId,
+                       @Param("reactionType") String reactionType);
 }
@@ -0,0 +1,9 @@
+package kg.nurtelecom.opinion.repository;
+
+import kg.nurtelecom.opinion.enums.ReactionType;
+
+public interface ArticleReactionState {
+    Long getArticleId();
+
+    ReactionType getReactionType();
+}
@@ -1,30 +1,123 @@
 package kg.nurtelecom.opinion.repository;
 
+import jakarta.persistence.QueryHint;
 import kg.nurtelecom.opinion.entity.Article;
 import kg.nurtelecom.opinion.entity.Post;
-import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.payload.image.ImageReference;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ArticleRepository extends JpaRepository<Article, Long> {
+    // card columns and the author summary in one query, without the content, the tags and the author's settings
+    String CARD_COLUMNS = "SELECT new kg.nurtelecom.opinion.repository.ArticleCard(a.id, a.title, a.shortDescription, " +
+            "a.coverImage, a.coverRenditions.card, a.dateTime, a.viewsCount, a.likesCount, a.dislikesCount, a.status, " +
+            "u.id, u.nickname, u.avatar, u.avatarRenditions.thumbnail) ";
+    String CARDS = CARD_COLUMNS + "FROM Article a LEFT JOIN a.author u ";
 
-    Page<Article> findByAuthor(User user, Pageable pageable);
-    Page<Article> findByAuthorAndStatus(User user, Pageable pageable, ArticleStatus status);
-    Page<Article> findByStatus(@Param("status") ArticleStatus status, Pageable pageable);
+    @Query(value = CARDS + "WHERE u.id = :authorId",
+            countQuery = "SELECT COUNT(a) FROM Article a WHERE a.author.id = :authorId")
+    Page<ArticleCard> findCardsByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+
+    @Query(value = CARDS + "WHERE u.id = :authorId AND a.status = :status",
+            countQuery = "SELECT COUNT(a) FROM Article a WHERE a.author.id = :authorId AND a.status = :status")
+    Page<ArticleCard> findCardsByAuthorIdAndStatus(@Param("authorId") Long authorId, @Param("status") ArticleStatus status,
+                                                   Pageable pageable);
+
+    @Query(value = CARDS + "WHERE a.status = :status",
+            countQuery = "SELECT COUNT(a) FROM Article a WHERE a.status = :status")
+    Page<ArticleCard> findCardsByStatus(@Param("status") ArticleStatus status, Pageable pageable);
+
+    // % and _ typed by the user are matched as themselves
+    @Query(value = CARDS + "WHERE a.status = :status AND a.title LIKE %:#{escape(#title)}% ESCAPE :#{escapeCharacter()}",
+            countQuery = "SELECT COUNT(a) FROM Article a WHERE a.status = :status " +
+                    "AND a.title LIKE %:#{escape(#title)}% ESCAPE :#{escapeCharacter()}")
+    Page<ArticleCard> findCardsByStatusAndTitleContaining(@Param("status") ArticleStatus status, @Param("title") String title,
+                                                          Pageable pageable);
+
+    @Query(CARDS + "WHERE a.id IN :ids AND a.status = :status")
+    List<ArticleCard> findCardsByIdIn(@Param("ids") Collection<Long> ids, @Param("status") ArticleStatus status);
 
     @Modifying
     @Query("UPDATE Article a SET a.viewsCount = a.viewsCount + 1 WHERE a.id = :articleId")
     void incrementViewsCount(@Param("articleId") Long articleId);
 
+    @Modifying
+    @Query("UPDATE Article a SET a.updatedAt = CURRENT_TIMESTAMP WHERE a.id = :articleId")
+    void touch(@Param("articleId") Long articleId);
+
     Optional<Article> findByIdAndStatusNotIn(Long id, List<ArticleStatus> excludedStatuses);
 
-    Page<Article> findByStatusAndTitleContaining(@Param("status") ArticleStatus status, @Param("title") String title,  Pageable pageable);
+    @Query("SELECT a.coverImage AS image, a.coverRenditions.card AS card, a.coverRenditions.thumbnail AS thumbnail " +
+            "FROM Article a WHERE a.coverImage IS NOT NULL")
+    List<ImageReference> findCoverImageReferences();
+
+    @Query("SELECT a.content FROM Article a WHERE a.content IS NOT NULL ORDER BY a.id")
+    Slice<String> findContents(Pageable pageable);
+
+    @Query("SELECT a.id FROM Article a")
+    List<Long> findAllIds();
+
+    @Query("SELECT a.id AS id, a.dateTime AS dateTime, a.viewsCount AS views, a.likesCount AS likes FROM Article a " +
+            "WHERE a.status = :status AND a.dateTime >= :since")
+    List<TrendingSeed> findTrendingSeeds(@Param("status") ArticleStatus status, @Param("since") LocalDateTime since);
+
+    @Query("SELECT a.id FROM Article a WHERE a.status = :status")
+    List<Long> findIdsByStatus(@Param("status") ArticleStatus status);
+
+    @Query("SELECT a.id AS id, a.title AS title, a.shortDescription AS shortDescription, a.coverImage AS coverImage, " +
+            "a.coverRenditions.card AS coverCard, a.dateTime AS dateTime FROM Article a WHERE a.id IN :ids AND a.status = :status")
+    List<ArticleSummary> findSummaries(@Param("ids") Collection<Long> ids, @Param("status") ArticleStatus status);
+
+    @Query("SELECT a.id AS articleId, t.id AS featureId FROM Article a JOIN a.tags t WHERE a.id IN :ids")
+    List<ArticleFeature> findTagFeatures(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.id FROM Article a WHERE a.status = :status AND a.dateTime >= :since ORDER BY a.dateTime DESC")
+    List<Long> findRecentIdsByStatus(@Param("status") ArticleStatus status, @Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("SELECT a.id AS id, a.author.id AS authorId, a.dateTime AS dateTime FROM Article a WHERE a.id IN :ids AND a.status = :status")
+    List<FeedCandidate> findFeedCandidates(@Param("ids") Collection<Long> ids, @Param("status") ArticleStatus status);
+
+    @Query("SELECT a.id AS articleId, a.author.id AS featureId FROM Article a WHERE a.id IN :ids")
+    List<ArticleFeature> findAuthorFeatures(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.id AS articleId, t.id AS tagId, a.dateTime AS dateTime FROM Article a JOIN a.tags t WHERE a.status = :status")
+    List<TagPosting> findTagPostings(@Param("status") ArticleStatus status);
+
+    @Query("SELECT a.id AS articleId, t.id AS tagId, a.dateTime AS dateTime FROM Article a JOIN a.tags t " +
+            "WHERE a.id IN :ids AND a.status = :status")
+    List<TagPosting> findTagPostingsByIdIn(@Param("ids") Collection<Long> ids, @Param("status") ArticleStatus status);
+
+    @Query("SELECT a.id FROM Article a WHERE a.id IN :ids AND a.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") ArticleStatus status);
+
+    // without the affected table Hibernate would evict the whole second-level cache on every native update
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "article"))
+    @Query(value = "UPDATE article SET likes_count = likes_count + :likes, dislikes_count = dislikes_count + :dislikes " +
+            "WHERE id = :articleId", nativeQuery = true)
+    void addReactionCounts(@Param("articleId") Long articleId, @Param("likes") long likes, @Param("dislikes") long dislikes);
+
+    @Query("SELECT a.likesCount AS likes, a.dislikesCount AS dislikes FROM Article a WHERE a.id = :articleId")
+    Optional<ReactionCounts> findReactionCounts(@Param("articleId") Long articleId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "article"))
+    @Query(value = "UPDATE article a SET " +
+            "a.likes_count = (SELECT COUNT(*) FROM article_reaction r WHERE r.article_id = a.id AND r.reaction_type = 'LIKE'), " +
+            "a.dislikes_count = (SELECT COUNT(*) FROM article_reaction r WHERE r.article_id = a.id AND r.reaction_type = 'DISLIKE') " +
+            "WHERE a.likes_count IS NULL OR a.dislikes_count IS NULL", nativeQuery = true)
+    int fillMissingReactionCounts();
 }
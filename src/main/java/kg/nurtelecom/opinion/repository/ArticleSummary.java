@@ -0,0 +1,17 @@
+package kg.nurtelecom.opinion.repository;
+
+import java.time.LocalDateTime;
+
+public interface ArticleSummary {
+    Long getId();
+
+    String getTitle();
+
+    String getShortDescription();
+
+    String getCoverImage();
+
+    String getCoverCard();
+
+    LocalDateTime getDateTime();
+}
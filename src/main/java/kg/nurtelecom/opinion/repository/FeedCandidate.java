@@ -0,0 +1,11 @@
+package kg.nurtelecom.opinion.repository;
+
+import java.time.LocalDateTime;
+
+public interface FeedCandidate {
+    Long getId();
+
+    Long getAuthorId();
+
+    LocalDateTime getDateTime();
+}
@@ -0,0 +1,34 @@
+package kg.nurtelecom.opinion.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import kg.nurtelecom.opinion.entity.ImageDeletion;
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImageDeletionRepository extends JpaRepository<ImageDeletion, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    @Query("SELECT d FROM ImageDeletion d WHERE d.attempts < :maxAttempts AND d.nextAttemptAt <= :now ORDER BY d.nextAttemptAt")
+    List<ImageDeletion> findDue(@Param("maxAttempts") int maxAttempts, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT d.imageKey FROM ImageDeletion d WHERE d.imageKey IN :keys")
+    List<String> findScheduledKeys(@Param("keys") Collection<String> keys);
+
+    @Modifying
+    @Query("DELETE FROM ImageDeletion d WHERE d.imageKey IN :keys")
+    void deleteByImageKeys(@Param("keys") Collection<String> keys);
+}
@@ -0,0 +1,28 @@
+package kg.nurtelecom.opinion.repository;
+
+import kg.nurtelecom.opinion.entity.MailMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import kg.nurtelecom.opinion.enums.MailStatus;
+import org.hibernate.LockOptions;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailMessageRepository extends JpaRepository<MailMessage, Long> {
+    // rows another instance is claiming right now are skipped, not waited for and never claimed twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    @Query("SELECT m FROM MailMessage m WHERE m.status IN :statuses AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt")
+    List<MailMessage> findDue(@Param("statuses") Collection<MailStatus> statuses, @Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,33 @@
+package kg.nurtelecom.opinion.repository;
+
+import jakarta.persistence.QueryHint;
+import kg.nurtelecom.opinion.entity.MailQuota;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface MailQuotaRepository extends JpaRepository<MailQuota, Long> {
+    /**
+     * Counts one more mail to the recipient in the window. The row stays locked until the transaction ends, so concurrent
+     * senders to the same address see each other's counts instead of all passing the same check.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "mail_quota"))
+    @Query(value = "INSERT INTO mail_quota (recipient, window_start, mail_count) VALUES (:recipient, :windowStart, 1) " +
+            "ON DUPLICATE KEY UPDATE mail_count = mail_count + 1", nativeQuery = true)
+    int countMail(@Param("recipient") String recipient, @Param("windowStart") LocalDateTime windowStart);
+
+    @Query("SELECT q.mailCount FROM MailQuota q WHERE q.recipient = :recipient AND q.windowStart = :windowStart")
+    int findMailCount(@Param("recipient") String recipient, @Param("windowStart") LocalDateTime windowStart);
+
+    @Modifying
+    @Query("DELETE FROM MailQuota q WHERE q.windowStart < :before")
+    int deleteWindowsBefore(@Param("before") LocalDateTime before);
+}
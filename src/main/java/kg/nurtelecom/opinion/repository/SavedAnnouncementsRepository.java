@@ -6,8 +6,13 @@ import kg.nurtelecom.opinion.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface SavedAnnouncementsRepository extends JpaRepository<SavedAnnouncement, Long> {
 
@@ -16,4 +21,11 @@ public interface SavedAnnouncementsRepository extends JpaRepository<SavedAnnounc
     void deleteByAnnouncementIdAndUserId(Long announcementId, Long id);
 
     Long countByAnnouncementId(Long announcement_id);
+
+    @Query("SELECT s.announcement.id AS id, COUNT(s) AS total FROM SavedAnnouncement s " +
+            "WHERE s.announcement.id IN :announcementIds GROUP BY s.announcement.id")
+    List<IdCount> countByAnnouncementIds(@Param("announcementIds") Collection<Long> announcementIds);
+
+    @Query("SELECT s.announcement.id FROM SavedAnnouncement s WHERE s.user.id = :userId AND s.announcement.id IN :announcementIds")
+    List<Long> findSavedAnnouncementIds(@Param("userId") Long userId, @Param("announcementIds") Collection<Long> announcementIds);
 }
@@ -10,6 +10,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface SavedArticlesRepository extends JpaRepository<SavedArticle, Long> {
@@ -17,12 +19,27 @@ public interface SavedArticlesRepository extends JpaRepository<SavedArticle, Lon
 
     Page<SavedArticle> findAllByUser(User user, Pageable pageable);
 
-    @Query("SELECT sa FROM SavedArticle sa WHERE sa.user = :user AND sa.article.status = :status")
-    Page<SavedArticle> findAllByUserAndArticleStatus(@Param("user") User user, @Param("status") ArticleStatus status, Pageable pageable);
+    @Query(value = ArticleRepository.CARD_COLUMNS + "FROM SavedArticle sa JOIN sa.article a LEFT JOIN a.author u " +
+            "WHERE sa.user.id = :userId AND a.status = :status",
+            countQuery = "SELECT COUNT(sa) FROM SavedArticle sa WHERE sa.user.id = :userId AND sa.article.status = :status")
+    Page<ArticleCard> findCardsByUserIdAndArticleStatus(@Param("userId") Long userId, @Param("status") ArticleStatus status,
+                                                        Pageable pageable);
 
     Long countByArticleId(Long articleId);
 
     boolean existsByArticleIdAndUserId(Long articleId, Long id);
 
     void deleteByArticleIdAndUserId(Long articleId, Long id);
+
+    @Query("SELECT sa.article.id AS articleId, sa.user.id AS featureId FROM SavedArticle sa WHERE sa.article.id IN :ids")
+    List<ArticleFeature> findSaverFeatures(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT sa.article.id AS articleId, COUNT(sa) AS count FROM SavedArticle sa WHERE sa.article.id IN :ids GROUP BY sa.article.id")
+    List<ArticleCount> countByArticleIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT sa.article.id FROM SavedArticle sa WHERE sa.user.id = :userId AND sa.article.id IN :ids")
+    List<Long> findArticleIdsByUserIdAndArticleIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT sa.article.id FROM SavedArticle sa WHERE sa.user.id = :userId ORDER BY sa.id DESC")
+    List<Long> findArticleIdsByUserId(@Param("userId") Long userId, Pageable pageable);
 }
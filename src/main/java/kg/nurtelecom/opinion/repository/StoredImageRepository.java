@@ -0,0 +1,39 @@
+package kg.nurtelecom.opinion.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import kg.nurtelecom.opinion.entity.StoredImage;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredImageRepository extends JpaRepository<StoredImage, Long> {
+    Optional<StoredImage> findByHash(String hash);
+
+    Optional<StoredImage> findByUrl(String url);
+
+    /**
+     * Inserts the image with one reference, or adds a reference to the image already stored under the hash or the URL.
+     * Unlike a locking read of a missing hash, this takes no gap lock, so concurrent first uploads don't deadlock.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stored_images"))
+    @Query(value = "INSERT INTO stored_images (hash, url, card, thumbnail, full_webp, card_webp, thumbnail_webp, reference_count, created_at) " +
+            "VALUES (:hash, :url, :card, :thumbnail, :fullWebp, :cardWebp, :thumbnailWebp, 1, NOW()) " +
+            "ON DUPLICATE KEY UPDATE reference_count = reference_count + 1", nativeQuery = true)
+    int addReference(@Param("hash") String hash, @Param("url") String url, @Param("card") String card,
+                     @Param("thumbnail") String thumbnail, @Param("fullWebp") String fullWebp,
+                     @Param("cardWebp") String cardWebp, @Param("thumbnailWebp") String thumbnailWebp);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StoredImage s WHERE s.url = :url")
+    Optional<StoredImage> findByUrlForUpdate(@Param("url") String url);
+}
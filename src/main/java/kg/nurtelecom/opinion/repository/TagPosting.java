@@ -0,0 +1,11 @@
+package kg.nurtelecom.opinion.repository;
+
+import java.time.LocalDateTime;
+
+public interface TagPosting {
+    Long getArticleId();
+
+    Long getTagId();
+
+    LocalDateTime getDateTime();
+}
@@ -2,10 +2,13 @@ package kg.nurtelecom.opinion.repository;
 
 
 import kg.nurtelecom.opinion.entity.Tag;
+import jakarta.persistence.QueryHint;
 import kg.nurtelecom.opinion.enums.TagStatus;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +16,7 @@ import java.util.Optional;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Tag> findByStatus(@Param("status") TagStatus status, Pageable pageable);
 
     Page<Tag> findByNameContaining(@Param("name") String name, Pageable pageable);
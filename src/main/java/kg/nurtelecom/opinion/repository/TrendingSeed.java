@@ -0,0 +1,13 @@
+package kg.nurtelecom.opinion.repository;
+
+import java.time.LocalDateTime;
+
+public interface TrendingSeed {
+    Long getId();
+
+    LocalDateTime getDateTime();
+
+    Long getViews();
+
+    Long getLikes();
+}
@@ -2,7 +2,9 @@ package kg.nurtelecom.opinion.repository;
 
 import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.Status;
+import kg.nurtelecom.opinion.payload.image.ImageReference;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,4 +21,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByNicknameAndStatus(String nickname, Status status);
 
     Optional<User> findByNickname(String nickname);
+
+    @Query("SELECT u.avatar AS image, u.avatarRenditions.card AS card, u.avatarRenditions.thumbnail AS thumbnail " +
+            "FROM User u WHERE u.avatar IS NOT NULL")
+    List<ImageReference> findAvatarReferences();
 }
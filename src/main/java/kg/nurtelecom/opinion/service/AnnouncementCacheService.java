@@ -0,0 +1,21 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.enums.AnnouncementTier;
+import kg.nurtelecom.opinion.event.AnnouncementChangedEvent;
+import kg.nurtelecom.opinion.payload.announcement.AnnouncementResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+
+public interface AnnouncementCacheService {
+    Page<AnnouncementResponse> getPage(AnnouncementTier tier, Pageable pageable);
+
+    Optional<AnnouncementResponse> getAnnouncement(Long id);
+
+    void recordView(Long id);
+
+    void flushViews();
+
+    void onAnnouncementChanged(AnnouncementChangedEvent event);
+}
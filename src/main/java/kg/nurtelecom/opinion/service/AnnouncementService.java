@@ -1,6 +1,7 @@
 package kg.nurtelecom.opinion.service;
 
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.announcement.AnnouncementResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,7 +10,7 @@ import org.springframework.stereotype.Service;
 
 @Service
 public interface AnnouncementService {
-    ResponseEntity<Page<AnnouncementResponse>> getAnnouncements(Pageable pageable, User user);
+    ResponseEntity<Page<AnnouncementResponse>> getAnnouncements(Pageable pageable, User user, FieldSet fields);
 
     ResponseEntity<AnnouncementResponse> getAnnouncement(Long id, User user);
 
@@ -0,0 +1,11 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.announcement.AnnouncementStats;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface AnnouncementStatsService {
+    Map<Long, AnnouncementStats> loadStats(Collection<Long> announcementIds, User user);
+}
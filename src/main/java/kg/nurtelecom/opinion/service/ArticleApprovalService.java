@@ -0,0 +1,5 @@
+package kg.nurtelecom.opinion.service;
+
+public interface ArticleApprovalService {
+    void pollApprovedArticles();
+}
@@ -3,12 +3,15 @@ package kg.nurtelecom.opinion.service;
 import kg.nurtelecom.opinion.entity.Article;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ArticleCacheService {
     Article getArticle(Long id);
 
     Article save(Article article);
 
+    Optional<Article> findCachedArticle(Long id);
+
 
     List<Article> getAllArticlesFromCache();
 
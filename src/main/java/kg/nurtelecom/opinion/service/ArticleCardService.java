@@ -0,0 +1,17 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
+import kg.nurtelecom.opinion.payload.article.MyArticlesGetDTO;
+import kg.nurtelecom.opinion.repository.ArticleCard;
+
+import java.util.List;
+
+public interface ArticleCardService {
+    List<ArticlesGetDTO> getCards(List<Long> articleIds, User user, FieldSet fields);
+
+    List<ArticlesGetDTO> toCards(List<ArticleCard> cards, User user, FieldSet fields);
+
+    List<MyArticlesGetDTO> toMyCards(List<ArticleCard> cards, User user, FieldSet fields);
+}
@@ -2,6 +2,7 @@ package kg.nurtelecom.opinion.service;
 
 import jakarta.servlet.http.HttpServletRequest;
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleCommentRequest;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleCommentResponse;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleNestedCommentResponse;
@@ -10,7 +11,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 
 public interface ArticleCommentService {
-    ResponseEntity<Page<ArticleNestedCommentResponse>> getAllComments(Long articleId, Pageable pageable);
+    ResponseEntity<Page<ArticleNestedCommentResponse>> getAllComments(Long articleId, Pageable pageable, FieldSet fields);
     ResponseEntity<ArticleCommentResponse> saveComment(Long articleId, ArticleCommentRequest articleCommentRequest, User user);
     ResponseEntity<ArticleCommentResponse> replyToComment(Long id, ArticleCommentRequest articleCommentRequest, User user);
     ResponseEntity<ArticleCommentResponse> updateCommentById(Long id, ArticleCommentRequest articleCommentRequest, User user);
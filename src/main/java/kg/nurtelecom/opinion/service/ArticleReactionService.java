@@ -4,16 +4,24 @@ import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.ReactionType;
 import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionRequest;
 import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionResponse;
+import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionStateResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 
+import java.util.List;
+import java.util.Map;
+
 public interface ArticleReactionService {
-    ResponseEntity<String> addReactionToArticle(ArticleReactionRequest reaction, User user);
+    ResponseEntity<ArticleReactionStateResponse> addReactionToArticle(ArticleReactionRequest reaction, User user);
 
     ResponseEntity<Page<ArticleReactionResponse>> getLikesByArticleId(Long articleId, Pageable pageable);
 
     ResponseEntity<Page<ArticleReactionResponse>> getDislikesByArticleId(Long articleId, Pageable pageable);
 
     ResponseEntity<ReactionType> getArticleReactionByUser(Long articleId, User user);
+
+    ResponseEntity<Map<Long, ReactionType>> getArticleReactionsByUser(List<Long> articleIds, User user);
+
+    void fillMissingReactionCounts();
 }
@@ -1,6 +1,7 @@
 package kg.nurtelecom.opinion.service;
 
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +10,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 public interface ArticleService {
     ResponseEntity<ArticleResponse> createArticle(ArticleRequest article, User user);
     ResponseEntity<ArticleResponse> createArticleDraft(ArticleDraftRequest article, User user);
@@ -17,8 +20,8 @@ public interface ArticleService {
     ArticleResponse editArticle(ArticleDraftRequest editedArticle, Long id, User user);
     ResponseEntity<Void> updateArticleInDBFromCache(Long articleId, User user);
 
-    ArticleGetDTO getArticle(Long id, User user);
-    ArticleGetDTO getArticleFromCache(Long id, User user);
+    ResponseEntity<ArticleGetDTO> getArticle(Long id, User user, FieldSet fields, String ifNoneMatch);
+    ArticleGetDTO getArticleFromCache(Long id, User user, FieldSet fields);
 
     ResponseEntity<String> getArticleStatus(Long id, User user);
 
@@ -29,16 +32,22 @@ public interface ArticleService {
     ResponseEntity<Void> deleteArticle(Long id, User user);
     ResponseEntity<Void> restoreArticle(Long id, User user);
 
-    ResponseEntity<Page<MyArticlesGetDTO>> getMyArticles(User user, Pageable pageable);
+    ResponseEntity<Page<MyArticlesGetDTO>> getMyArticles(User user, Pageable pageable, FieldSet fields);
+
+    ResponseEntity<Page<ArticlesGetDTO>> getUserArticles(Long userId, Pageable pageable, FieldSet fields);
+
+    ResponseEntity<Page<ArticlesGetDTO>> getArticles(Pageable pageable, User user, FieldSet fields);
+
+    ResponseEntity<Page<ArticlesGetDTO>> getTrendingArticles(Pageable pageable, User user, FieldSet fields);
 
-    ResponseEntity<Page<ArticlesGetDTO>> getUserArticles(Long userId, Pageable pageable);
+    ResponseEntity<Page<ArticlesGetDTO>> getFeed(Pageable pageable, User user, FieldSet fields);
 
-    ResponseEntity<Page<ArticlesGetDTO>> getArticles(Pageable pageable, User user);
+    ResponseEntity<List<RelatedArticleDTO>> getRelatedArticles(Long id);
 
     ResponseEntity<String> shareArticle(Long articleId, String shareType);
 
     ResponseEntity<Void> shareArticleByEmail(Long articleId, String to , String from);
 
-    ResponseEntity<Page<ArticlesGetDTO>> searchArticle(Pageable pageable, String searchQuery, User user);
+    ResponseEntity<Page<ArticlesGetDTO>> searchArticle(Pageable pageable, String searchQuery, User user, FieldSet fields);
 
 }
@@ -0,0 +1,12 @@
+package kg.nurtelecom.opinion.service;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface EntityTagService {
+    String tagOf(Object... parts);
+
+    <T> ResponseEntity<T> respond(String ifNoneMatch, String tag, CacheControl cacheControl, Supplier<T> body);
+}
@@ -0,0 +1,15 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface FeedService {
+    Page<Long> getFeedArticleIds(Long userId, Pageable pageable);
+
+    void onApprovedArticles(ApprovedArticlesEvent event);
+
+    void loadWindow();
+
+    void evictInactive();
+}
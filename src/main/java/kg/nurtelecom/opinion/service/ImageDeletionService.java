@@ -0,0 +1,11 @@
+package kg.nurtelecom.opinion.service;
+
+import java.util.Collection;
+
+public interface ImageDeletionService {
+    void schedule(Collection<String> urls);
+
+    void cancel(Collection<String> urls);
+
+    void deletePending();
+}
@@ -0,0 +1,17 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.payload.image.ProcessedImage;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public interface ImageProcessingService {
+    CompletableFuture<String> process(MultipartFile image);
+
+    /**
+     * Stores the image with its renditions, or reuses the stored copy of the same content. The reference to it is
+     * stored by the given callback, in the transaction that also counts the reference.
+     */
+    <T> CompletableFuture<T> processWithRenditions(MultipartFile image, Function<ProcessedImage, T> storeReference);
+}
@@ -1,20 +1,21 @@
 package kg.nurtelecom.opinion.service;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import kg.nurtelecom.opinion.entity.User;
-import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 
-public interface ImageService {
-    String loadImage(MultipartFile image);
+import java.util.concurrent.CompletableFuture;
 
-    ResponseEntity<String> updateCoverImage(Long articleId, MultipartFile image, User user);
+public interface ImageService {
+    CompletableFuture<String> loadImage(MultipartFile image);
 
-    ResponseEntity<Void> deleteImage(String imagePath);
+    CompletableFuture<ResponseEntity<String>> updateCoverImage(Long articleId, MultipartFile image, User user);
 
     ResponseEntity<Void> deleteCoverImage(Long articleId,User user);
 
-    ResponseEntity<Void> changeUserAvatar(User user, MultipartFile photo);
+    CompletableFuture<ResponseEntity<Void>> changeUserAvatar(User user, MultipartFile photo);
 
-    Resource load(String path);
+    void sendImage(String key, HttpServletRequest request, HttpServletResponse response);
 }
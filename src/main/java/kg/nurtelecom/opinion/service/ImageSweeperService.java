@@ -0,0 +1,5 @@
+package kg.nurtelecom.opinion.service;
+
+public interface ImageSweeperService {
+    void sweepOrphans();
+}
@@ -0,0 +1,7 @@
+package kg.nurtelecom.opinion.service;
+
+import java.time.Duration;
+
+public interface JobLockService {
+    boolean runExclusively(String name, Duration lease, Runnable job);
+}
@@ -0,0 +1,11 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.enums.MailType;
+
+public interface MailQueueService {
+    void enqueue(MailType type, String from, String to, String subject, String content, boolean html);
+
+    void dispatchPending();
+
+    void purgeQuotas();
+}
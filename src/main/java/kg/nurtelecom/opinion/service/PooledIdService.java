@@ -0,0 +1,11 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.entity.PooledBaseEntity;
+
+import java.util.List;
+
+public interface PooledIdService {
+    void alignWithExistingRows();
+
+    List<Long> nextIds(Class<? extends PooledBaseEntity> entityClass, int count);
+}
@@ -0,0 +1,24 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionChange;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionDelta;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public interface ReactionJournalService {
+    boolean isEnabled();
+
+    ReactionChange toggle(Long articleId, Long userId, ReactionType reactionType, Supplier<ReactionType> storedReaction);
+
+    Map<Long, ReactionType> overlay(Long userId, Collection<Long> articleIds, Map<Long, ReactionType> storedReactions);
+
+    long awaitFlushEpoch(Long articleId);
+
+    Optional<ReactionDelta> getPendingDelta(Long articleId, long epoch);
+
+    void flush();
+}
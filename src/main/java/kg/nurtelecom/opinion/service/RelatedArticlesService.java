@@ -0,0 +1,15 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.payload.article.RelatedArticleDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface RelatedArticlesService {
+    Optional<List<RelatedArticleDTO>> getRelatedArticles(Long articleId);
+
+    void rebuild();
+
+    void onApprovedArticles(ApprovedArticlesEvent event);
+}
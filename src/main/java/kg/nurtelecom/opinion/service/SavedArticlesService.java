@@ -1,6 +1,7 @@
 package kg.nurtelecom.opinion.service;
 
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
 import kg.nurtelecom.opinion.payload.saved_article.SavedArticleResponse;
 import org.springframework.data.domain.Page;
@@ -10,7 +11,7 @@ import org.springframework.http.ResponseEntity;
 
 public interface SavedArticlesService {
 
-    ResponseEntity<Page<ArticlesGetDTO>> getSavedArticles(User user, Pageable pageable);
+    ResponseEntity<Page<ArticlesGetDTO>> getSavedArticles(User user, Pageable pageable, FieldSet fields);
 
     ResponseEntity<Void> addArticleToSaved(Long articleId, User user);
 
@@ -0,0 +1,13 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.payload.image.ProcessedImage;
+
+import java.util.Optional;
+
+public interface StoredImageService {
+    Optional<ProcessedImage> find(String hash);
+
+    ProcessedImage register(String hash, ProcessedImage image);
+
+    Optional<ProcessedImage> release(String url);
+}
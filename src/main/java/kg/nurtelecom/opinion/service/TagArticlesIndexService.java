@@ -0,0 +1,18 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.enums.TagMatch;
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.event.ArticleChangedEvent;
+import kg.nurtelecom.opinion.payload.tag.TagArticlesSlice;
+
+import java.util.List;
+
+public interface TagArticlesIndexService {
+    TagArticlesSlice findArticleIds(List<Long> tagIds, TagMatch match, String cursor, int size);
+
+    void onApprovedArticles(ApprovedArticlesEvent event);
+
+    void onArticleChanged(ArticleChangedEvent event);
+
+    void rebuild();
+}
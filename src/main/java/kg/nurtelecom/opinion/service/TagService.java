@@ -1,5 +1,9 @@
 package kg.nurtelecom.opinion.service;
 
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.TagMatch;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.tag.TagArticlesResponse;
 import kg.nurtelecom.opinion.payload.tag.TagRequest;
 import kg.nurtelecom.opinion.payload.tag.TagDTO;
 import org.springframework.data.domain.Page;
@@ -7,10 +11,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 public interface TagService {
-    ResponseEntity<Page<TagDTO>> getAll(Pageable pageable);
+    ResponseEntity<Page<TagDTO>> getAll(Pageable pageable, String ifNoneMatch);
 
     ResponseEntity<TagDTO> createTag(TagRequest tagRequest);
 
     ResponseEntity<Page<TagDTO>> findTagsByName(@RequestParam("name") String tagName, Pageable pageable);
+
+    ResponseEntity<TagArticlesResponse> getTagArticles(Long tagId, String cursor, int size, User user, FieldSet fields);
+
+    ResponseEntity<TagArticlesResponse> getTagsArticles(List<Long> tagIds, TagMatch match, String cursor, int size, User user, FieldSet fields);
 }
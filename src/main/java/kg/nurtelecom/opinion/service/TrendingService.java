@@ -0,0 +1,15 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.event.ArticleActivityEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TrendingService {
+    Page<Long> getTrendingArticleIds(Pageable pageable);
+
+    void onArticleActivity(ArticleActivityEvent event);
+
+    void refresh();
+
+    void seed();
+}
@@ -0,0 +1,12 @@
+package kg.nurtelecom.opinion.service;
+
+import kg.nurtelecom.opinion.enums.ReactionType;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface UserReactionCacheService {
+    Map<Long, ReactionType> getReactions(Long userId, Collection<Long> articleIds);
+
+    void evict(Long userId);
+}
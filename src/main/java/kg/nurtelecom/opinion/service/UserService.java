@@ -8,8 +8,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 public interface UserService {
 
-    ResponseEntity<GetUserResponse> getUserProfile(Long userId);
-    ResponseEntity<GetUserResponse> getUserProfileByNick(String userNick);
+    ResponseEntity<GetUserResponse> getUserProfile(Long userId, String ifNoneMatch);
+    ResponseEntity<GetUserResponse> getUserProfileByNick(String userNick, String ifNoneMatch);
 
     ResponseEntity<Void> deleteUserAccount(User user);
 
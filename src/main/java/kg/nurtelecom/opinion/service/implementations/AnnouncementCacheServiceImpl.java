@@ -0,0 +1,268 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import kg.nurtelecom.opinion.entity.Announcement;
+import kg.nurtelecom.opinion.enums.AnnouncementTier;
+import kg.nurtelecom.opinion.event.AnnouncementChangedEvent;
+import kg.nurtelecom.opinion.payload.PrecompressedPage;
+import kg.nurtelecom.opinion.payload.announcement.AnnouncementResponse;
+import kg.nurtelecom.opinion.payload.announcement.AnnouncementStats;
+import kg.nurtelecom.opinion.repository.AnnouncementRepository;
+import kg.nurtelecom.opinion.service.AnnouncementCacheService;
+import kg.nurtelecom.opinion.service.AnnouncementStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Announcements change rarely and are read by every visitor, so rendered pages are kept in memory, one segment per
+ * access tier, and single announcements in a map bounded to the most recently read ones. Favourite flags differ per
+ * user and are never cached. A new favourite or comment drops only the entries that show the announcement, any other
+ * change drops every page. Every change bumps a generation counter, so an entry loaded before the change can't be
+ * put back after it.
+ * Pages are kept with their JSON already gzipped, so a hit for an anonymous reader is written out without any work.
+ * Announcements written by the admin panel bypass the events and are picked up once the ttl runs out.
+ */
+@Service
+public class AnnouncementCacheServiceImpl implements AnnouncementCacheService {
+    private final AnnouncementRepository announcementRepository;
+    private final AnnouncementStatsService announcementStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<AnnouncementTier, Map<PageKey, CachedEntry<Page<AnnouncementResponse>>>> pages = new EnumMap<>(AnnouncementTier.class);
+    private final Map<Long, CachedEntry<AnnouncementResponse>> announcements = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CachedEntry<AnnouncementResponse>> eldest) {
+                    return size() > maxAnnouncements;
+                }
+            });
+    private final Map<Long, AtomicLong> pendingViews = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    // the generation of the last change that dropped every page, and of the last change of each announcement;
+    // one entry per announcement that ever changed, which stays small
+    private volatile long droppedAllAt;
+    private final Map<Long, Long> changedAt = new ConcurrentHashMap<>();
+    private final Logger logger = LoggerFactory.getLogger(AnnouncementCacheServiceImpl.class);
+    @Value("${app.announcements.cache.ttl-seconds}")
+    private long ttlSeconds;
+    @Value("${app.announcements.cache.max-pages}")
+    private int maxPages;
+    @Value("${app.announcements.cache.max-announcements}")
+    private int maxAnnouncements;
+    @Value("${app.compression.precompressed-level}")
+    private int compressionLevel;
+
+    public AnnouncementCacheServiceImpl(AnnouncementRepository announcementRepository,
+                                        AnnouncementStatsService announcementStatsService,
+                                        PlatformTransactionManager transactionManager,
+                                        ObjectMapper objectMapper) {
+        this.announcementRepository = announcementRepository;
+        this.announcementStatsService = announcementStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        for (AnnouncementTier tier : AnnouncementTier.values()) {
+            pages.put(tier, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public Page<AnnouncementResponse> getPage(AnnouncementTier tier, Pageable pageable) {
+        Map<PageKey, CachedEntry<Page<AnnouncementResponse>>> segment = pages.get(tier);
+        PageKey key = new PageKey(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+        CachedEntry<Page<AnnouncementResponse>> cached = segment.get(key);
+        if (cached != null && cached.isValid()) {
+            return cached.value();
+        }
+
+        long loadedAt = generation.get();
+        Page<Announcement> page = announcementRepository.findByAccessTypeIn(tier.getAccessTypes(), pageable);
+        Map<Long, AnnouncementStats> stats = announcementStatsService.loadStats(page.map(Announcement::getId).getContent(), null);
+        Page<AnnouncementResponse> rendered = page.map(announcement ->
+                toResponse(announcement, stats.getOrDefault(announcement.getId(), AnnouncementStats.EMPTY)));
+        // deep pages of rarely used sort orders are not worth the memory
+        if (segment.size() < maxPages || segment.containsKey(key)) {
+            rendered = precompress(rendered);
+            CachedEntry<Page<AnnouncementResponse>> entry = new CachedEntry<>(rendered,
+                    Set.copyOf(page.map(Announcement::getId).getContent()), expiresAt());
+            segment.put(key, entry);
+            if (changedSince(loadedAt, entry.ids())) {
+                segment.remove(key, entry);
+            }
+        }
+        return rendered;
+    }
+
+    @Override
+    public Optional<AnnouncementResponse> getAnnouncement(Long id) {
+        CachedEntry<AnnouncementResponse> cached = announcements.get(id);
+        AnnouncementResponse response;
+        if (cached != null && cached.isValid()) {
+            response = cached.value();
+        } else {
+            long loadedAt = generation.get();
+            Optional<Announcement> announcement = announcementRepository.findById(id);
+            if (announcement.isEmpty()) {
+                return Optional.empty();
+            }
+            AnnouncementStats stats = announcementStatsService.loadStats(List.of(id), null)
+                    .getOrDefault(id, AnnouncementStats.EMPTY);
+            response = toResponse(announcement.get(), stats);
+            CachedEntry<AnnouncementResponse> entry = new CachedEntry<>(response, Set.of(id), expiresAt());
+            announcements.put(id, entry);
+            if (changedSince(loadedAt, entry.ids())) {
+                announcements.remove(id, entry);
+            }
+        }
+
+        AtomicLong pending = pendingViews.get(id);
+        if (pending == null || pending.get() == 0) {
+            return Optional.of(response);
+        }
+        long views = response.getTotalViews() == null ? 0 : response.getTotalViews();
+        return Optional.of(response.withTotalViews(views + pending.get()));
+    }
+
+    @Override
+    public void recordView(Long id) {
+        // counted inside compute, so that the flush can't drop the counter in between
+        pendingViews.compute(id, (key, views) -> {
+            AtomicLong counter = views == null ? new AtomicLong() : views;
+            counter.incrementAndGet();
+            return counter;
+        });
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.announcements.views-flush-interval-ms}")
+    public void flushViews() {
+        for (Map.Entry<Long, AtomicLong> entry : pendingViews.entrySet()) {
+            long views = entry.getValue().get();
+            if (views == 0) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        announcementRepository.incrementViewsCount(entry.getKey(), views));
+            } catch (RuntimeException e) {
+                logger.warn("Could not flush views of announcement " + entry.getKey() + ", will retry", e);
+                continue;
+            }
+            entry.getValue().addAndGet(-views);
+            // the next read picks the flushed count up from the database
+            announcements.remove(entry.getKey());
+            pendingViews.computeIfPresent(entry.getKey(), (key, counter) -> counter.get() == 0 ? null : counter);
+        }
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnnouncementChanged(AnnouncementChangedEvent event) {
+        long changed = generation.incrementAndGet();
+        Long id = event.announcementId();
+        if (id != null) {
+            changedAt.merge(id, changed, Math::max);
+            announcements.remove(id);
+        }
+        // a new, removed or edited announcement moves the others between pages
+        if (id == null || !event.statsOnly()) {
+            droppedAllAt = changed;
+            pages.values().forEach(Map::clear);
+        } else {
+            pages.values().forEach(segment -> segment.values().removeIf(entry -> entry.ids().contains(id)));
+        }
+    }
+
+    // checked after an entry is put, a change that came in while it was loaded may have missed it
+    private boolean changedSince(long loadedAt, Set<Long> ids) {
+        if (droppedAllAt > loadedAt) {
+            return true;
+        }
+        for (Long id : ids) {
+            if (changedAt.getOrDefault(id, 0L) > loadedAt) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Page<AnnouncementResponse> precompress(Page<AnnouncementResponse> page) {
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+                {
+                    def.setLevel(compressionLevel);
+                }
+            }) {
+                objectMapper.writeValue(gzip, page);
+            }
+            return new PrecompressedPage<>(page, compressed.toByteArray());
+        } catch (IOException e) {
+            logger.warn("Could not compress a page of announcements, it will be compressed on every write", e);
+            return page;
+        }
+    }
+
+    private long expiresAt() {
+        return System.currentTimeMillis() + ttlSeconds * 1000;
+    }
+
+    private AnnouncementResponse toResponse(Announcement announcement, AnnouncementStats stats) {
+        return new AnnouncementResponse(
+                announcement.getId(),
+                announcement.getTitle(),
+                announcement.getContent(),
+                announcement.getCoverImage(),
+                announcement.getDateTime(),
+                announcement.getViewsCount(),
+                stats.totalFavourites(),
+                stats.totalComments(),
+                false,
+                announcement.getAccessType()
+        );
+    }
+
+    private record PageKey(int page, int size, String sort) {
+    }
+
+    // compared by identity, an entry must only be removed by the load that put it
+    private static final class CachedEntry<T> {
+        private final T value;
+        private final Set<Long> ids;
+        private final long expiresAt;
+
+        CachedEntry(T value, Set<Long> ids, long expiresAt) {
+            this.value = value;
+            this.ids = ids;
+            this.expiresAt = expiresAt;
+        }
+
+        T value() {
+            return value;
+        }
+
+        Set<Long> ids() {
+            return ids;
+        }
+
+        boolean isValid() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import kg.nurtelecom.opinion.entity.AnnouncementComment;
 import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.AccessType;
 import kg.nurtelecom.opinion.enums.Role;
+import kg.nurtelecom.opinion.event.AnnouncementChangedEvent;
 import kg.nurtelecom.opinion.exception.NoAccessException;
 import kg.nurtelecom.opinion.exception.NotFoundException;
 import kg.nurtelecom.opinion.mapper.AnnouncementCommentMapper;
@@ -16,6 +17,7 @@ import kg.nurtelecom.opinion.repository.UserRepository;
 import kg.nurtelecom.opinion.service.AnnouncementCommentService;
 import kg.nurtelecom.opinion.service.UserNotificationService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -38,17 +40,19 @@ public class AnnouncementCommentServiceImpl implements AnnouncementCommentServic
     private final AnnouncementCommentMapper announcementCommentMapper;
     private final UserRepository userRepository;
     private final UserNotificationService userNotificationService;
+    private final ApplicationEventPublisher eventPublisher;
     @Value("${client-application.route.user}")
     private String userRoute;
     @Value("${client-application.route.announcement}")
     private String announcementRoute;
 
-    public AnnouncementCommentServiceImpl(AnnouncementCommentRepository announcementCommentRepository, AnnouncementRepository announcementRepository, AnnouncementCommentMapper announcementCommentMapper, UserRepository userRepository, UserNotificationService userNotificationService) {
+    public AnnouncementCommentServiceImpl(AnnouncementCommentRepository announcementCommentRepository, AnnouncementRepository announcementRepository, AnnouncementCommentMapper announcementCommentMapper, UserRepository userRepository, UserNotificationService userNotificationService, ApplicationEventPublisher eventPublisher) {
         this.announcementCommentRepository = announcementCommentRepository;
         this.announcementRepository = announcementRepository;
         this.announcementCommentMapper = announcementCommentMapper;
         this.userRepository = userRepository;
         this.userNotificationService = userNotificationService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -111,6 +115,7 @@ public class AnnouncementCommentServiceImpl implements AnnouncementCommentServic
         announcementComment.setEdited(false);
 
         AnnouncementComment savedComment = announcementCommentRepository.save(announcementComment);
+        eventPublisher.publishEvent(new AnnouncementChangedEvent(announcementId, true));
 
         String text = announcementCommentRequest.text();
         List<String> mentionedUsers = extractMentionedUsers(text);
@@ -169,6 +174,7 @@ public class AnnouncementCommentServiceImpl implements AnnouncementCommentServic
         }
 
         announcementCommentRepository.delete(announcementComment);
+        eventPublisher.publishEvent(new AnnouncementChangedEvent(announcementComment.getAnnouncement().getId(), true));
         return ResponseEntity.noContent().build();
     }
 
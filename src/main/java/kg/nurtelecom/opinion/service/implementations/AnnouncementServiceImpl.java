@@ -1,106 +1,78 @@
 package kg.nurtelecom.opinion.service.implementations;
 
-import kg.nurtelecom.opinion.entity.Announcement;
 import kg.nurtelecom.opinion.entity.User;
-import kg.nurtelecom.opinion.enums.AccessType;
-import kg.nurtelecom.opinion.enums.Role;
+import kg.nurtelecom.opinion.enums.AnnouncementTier;
 import kg.nurtelecom.opinion.enums.SourceType;
 import kg.nurtelecom.opinion.exception.NoAccessException;
 import kg.nurtelecom.opinion.exception.NotFoundException;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.announcement.AnnouncementResponse;
-import kg.nurtelecom.opinion.repository.AnnouncementCommentRepository;
 import kg.nurtelecom.opinion.repository.AnnouncementRepository;
 import kg.nurtelecom.opinion.repository.SavedAnnouncementsRepository;
+import kg.nurtelecom.opinion.service.AnnouncementCacheService;
 import kg.nurtelecom.opinion.service.AnnouncementService;
 import kg.nurtelecom.opinion.service.MailSenderService;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class AnnouncementServiceImpl implements AnnouncementService {
 
     private final AnnouncementRepository announcementRepository;
     private final SavedAnnouncementsRepository savedAnnouncementsRepository;
-
-    private final AnnouncementCommentRepository announcementCommentRepository;
+    private final AnnouncementCacheService announcementCacheService;
     private final MailSenderService mailSenderService;
 
-    public AnnouncementServiceImpl(AnnouncementRepository announcementRepository, SavedAnnouncementsRepository savedAnnouncementsRepository, AnnouncementCommentRepository announcementCommentRepository, MailSenderService mailSenderService) {
+    public AnnouncementServiceImpl(AnnouncementRepository announcementRepository, SavedAnnouncementsRepository savedAnnouncementsRepository, AnnouncementCacheService announcementCacheService, MailSenderService mailSenderService) {
         this.announcementRepository = announcementRepository;
         this.savedAnnouncementsRepository = savedAnnouncementsRepository;
-
-        this.announcementCommentRepository = announcementCommentRepository;
+        this.announcementCacheService = announcementCacheService;
         this.mailSenderService = mailSenderService;
     }
 
     @Override
-    public ResponseEntity<Page<AnnouncementResponse>> getAnnouncements(Pageable pageable, User user) {
-        Role userRole = (user != null) ? user.getRole() : Role.ROLE_USER;
-        Page<Announcement> announcements = announcementRepository.findAll(pageable);
-        List<AnnouncementResponse> announcementsList = new ArrayList<>();
-        announcements.forEach(announcement -> {
-            if (!(userRole.equals(Role.ROLE_USER) && announcement.getAccessType().equals(AccessType.EMPLOYEES))) {
-                boolean isInFavourites = (user != null) ?
-                        savedAnnouncementsRepository.existsByAnnouncementIdAndUserId(announcement.getId(), user.getId())
-                        : false;
-                AnnouncementResponse announcementResponse = new AnnouncementResponse(
-                        announcement.getId(),
-                        announcement.getTitle(),
-                        announcement.getContent(),
-                        announcement.getCoverImage(),
-                        announcement.getDateTime(),
-                        announcement.getViewsCount(),
-                        savedAnnouncementsRepository.countByAnnouncementId(announcement.getId()),
-                        announcementCommentRepository.countByAnnouncementId(announcement.getId()),
-                        isInFavourites,
-                        announcement.getAccessType()
-                );
-                announcementsList.add(announcementResponse);
-            }
-        });
-
-        Page<AnnouncementResponse> response = new PageImpl<>(announcementsList, pageable, announcements.getTotalElements());
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<AnnouncementResponse>> getAnnouncements(Pageable pageable, User user, FieldSet fields) {
+        Page<AnnouncementResponse> announcements = announcementCacheService.getPage(AnnouncementTier.of(user), pageable);
+        if (user == null || announcements.isEmpty() || !fields.includes(AnnouncementResponse.IN_FAVOURITES)) {
+            return ResponseEntity.ok(announcements);
+        }
+        List<Long> ids = announcements.map(AnnouncementResponse::getId).getContent();
+        Set<Long> saved = new HashSet<>(savedAnnouncementsRepository.findSavedAnnouncementIds(user.getId(), ids));
+        Page<AnnouncementResponse> response = announcements.map(announcement ->
+                saved.contains(announcement.getId()) ? announcement.withInFavourites(true) : announcement);
 
         return ResponseEntity.ok(response);
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<AnnouncementResponse> getAnnouncement(Long id, User user) {
-        Role userRole = (user != null) ? user.getRole() : Role.ROLE_USER;
-        Announcement announcement = announcementRepository.findById(id)
+        AnnouncementResponse announcement = announcementCacheService.getAnnouncement(id)
                 .orElseThrow(() -> new NotFoundException("Объявления с таким id не существует "));
 
-        if (userRole.equals(Role.ROLE_USER) && announcement.getAccessType().equals(AccessType.EMPLOYEES)) {
+        if (!AnnouncementTier.of(user).allows(announcement.getAccessType())) {
             throw new NoAccessException("У вас нет прав для просмотра этого объявления");
         }
-        boolean isInFavourites = (user != null) ?
-                savedAnnouncementsRepository.existsByAnnouncementIdAndUserId(announcement.getId(), user.getId())
-                : false;
-        AnnouncementResponse response = new AnnouncementResponse(
-                announcement.getId(),
-                announcement.getTitle(),
-                announcement.getContent(),
-                announcement.getCoverImage(),
-                announcement.getDateTime(),
-                announcement.getViewsCount(),
-                savedAnnouncementsRepository.countByAnnouncementId(announcement.getId()),
-                announcementCommentRepository.countByAnnouncementId(announcement.getId()),
-                isInFavourites,
-                announcement.getAccessType()
-        );
+        announcementCacheService.recordView(id);
+        if (user != null && savedAnnouncementsRepository.existsByAnnouncementIdAndUserId(id, user.getId())) {
+            announcement = announcement.withInFavourites(true);
+        }
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(announcement);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<String> shareAnnouncement(Long id, String shareType) {
         if(announcementRepository.findById(id).isEmpty()) {
             throw new NotFoundException("Объявления  с таким id не существует");
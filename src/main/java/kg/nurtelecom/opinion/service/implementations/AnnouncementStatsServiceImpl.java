@@ -0,0 +1,55 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.announcement.AnnouncementStats;
+import kg.nurtelecom.opinion.repository.AnnouncementCommentRepository;
+import kg.nurtelecom.opinion.repository.IdCount;
+import kg.nurtelecom.opinion.repository.SavedAnnouncementsRepository;
+import kg.nurtelecom.opinion.service.AnnouncementStatsService;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+public class AnnouncementStatsServiceImpl implements AnnouncementStatsService {
+    private final SavedAnnouncementsRepository savedAnnouncementsRepository;
+    private final AnnouncementCommentRepository announcementCommentRepository;
+
+    public AnnouncementStatsServiceImpl(SavedAnnouncementsRepository savedAnnouncementsRepository,
+                                        AnnouncementCommentRepository announcementCommentRepository) {
+        this.savedAnnouncementsRepository = savedAnnouncementsRepository;
+        this.announcementCommentRepository = announcementCommentRepository;
+    }
+
+    /**
+     * Three grouped queries for the whole page, however many announcements it holds.
+     */
+    @Override
+    public Map<Long, AnnouncementStats> loadStats(Collection<Long> announcementIds, User user) {
+        if (announcementIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Long> favourites = toMap(savedAnnouncementsRepository.countByAnnouncementIds(announcementIds));
+        Map<Long, Long> comments = toMap(announcementCommentRepository.countByAnnouncementIds(announcementIds));
+        Set<Long> saved = user == null
+                ? Collections.emptySet()
+                : new HashSet<>(savedAnnouncementsRepository.findSavedAnnouncementIds(user.getId(), announcementIds));
+
+        Map<Long, AnnouncementStats> stats = new HashMap<>();
+        for (Long id : announcementIds) {
+            stats.put(id, new AnnouncementStats(
+                    favourites.getOrDefault(id, 0L),
+                    comments.getOrDefault(id, 0L),
+                    saved.contains(id)));
+        }
+        return stats;
+    }
+
+    private Map<Long, Long> toMap(List<IdCount> counts) {
+        Map<Long, Long> map = new HashMap<>();
+        for (IdCount count : counts) {
+            map.put(count.getId(), count.getTotal());
+        }
+        return map;
+    }
+}
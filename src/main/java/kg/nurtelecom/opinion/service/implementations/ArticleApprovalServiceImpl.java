@@ -0,0 +1,33 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.service.ArticleApprovalService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * Articles are approved and blocked in the admin panel, which writes to the database directly, so the in-memory
+ * indexes learn about it by polling. Every listener compares the published ids with what it already has.
+ */
+@Service
+public class ArticleApprovalServiceImpl implements ArticleApprovalService {
+    private final ArticleRepository articleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ArticleApprovalServiceImpl(ArticleRepository articleRepository, ApplicationEventPublisher eventPublisher) {
+        this.articleRepository = articleRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.articles.approval-poll-interval-ms}", initialDelayString = "${app.articles.approval-poll-interval-ms}")
+    public void pollApprovedArticles() {
+        Set<Long> approved = Set.copyOf(articleRepository.findIdsByStatus(ArticleStatus.APPROVED));
+        eventPublisher.publishEvent(new ApprovedArticlesEvent(approved));
+    }
+}
@@ -20,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 
@@ -55,6 +56,12 @@ public class ArticleCacheServiceImpl implements ArticleCacheService {
     }
 
 
+    @Override
+    public Optional<Article> findCachedArticle(Long id) {
+        Cache cache = cacheManager.getCache("articles");
+        return cache == null ? Optional.empty() : Optional.ofNullable(cache.get(id, Article.class));
+    }
+
     public List<Article> getAllArticlesFromCache() {
         Set<String> keys = redisTemplate.keys("galina:articles:*");
         for(String key : keys) {
@@ -3,10 +3,13 @@ package kg.nurtelecom.opinion.service.implementations;
 import kg.nurtelecom.opinion.entity.Article;
 import kg.nurtelecom.opinion.entity.ArticleComment;
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.ArticleActivity;
+import kg.nurtelecom.opinion.event.ArticleActivityEvent;
 import kg.nurtelecom.opinion.exception.ExceedsNestingLevelException;
 import kg.nurtelecom.opinion.exception.NoAccessException;
 import kg.nurtelecom.opinion.exception.NotFoundException;
 import kg.nurtelecom.opinion.mapper.ArticleCommentMapper;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleCommentRequest;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleCommentResponse;
 import kg.nurtelecom.opinion.payload.article_comment.ArticleNestedCommentResponse;
@@ -15,16 +18,21 @@ import kg.nurtelecom.opinion.repository.ArticleRepository;
 import kg.nurtelecom.opinion.repository.UserRepository;
 import kg.nurtelecom.opinion.service.ArticleCommentService;
 import kg.nurtelecom.opinion.service.UserNotificationService;
+import kg.nurtelecom.opinion.template.HtmlTemplateEngine;
+import kg.nurtelecom.opinion.template.TemplateName;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -36,6 +44,8 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
     private final ArticleCommentMapper articleCommentMapper;
     private final UserNotificationService userNotificationService;
     private final UserRepository userRepository;
+    private final HtmlTemplateEngine templateEngine;
+    private final ApplicationEventPublisher eventPublisher;
     @Value(value = "${client-application.host}")
     private String clientApplicationHost;
     @Value("${client-application.route.user}")
@@ -43,22 +53,28 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
     @Value("${client-application.route.article}")
     private String articleRoute;
 
-    public ArticleCommentServiceImpl(ArticleCommentRepository articleCommentRepository, ArticleRepository articleRepository, ArticleCommentMapper articleCommentMapper, UserNotificationService userNotificationService, UserRepository userRepository) {
+    public ArticleCommentServiceImpl(ArticleCommentRepository articleCommentRepository, ArticleRepository articleRepository, ArticleCommentMapper articleCommentMapper, UserNotificationService userNotificationService, UserRepository userRepository, HtmlTemplateEngine templateEngine, ApplicationEventPublisher eventPublisher) {
         this.articleCommentRepository = articleCommentRepository;
         this.articleRepository = articleRepository;
         this.articleCommentMapper = articleCommentMapper;
         this.userNotificationService = userNotificationService;
         this.userRepository = userRepository;
+        this.templateEngine = templateEngine;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
-    public ResponseEntity<Page<ArticleNestedCommentResponse>> getAllComments(Long articleId, Pageable pageable) {
+    public ResponseEntity<Page<ArticleNestedCommentResponse>> getAllComments(Long articleId, Pageable pageable, FieldSet fields) {
         Page<ArticleComment> comments = articleCommentRepository.findByArticle_IdAndParentCommentIsNull(articleId, pageable);
-        Page<ArticleNestedCommentResponse> commentResponses = comments.map(articleCommentMapper::toNestedModel);
+        // replies are loaded level by level, so they are only walked when asked for
+        Page<ArticleNestedCommentResponse> commentResponses = fields.includes(ArticleNestedCommentResponse.REPLIES)
+                ? comments.map(articleCommentMapper::toNestedModel)
+                : comments.map(articleCommentMapper::toModelWithoutReplies);
         return ResponseEntity.ok(commentResponses);
     }
 
     @Override
+    @Transactional
     public ResponseEntity<ArticleCommentResponse> saveComment(Long articleId, ArticleCommentRequest articleCommentRequest, User user) {
         Article article = articleRepository.findById(articleId)
                 .orElseThrow(() -> new NotFoundException("Статья с id " + articleId + " не найдена"));
@@ -73,6 +89,8 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
         comment.setDepth(0);
 
         ArticleComment savedComment = articleCommentRepository.save(comment);
+        eventPublisher.publishEvent(new ArticleActivityEvent(articleId, ArticleActivity.COMMENT));
+        articleRepository.touch(articleId);
 
         String text = articleCommentRequest.text();
         List<String> mentionedUsers = extractMentionedUsers(text);
@@ -96,6 +114,7 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
     }
 
     @Override
+    @Transactional
     public ResponseEntity<ArticleCommentResponse> replyToComment(Long id, ArticleCommentRequest articleCommentRequest, User user) {
         ArticleComment comment = findCommentById(id);
         checkNestingLevel(comment);
@@ -111,6 +130,8 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
         replyComment.setDepth(comment.getDepth() + 1);
 
         ArticleComment savedComment = articleCommentRepository.save(replyComment);
+        eventPublisher.publishEvent(new ArticleActivityEvent(replyComment.getArticle().getId(), ArticleActivity.COMMENT));
+        articleRepository.touch(replyComment.getArticle().getId());
 
         String text = articleCommentRequest.text();
         List<String> mentionedUsers = extractMentionedUsers(text);
@@ -142,6 +163,7 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
     }
 
     @Override
+    @Transactional
     public ResponseEntity<Void> deleteCommentById(Long id, User user) {
         ArticleComment comment = findCommentById(id);
 
@@ -149,6 +171,7 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
             throw new NoAccessException("Комментарий другого пользователя не может быть удален");
         }
         articleCommentRepository.delete(comment);
+        articleRepository.touch(comment.getArticle().getId());
         return ResponseEntity.noContent().build();
     }
 
@@ -170,20 +193,16 @@ public class ArticleCommentServiceImpl implements ArticleCommentService {
     }
 
     private String constructCommentNotificationContent(Long articleId, User user, String host) {
-        String content = "<p>Пользователь <a href=\"[[user_url]]\"><strong>[[nickname]]</strong></a> написал(-а) комментарий под вашей статьей." +
-                " Нажмите на уведомление, чтобы узнать подробнее.</p>";
-        content = content.replace("[[user_url]]", userRoute + "/" + user.getNickname());
-        content = content.replace("[[nickname]]", user.getNickname());
-        return content;
+        return templateEngine.render(TemplateName.COMMENT_NOTIFICATION, Map.of(
+                "user_url", userRoute + "/" + user.getNickname(),
+                "nickname", user.getNickname()));
     }
 
     private String constructMentionNotificationContent(Long articleId, String commentContent, User user) {
-        String content = "<p>Пользователь <a href=\"[[user_url]]\"><strong>[[nickname]]</strong></a> упомянул(-а) вас в комментарии под статьей." +
-                " Содержание: " + "\"" + commentContent.substring(0, Math.min(commentContent.length(), 30)) + "\"." +
-                " Нажмите на уведомление, чтобы узнать подробнее.</p>";
-        content = content.replace("[[user_url]]", userRoute + "/" + user.getNickname());
-        content = content.replace("[[nickname]]", user.getNickname());
-        return content;
+        return templateEngine.render(TemplateName.MENTION_NOTIFICATION, Map.of(
+                "user_url", userRoute + "/" + user.getNickname(),
+                "nickname", user.getNickname(),
+                "comment", commentContent.substring(0, Math.min(commentContent.length(), 30))));
     }
 
     private List<String> extractMentionedUsers(String content) {
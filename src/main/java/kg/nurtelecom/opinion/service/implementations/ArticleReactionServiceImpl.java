@@ -1,57 +1,192 @@
 package kg.nurtelecom.opinion.service.implementations;
 
-import kg.nurtelecom.opinion.entity.Article;
 import kg.nurtelecom.opinion.entity.ArticleReaction;
+import kg.nurtelecom.opinion.enums.ArticleActivity;
 import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.event.ArticleActivityEvent;
 import kg.nurtelecom.opinion.exception.NotFoundException;
+import kg.nurtelecom.opinion.exception.NotValidException;
 import kg.nurtelecom.opinion.mapper.ArticleReactionMapper;
 import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionRequest;
 import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionResponse;
+import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionStateResponse;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionChange;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionDelta;
 import kg.nurtelecom.opinion.repository.ArticleReactionRepository;
+import kg.nurtelecom.opinion.repository.ArticleReactionState;
 import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.ReactionCounts;
 import kg.nurtelecom.opinion.service.ArticleReactionService;
+import kg.nurtelecom.opinion.service.PooledIdService;
+import kg.nurtelecom.opinion.service.ReactionJournalService;
+import kg.nurtelecom.opinion.service.UserReactionCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class ArticleReactionServiceImpl implements ArticleReactionService {
+    private static final int MAX_REACTION_LOOKUPS = 100;
     private final ArticleReactionRepository articleReactionRepository;
     private final ArticleRepository articleRepository;
     private final ArticleReactionMapper articleReactionMapper;
-
-    public ArticleReactionServiceImpl(ArticleReactionRepository articleReactionRepository, ArticleRepository articleRepository, ArticleReactionMapper articleReactionMapper) {
+    private final UserReactionCacheService userReactionCacheService;
+    private final ReactionJournalService reactionJournalService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PooledIdService pooledIdService;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(ArticleReactionServiceImpl.class);
+
+    public ArticleReactionServiceImpl(ArticleReactionRepository articleReactionRepository, ArticleRepository articleRepository, ArticleReactionMapper articleReactionMapper, UserReactionCacheService userReactionCacheService, ReactionJournalService reactionJournalService, ApplicationEventPublisher eventPublisher, PooledIdService pooledIdService, PlatformTransactionManager transactionManager) {
         this.articleReactionRepository = articleReactionRepository;
         this.articleRepository = articleRepository;
         this.articleReactionMapper = articleReactionMapper;
+        this.userReactionCacheService = userReactionCacheService;
+        this.reactionJournalService = reactionJournalService;
+        this.eventPublisher = eventPublisher;
+        this.pooledIdService = pooledIdService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    public ResponseEntity<String> addReactionToArticle(ArticleReactionRequest reaction, User user) {
-        Article article = articleRepository.findById(reaction.articleId())
-                .orElseThrow(() -> new NotFoundException("Статья с айди " + reaction.articleId() + " не найдена"));
-
-        ArticleReaction articleReaction;
+    public ResponseEntity<ArticleReactionStateResponse> addReactionToArticle(ArticleReactionRequest reaction, User user) {
+        ArticleReactionStateResponse response;
+        if (reactionJournalService.isEnabled()) {
+            response = journalReaction(reaction, user);
+        } else {
+            try {
+                response = toggleReaction(reaction, user);
+            } catch (ConcurrencyFailureException e) {
+                // a double click deadlocks on the same row, the other click has committed by now
+                response = toggleReaction(reaction, user);
+            }
+        }
+        return ResponseEntity.ok(response);
+    }
 
-        if(!articleReactionRepository.existsByArticleAndUser(article, user)) {
-            articleReaction = new ArticleReaction(reaction.reactionType(), article, user);
-            articleReactionRepository.save(articleReaction);
-            return ResponseEntity.ok("Реакция добавлена");
+    private ArticleReactionStateResponse toggleReaction(ArticleReactionRequest reaction, User user) {
+        Long articleId = reaction.articleId();
+        ReactionType reactionType = reaction.reactionType();
+        try {
+            ArticleReactionStateResponse response = transactionTemplate.execute(status -> {
+                ReactionType previous;
+                ReactionType state;
+                long likes = 0;
+                long dislikes = 0;
+                if (articleReactionRepository.deleteReaction(articleId, user.getId(), reactionType.name()) > 0) {
+                    previous = reactionType;
+                    state = null;
+                    if (reactionType == ReactionType.LIKE) {
+                        likes--;
+                    } else {
+                        dislikes--;
+                    }
+                } else {
+                    Long id = pooledIdService.nextIds(ArticleReaction.class, 1).get(0);
+                    int upserted = articleReactionRepository.upsertReaction(id, articleId, user.getId(), reactionType.name());
+                    state = reactionType;
+                    if (upserted == 0) {
+                        // a concurrent double click has stored the same reaction after our delete missed it
+                        previous = reactionType;
+                    } else {
+                        boolean replaced = upserted > 1;
+                        previous = replaced ? opposite(reactionType) : null;
+                        if (reactionType == ReactionType.LIKE) {
+                            likes++;
+                            dislikes -= replaced ? 1 : 0;
+                        } else {
+                            dislikes++;
+                            likes -= replaced ? 1 : 0;
+                        }
+                    }
+                }
+                articleRepository.addReactionCounts(articleId, likes, dislikes);
+                // delivered once the transaction commits, a retried toggle doesn't count twice
+                publishActivity(articleId, new ReactionChange(previous, state));
+                return toStateResponse(articleId, state);
+            });
+            userReactionCacheService.evict(user.getId());
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException("Статья с айди " + articleId + " не найдена");
         }
+    }
+
+    private ArticleReactionStateResponse journalReaction(ArticleReactionRequest reaction, User user) {
+        Long articleId = reaction.articleId();
+        Long userId = user.getId();
+        ArticleReactionStateResponse stored;
+        Optional<ReactionDelta> delta;
+        // the counters and the toggles not yet in them are taken between the same two flushes
+        do {
+            long epoch = reactionJournalService.awaitFlushEpoch(articleId);
+            // also checks that the article exists, the journal is written without it
+            stored = toStateResponse(articleId, null);
+            delta = reactionJournalService.getPendingDelta(articleId, epoch);
+        } while (delta.isEmpty());
+        ReactionChange change = reactionJournalService.toggle(articleId, userId, reaction.reactionType(),
+                () -> findStoredReaction(articleId, userId));
+        publishActivity(articleId, change);
+        long likes = stored.likes() + delta.get().likes() + countOf(ReactionType.LIKE, change);
+        long dislikes = stored.dislikes() + delta.get().dislikes() + countOf(ReactionType.DISLIKE, change);
+
+        return new ArticleReactionStateResponse(articleId, change.current(), likes, dislikes, likes - dislikes);
+    }
 
-        articleReaction = articleReactionRepository.findByArticleAndUser(article, user).get();
+    private static int countOf(ReactionType reactionType, ReactionChange change) {
+        return (change.current() == reactionType ? 1 : 0) - (change.previous() == reactionType ? 1 : 0);
+    }
 
-        if(articleReaction.getReactionType().equals(reaction.reactionType())) {
-            articleReactionRepository.delete(articleReaction);
-            return ResponseEntity.ok("Реакция удалена");
+    private void publishActivity(Long articleId, ReactionChange change) {
+        if (change.current() == change.previous()) {
+            return;
+        }
+        if (change.current() == ReactionType.LIKE) {
+            eventPublisher.publishEvent(new ArticleActivityEvent(articleId, ArticleActivity.LIKE));
+        } else if (change.previous() == ReactionType.LIKE) {
+            eventPublisher.publishEvent(new ArticleActivityEvent(articleId, ArticleActivity.UNLIKE));
         }
+    }
+
+    private static ReactionType opposite(ReactionType reactionType) {
+        return reactionType == ReactionType.LIKE ? ReactionType.DISLIKE : ReactionType.LIKE;
+    }
 
-        articleReaction.setReactionType(reaction.reactionType());
-        articleReactionRepository.save(articleReaction);
+    // not from the user cache, which another instance may have made stale
+    private ReactionType findStoredReaction(Long articleId, Long userId) {
+        return articleReactionRepository.findStatesByUserIdAndArticleIds(userId, List.of(articleId)).stream()
+                .map(ArticleReactionState::getReactionType)
+                .findFirst()
+                .orElse(null);
+    }
 
-        return ResponseEntity.ok("Реакция обновлена");
+    private ArticleReactionStateResponse toStateResponse(Long articleId, ReactionType state) {
+        ReactionCounts counts = articleRepository.findReactionCounts(articleId)
+                .orElseThrow(() -> new NotFoundException("Статья с айди " + articleId + " не найдена"));
+        Long likes = counts.getLikes();
+        Long dislikes = counts.getDislikes();
+        if (likes == null || dislikes == null) {
+            likes = articleReactionRepository.countByArticleIdAndReactionType(articleId, ReactionType.LIKE);
+            dislikes = articleReactionRepository.countByArticleIdAndReactionType(articleId, ReactionType.DISLIKE);
+        }
+        return new ArticleReactionStateResponse(articleId, state, likes, dislikes, likes - dislikes);
     }
 
     @Override
@@ -72,16 +207,44 @@ public class ArticleReactionServiceImpl implements ArticleReactionService {
 
     @Override
     public ResponseEntity<ReactionType> getArticleReactionByUser(Long articleId, User user) {
-        Article article = articleRepository.findById(articleId)
-                .orElseThrow(() -> new NotFoundException("Статья с айди " + articleId + " не найдена"));
+        ReactionType reactionType = user != null ? findReactions(user, List.of(articleId)).get(articleId) : null;
+        if (reactionType != null) {
+            return ResponseEntity.ok(reactionType);
+        }
+        if (!articleRepository.existsById(articleId)) {
+            throw new NotFoundException("Статья с айди " + articleId + " не найдена");
+        }
 
-        ArticleReaction articleReaction;
+        return ResponseEntity.notFound().build();
+    }
 
-        if (articleReactionRepository.existsByArticleAndUser(article, user)) {
-            articleReaction = articleReactionRepository.findByArticleAndUser(article, user).get();
-            return ResponseEntity.ok(articleReaction.getReactionType());
+    @Override
+    public ResponseEntity<Map<Long, ReactionType>> getArticleReactionsByUser(List<Long> articleIds, User user) {
+        if (articleIds.size() > MAX_REACTION_LOOKUPS) {
+            throw new NotValidException("Можно запросить реакции не более чем на " + MAX_REACTION_LOOKUPS + " статей");
+        }
+        if (user == null) {
+            return ResponseEntity.ok(Map.of());
         }
 
-        return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(findReactions(user, new LinkedHashSet<>(articleIds)));
+    }
+
+    private Map<Long, ReactionType> findReactions(User user, Collection<Long> articleIds) {
+        Map<Long, ReactionType> reactions = userReactionCacheService.getReactions(user.getId(), articleIds);
+        if (reactionJournalService.isEnabled()) {
+            return reactionJournalService.overlay(user.getId(), articleIds, reactions);
+        }
+        return reactions;
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingReactionCounts() {
+        // duplicates are gone by now, ArticleReactionMigration removes them before the unique key is created
+        int articles = transactionTemplate.execute(status -> articleRepository.fillMissingReactionCounts());
+        if (articles > 0) {
+            logger.info("Filled reaction counts of " + articles + " articles");
+        }
     }
 }
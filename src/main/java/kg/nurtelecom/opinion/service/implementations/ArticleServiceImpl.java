@@ -4,35 +4,53 @@ import kg.nurtelecom.opinion.entity.Article;
 import kg.nurtelecom.opinion.entity.SavedArticle;
 import kg.nurtelecom.opinion.entity.Tag;
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.ArticleActivity;
 import kg.nurtelecom.opinion.enums.ArticleStatus;
 import kg.nurtelecom.opinion.enums.ReactionType;
 import kg.nurtelecom.opinion.enums.SourceType;
 import kg.nurtelecom.opinion.enums.Status;
+import kg.nurtelecom.opinion.event.ArticleActivityEvent;
+import kg.nurtelecom.opinion.event.ArticleChangedEvent;
 import kg.nurtelecom.opinion.exception.NoAccessException;
 import kg.nurtelecom.opinion.exception.NotFoundException;
 import kg.nurtelecom.opinion.exception.NotValidException;
 import kg.nurtelecom.opinion.mapper.ArticleMapper;
 import kg.nurtelecom.opinion.mapper.TagMapper;
 import kg.nurtelecom.opinion.mapper.UserMapper;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article.*;
 import kg.nurtelecom.opinion.payload.tag.TagDTO;
+import kg.nurtelecom.opinion.payload.user.UserResponse;
 import kg.nurtelecom.opinion.repository.*;
 import kg.nurtelecom.opinion.service.AdminNotificationService;
 import kg.nurtelecom.opinion.service.ArticleCacheService;
 import kg.nurtelecom.opinion.service.ArticleService;
+import kg.nurtelecom.opinion.service.EntityTagService;
 import kg.nurtelecom.opinion.service.MailSenderService;
+import kg.nurtelecom.opinion.service.RelatedArticlesService;
+import kg.nurtelecom.opinion.service.ArticleCardService;
+import kg.nurtelecom.opinion.service.FeedService;
+import kg.nurtelecom.opinion.service.TrendingService;
+import kg.nurtelecom.opinion.template.HtmlTemplateEngine;
+import kg.nurtelecom.opinion.template.TemplateName;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Function;
 
 @Transactional
 @Service
@@ -50,6 +68,13 @@ public class ArticleServiceImpl implements ArticleService {
     private final MailSenderService mailSenderService;
     private final ArticleCacheService articleCacheService;
     private final AdminNotificationService adminNotificationService;
+    private final HtmlTemplateEngine templateEngine;
+    private final TrendingService trendingService;
+    private final RelatedArticlesService relatedArticlesService;
+    private final FeedService feedService;
+    private final ArticleCardService articleCardService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityTagService entityTagService;
     @Value("${admin-panel.route.article}")
     private String articleRoute;
     @Value("${admin-panel.route.user}")
@@ -60,8 +85,10 @@ public class ArticleServiceImpl implements ArticleService {
     private String clientUserRoute;
     @Value("${client-application.route.article}")
     private String clientArticleRoute;
+    @Value("${app.http-cache.article-max-age-seconds}")
+    private long articleMaxAgeSeconds;
 
-    public ArticleServiceImpl(ArticleRepository articleRepository, UserRepository userRepository, ArticleReactionRepository articleReactionRepository, SavedArticlesRepository savedArticlesRepository, ArticleCommentRepository articleCommentRepository, TagRepository tagRepository, ArticleMapper articleMapper, UserMapper userMapper, TagMapper tagMapper, MailSenderService mailSenderService, ArticleCacheService articleCacheService, AdminNotificationService adminNotificationService) {
+    public ArticleServiceImpl(ArticleRepository articleRepository, UserRepository userRepository, ArticleReactionRepository articleReactionRepository, SavedArticlesRepository savedArticlesRepository, ArticleCommentRepository articleCommentRepository, TagRepository tagRepository, ArticleMapper articleMapper, UserMapper userMapper, TagMapper tagMapper, MailSenderService mailSenderService, ArticleCacheService articleCacheService, AdminNotificationService adminNotificationService, HtmlTemplateEngine templateEngine, TrendingService trendingService, RelatedArticlesService relatedArticlesService, FeedService feedService, ArticleCardService articleCardService, ApplicationEventPublisher eventPublisher, EntityTagService entityTagService) {
         this.articleRepository = articleRepository;
         this.userRepository = userRepository;
         this.articleReactionRepository = articleReactionRepository;
@@ -74,6 +101,13 @@ public class ArticleServiceImpl implements ArticleService {
         this.mailSenderService = mailSenderService;
         this.articleCacheService = articleCacheService;
         this.adminNotificationService = adminNotificationService;
+        this.templateEngine = templateEngine;
+        this.trendingService = trendingService;
+        this.relatedArticlesService = relatedArticlesService;
+        this.feedService = feedService;
+        this.articleCardService = articleCardService;
+        this.eventPublisher = eventPublisher;
+        this.entityTagService = entityTagService;
     }
 
     @Override
@@ -120,50 +154,52 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
-    public ResponseEntity<Page<ArticlesGetDTO>> getArticles(Pageable pageable, User user) {
-        Page<Article> articles = articleRepository.findByStatus(ArticleStatus.APPROVED, pageable);
-        List<ArticlesGetDTO> articlesList = new ArrayList<>();
-        articles.forEach(article -> {
-            Long id = article.getId();
-            ArticlesGetDTO articlesResponse = new ArticlesGetDTO(
-                    article.getId(),
-                    article.getTitle(),
-                    article.getShortDescription(),
-                    article.getCoverImage(),
-                    article.getDateTime(),
-                    userMapper.toUserResponse(article.getAuthor()),
-                    calculateRating(id),
-                    savedArticlesRepository.countByArticleId(article.getId()),
-                    articleCommentRepository.countByArticleId(id),
-                    article.getViewsCount(),
-                    setInFavourites(id, user));
-            articlesList.add(articlesResponse);
-        });
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<ArticlesGetDTO>> getArticles(Pageable pageable, User user, FieldSet fields) {
+        Page<ArticleCard> articles = articleRepository.findCardsByStatus(ArticleStatus.APPROVED, pageable);
+        List<ArticlesGetDTO> articlesList = articleCardService.toCards(articles.getContent(), user, fields);
 
         Page<ArticlesGetDTO> response = new PageImpl<>(articlesList, pageable, articles.getTotalElements());
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     @Override
-    public ResponseEntity<Page<ArticlesGetDTO>> searchArticle(Pageable pageable, String searchQuery, User user) {
-        Page<Article> foundArticles = articleRepository.findByStatusAndTitleContaining(ArticleStatus.APPROVED, searchQuery, pageable);
-        List<ArticlesGetDTO> articlesList = new ArrayList<>();
-        foundArticles.forEach(article -> {
-            Long id = article.getId();
-            ArticlesGetDTO articlesResponse = new ArticlesGetDTO(
-                    article.getId(),
-                    article.getTitle(),
-                    article.getShortDescription(),
-                    article.getCoverImage(),
-                    article.getDateTime(),
-                    userMapper.toUserResponse(article.getAuthor()),
-                    calculateRating(id),
-                    savedArticlesRepository.countByArticleId(article.getId()),
-                    articleCommentRepository.countByArticleId(id),
-                    article.getViewsCount(),
-                    setInFavourites(id, user));
-            articlesList.add(articlesResponse);
-        });
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<ArticlesGetDTO>> getTrendingArticles(Pageable pageable, User user, FieldSet fields) {
+        return new ResponseEntity<>(toArticlesPage(trendingService.getTrendingArticleIds(pageable), user, fields), HttpStatus.OK);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<ArticlesGetDTO>> getFeed(Pageable pageable, User user, FieldSet fields) {
+        Page<Long> ids = feedService.getFeedArticleIds(user == null ? null : user.getId(), pageable);
+        return new ResponseEntity<>(toArticlesPage(ids, user, fields), HttpStatus.OK);
+    }
+
+    private Page<ArticlesGetDTO> toArticlesPage(Page<Long> ids, User user, FieldSet fields) {
+        List<ArticlesGetDTO> articlesList = articleCardService.getCards(ids.getContent(), user, fields);
+        return new PageImpl<>(articlesList, ids.getPageable(), ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<RelatedArticleDTO>> getRelatedArticles(Long id) {
+        Optional<List<RelatedArticleDTO>> related = relatedArticlesService.getRelatedArticles(id);
+        if (related.isPresent()) {
+            return ResponseEntity.ok(related.get());
+        }
+        // not indexed yet or not approved
+        if (!articleRepository.existsById(id)) {
+            throw new NotFoundException("Статья не найдена");
+        }
+        return ResponseEntity.ok(List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<ArticlesGetDTO>> searchArticle(Pageable pageable, String searchQuery, User user, FieldSet fields) {
+        Page<ArticleCard> foundArticles = articleRepository.findCardsByStatusAndTitleContaining(ArticleStatus.APPROVED, searchQuery, pageable);
+        List<ArticlesGetDTO> articlesList = articleCardService.toCards(foundArticles.getContent(), user, fields);
 
         Page<ArticlesGetDTO> response = new PageImpl<>(articlesList, pageable, foundArticles.getTotalElements());
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -187,6 +223,7 @@ public class ArticleServiceImpl implements ArticleService {
             copy.setTitle(editedArticle.title());
             copy.setShortDescription(editedArticle.shortDescription());
             copy.setCoverImage(articleEntity.getCoverImage());
+            copy.setCoverRenditions(articleEntity.getCoverRenditions());
             copy.setStatus(ArticleStatus.DRAFT);
             copy.setContent(editedArticle.content());
             copy.setPreviousStatus(articleEntity.getPreviousStatus());
@@ -210,6 +247,7 @@ public class ArticleServiceImpl implements ArticleService {
         }
         articleRepository.save(articleEntity);
         articleCacheService.clearArticleFromCache(articleId.toString());
+        eventPublisher.publishEvent(new ArticleChangedEvent(articleId));
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -244,18 +282,41 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
-    public ArticleGetDTO getArticle(Long id, User user) {
+    public ResponseEntity<ArticleGetDTO> getArticle(Long id, User user, FieldSet fields, String ifNoneMatch) {
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Статья не найдена"));
         if (article.getStatus().equals(ArticleStatus.APPROVED) || (user != null && article.getAuthor().getId().equals(user.getId()))) {
+            // a revalidated copy is still a view
             articleRepository.incrementViewsCount(id);
-            return createArticleGetDTO(article, user);
+            if (article.getStatus().equals(ArticleStatus.APPROVED)) {
+                eventPublisher.publishEvent(new ArticleActivityEvent(id, ArticleActivity.VIEW));
+            }
+            return toConditionalResponse(article, user, fields, ifNoneMatch);
         } else {
             throw new NoAccessException("Статья недоступна = (");
         }
     }
 
-    private ArticleGetDTO createArticleGetDTO(Article article, User user) {
+    private ResponseEntity<ArticleGetDTO> toConditionalResponse(Article article, User user, FieldSet fields, String ifNoneMatch) {
+        // only columns already loaded go into the tag, counts and mapped parts are built on a miss;
+        // favourites and comments are covered by updatedAt, the reactions by their counter columns
+        User author = article.getAuthor();
+        String tag = entityTagService.tagOf(article.getId(), article.getStatus(), article.getUpdatedAt(),
+                article.getLikesCount(), article.getDislikesCount(), author.getId(), author.getNickname(), author.getAvatar(),
+                article.getTags().stream().map(Tag::getId).sorted().toList(),
+                fields.includes(ArticleGetDTO.IN_FAVOURITES) && user != null ? user.getId() : null,
+                fields.isAll() ? null : new TreeSet<>(fields.names()));
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(articleMaxAgeSeconds));
+        // in_favourites and access to unpublished articles depend on the user
+        cacheControl = user == null ? cacheControl.cachePublic() : cacheControl.cachePrivate();
+        return entityTagService.respond(ifNoneMatch, tag, cacheControl, () -> createArticleGetDTO(article, user, fields));
+    }
+
+    private ArticleGetDTO createArticleGetDTO(Article article, User user, FieldSet fields) {
+        return createArticleGetDTO(article, user, fields, this::calculateRating);
+    }
+
+    private ArticleGetDTO createArticleGetDTO(Article article, User user, FieldSet fields, Function<Article, Long> rating) {
         Long id = article.getId();
         return new ArticleGetDTO(
                 id,
@@ -263,25 +324,29 @@ public class ArticleServiceImpl implements ArticleService {
                 article.getShortDescription(),
                 article.getCoverImage(),
                 article.getDateTime(),
-                userMapper.toUserResponse(article.getAuthor()),
-                calculateRating(id),
-                savedArticlesRepository.countByArticleId(id),
-                articleCommentRepository.countByArticleId(id),
+                fields.includes(ArticleGetDTO.AUTHOR) ? userMapper.toUserResponse(article.getAuthor()) : null,
+                fields.includes(ArticleGetDTO.RATING) ? rating.apply(article) : null,
+                fields.includes(ArticleGetDTO.TOTAL_FAVOURITES) ? savedArticlesRepository.countByArticleId(id) : null,
+                fields.includes(ArticleGetDTO.TOTAL_COMMENTS) ? articleCommentRepository.countByArticleId(id) : null,
                 article.getViewsCount(),
-                setInFavourites(id, user), article.getContent(), tagMapper.toTagResponseList(article.getTags()));
+                fields.includes(ArticleGetDTO.IN_FAVOURITES) ? setInFavourites(id, user) : null,
+                fields.includes(ArticleGetDTO.CONTENT) ? article.getContent() : null,
+                fields.includes(ArticleGetDTO.TAGS) ? tagMapper.toTagResponseList(article.getTags()) : null);
     }
     @Override
-    public ArticleGetDTO getArticleFromCache(Long id, User user) {
+    public ArticleGetDTO getArticleFromCache(Long id, User user, FieldSet fields) {
         Article article = articleCacheService.getArticle(id);
         if (article.getStatus().equals(ArticleStatus.APPROVED) || (user != null && article.getAuthor().getId().equals(user.getId()))) {
             articleRepository.incrementViewsCount(id);
-            return createArticleGetDTO(article, user);
+            // the cached copy is not refreshed when reactions change, its counters are as old as the entry
+            return createArticleGetDTO(article, user, fields, cached -> loadRating(cached.getId()));
         } else {
             throw new NoAccessException("Статья недоступна = (");
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<Long> getArticleRating(Long id, User user) {
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Статьи с таким id не существует"));
@@ -289,7 +354,7 @@ public class ArticleServiceImpl implements ArticleService {
         Long articleAuthorsId = article.getAuthor().getId();
         if (articleStatus.equals(ArticleStatus.APPROVED) ||
                 (user != null && articleAuthorsId.equals(user.getId()))) {
-            Long articleRating = calculateRating(id);
+            Long articleRating = calculateRating(article);
 
             return ResponseEntity.ok(articleRating);
         } else {
@@ -298,12 +363,27 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<Long> getArticleTotalFavourites(Long id) {
         Long totalFavourites = savedArticlesRepository.countByArticleId(id);
         return ResponseEntity.ok(totalFavourites);
     }
 
-    private Long calculateRating(Long articleId) {
+    private Long calculateRating(Article article) {
+        if (article.getRating() != null) {
+            return article.getRating();
+        }
+        return countRating(article.getId());
+    }
+
+    private Long loadRating(Long articleId) {
+        return articleRepository.findReactionCounts(articleId)
+                .filter(counts -> counts.getLikes() != null && counts.getDislikes() != null)
+                .map(counts -> counts.getLikes() - counts.getDislikes())
+                .orElseGet(() -> countRating(articleId));
+    }
+
+    private Long countRating(Long articleId) {
         Long articleLikes = articleReactionRepository
                 .countByArticleIdAndReactionType(articleId, ReactionType.LIKE);
         Long articleDislikes = articleReactionRepository
@@ -321,6 +401,7 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<String> getArticleStatus(Long id, User user) {
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Статьи с таким id не существует"));
@@ -337,6 +418,7 @@ public class ArticleServiceImpl implements ArticleService {
         if (article.getAuthor().getId().equals(user.getId())) {
             article.setPreviousStatus(article.getStatus());
             article.setStatus(ArticleStatus.DELETED);
+            eventPublisher.publishEvent(new ArticleChangedEvent(id));
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
         return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
@@ -348,65 +430,36 @@ public class ArticleServiceImpl implements ArticleService {
                 .orElseThrow(() -> new NotFoundException("Статьи с таким id не существует"));
         if (article.getAuthor().getId().equals(user.getId()) && article.getStatus().equals(ArticleStatus.DELETED)) {
             article.setStatus(article.getPreviousStatus());
+            eventPublisher.publishEvent(new ArticleChangedEvent(id));
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
         return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
     }
 
     @Override
-    public ResponseEntity<Page<MyArticlesGetDTO>> getMyArticles(User user, Pageable pageable) {
-        Page<Article> articles = articleRepository.findByAuthor(user, pageable);
-        List<MyArticlesGetDTO> articlesList = new ArrayList<>();
-        articles.forEach(article -> {
-            Long id = article.getId();
-            MyArticlesGetDTO articlesResponse = new MyArticlesGetDTO(
-                    article.getStatus(),
-                    article.getId(),
-                    article.getTitle(),
-                    article.getShortDescription(),
-                    article.getCoverImage(),
-                    article.getDateTime(),
-                    userMapper.toUserResponse(article.getAuthor()),
-                    calculateRating(id),
-                    savedArticlesRepository.countByArticleId(article.getId()),
-                    articleCommentRepository.countByArticleId(id),
-                    article.getViewsCount(),
-                    setInFavourites(id, user));
-            articlesList.add(articlesResponse);
-        });
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<MyArticlesGetDTO>> getMyArticles(User user, Pageable pageable, FieldSet fields) {
+        Page<ArticleCard> articles = articleRepository.findCardsByAuthorId(user.getId(), pageable);
+        List<MyArticlesGetDTO> articlesList = articleCardService.toMyCards(articles.getContent(), user, fields);
 
         Page<MyArticlesGetDTO> response = new PageImpl<>(articlesList, pageable, articles.getTotalElements());
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     @Override
-    public ResponseEntity<Page<ArticlesGetDTO>> getUserArticles(Long userId, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<ArticlesGetDTO>> getUserArticles(Long userId, Pageable pageable, FieldSet fields) {
         Optional<User> user = userRepository.findByIdAndStatus(userId, Status.VERIFIED);
         User userEntity = user.orElseThrow(() -> new NotFoundException("Пользователя с таким id не существует"));
-        Page<Article> articles = articleRepository.findByAuthorAndStatus(userEntity, pageable, ArticleStatus.APPROVED);
-        List<ArticlesGetDTO> articlesList = new ArrayList<>();
-        articles.forEach(article -> {
-            Long id = article.getId();
-            ArticlesGetDTO articlesResponse = new ArticlesGetDTO(
-                    article.getId(),
-                    article.getTitle(),
-                    article.getShortDescription(),
-                    article.getCoverImage(),
-                    article.getDateTime(),
-                    userMapper.toUserResponse(article.getAuthor()),
-                    calculateRating(id),
-                    savedArticlesRepository.countByArticleId(article.getId()),
-                    articleCommentRepository.countByArticleId(id),
-                    article.getViewsCount(),
-                    setInFavourites(id, userEntity));
-            articlesList.add(articlesResponse);
-        });
+        Page<ArticleCard> articles = articleRepository.findCardsByAuthorIdAndStatus(userId, ArticleStatus.APPROVED, pageable);
+        List<ArticlesGetDTO> articlesList = articleCardService.toCards(articles.getContent(), userEntity, fields);
 
         Page<ArticlesGetDTO> response = new PageImpl<>(articlesList, pageable, articles.getTotalElements());
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<String> shareArticle(Long articleId, String shareType) {
         if (articleRepository.findById(articleId).isEmpty()) {
             throw new NotFoundException("Статьи с таким id не существует");
@@ -438,10 +491,8 @@ public class ArticleServiceImpl implements ArticleService {
     }
 
     private String constructAdminNotification(User user) {
-        String content = "<p>Пользователь <a href=\"[[user_url]]\"><strong>[[nickname]]</strong></a> отправил(-а) на модерацию статью." +
-                " Нажмите на уведомление, чтобы узнать подробнее.</p>";
-        content = content.replace("[[user_url]]", userRoute + "/" + user.getNickname());
-        content = content.replace("[[nickname]]", user.getNickname());
-        return content;
+        return templateEngine.render(TemplateName.ARTICLE_MODERATION_NOTIFICATION, Map.of(
+                "user_url", userRoute + "/" + user.getNickname(),
+                "nickname", user.getNickname()));
     }
 }
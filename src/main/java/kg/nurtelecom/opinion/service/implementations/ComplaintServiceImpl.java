@@ -12,11 +12,15 @@ import kg.nurtelecom.opinion.repository.ArticleRepository;
 import kg.nurtelecom.opinion.repository.ComplaintRepository;
 import kg.nurtelecom.opinion.service.AdminNotificationService;
 import kg.nurtelecom.opinion.service.ComplaintService;
+import kg.nurtelecom.opinion.template.HtmlTemplateEngine;
+import kg.nurtelecom.opinion.template.TemplateName;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 @Service
 public class ComplaintServiceImpl implements ComplaintService {
 
@@ -24,6 +28,7 @@ public class ComplaintServiceImpl implements ComplaintService {
     private final ComplaintMapper mapper;
     private final ArticleRepository articleRepository;
     private final AdminNotificationService adminNotificationService;
+    private final HtmlTemplateEngine templateEngine;
     @Value("${admin-panel.host}")
     private String host;
     @Value("${admin-panel.route.article}")
@@ -31,11 +36,12 @@ public class ComplaintServiceImpl implements ComplaintService {
     @Value("${admin-panel.route.user}")
     private String userRoute;
 
-    public ComplaintServiceImpl(ComplaintRepository repository, ComplaintMapper mapper, ArticleRepository articleRepository, AdminNotificationService adminNotificationService) {
+    public ComplaintServiceImpl(ComplaintRepository repository, ComplaintMapper mapper, ArticleRepository articleRepository, AdminNotificationService adminNotificationService, HtmlTemplateEngine templateEngine) {
         this.repository = repository;
         this.mapper = mapper;
         this.articleRepository = articleRepository;
         this.adminNotificationService = adminNotificationService;
+        this.templateEngine = templateEngine;
     }
 
     @Override
@@ -63,10 +69,8 @@ public class ComplaintServiceImpl implements ComplaintService {
     }
 
     private String constructAdminNotification(User user) {
-        String content = "<p>Пользователь <a href=\"[[user_url]]\"><strong>[[nickname]]</strong></a> пожаловался(-ась) на статью." +
-                " Нажмите на уведомление, чтобы перейти к статье.</p>";
-        content = content.replace("[[user_url]]", userRoute + "/" + user.getNickname());
-        content = content.replace("[[nickname]]", user.getNickname());
-        return content;
+        return templateEngine.render(TemplateName.COMPLAINT_NOTIFICATION, Map.of(
+                "user_url", userRoute + "/" + user.getNickname(),
+                "nickname", user.getNickname()));
     }
 }
@@ -0,0 +1,67 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.service.EntityTagService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Weak entity tags hashed from the scalars a response is derived from, such as an updated-at column and counter
+ * columns, so a tag can be checked before the body is built. Parts are hashed by their string form, so they have to
+ * be values with a stable one, not payload objects. The tags are weak because counters such as views are left out,
+ * responses that differ only in those are taken as the same. Responses vary by Authorization, the same resource may
+ * look different to its author.
+ */
+@Service
+public class EntityTagServiceImpl implements EntityTagService {
+
+    @Override
+    public String tagOf(Object... parts) {
+        StringBuilder state = new StringBuilder();
+        for (Object part : parts) {
+            state.append(part).append('\u0000');
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    @Override
+    public <T> ResponseEntity<T> respond(String ifNoneMatch, String tag, CacheControl cacheControl, Supplier<T> body) {
+        if (matches(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(tag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(tag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(body.get());
+    }
+
+    // If-None-Match is compared weakly, a W/ prefix on either side doesn't matter
+    static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = opaque(tag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,291 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.repository.*;
+import kg.nurtelecom.opinion.service.FeedService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Personal feed over a window of recently approved articles. An article scores (1 + affinity) * e^(-lambda * age),
+ * where affinity comes from the tags of articles the user saved or liked and from the authors of articles the user
+ * saved, liked or commented. The ordering key ln(1 + affinity) + lambda * published is the log of that score shifted
+ * by a term shared by all articles, so a ranked list never has to be re-sorted as time goes by.
+ * Users who read the feed recently keep a capped timeline that newly approved articles are pushed into. Everyone
+ * else gets a timeline built on read by scoring the window, so the work depends on the window and not on the number
+ * of articles. Timelines are rebuilt after a while to pick up new saves and reactions.
+ */
+@Service
+public class FeedServiceImpl implements FeedService {
+    private static final double SAVE_WEIGHT = 3;
+    private static final double LIKE_WEIGHT = 2;
+    private static final double COMMENT_WEIGHT = 1;
+
+    private final ArticleRepository articleRepository;
+    private final SavedArticlesRepository savedArticlesRepository;
+    private final ArticleReactionRepository articleReactionRepository;
+    private final ArticleCommentRepository articleCommentRepository;
+    private final int windowDays;
+    private final int windowSize;
+    private final int timelineSize;
+    private final int maxTimelines;
+    private final long activeMillis;
+    private final long timelineTtlMillis;
+    private final double lambda;
+    private final double authorWeight;
+    private final int interactionLimit;
+    // held across queries, a virtual thread blocking inside synchronized would pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Candidate> window = new ConcurrentHashMap<>();
+    private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    private volatile List<Long> latest = List.of();
+    private Set<Long> knownApproved;
+    private LongSupplier clock = System::currentTimeMillis;
+
+    public FeedServiceImpl(ArticleRepository articleRepository,
+                           SavedArticlesRepository savedArticlesRepository,
+                           ArticleReactionRepository articleReactionRepository,
+                           ArticleCommentRepository articleCommentRepository,
+                           @Value("${app.feed.window-days}") int windowDays,
+                           @Value("${app.feed.window-size}") int windowSize,
+                           @Value("${app.feed.timeline-size}") int timelineSize,
+                           @Value("${app.feed.max-timelines}") int maxTimelines,
+                           @Value("${app.feed.active-hours}") int activeHours,
+                           @Value("${app.feed.timeline-ttl-minutes}") int timelineTtlMinutes,
+                           @Value("${app.feed.half-life-hours}") double halfLifeHours,
+                           @Value("${app.feed.author-weight}") double authorWeight,
+                           @Value("${app.feed.interaction-limit}") int interactionLimit) {
+        this.articleRepository = articleRepository;
+        this.savedArticlesRepository = savedArticlesRepository;
+        this.articleReactionRepository = articleReactionRepository;
+        this.articleCommentRepository = articleCommentRepository;
+        this.windowDays = windowDays;
+        this.windowSize = windowSize;
+        this.timelineSize = timelineSize;
+        this.maxTimelines = maxTimelines;
+        this.activeMillis = Duration.ofHours(activeHours).toMillis();
+        this.timelineTtlMillis = Duration.ofMinutes(timelineTtlMinutes).toMillis();
+        this.lambda = Math.log(2) / Duration.ofHours(1).toMillis() / halfLifeHours;
+        this.authorWeight = authorWeight;
+        this.interactionLimit = interactionLimit;
+    }
+
+    @Override
+    public Page<Long> getFeedArticleIds(Long userId, Pageable pageable) {
+        List<Long> ids = userId == null ? latest : timelineFor(userId);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return new PageImpl<>(ids.subList(from, to), pageable, ids.size());
+    }
+
+    @Override
+    @EventListener
+    public void onApprovedArticles(ApprovedArticlesEvent event) {
+        lock.lock();
+        try {
+            if (knownApproved == null) {
+                return;
+            }
+            Set<Long> added = new HashSet<>(event.articleIds());
+            added.removeAll(knownApproved);
+            boolean changed = window.keySet().retainAll(event.articleIds());
+            knownApproved = event.articleIds();
+
+            List<Candidate> candidates = added.isEmpty() ? List.of() : loadCandidates(added, clock.getAsLong());
+            if (!changed && candidates.isEmpty()) {
+                return;
+            }
+            candidates.forEach(candidate -> window.put(candidate.id(), candidate));
+            trimWindow();
+
+            if (candidates.isEmpty()) {
+                return;
+            }
+            // fan-out on write: only timelines of active users are kept, so this is bounded by their number
+            for (Timeline timeline : timelines.values()) {
+                timeline.push(candidates);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWindow() {
+        lock.lock();
+        try {
+            knownApproved = Set.copyOf(articleRepository.findIdsByStatus(ArticleStatus.APPROVED));
+            List<Long> ids = articleRepository.findRecentIdsByStatus(ArticleStatus.APPROVED,
+                    LocalDateTime.now().minusDays(windowDays), PageRequest.of(0, windowSize));
+            window.clear();
+            if (!ids.isEmpty()) {
+                loadCandidates(ids, 0).forEach(candidate -> window.put(candidate.id(), candidate));
+            }
+            trimWindow();
+            timelines.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.feed.eviction-interval-ms}")
+    public void evictInactive() {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            timelines.values().removeIf(timeline -> now - timeline.lastReadAt > activeMillis);
+            trimWindow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Long> timelineFor(Long userId) {
+        long now = clock.getAsLong();
+        Timeline timeline = timelines.get(userId);
+        if (timeline == null || now - timeline.builtAt > timelineTtlMillis) {
+            // fan-in on read
+            timeline = new Timeline(loadProfile(userId), now);
+            timeline.push(window.values());
+            if (timelines.size() < maxTimelines || timelines.containsKey(userId)) {
+                timelines.put(userId, timeline);
+            }
+        }
+        timeline.lastReadAt = now;
+        return timeline.articleIds();
+    }
+
+    private Profile loadProfile(Long userId) {
+        Pageable limit = PageRequest.of(0, interactionLimit);
+        // tags are taken from saved and liked articles only, a comment can just as well be a disagreement
+        Map<Long, Double> kept = new HashMap<>();
+        savedArticlesRepository.findArticleIdsByUserId(userId, limit)
+                .forEach(id -> kept.merge(id, SAVE_WEIGHT, Double::sum));
+        articleReactionRepository.findArticleIdsByUserIdAndReactionType(userId, ReactionType.LIKE, limit)
+                .forEach(id -> kept.merge(id, LIKE_WEIGHT, Double::sum));
+        Map<Long, Double> interactions = new HashMap<>(kept);
+        articleCommentRepository.findArticleIdsByUserId(userId, limit)
+                .forEach(id -> interactions.merge(id, COMMENT_WEIGHT, Double::sum));
+        if (interactions.isEmpty()) {
+            return new Profile(userId, Map.of(), Map.of(), Set.of());
+        }
+
+        Map<Long, Double> tags = new HashMap<>();
+        if (!kept.isEmpty()) {
+            for (ArticleFeature feature : articleRepository.findTagFeatures(kept.keySet())) {
+                tags.merge(feature.getFeatureId(), kept.get(feature.getArticleId()), Double::sum);
+            }
+        }
+        Map<Long, Double> authors = new HashMap<>();
+        for (ArticleFeature feature : articleRepository.findAuthorFeatures(interactions.keySet())) {
+            if (!userId.equals(feature.getFeatureId())) {
+                authors.merge(feature.getFeatureId(), interactions.get(feature.getArticleId()), Double::sum);
+            }
+        }
+        return new Profile(userId, normalize(tags), normalize(authors), kept.keySet());
+    }
+
+    private List<Candidate> loadCandidates(Collection<Long> ids, long addedAt) {
+        Map<Long, List<Long>> tags = new HashMap<>();
+        for (ArticleFeature feature : articleRepository.findTagFeatures(ids)) {
+            tags.computeIfAbsent(feature.getArticleId(), id -> new ArrayList<>()).add(feature.getFeatureId());
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        for (FeedCandidate candidate : articleRepository.findFeedCandidates(ids, ArticleStatus.APPROVED)) {
+            long published = candidate.getDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            long[] tagIds = tags.getOrDefault(candidate.getId(), List.of()).stream().mapToLong(Long::longValue).toArray();
+            candidates.add(new Candidate(candidate.getId(), candidate.getAuthorId(), tagIds, published,
+                    Math.max(published, addedAt)));
+        }
+        return candidates;
+    }
+
+    // keeps the newest articles, counting an old article approved just now as new
+    private void trimWindow() {
+        long since = clock.getAsLong() - Duration.ofDays(windowDays).toMillis();
+        window.values().removeIf(candidate -> candidate.addedAt() < since);
+        if (window.size() > windowSize) {
+            window.values().stream()
+                    .sorted(Comparator.comparingLong(Candidate::addedAt))
+                    .limit(window.size() - windowSize)
+                    .toList()
+                    .forEach(candidate -> window.remove(candidate.id()));
+        }
+        latest = window.values().stream()
+                .sorted(Comparator.comparingLong(Candidate::published).reversed())
+                .map(Candidate::id)
+                .toList();
+    }
+
+    private static Map<Long, Double> normalize(Map<Long, Double> weights) {
+        double max = weights.values().stream().mapToDouble(Double::doubleValue).max().orElse(1);
+        weights.replaceAll((id, weight) -> weight / max);
+        return weights;
+    }
+
+    private record Candidate(long id, long authorId, long[] tagIds, long published, long addedAt) {
+    }
+
+    private record Profile(Long userId, Map<Long, Double> tags, Map<Long, Double> authors, Set<Long> seen) {
+    }
+
+    private record Entry(long articleId, double key) {
+    }
+
+    private class Timeline {
+        private final Profile profile;
+        private final long builtAt;
+        private volatile long lastReadAt;
+        private volatile List<Entry> entries = List.of();
+
+        Timeline(Profile profile, long builtAt) {
+            this.profile = profile;
+            this.builtAt = builtAt;
+            this.lastReadAt = builtAt;
+        }
+
+        synchronized void push(Collection<Candidate> candidates) {
+            List<Entry> merged = new ArrayList<>(entries);
+            for (Candidate candidate : candidates) {
+                if (candidate.authorId() != profile.userId() && !profile.seen().contains(candidate.id())) {
+                    merged.add(new Entry(candidate.id(), key(candidate)));
+                }
+            }
+            merged.sort(Comparator.comparingDouble(Entry::key).reversed());
+            entries = List.copyOf(merged.subList(0, Math.min(merged.size(), timelineSize)));
+        }
+
+        // taken down articles leave the window right away
+        List<Long> articleIds() {
+            return entries.stream().map(Entry::articleId).filter(window::containsKey).toList();
+        }
+
+        private double key(Candidate candidate) {
+            double affinity = 0;
+            for (long tagId : candidate.tagIds()) {
+                affinity += profile.tags().getOrDefault(tagId, 0.0);
+            }
+            affinity += authorWeight * profile.authors().getOrDefault(candidate.authorId(), 0.0);
+            return Math.log1p(affinity) + lambda * candidate.published();
+        }
+    }
+}
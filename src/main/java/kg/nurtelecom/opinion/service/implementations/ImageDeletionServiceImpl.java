@@ -0,0 +1,139 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.ImageDeletion;
+import kg.nurtelecom.opinion.repository.ImageDeletionRepository;
+import kg.nurtelecom.opinion.service.ImageDeletionService;
+import kg.nurtelecom.opinion.storage.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Remote deletions are written to a queue in the caller's transaction and carried out by a scheduled worker,
+ * so they happen only once that transaction has committed and never hold it open.
+ */
+@Service
+public class ImageDeletionServiceImpl implements ImageDeletionService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ImageDeletionRepository imageDeletionRepository;
+    private final ImageStore imageStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(ImageDeletionServiceImpl.class);
+    @Value("${app.images.deletion.batch-size}")
+    private int batchSize;
+    @Value("${app.images.deletion.batches-per-poll}")
+    private int batchesPerPoll;
+    @Value("${app.images.deletion.max-attempts}")
+    private int maxAttempts;
+    @Value("${app.images.deletion.initial-backoff-seconds}")
+    private long initialBackoffSeconds;
+    @Value("${app.images.deletion.max-backoff-seconds}")
+    private long maxBackoffSeconds;
+    @Value("${app.images.deletion.lease-seconds}")
+    private long leaseSeconds;
+
+    public ImageDeletionServiceImpl(ImageDeletionRepository imageDeletionRepository, ImageStore imageStore,
+                                    PlatformTransactionManager transactionManager) {
+        this.imageDeletionRepository = imageDeletionRepository;
+        this.imageStore = imageStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional
+    public void schedule(Collection<String> urls) {
+        Set<String> keys = toKeys(urls);
+        if (keys.isEmpty()) {
+            return;
+        }
+        imageDeletionRepository.findScheduledKeys(keys).forEach(keys::remove);
+        for (String key : keys) {
+            imageDeletionRepository.save(new ImageDeletion(key));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void cancel(Collection<String> urls) {
+        Set<String> keys = toKeys(urls);
+        if (!keys.isEmpty()) {
+            imageDeletionRepository.deleteByImageKeys(keys);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.images.deletion.poll-interval-ms}")
+    public void deletePending() {
+        List<ImageDeletion> claimed = claimDueDeletions(batchSize * batchesPerPoll);
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            deleteBatch(claimed.subList(from, Math.min(from + batchSize, claimed.size())));
+        }
+    }
+
+    private List<ImageDeletion> claimDueDeletions(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<ImageDeletion> due = imageDeletionRepository.findDue(maxAttempts, now, PageRequest.of(0, limit));
+            for (ImageDeletion deletion : due) {
+                deletion.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return new ArrayList<>(imageDeletionRepository.saveAll(due));
+        });
+    }
+
+    private void deleteBatch(List<ImageDeletion> batch) {
+        List<String> keys = batch.stream()
+                .map(ImageDeletion::getImageKey)
+                .distinct()
+                .toList();
+        try {
+            imageStore.delete(keys);
+            transactionTemplate.executeWithoutResult(status -> imageDeletionRepository.deleteAllInBatch(batch));
+        } catch (RuntimeException e) {
+            LocalDateTime now = LocalDateTime.now();
+            for (ImageDeletion deletion : batch) {
+                scheduleRetry(deletion, e.getMessage(), now);
+            }
+            transactionTemplate.executeWithoutResult(status -> imageDeletionRepository.saveAll(batch));
+        }
+    }
+
+    private void scheduleRetry(ImageDeletion deletion, String error, LocalDateTime now) {
+        int attempts = deletion.getAttempts() + 1;
+        deletion.setAttempts(attempts);
+        deletion.setLastError(truncate(error));
+        if (attempts >= maxAttempts) {
+            logger.error("Giving up on deleting image " + deletion.getImageKey() + ": " + error);
+            return;
+        }
+        long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 30));
+        deletion.setNextAttemptAt(now.plusSeconds(backoff));
+    }
+
+    private Set<String> toKeys(Collection<String> urls) {
+        Set<String> keys = new HashSet<>();
+        for (String url : urls) {
+            if (url != null) {
+                imageStore.keyOf(url).ifPresent(keys::add);
+            }
+        }
+        return keys;
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,314 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kg.nurtelecom.opinion.entity.ImageRenditions;
+import kg.nurtelecom.opinion.enums.ImageRendition;
+import kg.nurtelecom.opinion.exception.FileException;
+import kg.nurtelecom.opinion.exception.ServiceUnavailableException;
+import kg.nurtelecom.opinion.payload.image.ProcessedImage;
+import kg.nurtelecom.opinion.service.ImageDeletionService;
+import kg.nurtelecom.opinion.service.ImageProcessingService;
+import kg.nurtelecom.opinion.service.StoredImageService;
+import kg.nurtelecom.opinion.storage.ImageStore;
+import kg.nurtelecom.opinion.storage.StoredObject;
+import net.coobird.thumbnailator.Thumbnails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+@Service
+public class ImageProcessingServiceImpl implements ImageProcessingService {
+    private static final double OUTPUT_QUALITY = 0.5;
+    private static final int MAX_REFERENCE_ATTEMPTS = 3;
+
+    private final ImageStore imageStore;
+    private final ThreadPoolTaskExecutor imageProcessingExecutor;
+    private final ThreadPoolTaskExecutor imageUploadExecutor;
+    private final StoredImageService storedImageService;
+    private final ImageDeletionService imageDeletionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer processingTimer;
+    private final Logger logger = LoggerFactory.getLogger(ImageProcessingServiceImpl.class);
+
+    public ImageProcessingServiceImpl(ImageStore imageStore,
+                                      @Qualifier("imageProcessingExecutor") ThreadPoolTaskExecutor imageProcessingExecutor,
+                                      @Qualifier("imageUploadExecutor") ThreadPoolTaskExecutor imageUploadExecutor,
+                                      StoredImageService storedImageService,
+                                      ImageDeletionService imageDeletionService,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry) {
+        this.imageStore = imageStore;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.imageUploadExecutor = imageUploadExecutor;
+        this.storedImageService = storedImageService;
+        this.imageDeletionService = imageDeletionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.processingTimer = Timer.builder("opinion.images.processing")
+                .description("Time spent re-encoding and uploading an image")
+                .register(meterRegistry);
+        Gauge.builder("opinion.images.queue.depth", imageProcessingExecutor, executor -> executor.getQueueSize())
+                .description("Images waiting for a processing thread")
+                .register(meterRegistry);
+        Gauge.builder("opinion.images.active", imageProcessingExecutor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Images being processed right now")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<String> process(MultipartFile image) {
+        return submit(spool(image), upload -> {
+            DecodedImage decoded = decode(upload.path());
+            return encodeAndUpload(decoded.image(), decoded.format()).url();
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<T> processWithRenditions(MultipartFile image, Function<ProcessedImage, T> storeReference) {
+        SpooledImage spooled = spool(image);
+        Optional<ProcessedImage> existing;
+        try {
+            existing = storedImageService.find(spooled.hash());
+        } catch (RuntimeException e) {
+            deleteQuietly(spooled.path());
+            throw e;
+        }
+        if (existing.isPresent()) {
+            deleteQuietly(spooled.path());
+            return CompletableFuture.completedFuture(storeReference(spooled.hash(), existing.get(), null, storeReference));
+        }
+        return submit(spooled, upload -> {
+            RenditionUploads uploads = createRenditions(upload.path());
+            return storeReference(upload.hash(), uploads.image(), uploads, storeReference);
+        });
+    }
+
+    private <T> T storeReference(String hash, ProcessedImage image, RenditionUploads uploads,
+                                 Function<ProcessedImage, T> storeReference) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    ProcessedImage stored = storedImageService.register(hash, image);
+                    if (uploads != null && !stored.url().equals(image.url())) {
+                        // the same content was stored concurrently, keep theirs
+                        imageDeletionService.schedule(uploads.urls());
+                    }
+                    return storeReference.apply(stored);
+                });
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= MAX_REFERENCE_ATTEMPTS) {
+                    discard(hash, uploads);
+                    throw e;
+                }
+            } catch (RuntimeException e) {
+                discard(hash, uploads);
+                throw e;
+            }
+        }
+    }
+
+    // renditions nobody got to reference would stay in the store until the sweeper runs
+    private void discard(String hash, RenditionUploads uploads) {
+        if (uploads == null) {
+            return;
+        }
+        try {
+            // a content-addressed store may have handed the same URLs to a concurrent upload that did get stored
+            boolean indexed = storedImageService.find(hash)
+                    .map(stored -> stored.url().equals(uploads.image().url()))
+                    .orElse(false);
+            if (!indexed) {
+                destroyQuietly(uploads.urls());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not check whether renditions " + uploads.urls() + " are still in use");
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(SpooledImage upload, Function<SpooledImage, T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> processingTimer.record(() -> {
+                try {
+                    return task.apply(upload);
+                } finally {
+                    deleteQuietly(upload.path());
+                }
+            }), imageProcessingExecutor);
+        } catch (TaskRejectedException e) {
+            deleteQuietly(upload.path());
+            throw new ServiceUnavailableException("Сервер перегружен обработкой изображений, попробуйте позже");
+        }
+    }
+
+    private SpooledImage spool(MultipartFile image) {
+        if (image.getContentType() == null || !image.getContentType().toLowerCase().startsWith("image/")) {
+            throw new FileException("Формат изображения не поддерживается");
+        }
+
+        Path upload = null;
+        try {
+            upload = Files.createTempFile("opinion-upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(image.getInputStream(), digest)) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new SpooledImage(upload, HexFormat.of().formatHex(digest.digest()));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            deleteQuietly(upload);
+            throw new FileException("Ошибка при сохранении изображения");
+        }
+    }
+
+    private RenditionUploads createRenditions(Path upload) {
+        DecodedImage decoded = decode(upload);
+
+        Map<ImageRendition, CompletableFuture<StoredObject>> uploads = new EnumMap<>(ImageRendition.class);
+        BufferedImage previous = decoded.image();
+        for (ImageRendition rendition : ImageRendition.values()) {
+            BufferedImage scaled = downscale(previous, rendition.getMaxSide());
+            uploads.put(rendition, CompletableFuture.supplyAsync(
+                    () -> encodeAndUpload(scaled, decoded.format()), imageUploadExecutor));
+            previous = scaled;
+        }
+
+        Map<ImageRendition, StoredObject> uploaded = new EnumMap<>(ImageRendition.class);
+        try {
+            for (Map.Entry<ImageRendition, CompletableFuture<StoredObject>> entry : uploads.entrySet()) {
+                uploaded.put(entry.getKey(), entry.getValue().join());
+            }
+        } catch (CompletionException e) {
+            // don't leave half of the renditions behind in the cloud
+            uploads.values().forEach(future -> future.thenAccept(image -> destroyQuietly(List.of(image.url()))));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        StoredObject full = uploaded.get(ImageRendition.FULL);
+        StoredObject card = uploaded.get(ImageRendition.CARD);
+        StoredObject thumbnail = uploaded.get(ImageRendition.THUMBNAIL);
+        ImageRenditions renditions = new ImageRenditions(
+                card.url(),
+                thumbnail.url(),
+                webpUrl(full),
+                webpUrl(card),
+                webpUrl(thumbnail));
+        return new RenditionUploads(new ProcessedImage(full.url(), renditions),
+                List.of(full.url(), card.url(), thumbnail.url()));
+    }
+
+    private DecodedImage decode(Path upload) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(upload.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new FileException("Формат изображения не поддерживается");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new DecodedImage(reader.read(0), reader.getFormatName());
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new FileException("Ошибка при чтении изображения");
+        }
+    }
+
+    private BufferedImage downscale(BufferedImage image, int maxSide) {
+        int longestSide = Math.max(image.getWidth(), image.getHeight());
+        if (longestSide <= maxSide) {
+            return image;
+        }
+        try {
+            return Thumbnails.of(image)
+                    .scale((double) maxSide / longestSide)
+                    .asBufferedImage();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private StoredObject encodeAndUpload(BufferedImage image, String format) {
+        Path encoded = null;
+        try {
+            encoded = Files.createTempFile("opinion-encoded-", ".tmp");
+            try (OutputStream out = Files.newOutputStream(encoded)) {
+                Thumbnails.of(image)
+                        .scale(1)
+                        .outputFormat(format)
+                        .outputQuality(OUTPUT_QUALITY)
+                        .toOutputStream(out);
+            }
+            return imageStore.store(encoded, format);
+        } catch (IOException e) {
+            throw new FileException("Ошибка при сохранении изображения");
+        } finally {
+            deleteQuietly(encoded);
+        }
+    }
+
+    // only stores that convert on delivery have webp variants, so they cost no extra upload
+    private String webpUrl(StoredObject image) {
+        return imageStore.convertedUrl(image, "webp").orElse(null);
+    }
+
+    private void destroyQuietly(List<String> urls) {
+        try {
+            imageDeletionService.schedule(urls);
+        } catch (RuntimeException e) {
+            // the sweeper will find them
+            logger.warn("Could not schedule removal of orphaned renditions " + urls);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary image file " + path);
+        }
+    }
+
+    private record SpooledImage(Path path, String hash) {
+    }
+
+    private record RenditionUploads(ProcessedImage image, List<String> urls) {
+    }
+
+    private record DecodedImage(BufferedImage image, String format) {
+    }
+}
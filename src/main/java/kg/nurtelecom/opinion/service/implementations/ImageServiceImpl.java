@@ -1,10 +1,9 @@
 package kg.nurtelecom.opinion.service.implementations;
 
-//import com.cloudinary.Cloudinary;
-//import com.cloudinary.utils.ObjectUtils;
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import kg.nurtelecom.opinion.entity.Article;
+import kg.nurtelecom.opinion.entity.ImageRenditions;
 import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.ArticleStatus;
 import kg.nurtelecom.opinion.enums.Status;
@@ -13,97 +12,81 @@ import kg.nurtelecom.opinion.exception.NotFoundException;
 import kg.nurtelecom.opinion.repository.ArticleRepository;
 import kg.nurtelecom.opinion.repository.UserRepository;
 import kg.nurtelecom.opinion.service.ArticleCacheService;
+import kg.nurtelecom.opinion.service.ImageDeletionService;
+import kg.nurtelecom.opinion.service.ImageProcessingService;
 import kg.nurtelecom.opinion.service.ImageService;
-import net.coobird.thumbnailator.Thumbnails;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import kg.nurtelecom.opinion.service.StoredImageService;
+import kg.nurtelecom.opinion.storage.ImageFile;
+import kg.nurtelecom.opinion.storage.ImageStore;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Transactional
 @Service
 public class ImageServiceImpl implements ImageService {
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
 
     private final ArticleRepository articleRepository;
     private final UserRepository userRepository;
-    private final Cloudinary cloudinary;
+    private final ImageStore imageStore;
     private final ArticleCacheService articleCacheService;
+    private final ImageProcessingService imageProcessingService;
+    private final StoredImageService storedImageService;
+    private final ImageDeletionService imageDeletionService;
+    private final TransactionTemplate transactionTemplate;
 
-    public ImageServiceImpl(ArticleRepository articleRepository, UserRepository userRepository, Cloudinary cloudinary, ArticleCacheService articleCacheService) {
+    public ImageServiceImpl(ArticleRepository articleRepository, UserRepository userRepository, ImageStore imageStore, ArticleCacheService articleCacheService, ImageProcessingService imageProcessingService, StoredImageService storedImageService, ImageDeletionService imageDeletionService, PlatformTransactionManager transactionManager) {
         this.articleRepository = articleRepository;
         this.userRepository = userRepository;
-        this.cloudinary = cloudinary;
+        this.imageStore = imageStore;
         this.articleCacheService = articleCacheService;
+        this.imageProcessingService = imageProcessingService;
+        this.storedImageService = storedImageService;
+        this.imageDeletionService = imageDeletionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    public String loadImage(MultipartFile image) {
-        if (!image.getContentType().toLowerCase().startsWith("image/")) {
-            throw new FileException("Формат изображения не поддерживается");
-        }
-
-        try {
-
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            Thumbnails.of(new ByteArrayInputStream(image.getBytes()))
-                    .scale(1)
-                    .outputQuality(0.5)
-                    .toOutputStream(outputStream);
-
-            Map uploadResult = cloudinary.uploader().upload(outputStream.toByteArray(), ObjectUtils.emptyMap());
-            return (String) uploadResult.get("url");
-        } catch (IOException e) {
-            throw new FileException("Ошибка при попытке загрузить изображение на Cloudinary");
-        }
-    }
-
-
-    private String getImageKey(String imagePath) {
-        int lastSlashIndex = imagePath.lastIndexOf("/");
-
-        int extensionDotIndex = imagePath.lastIndexOf(".");
-
-        if (lastSlashIndex != -1 && extensionDotIndex != -1) {
-
-            return imagePath.substring(lastSlashIndex + 1, extensionDotIndex);
-        } else {
-            return null;
-        }
-
+    public CompletableFuture<String> loadImage(MultipartFile image) {
+        return imageProcessingService.process(image);
     }
 
 
     @Override
-    public ResponseEntity<String> updateCoverImage(Long articleId, MultipartFile image, User user) {
+    public CompletableFuture<ResponseEntity<String>> updateCoverImage(Long articleId, MultipartFile image, User user) {
         Article article = articleCacheService.getArticle(articleId);
         if (!article.getAuthor().getId().equals(user.getId())) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
         }
         if(article.getStatus().equals(ArticleStatus.DELETED) ||article.getStatus().equals(ArticleStatus.BLOCKED)) {
             throw new NotFoundException("Ваша статья удалена или заблокирована ");
         }
         String path = article.getCoverImage();
-        if (path != null) {
-            deleteImage(path);
-        }
-        String imagePath = loadImage(image);
-        Article cacheArticle = copyArticle(article);
-        cacheArticle.setCoverImage(imagePath);
-        articleCacheService.save(cacheArticle);
-        return new ResponseEntity<>(imagePath, HttpStatus.OK);
+        ImageRenditions previousRenditions = article.getCoverRenditions();
+        return imageProcessingService.processWithRenditions(image, processed -> {
+            Article cacheArticle = copyArticle(article);
+            cacheArticle.setCoverImage(processed.url());
+            cacheArticle.setCoverRenditions(processed.renditions());
+            releaseImage(path, previousRenditions);
+            articleCacheService.save(cacheArticle);
+            return new ResponseEntity<>(processed.url(), HttpStatus.OK);
+        });
     }
 
     private Article copyArticle(Article original) {
@@ -117,25 +100,31 @@ public class ImageServiceImpl implements ImageService {
         copy.setTags(original.getTags());
         copy.setDateTime(original.getDateTime());
         copy.setViewsCount(original.getViewsCount());
+        copy.setCoverImage(original.getCoverImage());
+        copy.setCoverRenditions(original.getCoverRenditions());
         return copy;
     }
 
-    @Override
-    public ResponseEntity<Void> deleteImage(String imagePath) {
-        String publicId  = getImageKey(imagePath);
-        if(publicId == null) {
-            throw new RuntimeException("В пути до картинки отсутствует public id");
-        }
-        try {
-            // Удаление изображения из Cloudinary по его public_id
-            Map result = cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
-            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
-        } catch (IOException e) {
-            throw new RuntimeException("Ошибка при попытке удалить картинку с Cloudinary", e);
-        }
+    // deduplicated images are shared, so only the owner's change or delete paths may drop a reference
+    private void releaseImage(String imagePath, ImageRenditions renditions) {
+        if (imagePath == null) {
+            return;
+        }
+        // joins the caller's transaction, so a rollback also drops the queued deletion
+        transactionTemplate.executeWithoutResult(status -> storedImageService.release(imagePath).ifPresent(released -> {
+            // images stored before deduplication are not indexed, so their renditions come from the owner
+            ImageRenditions toDestroy = released.renditions() != null ? released.renditions() : renditions;
+            List<String> urls = new ArrayList<>();
+            urls.add(released.url());
+            // webp variants are delivery-time conversions of the same assets
+            if (toDestroy != null) {
+                urls.add(toDestroy.getCard());
+                urls.add(toDestroy.getThumbnail());
+            }
+            imageDeletionService.schedule(urls);
+        }));
     }
 
-
     public ResponseEntity<Void> deleteCoverImage(Long articleId, User user) {
         Article article = articleCacheService.getArticle(articleId);
         if (!article.getAuthor().getId().equals(user.getId())) {
@@ -150,49 +139,99 @@ public class ImageServiceImpl implements ImageService {
         }
 
         String imagePath = article.getCoverImage();
+        ImageRenditions renditions = article.getCoverRenditions();
         Article cacheArticle = copyArticle(article);
         cacheArticle.setCoverImage(null);
+        cacheArticle.setCoverRenditions(null);
         articleCacheService.save(cacheArticle);
-        if(imagePath != null) {
-            return deleteImage(imagePath);
-        }
+        releaseImage(imagePath, renditions);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
     @Override
-    public ResponseEntity<Void> changeUserAvatar(User user, MultipartFile photo) {
+    public CompletableFuture<ResponseEntity<Void>> changeUserAvatar(User user, MultipartFile photo) {
         if (photo.isEmpty()) {
             throw new FileException("Файл пустой");
         }
         if (user.getStatus() == Status.DELETED) {
             throw new NotFoundException("Вы удалили свой аккаунт");
         }
-        // deleting previous avatar
-        User userEntity = userRepository.findById(user.getId()).get();
-        String previousAvatar = userEntity.getAvatar();
-        if (previousAvatar != null) {
-            deleteImage(previousAvatar);
-        }
-        userEntity.setAvatar(loadImage(photo));
-        return new ResponseEntity<>(HttpStatus.OK);
+        // runs in the transaction that counts the reference to the new avatar
+        return imageProcessingService.processWithRenditions(photo, processed -> {
+            User userEntity = userRepository.findById(user.getId())
+                    .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
+            String previousAvatar = userEntity.getAvatar();
+            ImageRenditions previousRenditions = userEntity.getAvatarRenditions();
+            userEntity.setAvatar(processed.url());
+            userEntity.setAvatarRenditions(processed.renditions());
+            // queued with the avatar change, removed only once it commits
+            releaseImage(previousAvatar, previousRenditions);
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
     }
 
     @Override
-    public Resource load(String path) {
-        Path imagePath = Paths.get(path);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void sendImage(String key, HttpServletRequest request, HttpServletResponse response) {
+        ImageFile file = imageStore.find(key)
+                .orElseThrow(() -> new NotFoundException("Картинка не найдена"));
+        String etag = "\"" + file.hash() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // keys are content hashes, so the bytes behind a URL never change
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, file.lastModified());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long position = 0;
+        long count = file.size();
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                // several ranges would need a multipart body, the whole image is cheaper for both sides
+                if (ranges.size() == 1) {
+                    position = ranges.get(0).getRangeStart(file.size());
+                    count = ranges.get(0).getRangeEnd(file.size()) - position + 1;
+                    if (position >= file.size() || count <= 0) {
+                        throw new IllegalArgumentException("Range is not satisfiable");
+                    }
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE,
+                            "bytes " + position + "-" + (position + count - 1) + "/" + file.size());
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + file.size());
+                return;
+            }
+        }
 
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(count);
         try {
-            Resource image = new UrlResource(imagePath.toUri());
+            imageStore.transferTo(file, position, count, Channels.newChannel(response.getOutputStream()));
+        } catch (IOException e) {
+            throw new FileException("Ошибка при чтении файла");
+        }
+    }
 
-            if (image.exists() || image.isReadable()) {
-                return image;
-            } else {
-                throw new FileException("Ошибка при чтении файла");
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
             }
-
-        } catch (MalformedURLException e) {
-            throw new FileException("Ошибка при чтении файла: " + e);
         }
+        return false;
     }
 
     private String getFileExtension(MultipartFile file) {
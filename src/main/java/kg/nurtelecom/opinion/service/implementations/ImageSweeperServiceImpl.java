@@ -0,0 +1,199 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.Article;
+import kg.nurtelecom.opinion.entity.ImageRenditions;
+import kg.nurtelecom.opinion.entity.StoredImage;
+import kg.nurtelecom.opinion.payload.image.ImageReference;
+import kg.nurtelecom.opinion.repository.AnnouncementRepository;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.StoredImageRepository;
+import kg.nurtelecom.opinion.repository.UserRepository;
+import kg.nurtelecom.opinion.service.ArticleCacheService;
+import kg.nurtelecom.opinion.service.ImageDeletionService;
+import kg.nurtelecom.opinion.service.ImageSweeperService;
+import kg.nurtelecom.opinion.service.JobLockService;
+import kg.nurtelecom.opinion.storage.ImageStore;
+import kg.nurtelecom.opinion.storage.StoredAsset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Catches assets that the deletion queue missed, e.g. uploads whose owner was never saved.
+ * Anything an article, announcement or user may still point at is kept, including unsaved article edits in the cache
+ * and images embedded in post content. In dry-run mode orphans are only logged, which is how a new deployment should
+ * start until the counts look right.
+ */
+@Service
+public class ImageSweeperServiceImpl implements ImageSweeperService {
+    private static final Pattern URL_PATTERN = Pattern.compile("https?://[^\\s\"'<>()]+");
+    private static final int PAGE_SIZE = 200;
+    private static final String LOCK_NAME = "image-sweeper";
+
+    private final ImageStore imageStore;
+    private final ImageDeletionService imageDeletionService;
+    private final StoredImageRepository storedImageRepository;
+    private final ArticleRepository articleRepository;
+    private final AnnouncementRepository announcementRepository;
+    private final UserRepository userRepository;
+    private final ArticleCacheService articleCacheService;
+    private final JobLockService jobLockService;
+    private final Logger logger = LoggerFactory.getLogger(ImageSweeperServiceImpl.class);
+    @Value("${app.images.sweeper.enabled}")
+    private boolean enabled;
+    @Value("${app.images.sweeper.dry-run}")
+    private boolean dryRun;
+    @Value("${app.images.sweeper.lock-minutes}")
+    private long lockMinutes;
+    @Value("${app.images.sweeper.grace-hours}")
+    private long graceHours;
+    @Value("${app.images.deletion.batch-size}")
+    private int batchSize;
+
+    public ImageSweeperServiceImpl(ImageStore imageStore, ImageDeletionService imageDeletionService,
+                                   StoredImageRepository storedImageRepository, ArticleRepository articleRepository,
+                                   AnnouncementRepository announcementRepository, UserRepository userRepository,
+                                   ArticleCacheService articleCacheService, JobLockService jobLockService) {
+        this.imageStore = imageStore;
+        this.imageDeletionService = imageDeletionService;
+        this.storedImageRepository = storedImageRepository;
+        this.articleRepository = articleRepository;
+        this.announcementRepository = announcementRepository;
+        this.userRepository = userRepository;
+        this.articleCacheService = articleCacheService;
+        this.jobLockService = jobLockService;
+    }
+
+    @Override
+    @Scheduled(cron = "${app.images.sweeper.cron}")
+    public void sweepOrphans() {
+        if (!enabled) {
+            return;
+        }
+        if (!jobLockService.runExclusively(LOCK_NAME, Duration.ofMinutes(lockMinutes), this::sweep)) {
+            logger.info("Image sweep skipped, another instance is running it");
+        }
+    }
+
+    private void sweep() {
+        // an upload is referenced only after its request finishes, so fresh assets are left alone
+        Instant cutoff = Instant.now().minus(graceHours, ChronoUnit.HOURS);
+        Set<String> referenced = collectReferencedKeys();
+
+        List<String> orphans = new ArrayList<>();
+        int scheduled = 0;
+        try (Stream<StoredAsset> assets = imageStore.list()) {
+            for (StoredAsset asset : (Iterable<StoredAsset>) assets::iterator) {
+                if (asset.createdAt().isBefore(cutoff) && !referenced.contains(asset.key())) {
+                    orphans.add(asset.url());
+                }
+                if (orphans.size() >= batchSize) {
+                    scheduled += schedule(orphans);
+                }
+            }
+        }
+        scheduled += schedule(orphans);
+        if (dryRun) {
+            logger.info("Image sweep dry run found " + scheduled + " orphaned assets, none were deleted");
+        } else {
+            logger.info("Image sweep scheduled " + scheduled + " orphaned assets for deletion");
+        }
+    }
+
+    private int schedule(List<String> orphans) {
+        int count = orphans.size();
+        if (dryRun) {
+            orphans.forEach(url -> logger.debug("Orphaned image " + url));
+        } else if (count > 0) {
+            imageDeletionService.schedule(orphans);
+        }
+        orphans.clear();
+        return count;
+    }
+
+    private Set<String> collectReferencedKeys() {
+        Set<String> keys = new HashSet<>();
+        for (StoredImage storedImage : storedImageRepository.findAll()) {
+            addKey(keys, storedImage.getUrl());
+            addRenditions(keys, storedImage.getRenditions());
+        }
+        for (ImageReference reference : articleRepository.findCoverImageReferences()) {
+            addReference(keys, reference);
+        }
+        for (ImageReference reference : userRepository.findAvatarReferences()) {
+            addReference(keys, reference);
+        }
+        announcementRepository.findCoverImages().forEach(url -> addKey(keys, url));
+        addContents(keys, articleRepository::findContents);
+        addContents(keys, announcementRepository::findContents);
+
+        // edits stay in the cache until the author saves them, and may already point at new uploads
+        for (Long id : articleRepository.findAllIds()) {
+            articleCacheService.findCachedArticle(id).ifPresent(article -> addArticle(keys, article));
+        }
+        return keys;
+    }
+
+    private void addContents(Set<String> keys, Function<Pageable, Slice<String>> pageLoader) {
+        Slice<String> page = pageLoader.apply(PageRequest.of(0, PAGE_SIZE));
+        while (true) {
+            page.forEach(content -> addEmbedded(keys, content));
+            if (!page.hasNext()) {
+                return;
+            }
+            page = pageLoader.apply(page.nextPageable());
+        }
+    }
+
+    private void addArticle(Set<String> keys, Article article) {
+        addKey(keys, article.getCoverImage());
+        addRenditions(keys, article.getCoverRenditions());
+        addEmbedded(keys, article.getContent());
+    }
+
+    private void addReference(Set<String> keys, ImageReference reference) {
+        addKey(keys, reference.getImage());
+        addKey(keys, reference.getCard());
+        addKey(keys, reference.getThumbnail());
+    }
+
+    private void addRenditions(Set<String> keys, ImageRenditions renditions) {
+        if (renditions != null) {
+            addKey(keys, renditions.getCard());
+            addKey(keys, renditions.getThumbnail());
+        }
+    }
+
+    private void addEmbedded(Set<String> keys, String content) {
+        if (content == null) {
+            return;
+        }
+        Matcher matcher = URL_PATTERN.matcher(content);
+        while (matcher.find()) {
+            addKey(keys, matcher.group());
+        }
+    }
+
+    private void addKey(Set<String> keys, String url) {
+        if (url != null) {
+            imageStore.keyOf(url).ifPresent(keys::add);
+        }
+    }
+}
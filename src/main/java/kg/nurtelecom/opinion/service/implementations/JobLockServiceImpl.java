@@ -0,0 +1,57 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.JobLock;
+import kg.nurtelecom.opinion.repository.JobLockRepository;
+import kg.nurtelecom.opinion.service.JobLockService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Keeps a scheduled job to one instance at a time. The lock is a row that an instance leases with a conditional
+ * update, so a crashed holder blocks the job only until its lease runs out.
+ */
+@Service
+public class JobLockServiceImpl implements JobLockService {
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    public JobLockServiceImpl(JobLockRepository jobLockRepository, PlatformTransactionManager transactionManager) {
+        this.jobLockRepository = jobLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public boolean runExclusively(String name, Duration lease, Runnable job) {
+        if (!acquire(name, lease)) {
+            return false;
+        }
+        try {
+            job.run();
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> jobLockRepository.release(name, owner));
+        }
+        return true;
+    }
+
+    private boolean acquire(String name, Duration lease) {
+        if (!jobLockRepository.existsById(name)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jobLockRepository.saveAndFlush(new JobLock(name)));
+            } catch (DataIntegrityViolationException e) {
+                // another instance created the row first
+            }
+        }
+        Integer updated = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            return jobLockRepository.acquire(name, owner, now, now.plus(lease));
+        });
+        return updated != null && updated == 1;
+    }
+}
@@ -0,0 +1,214 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import kg.nurtelecom.opinion.entity.MailMessage;
+import kg.nurtelecom.opinion.enums.MailStatus;
+import kg.nurtelecom.opinion.enums.MailType;
+import kg.nurtelecom.opinion.exception.EmailSendingException;
+import kg.nurtelecom.opinion.repository.MailMessageRepository;
+import kg.nurtelecom.opinion.repository.MailQuotaRepository;
+import kg.nurtelecom.opinion.service.MailQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+@Service
+public class MailQueueServiceImpl implements MailQueueService {
+    private static final List<MailStatus> DISPATCHABLE_STATUSES = List.of(MailStatus.PENDING, MailStatus.SENDING);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MailMessageRepository mailMessageRepository;
+    private final MailQuotaRepository mailQuotaRepository;
+    private final JavaMailSender mailSender;
+    private final ThreadPoolTaskExecutor mailSenderExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Logger logger = LoggerFactory.getLogger(MailQueueServiceImpl.class);
+    @Value("${app.mail.queue.batch-size}")
+    private int batchSize;
+    @Value("${app.mail.queue.max-attempts}")
+    private int maxAttempts;
+    @Value("${app.mail.queue.initial-backoff-seconds}")
+    private long initialBackoffSeconds;
+    @Value("${app.mail.queue.max-backoff-seconds}")
+    private long maxBackoffSeconds;
+    @Value("${app.mail.queue.lease-seconds}")
+    private long leaseSeconds;
+    @Value("${app.mail.queue.recipient-limit}")
+    private long recipientLimit;
+    @Value("${app.mail.queue.recipient-window-minutes}")
+    private long recipientWindowMinutes;
+
+    public MailQueueServiceImpl(MailMessageRepository mailMessageRepository, MailQuotaRepository mailQuotaRepository,
+                                JavaMailSender mailSender,
+                                @Qualifier("mailSenderExecutor") ThreadPoolTaskExecutor mailSenderExecutor,
+                                PlatformTransactionManager transactionManager) {
+        this.mailMessageRepository = mailMessageRepository;
+        this.mailQuotaRepository = mailQuotaRepository;
+        this.mailSender = mailSender;
+        this.mailSenderExecutor = mailSenderExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void enqueue(MailType type, String from, String to, String subject, String content, boolean html) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (type != MailType.TRANSACTIONAL) {
+                // rolled back together with the message when the limit is hit
+                LocalDateTime windowStart = windowStart(LocalDateTime.now());
+                mailQuotaRepository.countMail(to, windowStart);
+                if (mailQuotaRepository.findMailCount(to, windowStart) > recipientLimit) {
+                    throw new EmailSendingException("Слишком много писем на адрес " + to + ", попробуйте позже");
+                }
+            }
+            mailMessageRepository.save(new MailMessage(from, to, subject, content, html));
+        });
+    }
+
+    @Override
+    @Scheduled(cron = "${app.mail.queue.quota-purge-cron}")
+    public void purgeQuotas() {
+        LocalDateTime currentWindow = windowStart(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> mailQuotaRepository.deleteWindowsBefore(currentWindow));
+    }
+
+    private LocalDateTime windowStart(LocalDateTime now) {
+        long minute = now.toEpochSecond(ZoneOffset.UTC) / 60;
+        return LocalDateTime.ofEpochSecond((minute - minute % recipientWindowMinutes) * 60, 0, ZoneOffset.UTC);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.mail.queue.poll-interval-ms}")
+    public void dispatchPending() {
+        int freeWorkers = mailSenderExecutor.getMaxPoolSize() - mailSenderExecutor.getActiveCount();
+        if (freeWorkers <= 0) {
+            return;
+        }
+        List<MailMessage> claimed = claimDueMessages(freeWorkers * batchSize);
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            List<MailMessage> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+            try {
+                mailSenderExecutor.execute(() -> deliver(batch));
+            } catch (TaskRejectedException e) {
+                // leased messages will be picked up again once the lease expires
+                logger.warn("Mail sender pool is saturated, " + batch.size() + " messages postponed");
+                return;
+            }
+        }
+    }
+
+    private List<MailMessage> claimDueMessages(int limit) {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<MailMessage> due = mailMessageRepository.findDue(DISPATCHABLE_STATUSES, now, PageRequest.of(0, limit));
+            for (MailMessage message : due) {
+                message.setStatus(MailStatus.SENDING);
+                message.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+            }
+            return new ArrayList<>(mailMessageRepository.saveAll(due));
+        });
+    }
+
+    private void deliver(List<MailMessage> batch) {
+        Map<MimeMessage, MailMessage> outgoing = new LinkedHashMap<>();
+        for (MailMessage message : batch) {
+            try {
+                outgoing.put(toMimeMessage(message), message);
+            } catch (MessagingException e) {
+                // malformed message will never succeed, no point in retrying it
+                markDead(message, e.getMessage());
+            }
+        }
+
+        Map<Object, Exception> failed = Collections.emptyMap();
+        if (!outgoing.isEmpty()) {
+            try {
+                // a single send call reuses one SMTP connection for the whole batch
+                mailSender.send(outgoing.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failed = e.getFailedMessages();
+                if (failed.isEmpty()) {
+                    failed = failAll(outgoing.keySet(), e);
+                }
+            } catch (MailException e) {
+                failed = failAll(outgoing.keySet(), e);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, MailMessage> entry : outgoing.entrySet()) {
+            MailMessage message = entry.getValue();
+            Exception error = failed.get(entry.getKey());
+            if (error == null) {
+                message.setStatus(MailStatus.SENT);
+                message.setSentAt(now);
+                message.setLastError(null);
+            } else {
+                scheduleRetry(message, error.getMessage(), now);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> mailMessageRepository.saveAll(batch));
+    }
+
+    private MimeMessage toMimeMessage(MailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "UTF-8");
+        helper.setFrom(message.getSender());
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getContent(), message.isHtml());
+        return mimeMessage;
+    }
+
+    private Map<Object, Exception> failAll(Collection<MimeMessage> messages, Exception e) {
+        Map<Object, Exception> failed = new IdentityHashMap<>();
+        for (MimeMessage message : messages) {
+            failed.put(message, e);
+        }
+        return failed;
+    }
+
+    private void scheduleRetry(MailMessage message, String error, LocalDateTime now) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(truncate(error));
+        if (attempts >= maxAttempts) {
+            message.setStatus(MailStatus.DEAD);
+            logger.error("Mail " + message.getId() + " to " + message.getRecipient() + " moved to dead letters: " + error);
+            return;
+        }
+        long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 30));
+        message.setStatus(MailStatus.PENDING);
+        message.setNextAttemptAt(now.plusSeconds(backoff));
+    }
+
+    private void markDead(MailMessage message, String error) {
+        message.setAttempts(message.getAttempts() + 1);
+        message.setStatus(MailStatus.DEAD);
+        message.setLastError(truncate(error));
+        logger.error("Mail " + message.getId() + " to " + message.getRecipient() + " is malformed: " + error);
+    }
+
+    private String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
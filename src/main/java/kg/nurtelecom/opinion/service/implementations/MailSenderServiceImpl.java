@@ -1,22 +1,23 @@
 package kg.nurtelecom.opinion.service.implementations;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 import kg.nurtelecom.opinion.entity.ConfirmationToken;
 import kg.nurtelecom.opinion.entity.PasswordResetToken;
+import kg.nurtelecom.opinion.enums.MailType;
 import kg.nurtelecom.opinion.enums.SourceType;
-import kg.nurtelecom.opinion.exception.EmailSendingException;
+import kg.nurtelecom.opinion.service.MailQueueService;
 import kg.nurtelecom.opinion.service.MailSenderService;
+import kg.nurtelecom.opinion.template.HtmlTemplateEngine;
+import kg.nurtelecom.opinion.template.TemplateName;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 @Service
 public class MailSenderServiceImpl implements MailSenderService {
-    private final JavaMailSender mailSender;
+    private final MailQueueService mailQueueService;
+    private final HtmlTemplateEngine templateEngine;
     @Value(value = "${spring.mail.username}")
     private String username;
     @Value(value = "${client-application.host}")
@@ -25,8 +26,9 @@ public class MailSenderServiceImpl implements MailSenderService {
     private String resetPasswordRoute;
     private String passwordResetUrl;
 
-    public MailSenderServiceImpl(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public MailSenderServiceImpl(MailQueueService mailQueueService, HtmlTemplateEngine templateEngine) {
+        this.mailQueueService = mailQueueService;
+        this.templateEngine = templateEngine;
     }
 
     @PostConstruct
@@ -35,69 +37,36 @@ public class MailSenderServiceImpl implements MailSenderService {
     }
 
     @Override
-    @Async
     public void sendPasswordResetEmail(PasswordResetToken resetToken) {
-        MimeMessage message = mailSender.createMimeMessage();
-
         String firstName = resetToken.getUser().getFirstName();
         String fullPasswordResetUrl = passwordResetUrl + "/" + resetToken.getToken();
         String content = getPasswordResetMailContent(firstName, fullPasswordResetUrl);
 
-        try {
-            message.setFrom(username);
-            message.setRecipients(MimeMessage.RecipientType.TO, resetToken.getUser().getEmail());
-            message.setSubject("Password Reset");
-            message.setContent(content, "text/html; charset=utf-8");
-        } catch (MessagingException e) {
-            throw new EmailSendingException("Ошибка при попыткe отправить письмо");
-        }
-
-        mailSender.send(message);
+        mailQueueService.enqueue(MailType.TRANSACTIONAL, username, resetToken.getUser().getEmail(), "Password Reset", content, true);
     }
 
     @Override
     public void sendConfirmationEmail(ConfirmationToken confirmationToken, String confirmationUrl) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(username);
-        message.setTo(confirmationToken.getUser().getEmail());
-        message.setSubject("Подтверждение аккаунта");
-        message.setText("Для завершения регистрации перейдите по следующей ссылке: " + confirmationUrl);
-        mailSender.send(message);
+        mailQueueService.enqueue(MailType.TRANSACTIONAL, username, confirmationToken.getUser().getEmail(), "Подтверждение аккаунта",
+                "Для завершения регистрации перейдите по следующей ссылке: " + confirmationUrl, false);
     }
 
     private String getPasswordResetMailContent(String firstName, String passwordResetUrl) {
-        String content = "Уважаемый/-ая [[name]],<br>"
-                + "[Вы недавно запросили ссылку для сброса пароля]<br>"
-                + "Пожалуйста, пройдите по ссылке, чтобы завершить действие.<br>"
-                + "<h3><a href=\"[[URL]]\" target=\"_self\">RESET PASSWORD</a></h3>"
-                + "С уважением,<br>"
-                + "O!pinion Service.";
-
-        content = content.replace("[[name]]", firstName);
-        return content.replace("[[URL]]", passwordResetUrl);
+        return templateEngine.render(TemplateName.PASSWORD_RESET_MAIL, Map.of(
+                "name", firstName,
+                "URL", passwordResetUrl));
     }
 
     @Override
     public void sendEmail(String to, String sourceURL, String from, SourceType type) {
         String userURL = "http://143.110.182.202/user/" + from;
-        MimeMessage message = mailSender.createMimeMessage();
-        String content = type.equals(SourceType.ARTICLE) ?
-                ("<a href=\"" + userURL + "\" target=\"_self\">" + from + "</a> cчитает, вам понравится эта статья >>>,<br>"
-                + "<h3><a href=\"[[URL]]\" target=\"_self\">Просмотреть статью</a></h3>") :
-                ("<a href=\"" + userURL + "\" target=\"_self\">" + from + "</a> cчитает, вам понравится это объявление >>>,<br>"
-                        + "<h3><a href=\"[[URL]]\" target=\"_self\">Просмотреть объявление</a></h3>");
-
-
-        content = content.replace("[[URL]]", sourceURL);
-        try {
-            message.setFrom(from);
-            message.setRecipients(MimeMessage.RecipientType.TO, to);
-            message.setSubject("Пользователь O!pinion " + from + " поделился с вами : ");
-            message.setContent(content, "text/html; charset=utf-8");
-            mailSender.send(message);
-        } catch (MessagingException e) {
-            throw new EmailSendingException("Ошибка при попыткe поделиться статьей/объявлением через email");
-        }
+        TemplateName template = type.equals(SourceType.ARTICLE) ?
+                TemplateName.SHARE_ARTICLE_MAIL : TemplateName.SHARE_ANNOUNCEMENT_MAIL;
+        String content = templateEngine.render(template, Map.of(
+                "user_url", userURL,
+                "nickname", from,
+                "URL", sourceURL));
+        mailQueueService.enqueue(MailType.SHARE, from, to, "Пользователь O!pinion " + from + " поделился с вами : ", content, true);
     }
 
 }
@@ -0,0 +1,67 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import kg.nurtelecom.opinion.entity.PooledBaseEntity;
+import kg.nurtelecom.opinion.service.PooledIdService;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The tables moved to pooled ids already have rows numbered by AUTO_INCREMENT, so the generator rows are moved past
+ * the largest existing id. It runs while the context starts, before the web server accepts requests, and after
+ * Hibernate has created the generator table.
+ * Rows written by native statements take their ids from the same generator Hibernate uses, so they share its blocks.
+ */
+@Service
+public class PooledIdServiceImpl implements PooledIdService {
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PooledIdServiceImpl(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @PostConstruct
+    public void alignWithExistingRows() {
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            if (!PooledBaseEntity.class.isAssignableFrom(entity.getJavaType())) {
+                continue;
+            }
+            // the generator keeps one row per table, named after it, holding the last id it handed out
+            String table = entity.getJavaType().getAnnotation(Table.class).name();
+            jdbcTemplate.update("INSERT INTO " + PooledBaseEntity.GENERATOR_TABLE + " (table_name, next_val) " +
+                    "SELECT ?, COALESCE(MAX(id), 0) FROM " + table + " " +
+                    "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))", table);
+        }
+    }
+
+    @Override
+    public List<Long> nextIds(Class<? extends PooledBaseEntity> entityClass, int count) {
+        if (count == 0) {
+            return List.of();
+        }
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(entityClass).getGenerator();
+        List<Long> ids = new ArrayList<>(count);
+        // a new block is read in a transaction of its own, the session only lends its connection access
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            for (int i = 0; i < count; i++) {
+                ids.add((Long) generator.generate((SharedSessionContractImplementor) session, null));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,434 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import jakarta.annotation.PreDestroy;
+import kg.nurtelecom.opinion.entity.ArticleReaction;
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionChange;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionDelta;
+import kg.nurtelecom.opinion.service.PooledIdService;
+import kg.nurtelecom.opinion.service.ReactionJournalService;
+import kg.nurtelecom.opinion.service.UserReactionCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Buffers reaction toggles in memory when an article gets a burst of them, and writes them as a few batched
+ * statements every flush interval. The journal is split into lock stripes by article id, a stripe holds the toggles
+ * waiting for the next flush and the ones the running flush is writing. Until they are written they are overlaid on
+ * what the database returns, so the acting user sees their own reaction right away.
+ * Counters of the flushed articles are recounted rather than adjusted, which stays correct with several instances.
+ * The stored reaction a toggle starts from is read from the database, so is what the flush compares against.
+ * Every commit of a flush moves the epoch of its stripes on and takes the committed toggles out of the journal at the
+ * same time, so counters read between two epochs plus the pending toggles count every toggle once.
+ */
+@Service
+public class ReactionJournalServiceImpl implements ReactionJournalService, SchedulingConfigurer {
+    private static final String DELETE_SQL = "DELETE FROM article_reaction WHERE article_id = ? AND user_id = ?";
+    private static final String UPSERT_SQL = "INSERT INTO article_reaction (id, article_id, user_id, reaction_type) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE reaction_type = VALUES(reaction_type)";
+    private static final String SELECT_SQL = "SELECT article_id, user_id, reaction_type FROM article_reaction " +
+            "WHERE (article_id, user_id) IN (";
+    private static final int READ_CHUNK_SIZE = 500;
+    private static final long COMMIT_WAIT_NANOS = 200_000;
+    private static final String RECOUNT_SQL = "UPDATE article a SET " +
+            "a.likes_count = (SELECT COUNT(*) FROM article_reaction r WHERE r.article_id = a.id AND r.reaction_type = 'LIKE'), " +
+            "a.dislikes_count = (SELECT COUNT(*) FROM article_reaction r WHERE r.article_id = a.id AND r.reaction_type = 'DISLIKE') " +
+            "WHERE a.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserReactionCacheService userReactionCacheService;
+    private final PooledIdService pooledIdService;
+    private final PlatformTransactionManager transactionManager;
+    private final Stripe[] stripes;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final Logger logger = LoggerFactory.getLogger(ReactionJournalServiceImpl.class);
+
+    public ReactionJournalServiceImpl(JdbcTemplate jdbcTemplate,
+                                      UserReactionCacheService userReactionCacheService,
+                                      PooledIdService pooledIdService,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${app.reactions.ingestion.buffered}") boolean enabled,
+                                      @Value("${app.reactions.ingestion.stripes}") int stripeCount,
+                                      @Value("${app.reactions.ingestion.flush-interval-ms}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userReactionCacheService = userReactionCacheService;
+        this.pooledIdService = pooledIdService;
+        this.transactionManager = transactionManager;
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public ReactionChange toggle(Long articleId, Long userId, ReactionType reactionType, Supplier<ReactionType> storedReaction) {
+        Stripe stripe = stripeOf(articleId);
+        long epoch;
+        synchronized (stripe) {
+            if (stripe.find(articleId, userId) != null) {
+                return stripe.toggle(articleId, userId, reactionType, null);
+            }
+            epoch = stripe.epoch;
+        }
+        while (true) {
+            // read outside the lock, it may need a query
+            ReactionType stored = storedReaction.get();
+            synchronized (stripe) {
+                // a flush that finished in between may have changed what is stored
+                if (stripe.epoch == epoch || stripe.find(articleId, userId) != null) {
+                    return stripe.toggle(articleId, userId, reactionType, stored);
+                }
+                epoch = stripe.epoch;
+            }
+        }
+    }
+
+    @Override
+    public Map<Long, ReactionType> overlay(Long userId, Collection<Long> articleIds, Map<Long, ReactionType> storedReactions) {
+        Map<Long, ReactionType> result = new HashMap<>(storedReactions);
+        for (Long articleId : articleIds) {
+            Stripe stripe = stripeOf(articleId);
+            synchronized (stripe) {
+                Entry entry = stripe.find(articleId, userId);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.current == null) {
+                    result.remove(articleId);
+                } else {
+                    result.put(articleId, entry.current);
+                }
+            }
+        }
+        return result;
+    }
+
+    // a commit takes a few milliseconds, waiting inside the monitor would pin a virtual thread to its carrier
+    @Override
+    public long awaitFlushEpoch(Long articleId) {
+        Stripe stripe = stripeOf(articleId);
+        while (true) {
+            synchronized (stripe) {
+                if (stripe.committing == 0) {
+                    return stripe.epoch;
+                }
+            }
+            LockSupport.parkNanos(COMMIT_WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Empty when a flush of the stripe has committed or is committing since the epoch was taken, counters read in
+     * between may or may not include it.
+     */
+    @Override
+    public Optional<ReactionDelta> getPendingDelta(Long articleId, long epoch) {
+        Stripe stripe = stripeOf(articleId);
+        synchronized (stripe) {
+            if (stripe.committing > 0 || stripe.epoch != epoch) {
+                return Optional.empty();
+            }
+            long likes = 0;
+            long dislikes = 0;
+            for (ArticleJournal journal : List.of(stripe.pending, stripe.flushing)) {
+                ArticleJournal.Counts counts = journal.deltas.get(articleId);
+                if (counts != null) {
+                    likes += counts.likes;
+                    dislikes += counts.dislikes;
+                }
+            }
+            return Optional.of(likes == 0 && dislikes == 0 ? ReactionDelta.NONE : new ReactionDelta(likes, dislikes));
+        }
+    }
+
+    // the flush is only scheduled while the journal is in use
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (enabled) {
+            taskRegistrar.addFixedDelayTask(this::flush, Duration.ofMillis(flushIntervalMs));
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void flush() {
+        Map<ReactionKey, ReactionType> changes = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.pending.entries.isEmpty()) {
+                    continue;
+                }
+                stripe.flushing = stripe.pending;
+                stripe.pending = new ArticleJournal();
+                stripe.flushing.entries.forEach((key, entry) -> changes.put(key, entry.current));
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        finishFlush(writeAll(changes));
+    }
+
+    private Set<ReactionKey> writeAll(Map<ReactionKey, ReactionType> changes) {
+        try {
+            write(changes);
+            return Set.of();
+        } catch (DataIntegrityViolationException e) {
+            return writeOneByOne(changes);
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush " + changes.size() + " reactions, will retry", e);
+            return changes.keySet();
+        }
+    }
+
+    /**
+     * Compares with what the database holds right now rather than with what this instance saw when the toggle came in,
+     * another instance may have written the same reaction since.
+     */
+    private void write(Map<ReactionKey, ReactionType> changes) {
+        TransactionStatus status = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        try {
+            writeInTransaction(changes);
+        } catch (RuntimeException e) {
+            transactionManager.rollback(status);
+            throw e;
+        }
+        List<Stripe> committing = beginCommit(changes.keySet());
+        boolean committed = false;
+        try {
+            transactionManager.commit(status);
+            committed = true;
+            // while the toggles are still in the journal, it covers the stale cached reactions
+            changes.keySet().stream().map(ReactionKey::userId).distinct().forEach(userReactionCacheService::evict);
+        } finally {
+            endCommit(committing, changes.keySet(), committed);
+        }
+    }
+
+    private void writeInTransaction(Map<ReactionKey, ReactionType> changes) {
+        Map<ReactionKey, ReactionType> stored = readStored(changes.keySet());
+        List<Object[]> deletes = new ArrayList<>();
+        List<Map.Entry<ReactionKey, ReactionType>> upserts = new ArrayList<>();
+        Set<Long> articleIds = new HashSet<>();
+        changes.forEach((key, current) -> {
+            if (current == stored.get(key)) {
+                return;
+            }
+            if (current == null) {
+                deletes.add(new Object[]{key.articleId(), key.userId()});
+            } else {
+                upserts.add(Map.entry(key, current));
+            }
+            articleIds.add(key.articleId());
+        });
+        if (articleIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+        Iterator<Long> ids = pooledIdService.nextIds(ArticleReaction.class, upserts.size()).iterator();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, upserts.stream()
+                .map(upsert -> new Object[]{ids.next(), upsert.getKey().articleId(), upsert.getKey().userId(),
+                        upsert.getValue().name()})
+                .toList());
+        jdbcTemplate.batchUpdate(RECOUNT_SQL, articleIds.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    // readers of the counters wait until the commit is over, until then they can't tell whether it has landed
+    private List<Stripe> beginCommit(Set<ReactionKey> keys) {
+        List<Stripe> committing = keys.stream().map(key -> stripeOf(key.articleId())).distinct().toList();
+        for (Stripe stripe : committing) {
+            synchronized (stripe) {
+                stripe.committing++;
+            }
+        }
+        return committing;
+    }
+
+    private void endCommit(List<Stripe> committing, Set<ReactionKey> keys, boolean committed) {
+        for (Stripe stripe : committing) {
+            synchronized (stripe) {
+                stripe.committing--;
+                if (!committed) {
+                    continue;
+                }
+                // the stored counters include these toggles now
+                for (ReactionKey key : keys) {
+                    Entry entry = stripe.flushing.entries.remove(key);
+                    if (entry != null) {
+                        stripe.flushing.count(key.articleId(), entry.current, -1);
+                        stripe.flushing.count(key.articleId(), entry.original, 1);
+                    }
+                }
+                stripe.epoch++;
+            }
+        }
+    }
+
+    private Map<ReactionKey, ReactionType> readStored(Set<ReactionKey> keys) {
+        Map<ReactionKey, ReactionType> stored = new HashMap<>();
+        List<ReactionKey> remaining = new ArrayList<>(keys);
+        for (int from = 0; from < remaining.size(); from += READ_CHUNK_SIZE) {
+            List<ReactionKey> chunk = remaining.subList(from, Math.min(from + READ_CHUNK_SIZE, remaining.size()));
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[2 * i] = chunk.get(i).articleId();
+                args[2 * i + 1] = chunk.get(i).userId();
+            }
+            String sql = SELECT_SQL + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)")) + ") FOR UPDATE";
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> stored.put(
+                    new ReactionKey(rs.getLong("article_id"), rs.getLong("user_id")),
+                    ReactionType.valueOf(rs.getString("reaction_type"))), args);
+        }
+        return stored;
+    }
+
+    /**
+     * A constraint violation fails the whole batch, so the toggles are written one at a time to find the ones that
+     * can never be written, e.g. to an article deleted in the meantime. Those are dropped, the rest is kept or retried.
+     */
+    private Set<ReactionKey> writeOneByOne(Map<ReactionKey, ReactionType> changes) {
+        Set<ReactionKey> unwritten = new HashSet<>();
+        changes.forEach((key, current) -> {
+            try {
+                write(Collections.singletonMap(key, current));
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Dropping reaction " + current + " of user " + key.userId() + " to article " + key.articleId()
+                        + ", it can't be written: " + e.getMostSpecificCause().getMessage());
+            } catch (RuntimeException e) {
+                unwritten.add(key);
+            }
+        });
+        if (!unwritten.isEmpty()) {
+            logger.warn("Could not flush " + unwritten.size() + " reactions, will retry");
+        }
+        return unwritten;
+    }
+
+    /**
+     * Clears the toggles of the finished flush. Toggles that weren't written go back to the pending journal.
+     */
+    private void finishFlush(Set<ReactionKey> unwritten) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.flushing.entries.isEmpty()) {
+                    continue;
+                }
+                stripe.flushing.entries.forEach((key, entry) -> {
+                    if (unwritten.contains(key)) {
+                        stripe.pending.restore(key, entry);
+                    }
+                });
+                stripe.flushing = new ArticleJournal();
+                stripe.epoch++;
+            }
+        }
+    }
+
+    private Stripe stripeOf(Long articleId) {
+        return stripes[Math.floorMod(Long.hashCode(articleId), stripes.length)];
+    }
+
+    private static final class Stripe {
+        private ArticleJournal pending = new ArticleJournal();
+        private ArticleJournal flushing = new ArticleJournal();
+        private long epoch;
+        private int committing;
+
+        Entry find(Long articleId, Long userId) {
+            ReactionKey key = new ReactionKey(articleId, userId);
+            Entry entry = pending.entries.get(key);
+            return entry != null ? entry : flushing.entries.get(key);
+        }
+
+        ReactionChange toggle(Long articleId, Long userId, ReactionType reactionType, ReactionType stored) {
+            ReactionKey key = new ReactionKey(articleId, userId);
+            Entry entry = pending.entries.get(key);
+            if (entry == null) {
+                // toggles being flushed are what the database holds once the flush commits
+                Entry flushed = flushing.entries.get(key);
+                ReactionType original = flushed != null ? flushed.current : stored;
+                entry = new Entry(original);
+                pending.entries.put(key, entry);
+            }
+            ReactionType previous = entry.current;
+            ReactionType next = previous == reactionType ? null : reactionType;
+            pending.count(articleId, previous, -1);
+            pending.count(articleId, next, 1);
+            entry.current = next;
+            return new ReactionChange(previous, next);
+        }
+    }
+
+    private static final class ArticleJournal {
+        private final Map<ReactionKey, Entry> entries = new HashMap<>();
+        private final Map<Long, Counts> deltas = new HashMap<>();
+
+        void count(Long articleId, ReactionType reactionType, int delta) {
+            if (reactionType == null) {
+                return;
+            }
+            Counts counts = deltas.computeIfAbsent(articleId, id -> new Counts());
+            if (reactionType == ReactionType.LIKE) {
+                counts.likes += delta;
+            } else {
+                counts.dislikes += delta;
+            }
+        }
+
+        void restore(ReactionKey key, Entry failed) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entries.put(key, failed);
+                count(key.articleId(), failed.original, -1);
+                count(key.articleId(), failed.current, 1);
+                return;
+            }
+            // the newer toggle was based on the failed one, the database still holds what the failed one started from
+            count(key.articleId(), entry.original, 1);
+            count(key.articleId(), failed.original, -1);
+            entry.original = failed.original;
+        }
+
+        private static final class Counts {
+            private long likes;
+            private long dislikes;
+        }
+    }
+
+    private static final class Entry {
+        private ReactionType original;
+        private ReactionType current;
+
+        Entry(ReactionType original) {
+            this.original = original;
+            this.current = original;
+        }
+    }
+
+    private record ReactionKey(long articleId, long userId) {
+    }
+}
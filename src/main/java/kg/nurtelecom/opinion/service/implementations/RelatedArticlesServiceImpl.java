@@ -0,0 +1,352 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.payload.article.RelatedArticleDTO;
+import kg.nurtelecom.opinion.repository.ArticleFeature;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.ArticleSummary;
+import kg.nurtelecom.opinion.repository.SavedArticlesRepository;
+import kg.nurtelecom.opinion.service.RelatedArticlesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the most similar approved articles of every approved article in memory. Similarity is a weighted sum of the
+ * Jaccard similarity of the tags and of the users who saved both articles, computed over sorted id arrays.
+ * Candidates come from MinHash signatures split into LSH bands, so an article is only compared with articles that
+ * share a band with it. The index is rebuilt nightly, which also picks up new saves, and articles approved or taken
+ * down in between are added or dropped one by one.
+ */
+@Service
+public class RelatedArticlesServiceImpl implements RelatedArticlesService {
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ArticleRepository articleRepository;
+    private final SavedArticlesRepository savedArticlesRepository;
+    private final Logger logger = LoggerFactory.getLogger(RelatedArticlesServiceImpl.class);
+    private final int neighbours;
+    private final double tagWeight;
+    private final double saveWeight;
+    private final int bands;
+    private final int rows;
+    private final int maxCandidates;
+    private final long[] seeds;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<Long, Node> nodes = new ConcurrentHashMap<>();
+    // guarded by lock
+    private Map<Long, List<Long>> buckets = new HashMap<>();
+
+    public RelatedArticlesServiceImpl(ArticleRepository articleRepository,
+                                      SavedArticlesRepository savedArticlesRepository,
+                                      @Value("${app.related.neighbours}") int neighbours,
+                                      @Value("${app.related.tag-weight}") double tagWeight,
+                                      @Value("${app.related.save-weight}") double saveWeight,
+                                      @Value("${app.related.bands}") int bands,
+                                      @Value("${app.related.rows}") int rows,
+                                      @Value("${app.related.max-candidates}") int maxCandidates) {
+        this.articleRepository = articleRepository;
+        this.savedArticlesRepository = savedArticlesRepository;
+        this.neighbours = neighbours;
+        this.tagWeight = tagWeight;
+        this.saveWeight = saveWeight;
+        this.bands = bands;
+        this.rows = rows;
+        this.maxCandidates = maxCandidates;
+        // fixed seeds keep signatures comparable between rebuilds
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        this.seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    @Override
+    public Optional<List<RelatedArticleDTO>> getRelatedArticles(Long articleId) {
+        Map<Long, Node> current = nodes;
+        Node node = current.get(articleId);
+        if (node == null) {
+            return Optional.empty();
+        }
+        List<RelatedArticleDTO> related = new ArrayList<>(neighbours);
+        for (long neighbourId : node.neighbours.ids) {
+            Node neighbour = current.get(neighbourId);
+            // articles taken down since the neighbours were computed are skipped
+            if (neighbour != null) {
+                related.add(neighbour.summary);
+                if (related.size() == neighbours) {
+                    break;
+                }
+            }
+        }
+        return Optional.of(related);
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.related.rebuild-cron}")
+    public void rebuild() {
+        lock.lock();
+        try {
+            Map<Long, Node> loaded = load(articleRepository.findIdsByStatus(ArticleStatus.APPROVED));
+            Map<Long, List<Long>> rebuiltBuckets = new HashMap<>();
+            for (Node node : loaded.values()) {
+                addToBuckets(rebuiltBuckets, node);
+            }
+            for (Node node : loaded.values()) {
+                node.neighbours = rank(node, candidates(rebuiltBuckets, loaded, node));
+            }
+            buckets = rebuiltBuckets;
+            nodes = new ConcurrentHashMap<>(loaded);
+            logger.info("Related articles index rebuilt for " + loaded.size() + " articles");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @EventListener
+    public void onApprovedArticles(ApprovedArticlesEvent event) {
+        lock.lock();
+        try {
+            Set<Long> approved = new HashSet<>(event.articleIds());
+            Map<Long, Node> current = nodes;
+            for (Iterator<Node> iterator = current.values().iterator(); iterator.hasNext(); ) {
+                Node node = iterator.next();
+                if (!approved.contains(node.id)) {
+                    iterator.remove();
+                    removeFromBuckets(node);
+                }
+            }
+            approved.removeAll(current.keySet());
+            if (approved.isEmpty()) {
+                return;
+            }
+
+            Map<Long, Node> added = load(new ArrayList<>(approved));
+            for (Node node : added.values()) {
+                addToBuckets(buckets, node);
+                current.put(node.id, node);
+            }
+            for (Node node : added.values()) {
+                Collection<Node> candidates = candidates(buckets, current, node);
+                node.neighbours = rank(node, candidates);
+                // the new article may be a better neighbour for the ones it is similar to
+                for (Node candidate : candidates) {
+                    double score = similarity(node, candidate);
+                    if (score > 0) {
+                        candidate.neighbours = candidate.neighbours.offer(node.id, score, neighbours * 2);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Long, Node> load(List<Long> ids) {
+        Map<Long, Node> loaded = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            Map<Long, long[]> tags = group(articleRepository.findTagFeatures(chunk));
+            Map<Long, long[]> savers = group(savedArticlesRepository.findSaverFeatures(chunk));
+            for (ArticleSummary summary : articleRepository.findSummaries(chunk, ArticleStatus.APPROVED)) {
+                Long id = summary.getId();
+                RelatedArticleDTO dto = new RelatedArticleDTO(id, summary.getTitle(), summary.getShortDescription(),
+                        summary.getCoverCard() != null ? summary.getCoverCard() : summary.getCoverImage(),
+                        summary.getDateTime());
+                long[] articleTags = tags.getOrDefault(id, new long[0]);
+                long[] articleSavers = savers.getOrDefault(id, new long[0]);
+                loaded.put(id, new Node(id, dto, articleTags, articleSavers, signature(articleTags, articleSavers)));
+            }
+        }
+        return loaded;
+    }
+
+    private Map<Long, long[]> group(List<ArticleFeature> features) {
+        Map<Long, List<Long>> grouped = new HashMap<>();
+        for (ArticleFeature feature : features) {
+            grouped.computeIfAbsent(feature.getArticleId(), id -> new ArrayList<>()).add(feature.getFeatureId());
+        }
+        Map<Long, long[]> result = new HashMap<>();
+        grouped.forEach((id, values) -> result.put(id, values.stream().mapToLong(Long::longValue).sorted().distinct().toArray()));
+        return result;
+    }
+
+    private long[] signature(long[] tags, long[] savers) {
+        if (tags.length == 0 && savers.length == 0) {
+            return null;
+        }
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (int i = 0; i < seeds.length; i++) {
+            // tags and savers are hashed apart so that a tag id never matches a user id
+            for (long tag : tags) {
+                signature[i] = Math.min(signature[i], mix(tag << 1 ^ seeds[i]));
+            }
+            for (long saver : savers) {
+                signature[i] = Math.min(signature[i], mix((saver << 1 | 1) ^ seeds[i]));
+            }
+        }
+        return signature;
+    }
+
+    private long[] bandKeys(long[] signature) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = 0; row < rows; row++) {
+                key = mix(key * 31 + signature[band * rows + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private void addToBuckets(Map<Long, List<Long>> target, Node node) {
+        if (node.bandKeys == null) {
+            return;
+        }
+        for (long key : node.bandKeys) {
+            target.computeIfAbsent(key, k -> new ArrayList<>()).add(node.id);
+        }
+    }
+
+    private void removeFromBuckets(Node node) {
+        if (node.bandKeys == null) {
+            return;
+        }
+        for (long key : node.bandKeys) {
+            List<Long> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(Long.valueOf(node.id));
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+
+    private Collection<Node> candidates(Map<Long, List<Long>> source, Map<Long, Node> index, Node node) {
+        Map<Long, Node> candidates = new LinkedHashMap<>();
+        if (node.bandKeys == null) {
+            return candidates.values();
+        }
+        // a bucket of a very common tag can hold thousands of articles, the first ones are enough
+        for (long key : node.bandKeys) {
+            for (Long id : source.getOrDefault(key, List.of())) {
+                Node candidate = index.get(id);
+                if (candidate != null && candidate != node) {
+                    candidates.putIfAbsent(id, candidate);
+                    if (candidates.size() >= maxCandidates) {
+                        return candidates.values();
+                    }
+                }
+            }
+        }
+        return candidates.values();
+    }
+
+    private Neighbours rank(Node node, Collection<Node> candidates) {
+        Neighbours ranked = Neighbours.EMPTY;
+        for (Node candidate : candidates) {
+            double score = similarity(node, candidate);
+            if (score > 0) {
+                ranked = ranked.offer(candidate.id, score, neighbours * 2);
+            }
+        }
+        return ranked;
+    }
+
+    private double similarity(Node first, Node second) {
+        return tagWeight * jaccard(first.tags, second.tags) + saveWeight * jaccard(first.savers, second.savers);
+    }
+
+    static double jaccard(long[] first, long[] second) {
+        if (first.length == 0 || second.length == 0) {
+            return 0;
+        }
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (first[i] < second[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / (first.length + second.length - common);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private final class Node {
+        private final long id;
+        private final RelatedArticleDTO summary;
+        private final long[] tags;
+        private final long[] savers;
+        private final long[] bandKeys;
+        private volatile Neighbours neighbours = Neighbours.EMPTY;
+
+        Node(long id, RelatedArticleDTO summary, long[] tags, long[] savers, long[] signature) {
+            this.id = id;
+            this.summary = summary;
+            this.tags = tags;
+            this.savers = savers;
+            this.bandKeys = signature != null ? bandKeys(signature) : null;
+        }
+    }
+
+    // sorted by score, replaced as a whole so that readers never see a half updated list
+    record Neighbours(long[] ids, double[] scores) {
+        static final Neighbours EMPTY = new Neighbours(new long[0], new double[0]);
+
+        Neighbours offer(long id, double score, int capacity) {
+            int size = 0;
+            long[] newIds = new long[Math.min(ids.length + 1, capacity)];
+            double[] newScores = new double[newIds.length];
+            boolean inserted = false;
+            for (int i = 0; i < ids.length && size < newIds.length; i++) {
+                if (ids[i] == id) {
+                    continue;
+                }
+                if (!inserted && score > scores[i]) {
+                    newIds[size] = id;
+                    newScores[size++] = score;
+                    inserted = true;
+                    if (size == newIds.length) {
+                        break;
+                    }
+                }
+                newIds[size] = ids[i];
+                newScores[size++] = scores[i];
+            }
+            if (!inserted && size < newIds.length) {
+                newIds[size] = id;
+                newScores[size++] = score;
+            }
+            return new Neighbours(Arrays.copyOf(newIds, size), Arrays.copyOf(newScores, size));
+        }
+    }
+}
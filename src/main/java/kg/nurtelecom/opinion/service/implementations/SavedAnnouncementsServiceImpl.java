@@ -3,14 +3,17 @@ package kg.nurtelecom.opinion.service.implementations;
 import kg.nurtelecom.opinion.entity.*;
 import kg.nurtelecom.opinion.enums.AccessType;
 import kg.nurtelecom.opinion.enums.Role;
+import kg.nurtelecom.opinion.event.AnnouncementChangedEvent;
 import kg.nurtelecom.opinion.exception.NoAccessException;
 import kg.nurtelecom.opinion.exception.NotFoundException;
 import kg.nurtelecom.opinion.payload.announcement.AnnouncementResponse;
+import kg.nurtelecom.opinion.payload.announcement.AnnouncementStats;
 
-import kg.nurtelecom.opinion.repository.AnnouncementCommentRepository;
 import kg.nurtelecom.opinion.repository.AnnouncementRepository;
 import kg.nurtelecom.opinion.repository.SavedAnnouncementsRepository;
+import kg.nurtelecom.opinion.service.AnnouncementStatsService;
 import kg.nurtelecom.opinion.service.SavedAnnouncementsService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -21,28 +24,34 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
 public class SavedAnnouncementsServiceImpl implements SavedAnnouncementsService {
     private final SavedAnnouncementsRepository savedAnnouncementsRepository;
     private final AnnouncementRepository announcementRepository;
-    private final AnnouncementCommentRepository announcementCommentRepository;
+    private final AnnouncementStatsService announcementStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
 
-    public SavedAnnouncementsServiceImpl(SavedAnnouncementsRepository savedAnnouncementsRepository, AnnouncementRepository announcementRepository,  AnnouncementCommentRepository announcementCommentRepository) {
+    public SavedAnnouncementsServiceImpl(SavedAnnouncementsRepository savedAnnouncementsRepository, AnnouncementRepository announcementRepository, AnnouncementStatsService announcementStatsService, ApplicationEventPublisher eventPublisher) {
         this.savedAnnouncementsRepository = savedAnnouncementsRepository;
         this.announcementRepository = announcementRepository;
-        this.announcementCommentRepository = announcementCommentRepository;
+        this.announcementStatsService = announcementStatsService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public ResponseEntity<Page<AnnouncementResponse>> getSavedAnnouncements(User user, Pageable pageable) {
         Page<SavedAnnouncement> allUsersSavedAnnouncements = savedAnnouncementsRepository.findAllByUser(pageable, user);
+        List<Long> ids = allUsersSavedAnnouncements.map(saved -> saved.getAnnouncement().getId()).getContent();
+        Map<Long, AnnouncementStats> stats = announcementStatsService.loadStats(ids, user);
         List<AnnouncementResponse> announcementList = new ArrayList<>();
         allUsersSavedAnnouncements.forEach(savedAnnouncement -> {
             Announcement announcement = savedAnnouncement.getAnnouncement();
             Long id = announcement.getId();
+            AnnouncementStats announcementStats = stats.getOrDefault(id, AnnouncementStats.EMPTY);
             AnnouncementResponse announcementResponse = new AnnouncementResponse(
                     announcement.getId(),
                     announcement.getTitle(),
@@ -50,8 +59,8 @@ public class SavedAnnouncementsServiceImpl implements SavedAnnouncementsService
                     announcement.getCoverImage(),
                     announcement.getDateTime(),
                     announcement.getViewsCount(),
-                    savedAnnouncementsRepository.countByAnnouncementId(id),
-                    announcementCommentRepository.countByAnnouncementId(id),
+                    announcementStats.totalFavourites(),
+                    announcementStats.totalComments(),
                     true,
                     announcement.getAccessType());
             announcementList.add(announcementResponse);
@@ -76,6 +85,7 @@ public class SavedAnnouncementsServiceImpl implements SavedAnnouncementsService
            SavedAnnouncement savedAnnouncement = new SavedAnnouncement(announcement, user);
            savedAnnouncementsRepository.save(savedAnnouncement);
         }
+        eventPublisher.publishEvent(new AnnouncementChangedEvent(announcement_id, true));
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
@@ -85,6 +95,7 @@ public class SavedAnnouncementsServiceImpl implements SavedAnnouncementsService
            throw new NotFoundException("Объявление не добавлено в избранное");
        }
        savedAnnouncementsRepository.deleteByAnnouncementIdAndUserId(announcement_id, user.getId());
+       eventPublisher.publishEvent(new AnnouncementChangedEvent(announcement_id, true));
        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 }
@@ -0,0 +1,85 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.ImageRenditions;
+import kg.nurtelecom.opinion.entity.StoredImage;
+import kg.nurtelecom.opinion.payload.image.ProcessedImage;
+import kg.nurtelecom.opinion.repository.StoredImageRepository;
+import kg.nurtelecom.opinion.service.ImageDeletionService;
+import kg.nurtelecom.opinion.service.StoredImageService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Transactional
+public class StoredImageServiceImpl implements StoredImageService {
+    private final StoredImageRepository storedImageRepository;
+    private final ImageDeletionService imageDeletionService;
+
+    public StoredImageServiceImpl(StoredImageRepository storedImageRepository, ImageDeletionService imageDeletionService) {
+        this.storedImageRepository = storedImageRepository;
+        this.imageDeletionService = imageDeletionService;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ProcessedImage> find(String hash) {
+        return storedImageRepository.findByHash(hash).map(this::toProcessedImage);
+    }
+
+    /**
+     * Adds a reference to the image stored under the hash, indexing the given one if there is none yet. Has to run in
+     * the transaction that stores the reference, so that the count never outlives a rollback. Returns the indexed image,
+     * which is not the given one when the same content was stored concurrently.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public ProcessedImage register(String hash, ProcessedImage image) {
+        ImageRenditions renditions = image.renditions() != null ? image.renditions() : new ImageRenditions();
+        storedImageRepository.addReference(hash, image.url(), renditions.getCard(), renditions.getThumbnail(),
+                renditions.getFullWebp(), renditions.getCardWebp(), renditions.getThumbnailWebp());
+        // different uploads can re-encode to the same bytes, a content-addressed store then hands out the URL of an
+        // image indexed under another hash, and the reference went to that image
+        ProcessedImage stored = storedImageRepository.findByHash(hash)
+                .or(() -> storedImageRepository.findByUrl(image.url()))
+                .map(this::toProcessedImage)
+                .orElseThrow(() -> new IllegalStateException("Stored image " + hash + " vanished after insert"));
+        // content-addressed stores hand out the same key again for the same bytes, and a reused image may have been
+        // released a moment ago, a pending deletion would remove it either way
+        List<String> urls = new ArrayList<>();
+        urls.add(stored.url());
+        if (stored.renditions() != null) {
+            urls.add(stored.renditions().getCard());
+            urls.add(stored.renditions().getThumbnail());
+        }
+        imageDeletionService.cancel(urls);
+        return stored;
+    }
+
+    /**
+     * Returns the image to destroy once nothing references it any more, or empty while it is still in use.
+     * Images uploaded before the index existed are not tracked and are always released.
+     */
+    @Override
+    public Optional<ProcessedImage> release(String url) {
+        Optional<StoredImage> storedImage = storedImageRepository.findByUrlForUpdate(url);
+        if (storedImage.isEmpty()) {
+            return Optional.of(new ProcessedImage(url, null));
+        }
+        StoredImage image = storedImage.get();
+        if (image.getReferenceCount() > 1) {
+            image.setReferenceCount(image.getReferenceCount() - 1);
+            return Optional.empty();
+        }
+        storedImageRepository.delete(image);
+        return Optional.of(toProcessedImage(image));
+    }
+
+    private ProcessedImage toProcessedImage(StoredImage storedImage) {
+        return new ProcessedImage(storedImage.getUrl(), storedImage.getRenditions());
+    }
+}
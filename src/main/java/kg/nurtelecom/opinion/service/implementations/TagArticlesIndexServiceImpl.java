@@ -0,0 +1,287 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.enums.TagMatch;
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.event.ArticleChangedEvent;
+import kg.nurtelecom.opinion.exception.NotValidException;
+import kg.nurtelecom.opinion.payload.tag.TagArticlesSlice;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.TagPosting;
+import kg.nurtelecom.opinion.service.TagArticlesIndexService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps, for every tag, the approved articles with that tag ordered from the newest, as two parallel arrays of
+ * publication times and ids. Several tags are combined by intersecting or merging these lists, and a page starts
+ * right after the (time, id) pair of the last article of the previous one, so no page costs more than the first.
+ * Lists are replaced as a whole on change, which lets reads go without locking.
+ */
+@Service
+public class TagArticlesIndexServiceImpl implements TagArticlesIndexService {
+    private static final Postings EMPTY = new Postings(new long[0], new long[0]);
+
+    private final ArticleRepository articleRepository;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Postings> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Indexed> indexed = new HashMap<>();
+    private Set<Long> knownApproved;
+
+    public TagArticlesIndexServiceImpl(ArticleRepository articleRepository) {
+        this.articleRepository = articleRepository;
+    }
+
+    @Override
+    public TagArticlesSlice findArticleIds(List<Long> tagIds, TagMatch match, String cursor, int size) {
+        long[] after = cursor == null ? null : decodeCursor(cursor);
+        List<Postings> lists = new ArrayList<>();
+        for (Long tagId : new LinkedHashSet<>(tagIds)) {
+            lists.add(postings.getOrDefault(tagId, EMPTY));
+        }
+        // one entry more than asked shows whether there is a next page
+        List<long[]> found = match == TagMatch.ALL ? intersect(lists, after, size + 1) : union(lists, after, size + 1);
+
+        String nextCursor = null;
+        if (found.size() > size) {
+            found = found.subList(0, size);
+            long[] last = found.get(size - 1);
+            nextCursor = encodeCursor(last[0], last[1]);
+        }
+        return new TagArticlesSlice(found.stream().map(entry -> entry[1]).toList(), nextCursor);
+    }
+
+    @Override
+    @EventListener
+    public void onApprovedArticles(ApprovedArticlesEvent event) {
+        lock.lock();
+        try {
+            if (knownApproved == null) {
+                return;
+            }
+            Set<Long> added = new HashSet<>(event.articleIds());
+            added.removeAll(knownApproved);
+            Set<Long> withdrawn = new HashSet<>(knownApproved);
+            withdrawn.removeAll(event.articleIds());
+            knownApproved = event.articleIds();
+
+            withdrawn.forEach(this::remove);
+            if (!added.isEmpty()) {
+                reindex(added);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChanged(ArticleChangedEvent event) {
+        lock.lock();
+        try {
+            reindex(List.of(event.articleId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.lock();
+        try {
+            knownApproved = Set.copyOf(articleRepository.findIdsByStatus(ArticleStatus.APPROVED));
+            Map<Long, List<TagPosting>> byTag = new HashMap<>();
+            indexed.clear();
+            for (TagPosting posting : articleRepository.findTagPostings(ArticleStatus.APPROVED)) {
+                byTag.computeIfAbsent(posting.getTagId(), id -> new ArrayList<>()).add(posting);
+                indexed.computeIfAbsent(posting.getArticleId(), id -> new Indexed(toMillis(posting.getDateTime()), new ArrayList<>()))
+                        .tagIds().add(posting.getTagId());
+            }
+
+            postings.clear();
+            byTag.forEach((tagId, tagPostings) -> {
+                long[] times = new long[tagPostings.size()];
+                long[] ids = new long[tagPostings.size()];
+                tagPostings.sort((a, b) -> compare(toMillis(a.getDateTime()), a.getArticleId(), toMillis(b.getDateTime()), b.getArticleId()));
+                for (int i = 0; i < tagPostings.size(); i++) {
+                    times[i] = toMillis(tagPostings.get(i).getDateTime());
+                    ids[i] = tagPostings.get(i).getArticleId();
+                }
+                postings.put(tagId, new Postings(times, ids));
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reindex(Collection<Long> articleIds) {
+        articleIds.forEach(this::remove);
+        for (TagPosting posting : articleRepository.findTagPostingsByIdIn(articleIds, ArticleStatus.APPROVED)) {
+            long time = toMillis(posting.getDateTime());
+            indexed.computeIfAbsent(posting.getArticleId(), id -> new Indexed(time, new ArrayList<>())).tagIds().add(posting.getTagId());
+            postings.put(posting.getTagId(), postings.getOrDefault(posting.getTagId(), EMPTY).with(time, posting.getArticleId()));
+        }
+    }
+
+    private void remove(Long articleId) {
+        Indexed article = indexed.remove(articleId);
+        if (article == null) {
+            return;
+        }
+        for (Long tagId : article.tagIds()) {
+            Postings without = postings.getOrDefault(tagId, EMPTY).without(article.time(), articleId);
+            if (without.ids().length == 0) {
+                postings.remove(tagId);
+            } else {
+                postings.put(tagId, without);
+            }
+        }
+    }
+
+    // the smallest list drives the intersection, the others are only probed
+    private static List<long[]> intersect(List<Postings> lists, long[] after, int limit) {
+        List<long[]> found = new ArrayList<>();
+        if (lists.isEmpty()) {
+            return found;
+        }
+        List<Postings> sorted = new ArrayList<>(lists);
+        sorted.sort(Comparator.comparingInt(list -> list.ids().length));
+        Postings driver = sorted.get(0);
+        for (int i = driver.seek(after); i < driver.ids().length && found.size() < limit; i++) {
+            long time = driver.times()[i];
+            long id = driver.ids()[i];
+            boolean everywhere = true;
+            for (int j = 1; j < sorted.size() && everywhere; j++) {
+                everywhere = sorted.get(j).contains(time, id);
+            }
+            if (everywhere) {
+                found.add(new long[]{time, id});
+            }
+        }
+        return found;
+    }
+
+    private static List<long[]> union(List<Postings> lists, long[] after, int limit) {
+        int[] positions = new int[lists.size()];
+        for (int i = 0; i < lists.size(); i++) {
+            positions[i] = lists.get(i).seek(after);
+        }
+        List<long[]> found = new ArrayList<>();
+        while (found.size() < limit) {
+            int best = -1;
+            for (int i = 0; i < lists.size(); i++) {
+                Postings list = lists.get(i);
+                if (positions[i] < list.ids().length && (best < 0 || compare(list.times()[positions[i]], list.ids()[positions[i]],
+                        lists.get(best).times()[positions[best]], lists.get(best).ids()[positions[best]]) < 0)) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            long time = lists.get(best).times()[positions[best]];
+            long id = lists.get(best).ids()[positions[best]];
+            found.add(new long[]{time, id});
+            // an article with several of the tags sits at the same place in every list
+            for (int i = 0; i < lists.size(); i++) {
+                Postings list = lists.get(i);
+                if (positions[i] < list.ids().length && list.ids()[positions[i]] == id) {
+                    positions[i]++;
+                }
+            }
+        }
+        return found;
+    }
+
+    // newer first, ties broken by the larger id
+    private static int compare(long time, long id, long otherTime, long otherId) {
+        return time != otherTime ? Long.compare(otherTime, time) : Long.compare(otherId, id);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String encodeCursor(long time, long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((time + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new NotValidException("Неверный курсор");
+        }
+    }
+
+    private record Indexed(long time, List<Long> tagIds) {
+    }
+
+    private record Postings(long[] times, long[] ids) {
+        // index of the first entry after the given (time, id), or of the first entry when there is none
+        int seek(long[] after) {
+            return after == null ? 0 : seek(after[0], after[1]);
+        }
+
+        int seek(long time, long id) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(times[middle], ids[middle], time, id) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        boolean contains(long time, long id) {
+            int position = seek(time, id) - 1;
+            return position >= 0 && ids[position] == id && times[position] == time;
+        }
+
+        Postings with(long time, long id) {
+            if (contains(time, id)) {
+                return this;
+            }
+            int position = seek(time, id);
+            return new Postings(insert(times, position, time), insert(ids, position, id));
+        }
+
+        Postings without(long time, long id) {
+            if (!contains(time, id)) {
+                return this;
+            }
+            int position = seek(time, id) - 1;
+            return new Postings(delete(times, position), delete(ids, position));
+        }
+
+        private static long[] insert(long[] values, int position, long value) {
+            long[] copy = new long[values.length + 1];
+            System.arraycopy(values, 0, copy, 0, position);
+            copy[position] = value;
+            System.arraycopy(values, position, copy, position + 1, values.length - position);
+            return copy;
+        }
+
+        private static long[] delete(long[] values, int position) {
+            long[] copy = new long[values.length - 1];
+            System.arraycopy(values, 0, copy, 0, position);
+            System.arraycopy(values, position + 1, copy, position, values.length - position - 1);
+            return copy;
+        }
+    }
+}
@@ -2,20 +2,35 @@ package kg.nurtelecom.opinion.service.implementations;
 
 
 import kg.nurtelecom.opinion.entity.Tag;
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.TagMatch;
 
 import kg.nurtelecom.opinion.enums.TagStatus;
+import kg.nurtelecom.opinion.exception.NotFoundException;
+import kg.nurtelecom.opinion.exception.NotValidException;
 import kg.nurtelecom.opinion.mapper.TagMapper;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
+import kg.nurtelecom.opinion.payload.tag.TagArticlesResponse;
+import kg.nurtelecom.opinion.payload.tag.TagArticlesSlice;
 import kg.nurtelecom.opinion.payload.tag.TagRequest;
 import kg.nurtelecom.opinion.payload.tag.TagDTO;
 import kg.nurtelecom.opinion.repository.TagRepository;
+import kg.nurtelecom.opinion.service.ArticleCardService;
+import kg.nurtelecom.opinion.service.EntityTagService;
+import kg.nurtelecom.opinion.service.TagArticlesIndexService;
 import kg.nurtelecom.opinion.service.TagService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -23,18 +38,33 @@ public class TagServiceImpl implements TagService {
 
     private final TagRepository tagRepository;
     private final TagMapper mapper;
+    private final TagArticlesIndexService tagArticlesIndexService;
+    private final ArticleCardService articleCardService;
+    private final EntityTagService entityTagService;
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_TAGS = 10;
 
-    public TagServiceImpl(TagRepository tagRepository, TagMapper mapper) {
+    @Value("${app.http-cache.tags-max-age-seconds}")
+    private long tagsMaxAgeSeconds;
+
+    public TagServiceImpl(TagRepository tagRepository, TagMapper mapper, TagArticlesIndexService tagArticlesIndexService,
+                          ArticleCardService articleCardService, EntityTagService entityTagService) {
         this.tagRepository = tagRepository;
         this.mapper = mapper;
+        this.tagArticlesIndexService = tagArticlesIndexService;
+        this.articleCardService = articleCardService;
+        this.entityTagService = entityTagService;
     }
 
 
 
     @Override
-    public ResponseEntity<Page<TagDTO>> getAll(Pageable pageable) {
+    public ResponseEntity<Page<TagDTO>> getAll(Pageable pageable, String ifNoneMatch) {
         Page<Tag> tags = tagRepository.findByStatus(TagStatus.APPROVED, pageable);
-        return new ResponseEntity<>(mapper.toTagDto(tags), HttpStatus.OK);
+        Page<TagDTO> page = mapper.toTagDto(tags);
+        String tag = entityTagService.tagOf(page.getContent(), page.getTotalElements(), pageable);
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(tagsMaxAgeSeconds)).cachePublic();
+        return entityTagService.respond(ifNoneMatch, tag, cacheControl, () -> page);
     }
 
     @Transactional
@@ -58,4 +88,26 @@ public class TagServiceImpl implements TagService {
         Page<Tag> foundTags = tagRepository.findByNameContaining(tagName, pageable);
         return new ResponseEntity<>(mapper.toTagDto(foundTags), HttpStatus.OK);
     }
+
+    @Override
+    public ResponseEntity<TagArticlesResponse> getTagArticles(Long tagId, String cursor, int size, User user, FieldSet fields) {
+        if (!tagRepository.existsById(tagId)) {
+            throw new NotFoundException("Тег не найден");
+        }
+        return getTagsArticles(List.of(tagId), TagMatch.ANY, cursor, size, user, fields);
+    }
+
+    @Override
+    public ResponseEntity<TagArticlesResponse> getTagsArticles(List<Long> tagIds, TagMatch match, String cursor, int size, User user, FieldSet fields) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new NotValidException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        if (tagIds.isEmpty() || tagIds.size() > MAX_TAGS) {
+            throw new NotValidException("Можно указать от 1 до " + MAX_TAGS + " тегов");
+        }
+        TagArticlesSlice slice = tagArticlesIndexService.findArticleIds(tagIds, match, cursor, size);
+        // an article taken down since the last poll is dropped here, which can leave a page a little short
+        List<ArticlesGetDTO> articles = articleCardService.getCards(slice.articleIds(), user, fields);
+        return new ResponseEntity<>(new TagArticlesResponse(articles, slice.nextCursor()), HttpStatus.OK);
+    }
 }
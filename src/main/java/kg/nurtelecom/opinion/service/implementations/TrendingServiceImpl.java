@@ -0,0 +1,147 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleActivity;
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.event.ArticleActivityEvent;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.TrendingSeed;
+import kg.nurtelecom.opinion.service.TrendingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Ranks articles by activity that decays exponentially with the configured half-life. Scores use forward decay:
+ * an activity adds weight * e^(lambda * (t - landmark)) and nothing is ever decayed in place, so an update only
+ * touches one article. The landmark is moved forward from time to time to keep the numbers small.
+ * The best top-k articles are kept in a bounded ordered set, a refresh drops those that are no longer approved
+ * and publishes the ranking the endpoint pages through.
+ * Every instance ranks by the activity it has seen itself, which is a fair sample with a load balancer in front.
+ */
+@Service
+public class TrendingServiceImpl implements TrendingService {
+    private static final double RESCALE_EXPONENT = 20;
+    private static final double PRUNE_SCORE = 0.01;
+
+    private final ArticleRepository articleRepository;
+    private final double lambda;
+    private final int topK;
+    private final int seedDays;
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final Map<Long, Ranked> rankedById = new HashMap<>();
+    private final TreeSet<Ranked> ranking = new TreeSet<>(Comparator.comparingDouble(Ranked::score).reversed()
+            .thenComparingLong(Ranked::articleId));
+    private long landmark = System.currentTimeMillis();
+    private volatile List<Long> published = List.of();
+
+    public TrendingServiceImpl(ArticleRepository articleRepository,
+                               @Value("${app.trending.half-life-hours}") double halfLifeHours,
+                               @Value("${app.trending.top-k}") int topK,
+                               @Value("${app.trending.seed-days}") int seedDays) {
+        this.articleRepository = articleRepository;
+        this.lambda = Math.log(2) / Duration.ofHours(1).toMillis() / halfLifeHours;
+        this.topK = topK;
+        this.seedDays = seedDays;
+    }
+
+    @Override
+    public Page<Long> getTrendingArticleIds(Pageable pageable) {
+        List<Long> ids = published;
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return new PageImpl<>(ids.subList(from, to), pageable, ids.size());
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleActivity(ArticleActivityEvent event) {
+        add(event.articleId(), event.activity().getWeight(), System.currentTimeMillis());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms}")
+    public void refresh() {
+        List<Long> candidates;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (lambda * (now - landmark) > RESCALE_EXPONENT) {
+                rescale(now);
+            }
+            candidates = ranking.stream().map(Ranked::articleId).toList();
+        }
+        if (candidates.isEmpty()) {
+            published = List.of();
+            return;
+        }
+
+        // the admin panel changes statuses without going through this application
+        Set<Long> approved = new HashSet<>(articleRepository.findIdsByIdInAndStatus(candidates, ArticleStatus.APPROVED));
+        published = candidates.stream().filter(approved::contains).toList();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        LocalDateTime since = LocalDateTime.now().minusDays(seedDays);
+        for (TrendingSeed seed : articleRepository.findTrendingSeeds(ArticleStatus.APPROVED, since)) {
+            long time = seed.getDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            long views = seed.getViews() == null ? 0 : seed.getViews();
+            long likes = seed.getLikes() == null ? 0 : seed.getLikes();
+            double weight = views * ArticleActivity.VIEW.getWeight() + likes * ArticleActivity.LIKE.getWeight();
+            if (weight > 0) {
+                add(seed.getId(), weight, time);
+            }
+        }
+        refresh();
+    }
+
+    synchronized void add(Long articleId, double weight, long time) {
+        // taken back likes decay from a later time than the like did, they must not push the score below zero
+        double score = Math.max(0, scores.getOrDefault(articleId, 0.0) + weight * Math.exp(lambda * (time - landmark)));
+        scores.put(articleId, score);
+        Ranked previous = rankedById.remove(articleId);
+        if (previous != null) {
+            ranking.remove(previous);
+        } else if (ranking.size() >= topK) {
+            if (ranking.last().score() >= score) {
+                return;
+            }
+            rankedById.remove(ranking.pollLast().articleId());
+        }
+        Ranked ranked = new Ranked(articleId, score);
+        ranking.add(ranked);
+        rankedById.put(articleId, ranked);
+    }
+
+    // moves the landmark to now and forgets articles whose activity has decayed to almost nothing
+    void rescale(long now) {
+        double factor = Math.exp(-lambda * (now - landmark));
+        landmark = now;
+        scores.replaceAll((id, score) -> score * factor);
+        scores.values().removeIf(score -> score < PRUNE_SCORE);
+        List<Ranked> rescaled = ranking.stream()
+                .map(ranked -> new Ranked(ranked.articleId(), ranked.score() * factor))
+                .filter(ranked -> scores.containsKey(ranked.articleId()))
+                .toList();
+        ranking.clear();
+        rankedById.clear();
+        for (Ranked ranked : rescaled) {
+            ranking.add(ranked);
+            rankedById.put(ranked.articleId(), ranked);
+        }
+    }
+
+    private record Ranked(long articleId, double score) {
+    }
+}
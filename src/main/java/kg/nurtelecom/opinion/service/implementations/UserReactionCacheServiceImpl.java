@@ -0,0 +1,141 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.repository.ArticleReactionRepository;
+import kg.nurtelecom.opinion.repository.ArticleReactionState;
+import kg.nurtelecom.opinion.service.UserReactionCacheService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the reactions of recently active users as two sorted arrays of article ids, so that marking a feed page
+ * doesn't need a query. Users with more reactions than max-reactions are looked up in the database per page; that
+ * they have too many is cached like a load, so their reactions aren't read up to the limit on every page.
+ */
+@Service
+public class UserReactionCacheServiceImpl implements UserReactionCacheService {
+    private final ArticleReactionRepository articleReactionRepository;
+    private final Map<Long, UserReactions> reactions = new ConcurrentHashMap<>();
+    @Value("${app.reactions.user-cache.enabled}")
+    private boolean enabled;
+    @Value("${app.reactions.user-cache.max-users}")
+    private int maxUsers;
+    @Value("${app.reactions.user-cache.max-reactions}")
+    private int maxReactions;
+    @Value("${app.reactions.user-cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    public UserReactionCacheServiceImpl(ArticleReactionRepository articleReactionRepository) {
+        this.articleReactionRepository = articleReactionRepository;
+    }
+
+    @Override
+    public Map<Long, ReactionType> getReactions(Long userId, Collection<Long> articleIds) {
+        if (articleIds.isEmpty()) {
+            return Map.of();
+        }
+        UserReactions userReactions = enabled ? findOrLoad(userId) : null;
+        if (userReactions == null || userReactions.tooMany) {
+            return toMap(articleReactionRepository.findStatesByUserIdAndArticleIds(userId, articleIds));
+        }
+
+        Map<Long, ReactionType> result = new HashMap<>();
+        for (Long articleId : articleIds) {
+            ReactionType reactionType = userReactions.get(articleId);
+            if (reactionType != null) {
+                result.put(articleId, reactionType);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(Long userId) {
+        // also drops a load in progress, so that it can't store what it read before the change
+        reactions.remove(userId);
+    }
+
+    private UserReactions findOrLoad(Long userId) {
+        UserReactions cached = reactions.get(userId);
+        if (cached != null && cached.isValid()) {
+            return cached;
+        }
+        if (cached == null && reactions.size() >= maxUsers) {
+            reactions.values().removeIf(entry -> !entry.isValid());
+        }
+        UserReactions placeholder = new UserReactions(null, null, 0, false);
+        boolean cacheable = cached == null
+                ? reactions.size() < maxUsers && reactions.putIfAbsent(userId, placeholder) == null
+                : reactions.replace(userId, cached, placeholder);
+
+        List<ArticleReactionState> states = articleReactionRepository.findStatesByUserId(userId, PageRequest.of(0, maxReactions + 1));
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        UserReactions loaded = states.size() > maxReactions
+                ? new UserReactions(new long[0], new long[0], expiresAt, true)
+                : UserReactions.of(states, expiresAt);
+        if (cacheable) {
+            reactions.replace(userId, placeholder, loaded);
+        }
+        return loaded;
+    }
+
+    private Map<Long, ReactionType> toMap(List<ArticleReactionState> states) {
+        Map<Long, ReactionType> result = new HashMap<>();
+        for (ArticleReactionState state : states) {
+            result.put(state.getArticleId(), state.getReactionType());
+        }
+        return result;
+    }
+
+    // compared by identity, a placeholder must only be replaced by the load that put it
+    private static final class UserReactions {
+        private final long[] likes;
+        private final long[] dislikes;
+        private final long expiresAt;
+        private final boolean tooMany;
+
+        private UserReactions(long[] likes, long[] dislikes, long expiresAt, boolean tooMany) {
+            this.likes = likes;
+            this.dislikes = dislikes;
+            this.expiresAt = expiresAt;
+            this.tooMany = tooMany;
+        }
+
+        static UserReactions of(List<ArticleReactionState> states, long expiresAt) {
+            long[] likes = new long[states.size()];
+            long[] dislikes = new long[states.size()];
+            int likeCount = 0;
+            int dislikeCount = 0;
+            for (ArticleReactionState state : states) {
+                if (state.getReactionType() == ReactionType.LIKE) {
+                    likes[likeCount++] = state.getArticleId();
+                } else {
+                    dislikes[dislikeCount++] = state.getArticleId();
+                }
+            }
+            likes = Arrays.copyOf(likes, likeCount);
+            dislikes = Arrays.copyOf(dislikes, dislikeCount);
+            Arrays.sort(likes);
+            Arrays.sort(dislikes);
+            return new UserReactions(likes, dislikes, expiresAt, false);
+        }
+
+        boolean isValid() {
+            return likes != null && System.currentTimeMillis() < expiresAt;
+        }
+
+        ReactionType get(long articleId) {
+            if (Arrays.binarySearch(likes, articleId) >= 0) {
+                return ReactionType.LIKE;
+            }
+            if (Arrays.binarySearch(dislikes, articleId) >= 0) {
+                return ReactionType.DISLIKE;
+            }
+            return null;
+        }
+    }
+}
@@ -8,13 +8,17 @@ import kg.nurtelecom.opinion.mapper.UserMapper;
 import kg.nurtelecom.opinion.payload.user.*;
 import kg.nurtelecom.opinion.repository.UserPrivacyRepository;
 import kg.nurtelecom.opinion.repository.UserRepository;
+import kg.nurtelecom.opinion.service.EntityTagService;
 import kg.nurtelecom.opinion.service.JwtService;
 import kg.nurtelecom.opinion.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @Service
@@ -25,29 +29,42 @@ public class UserServiceImpl implements UserService {
     private final UserPrivacyRepository userPrivacyRepository;
     private final UserMapper userMapper;
     private final JwtService jwtService;
+    private final EntityTagService entityTagService;
 
+    @Value("${app.http-cache.profile-max-age-seconds}")
+    private long profileMaxAgeSeconds;
 
-    public UserServiceImpl(UserRepository userRepository, UserPrivacyRepository userPrivacyRepository, UserMapper userMapper, JwtService jwtService) {
+
+    public UserServiceImpl(UserRepository userRepository, UserPrivacyRepository userPrivacyRepository, UserMapper userMapper, JwtService jwtService, EntityTagService entityTagService) {
         this.userRepository = userRepository;
         this.userPrivacyRepository = userPrivacyRepository;
         this.userMapper = userMapper;
         this.jwtService = jwtService;
+        this.entityTagService = entityTagService;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ResponseEntity<GetUserResponse> getMyProfile(User user) {
         checkUserStatus(user.getStatus());
         return new ResponseEntity<>(userMapper.toGetUserResponse(user) ,HttpStatus.OK);
     }
 
     @Override
-    public ResponseEntity<GetUserResponse> getUserProfile(Long userId) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<GetUserResponse> getUserProfile(Long userId, String ifNoneMatch) {
         Optional<User> user = userRepository.findByIdAndStatus(userId, Status.VERIFIED);
         User userEntity = user.orElseThrow(() -> new NotFoundException("Пользователя с таким id не существует"));
         UserPrivacySettings userPrivacySettings = userPrivacyRepository.getUserPrivacySettingsByUser(userEntity).get();
 
         User userResponse = setNecessaryFields(userPrivacySettings, userEntity);
-        return new ResponseEntity<>(userMapper.toGetUserResponse(userResponse), HttpStatus.OK);
+        return toConditionalResponse(userMapper.toGetUserResponse(userResponse), ifNoneMatch);
+    }
+
+    // a profile only shows what privacy settings allow, so the tag follows those settings too
+    private ResponseEntity<GetUserResponse> toConditionalResponse(GetUserResponse profile, String ifNoneMatch) {
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(profileMaxAgeSeconds)).cachePublic();
+        return entityTagService.respond(ifNoneMatch, entityTagService.tagOf(profile), cacheControl, () -> profile);
     }
 
     private User setNecessaryFields(UserPrivacySettings userPrivacySettings, User userEntity) {
@@ -75,14 +92,15 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public ResponseEntity<GetUserResponse> getUserProfileByNick(String userNick) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<GetUserResponse> getUserProfileByNick(String userNick, String ifNoneMatch) {
         Optional<User> user = userRepository.findByNicknameAndStatus(userNick, Status.VERIFIED);
         User userEntity = user.orElseThrow(() -> new NotFoundException("Пользователя с таким никнеймом не существует"));
         Optional<UserPrivacySettings> userPrivacy = userPrivacyRepository.getUserPrivacySettingsByUser(userEntity);
         UserPrivacySettings userPrivacyEntity = userPrivacy.orElseThrow(() -> new NotFoundException("У вас отсутствуют настройки приватности , создайте свой аккаунт через приложение "));
 
         User userResponse = setNecessaryFields(userPrivacyEntity, userEntity);
-        return new ResponseEntity<>(userMapper.toGetUserResponse(userResponse), HttpStatus.OK);
+        return toConditionalResponse(userMapper.toGetUserResponse(userResponse), ifNoneMatch);
     }
 
     @Override
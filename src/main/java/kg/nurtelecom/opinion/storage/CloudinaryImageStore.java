@@ -0,0 +1,118 @@
+package kg.nurtelecom.opinion.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.api.ApiResponse;
+import com.cloudinary.utils.ObjectUtils;
+import kg.nurtelecom.opinion.exception.FileException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "app.images.store.type", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStore implements ImageStore {
+    private static final int LIST_PAGE_SIZE = 500;
+    // delivery URLs carry an optional version before the public_id, never a transformation for our own images
+    private static final Pattern UPLOAD_URL = Pattern.compile("/image/upload/(?:v\\d+/)?([^?#]+?)(?:\\.[^./?#]+)?(?:[?#].*)?$");
+
+    private final Cloudinary cloudinary;
+    private final String folder;
+
+    public CloudinaryImageStore(Cloudinary cloudinary, @Value("${app.images.store.cloudinary.folder}") String folder) {
+        this.cloudinary = cloudinary;
+        this.folder = folder;
+    }
+
+    @Override
+    public StoredObject store(Path file, String format) {
+        try {
+            Map uploadResult = cloudinary.uploader().upload(file.toFile(), ObjectUtils.asMap("folder", folder));
+            return new StoredObject((String) uploadResult.get("public_id"), (String) uploadResult.get("url"));
+        } catch (IOException e) {
+            throw new FileException("Ошибка при попытке загрузить изображение на Cloudinary");
+        }
+    }
+
+    @Override
+    public Optional<String> convertedUrl(StoredObject object, String format) {
+        return Optional.of(cloudinary.url()
+                .format(format)
+                .generate(object.key()));
+    }
+
+    /**
+     * Returns the full public_id, folders included, and only for URLs of this account: images uploaded before
+     * the folder existed sit at the root, and two assets in different folders may share a base name.
+     */
+    @Override
+    public Optional<String> keyOf(String url) {
+        int accountIndex = url.indexOf("/" + cloudinary.config.cloudName + "/image/upload/");
+        if (accountIndex == -1) {
+            return Optional.empty();
+        }
+        Matcher matcher = UPLOAD_URL.matcher(url.substring(accountIndex + cloudinary.config.cloudName.length() + 1));
+        return matcher.find() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        try {
+            // one Admin API call removes up to a hundred assets
+            cloudinary.api().deleteResources(keys, ObjectUtils.emptyMap());
+        } catch (Exception e) {
+            throw new FileException("Ошибка при попытке удалить картинки с Cloudinary: " + e.getMessage());
+        }
+    }
+
+    // only the app's own folder, whatever else lives in the account is none of our business
+    @Override
+    public Stream<StoredAsset> list() {
+        return Stream.iterate(fetchPage(null), Objects::nonNull,
+                        page -> page.nextCursor() == null ? null : fetchPage(page.nextCursor()))
+                .flatMap(page -> page.assets().stream());
+    }
+
+    @Override
+    public Optional<ImageFile> find(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void transferTo(ImageFile file, long position, long count, WritableByteChannel target) {
+        throw new IllegalStateException("Cloudinary images are delivered by Cloudinary");
+    }
+
+    private AssetPage fetchPage(String cursor) {
+        Map<String, Object> options = new HashMap<>();
+        options.put("type", "upload");
+        options.put("prefix", folder + "/");
+        options.put("max_results", LIST_PAGE_SIZE);
+        if (cursor != null) {
+            options.put("next_cursor", cursor);
+        }
+        try {
+            ApiResponse response = cloudinary.api().resources(options);
+            List<StoredAsset> assets = new ArrayList<>();
+            for (Object resource : (List<?>) response.get("resources")) {
+                Map<?, ?> asset = (Map<?, ?>) resource;
+                assets.add(new StoredAsset((String) asset.get("public_id"), (String) asset.get("url"),
+                        Instant.parse((String) asset.get("created_at"))));
+            }
+            return new AssetPage(assets, (String) response.get("next_cursor"));
+        } catch (Exception e) {
+            throw new FileException("Ошибка при получении списка картинок из Cloudinary: " + e.getMessage());
+        }
+    }
+
+    private record AssetPage(List<StoredAsset> assets, String nextCursor) {
+    }
+}
@@ -0,0 +1,4 @@
+package kg.nurtelecom.opinion.storage;
+
+public record ImageFile(String key, String hash, long size, String contentType, long lastModified) {
+}
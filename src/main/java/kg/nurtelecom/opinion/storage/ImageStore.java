@@ -0,0 +1,40 @@
+package kg.nurtelecom.opinion.storage;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ImageStore {
+    StoredObject store(Path file, String format);
+
+    /**
+     * URL of the same image delivered in another format, when the backend can convert on the fly.
+     */
+    Optional<String> convertedUrl(StoredObject object, String format);
+
+    /**
+     * The key the backend itself lists the image under, empty for URLs that do not point into this store.
+     */
+    Optional<String> keyOf(String url);
+
+    /**
+     * Deletes a batch of objects at once. Keys that no longer exist are not an error, so a failed batch can be retried
+     * as a whole.
+     */
+    void delete(Collection<String> keys);
+
+    /**
+     * Everything the application has stored, never assets that other users of the same backend own. The stream may hold open resources and has to be closed.
+     */
+    Stream<StoredAsset> list();
+
+    /**
+     * Images the application serves itself. Backends that deliver through their own CDN return empty.
+     */
+    Optional<ImageFile> find(String key);
+
+    void transferTo(ImageFile file, long position, long count, WritableByteChannel target) throws IOException;
+}
@@ -0,0 +1,181 @@
+package kg.nurtelecom.opinion.storage;
+
+import kg.nurtelecom.opinion.exception.FileException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps images under a content-addressed key {@code ab/cd/<sha-256>.<ext>}, so that no directory grows too large
+ * and a key never points at different bytes.
+ */
+@Component
+@ConditionalOnProperty(name = "app.images.store.type", havingValue = "local")
+public class LocalImageStore implements ImageStore {
+    public static final String FILES_PATH = "/api/images/files/";
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}\\.[a-z0-9]{1,5}");
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalImageStore(@Value("${app.images.store.local.root}") String root,
+                           @Value("${app.images.store.local.base-url}") String baseUrl) throws IOException {
+        this.root = Files.createDirectories(Paths.get(root)).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public StoredObject store(Path file, String format) {
+        try {
+            String hash = hash(file);
+            String key = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + format.toLowerCase();
+            Path target = root.resolve(key);
+            if (!Files.exists(target)) {
+                Path shard = Files.createDirectories(target.getParent());
+                Path temp = Files.createTempFile(shard, ".upload-", ".tmp");
+                try {
+                    copy(file, temp);
+                    // readers only ever see a missing or a complete file
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            return new StoredObject(key, baseUrl + FILES_PATH + key);
+        } catch (IOException e) {
+            throw new FileException("Ошибка при сохранении изображения");
+        }
+    }
+
+    @Override
+    public Optional<String> convertedUrl(StoredObject object, String format) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<String> keyOf(String url) {
+        int index = url.indexOf(FILES_PATH);
+        if (index == -1) {
+            return Optional.empty();
+        }
+        String key = url.substring(index + FILES_PATH.length());
+        return KEY_PATTERN.matcher(key).matches() ? Optional.of(key) : Optional.empty();
+    }
+
+    @Override
+    public void delete(Collection<String> keys) {
+        for (String key : keys) {
+            if (!KEY_PATTERN.matcher(key).matches()) {
+                throw new FileException("Картинка не принадлежит хранилищу");
+            }
+            try {
+                Files.deleteIfExists(root.resolve(key));
+            } catch (IOException e) {
+                throw new FileException("Ошибка при удалении картинки");
+            }
+        }
+    }
+
+    @Override
+    public Stream<StoredAsset> list() {
+        try {
+            return Files.walk(root, 3)
+                    .filter(Files::isRegularFile)
+                    .map(path -> root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/"))
+                    .filter(key -> KEY_PATTERN.matcher(key).matches())
+                    .map(key -> new StoredAsset(key, baseUrl + FILES_PATH + key, lastModified(key)));
+        } catch (IOException e) {
+            throw new FileException("Ошибка при чтении хранилища картинок");
+        }
+    }
+
+    @Override
+    public Optional<ImageFile> find(String key) {
+        if (!KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+        Path path = root.resolve(key);
+        try {
+            if (!Files.isRegularFile(path)) {
+                return Optional.empty();
+            }
+            String contentType = MediaTypeFactory.getMediaType(key)
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                    .toString();
+            String hash = key.substring(key.lastIndexOf('/') + 1, key.lastIndexOf('.'));
+            return Optional.of(new ImageFile(key, hash, Files.size(path), contentType,
+                    Files.getLastModifiedTime(path).toMillis()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void transferTo(ImageFile file, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(root.resolve(file.key()), StandardOpenOption.READ)) {
+            long end = position + count;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private Instant lastModified(String key) {
+        try {
+            return Files.getLastModifiedTime(root.resolve(key)).toInstant();
+        } catch (IOException e) {
+            // deleted while listing, nothing left to sweep
+            return Instant.MAX;
+        }
+    }
+
+    private void copy(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            out.force(true);
+        }
+    }
+
+    private String hash(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package kg.nurtelecom.opinion.storage;
+
+import java.time.Instant;
+
+public record StoredAsset(String key, String url, Instant createdAt) {
+}
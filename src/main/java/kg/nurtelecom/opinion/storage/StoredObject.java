@@ -0,0 +1,4 @@
+package kg.nurtelecom.opinion.storage;
+
+public record StoredObject(String key, String url) {
+}
@@ -0,0 +1,105 @@
+package kg.nurtelecom.opinion.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class HtmlTemplate {
+    private static final String PLACEHOLDER_START = "[[";
+    private static final String PLACEHOLDER_END = "]]";
+
+    // even indexes hold literals, odd indexes hold placeholder names
+    private final String[] segments;
+    private final int literalLength;
+
+    private HtmlTemplate(String[] segments, int literalLength) {
+        this.segments = segments;
+        this.literalLength = literalLength;
+    }
+
+    public static HtmlTemplate compile(String source) {
+        List<String> segments = new ArrayList<>();
+        int literalLength = 0;
+        int position = 0;
+        while (true) {
+            int start = source.indexOf(PLACEHOLDER_START, position);
+            int end = start < 0 ? -1 : source.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (end < 0) {
+                String literal = source.substring(position);
+                segments.add(literal);
+                literalLength += literal.length();
+                break;
+            }
+            String literal = source.substring(position, start);
+            segments.add(literal);
+            literalLength += literal.length();
+            segments.add(source.substring(start + PLACEHOLDER_START.length(), end));
+            position = end + PLACEHOLDER_END.length();
+        }
+        return new HtmlTemplate(segments.toArray(new String[0]), literalLength);
+    }
+
+    /**
+     * Measures the escaped values first and writes into a char array of the exact length, a buffer per call rather
+     * than a thread-local one, which on virtual threads would be per request anyway.
+     */
+    public String render(Map<String, String> values) {
+        String[] placeholderValues = new String[segments.length / 2];
+        int length = literalLength;
+        for (int i = 1; i < segments.length; i += 2) {
+            String value = values.get(segments[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Не задано значение для [[" + segments[i] + "]]");
+            }
+            placeholderValues[i / 2] = value;
+            length += escapedLength(value);
+        }
+        char[] html = new char[length];
+        int position = 0;
+        for (int i = 0; i < segments.length; i++) {
+            if ((i & 1) == 0) {
+                segments[i].getChars(0, segments[i].length(), html, position);
+                position += segments[i].length();
+            } else {
+                position = writeEscaped(placeholderValues[i / 2], html, position);
+            }
+        }
+        return new String(html);
+    }
+
+    private static int escapedLength(String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            String replacement = replacement(value.charAt(i));
+            if (replacement != null) {
+                length += replacement.length() - 1;
+            }
+        }
+        return length;
+    }
+
+    private static int writeEscaped(String value, char[] html, int position) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = replacement(c);
+            if (replacement == null) {
+                html[position++] = c;
+            } else {
+                replacement.getChars(0, replacement.length(), html, position);
+                position += replacement.length();
+            }
+        }
+        return position;
+    }
+
+    private static String replacement(char c) {
+        return switch (c) {
+            case '<' -> "&lt;";
+            case '>' -> "&gt;";
+            case '&' -> "&amp;";
+            case '"' -> "&quot;";
+            case '\'' -> "&#39;";
+            default -> null;
+        };
+    }
+}
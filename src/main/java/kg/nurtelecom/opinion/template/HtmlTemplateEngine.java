@@ -0,0 +1,21 @@
+package kg.nurtelecom.opinion.template;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+public class HtmlTemplateEngine {
+    private final Map<TemplateName, HtmlTemplate> templates = new EnumMap<>(TemplateName.class);
+
+    public HtmlTemplateEngine() {
+        for (TemplateName name : TemplateName.values()) {
+            templates.put(name, HtmlTemplate.compile(name.getSource()));
+        }
+    }
+
+    public String render(TemplateName name, Map<String, String> values) {
+        return templates.get(name).render(values);
+    }
+}
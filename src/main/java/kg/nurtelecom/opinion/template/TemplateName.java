@@ -0,0 +1,33 @@
+package kg.nurtelecom.opinion.template;
+
+public enum TemplateName {
+    PASSWORD_RESET_MAIL("Уважаемый/-ая [[name]],<br>"
+            + "[Вы недавно запросили ссылку для сброса пароля]<br>"
+            + "Пожалуйста, пройдите по ссылке, чтобы завершить действие.<br>"
+            + "<h3><a href=\"[[URL]]\" target=\"_self\">RESET PASSWORD</a></h3>"
+            + "С уважением,<br>"
+            + "O!pinion Service."),
+    SHARE_ARTICLE_MAIL("<a href=\"[[user_url]]\" target=\"_self\">[[nickname]]</a> cчитает, вам понравится эта статья >>>,<br>"
+            + "<h3><a href=\"[[URL]]\" target=\"_self\">Просмотреть статью</a></h3>"),
+    SHARE_ANNOUNCEMENT_MAIL("<a href=\"[[user_url]]\" target=\"_self\">[[nickname]]</a> cчитает, вам понравится это объявление >>>,<br>"
+            + "<h3><a href=\"[[URL]]\" target=\"_self\">Просмотреть объявление</a></h3>"),
+    COMMENT_NOTIFICATION("<p>Пользователь <a href=\"[[user_url]]\"><strong>[[nickname]]</strong></a> написал(-а) комментарий под вашей статьей."
+            + " Нажмите на уведомление, чтобы узнать подробнее.</p>"),
+    MENTION_NOTIFICATION("<p>Пользователь <a href=\"[[user_url]]\"><strong>[[nickname]]</strong></a> упомянул(-а) вас в комментарии под статьей."
+            + " Содержание: \"[[comment]]\"."
+            + " Нажмите на уведомление, чтобы узнать подробнее.</p>"),
+    ARTICLE_MODERATION_NOTIFICATION("<p>Пользователь <a href=\"[[user_url]]\"><strong>[[nickname]]</strong></a> отправил(-а) на модерацию статью."
+            + " Нажмите на уведомление, чтобы узнать подробнее.</p>"),
+    COMPLAINT_NOTIFICATION("<p>Пользователь <a href=\"[[user_url]]\"><strong>[[nickname]]</strong></a> пожаловался(-ась) на статью."
+            + " Нажмите на уведомление, чтобы перейти к статье.</p>");
+
+    private final String source;
+
+    TemplateName(String source) {
+        this.source = source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,131 @@
+package kg.nurtelecom.opinion.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import kg.nurtelecom.opinion.entity.Article;
+import kg.nurtelecom.opinion.entity.Tag;
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.enums.TagStatus;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
+import kg.nurtelecom.opinion.repository.*;
+import kg.nurtelecom.opinion.service.implementations.ArticleCardServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A page of 20 article cards by 20 authors built from Article entities, as the listings did before, against the
+ * ArticleRepository CARDS projection. Entities bring the content, the eager tags and each author's privacy settings.
+ * Both include the count query and the favourite and comment counts. Run with -prof gc for the bytes allocated per
+ * page. H2 hands back the stored content without copying it, a real database decodes it on every entity read, so
+ * against MySQL the entity figure also holds every article body, decoded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArticleCardBenchmark {
+    private static final int ARTICLES = 200;
+    private static final int PAGE_SIZE = 20;
+    private static final int AUTHORS = 20;
+
+    @Param({"entities", "projection"})
+    public String source;
+
+    private ConfigurableApplicationContext context;
+    private ArticleRepository articleRepository;
+    private ArticleCardServiceImpl articleCardService;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private int page;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start("cards");
+        articleRepository = context.getBean(ArticleRepository.class);
+        articleCardService = new ArticleCardServiceImpl(articleRepository, context.getBean(SavedArticlesRepository.class),
+                context.getBean(ArticleCommentRepository.class), context.getBean(ArticleReactionRepository.class));
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            User author = new User();
+            author.setNickname("author" + i);
+            author.setEmail("author" + i + "@opinion.kg");
+            authors.add(userRepository.save(author));
+        }
+        TagRepository tagRepository = context.getBean(TagRepository.class);
+        List<Tag> tags = new ArrayList<>();
+        for (String name : List.of("экономика", "политика", "культура", "спорт")) {
+            tags.add(tagRepository.save(new Tag(name, TagStatus.APPROVED)));
+        }
+        String content = "<p>" + "Длинная статья о жизни в Бишкеке, экономике и новостях. ".repeat(700) + "</p>";
+        for (int i = 0; i < ARTICLES; i++) {
+            Article article = new Article();
+            article.setTitle("Статья " + i);
+            article.setShortDescription("Краткое описание статьи " + i);
+            article.setContent(content.substring(i));
+            article.setCoverImage("https://res.cloudinary.com/opinion/image/upload/articles/" + i + ".jpg");
+            article.setDateTime(LocalDateTime.now().minusHours(i));
+            article.setStatus(ArticleStatus.APPROVED);
+            article.setAuthor(authors.get(i % AUTHORS));
+            article.setTags(new ArrayList<>(List.of(tags.get(i % tags.size()), tags.get((i + 1) % tags.size()))));
+            articleRepository.save(article);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ArticlesGetDTO> cardPage() {
+        page = (page + 1) % (ARTICLES / PAGE_SIZE);
+        return transactionTemplate.execute(status -> {
+            List<ArticleCard> cards = source.equals("entities") ? fromEntities(page)
+                    : articleRepository.findCardsByStatus(ArticleStatus.APPROVED,
+                    PageRequest.of(page, PAGE_SIZE, Sort.by("id"))).getContent();
+            return articleCardService.toCards(cards, null, FieldSet.ALL);
+        });
+    }
+
+    private List<ArticleCard> fromEntities(int page) {
+        List<Article> articles = entityManager
+                .createQuery("SELECT a FROM Article a WHERE a.status = :status ORDER BY a.id", Article.class)
+                .setParameter("status", ArticleStatus.APPROVED)
+                .setFirstResult(page * PAGE_SIZE)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+        entityManager.createQuery("SELECT COUNT(a) FROM Article a WHERE a.status = :status", Long.class)
+                .setParameter("status", ArticleStatus.APPROVED)
+                .getSingleResult();
+        return articles.stream().map(ArticleCardBenchmark::toCard).toList();
+    }
+
+    private static ArticleCard toCard(Article article) {
+        User author = article.getAuthor();
+        return new ArticleCard(article.getId(), article.getTitle(), article.getShortDescription(), article.getCoverImage(),
+                article.getCoverRenditions() == null ? null : article.getCoverRenditions().getCard(), article.getDateTime(),
+                article.getViewsCount(), article.getLikesCount(), article.getDislikesCount(), article.getStatus(),
+                author.getId(), author.getNickname(), author.getAvatar(),
+                author.getAvatarRenditions() == null ? null : author.getAvatarRenditions().getThumbnail());
+    }
+}
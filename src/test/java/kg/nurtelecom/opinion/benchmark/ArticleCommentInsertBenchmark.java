@@ -0,0 +1,63 @@
+package kg.nurtelecom.opinion.benchmark;
+
+import kg.nurtelecom.opinion.entity.Article;
+import kg.nurtelecom.opinion.entity.ArticleComment;
+import kg.nurtelecom.opinion.repository.ArticleCommentRepository;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves a page of comments with pooled ids, one statement per row against one batch per 50 rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArticleCommentInsertBenchmark {
+    private static final int COMMENTS = 100;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ArticleCommentRepository articleCommentRepository;
+    private TransactionTemplate transactionTemplate;
+    private Article article;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start("comment-inserts", "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        articleCommentRepository = context.getBean(ArticleCommentRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        Article newArticle = new Article();
+        newArticle.setTitle("benchmark");
+        article = context.getBean(ArticleRepository.class).save(newArticle);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ArticleComment> saveComments() {
+        List<ArticleComment> comments = new ArrayList<>(COMMENTS);
+        for (int i = 0; i < COMMENTS; i++) {
+            ArticleComment comment = new ArticleComment();
+            comment.setText("comment " + i);
+            comment.setArticle(article);
+            comment.setDepth(0);
+            comments.add(comment);
+        }
+        return transactionTemplate.execute(status -> articleCommentRepository.saveAll(comments));
+    }
+}
@@ -0,0 +1,55 @@
+package kg.nurtelecom.opinion.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The JPA part of the application for the benchmarks, on an in-memory H2 database in MySQL mode. Pass
+ * -Dbenchmark.datasource.url, .username and .password in the JMH JVM arguments to run against a real database,
+ * H2 has no network round trips to save.
+ */
+@Configuration
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class, HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+@EntityScan("kg.nurtelecom.opinion.entity")
+@EnableJpaRepositories("kg.nurtelecom.opinion.repository")
+public class BenchmarkDatabase {
+
+    public static ConfigurableApplicationContext start(String name, String... properties) {
+        String url = System.getProperty("benchmark.datasource.url");
+        List<String> args = new ArrayList<>();
+        if (url == null) {
+            args.add("--spring.datasource.url=jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE");
+            args.add("--spring.datasource.driver-class-name=org.h2.Driver");
+            args.add("--spring.datasource.username=sa");
+            args.add("--spring.datasource.password=");
+            args.add("--spring.jpa.hibernate.ddl-auto=create-drop");
+        } else {
+            args.add("--spring.datasource.url=" + url);
+            args.add("--spring.datasource.username=" + System.getProperty("benchmark.datasource.username"));
+            args.add("--spring.datasource.password=" + System.getProperty("benchmark.datasource.password"));
+        }
+        args.add("--spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        args.add("--spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        args.add("--logging.level.root=WARN");
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(BenchmarkDatabase.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+}
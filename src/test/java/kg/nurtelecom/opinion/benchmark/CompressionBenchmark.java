@@ -0,0 +1,142 @@
+package kg.nurtelecom.opinion.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import kg.nurtelecom.opinion.filter.CompressionFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU per response of serializing a page with Jackson and writing it through CompressionFilter, uncompressed and at
+ * the gzip levels worth choosing from. The response sizes are printed when a trial ends. The body goes to a counting
+ * sink, MockHttpServletResponse writes arrays a byte at a time and would dominate the uncompressed case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+    private static final String[] WORDS = {"статья", "автор", "мнение", "город", "Бишкек", "новости", "экономика",
+            "сегодня", "правительство", "жители", "решение", "проект", "говорит", "года", "было", "который", "2024",
+            "не", "и", "в", "на", "что", "с", "по", "для", "это", "также", "однако"};
+
+    @Param({"none", "1", "6", "9"})
+    public String level;
+
+    @Param({"article", "feed"})
+    public String payload;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CompressionFilter filter;
+    private Object body;
+    private int rawSize;
+    private long sentSize;
+
+    @Setup
+    public void setUp() throws Exception {
+        filter = new CompressionFilter(List.of("application/json=1024"), level.equals("none") ? 1 : Integer.parseInt(level));
+        Random random = new Random(42);
+        body = payload.equals("article") ? article(random) : feed(random);
+        rawSize = objectMapper.writeValueAsBytes(body).length;
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%s, level %s: %d bytes raw, %d bytes sent%n", payload, level, rawSize, sentSize);
+    }
+
+    @Benchmark
+    public long respond() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/articles");
+        if (!level.equals("none")) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        }
+        CountingResponse response = new CountingResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(res.getOutputStream(), body);
+        });
+        sentSize = response.sent;
+        return sentSize;
+    }
+
+    private static Map<String, Object> article(Random random) {
+        Map<String, Object> article = card(random, 1);
+        article.put("content", text(random, 40_000));
+        return article;
+    }
+
+    private static List<Map<String, Object>> feed(Random random) {
+        List<Map<String, Object>> cards = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            cards.add(card(random, i + 1));
+        }
+        return cards;
+    }
+
+    private static Map<String, Object> card(Random random, long id) {
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("id", id);
+        card.put("title", text(random, 80));
+        card.put("description", text(random, 400));
+        card.put("cover_image", "https://res.cloudinary.com/opinion/image/upload/c_fill,w_640/articles/" + random.nextInt(100_000) + ".webp");
+        card.put("author", Map.of("id", random.nextInt(10_000), "nickname", "user" + random.nextInt(10_000),
+                "avatar", "https://res.cloudinary.com/opinion/image/upload/c_thumb,w_96/avatars/" + random.nextInt(100_000) + ".webp"));
+        card.put("tags", List.of(WORDS[random.nextInt(WORDS.length)], WORDS[random.nextInt(WORDS.length)]));
+        card.put("likes_count", random.nextInt(500));
+        card.put("dislikes_count", random.nextInt(50));
+        card.put("views_count", random.nextInt(20_000));
+        card.put("date_created", "2024-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10) + "T10:" + (10 + random.nextInt(50)) + ":00");
+        return card;
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.substring(0, length);
+    }
+
+    private static class CountingResponse extends MockHttpServletResponse {
+        private long sent;
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    sent++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    sent += len;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
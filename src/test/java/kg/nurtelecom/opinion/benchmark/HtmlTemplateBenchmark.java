@@ -0,0 +1,40 @@
+package kg.nurtelecom.opinion.benchmark;
+
+import kg.nurtelecom.opinion.template.HtmlTemplate;
+import kg.nurtelecom.opinion.template.TemplateName;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the mention notification with the compiled template against the String.replace chain it replaced, which
+ * doesn't escape the values. Run with -prof gc for the allocations per render.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlTemplateBenchmark {
+    private static final String USER_URL = "https://opinion.kg/users/42";
+    private static final String NICKNAME = "aibek_s";
+    private static final String COMMENT = "Согласен с автором, но цифры в третьем абзаце стоит перепроверить & уточнить источник.";
+
+    private final HtmlTemplate template = HtmlTemplate.compile(TemplateName.MENTION_NOTIFICATION.getSource());
+    private final Map<String, String> values = Map.of("user_url", USER_URL, "nickname", NICKNAME, "comment", COMMENT);
+
+    @Benchmark
+    public String compiledTemplate() {
+        return template.render(values);
+    }
+
+    @Benchmark
+    public String replaceChain() {
+        return TemplateName.MENTION_NOTIFICATION.getSource()
+                .replace("[[user_url]]", USER_URL)
+                .replace("[[nickname]]", NICKNAME)
+                .replace("[[comment]]", COMMENT);
+    }
+}
@@ -0,0 +1,115 @@
+package kg.nurtelecom.opinion.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import kg.nurtelecom.opinion.entity.Article;
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.mapper.ArticleReactionMapper;
+import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionRequest;
+import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionStateResponse;
+import kg.nurtelecom.opinion.repository.ArticleReactionRepository;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.UserRepository;
+import kg.nurtelecom.opinion.service.implementations.ArticleReactionServiceImpl;
+import kg.nurtelecom.opinion.service.implementations.PooledIdServiceImpl;
+import kg.nurtelecom.opinion.service.implementations.ReactionJournalServiceImpl;
+import kg.nurtelecom.opinion.service.implementations.UserReactionCacheServiceImpl;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reactions per second on a few hot articles from several threads, written one transaction per toggle against
+ * buffered in the journal and flushed every 250 ms. The trial fails if the counters don't match the rows afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 6, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ReactionIngestionBenchmark {
+    private static final int ARTICLES = 4;
+    private static final int USERS = 500;
+    private static final long FLUSH_INTERVAL_MS = 250;
+
+    @Param({"false", "true"})
+    public boolean buffered;
+
+    private ConfigurableApplicationContext context;
+    private ReactionJournalServiceImpl reactionJournalService;
+    private ArticleReactionServiceImpl articleReactionService;
+    private ScheduledExecutorService flusher;
+    private final List<Long> articleIds = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkDatabase.start("reactions-" + buffered);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        ArticleReactionRepository articleReactionRepository = context.getBean(ArticleReactionRepository.class);
+        ArticleRepository articleRepository = context.getBean(ArticleRepository.class);
+
+        PooledIdServiceImpl pooledIdService = new PooledIdServiceImpl(context.getBean(EntityManagerFactory.class), jdbcTemplate);
+        pooledIdService.alignWithExistingRows();
+        UserReactionCacheServiceImpl userReactionCacheService = new UserReactionCacheServiceImpl(articleReactionRepository);
+        reactionJournalService = new ReactionJournalServiceImpl(jdbcTemplate, userReactionCacheService, pooledIdService,
+                transactionManager, buffered, 64, FLUSH_INTERVAL_MS);
+        articleReactionService = new ArticleReactionServiceImpl(articleReactionRepository, articleRepository,
+                Mappers.getMapper(ArticleReactionMapper.class), userReactionCacheService, reactionJournalService,
+                event -> {
+                }, pooledIdService, transactionManager);
+
+        for (int i = 0; i < ARTICLES; i++) {
+            Article article = new Article();
+            article.setTitle("hot " + i);
+            articleIds.add(articleRepository.save(article).getId());
+        }
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setNickname("reader" + i);
+            user.setEmail("reader" + i + "@opinion.kg");
+            users.add(userRepository.save(user));
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor();
+        if (buffered) {
+            flusher.scheduleWithFixedDelay(reactionJournalService::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        reactionJournalService.flush();
+        Integer drifted = context.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM article a WHERE " +
+                "a.likes_count <> (SELECT COUNT(*) FROM article_reaction r WHERE r.article_id = a.id AND r.reaction_type = 'LIKE') OR " +
+                "a.dislikes_count <> (SELECT COUNT(*) FROM article_reaction r WHERE r.article_id = a.id AND r.reaction_type = 'DISLIKE')",
+                Integer.class);
+        context.close();
+        if (drifted != null && drifted > 0) {
+            throw new IllegalStateException(drifted + " articles have counters that don't match their reactions");
+        }
+    }
+
+    @Benchmark
+    public ArticleReactionStateResponse react() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long articleId = articleIds.get(random.nextInt(ARTICLES));
+        ReactionType reactionType = random.nextBoolean() ? ReactionType.LIKE : ReactionType.DISLIKE;
+        return articleReactionService.addReactionToArticle(new ArticleReactionRequest(articleId, reactionType),
+                users.get(random.nextInt(USERS))).getBody();
+    }
+}
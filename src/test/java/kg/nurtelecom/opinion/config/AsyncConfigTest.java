@@ -0,0 +1,69 @@
+package kg.nurtelecom.opinion.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(DedicatedPools.class, AsyncConfig.class);
+
+    @Test
+    public void asyncMethodsRunOnVirtualThreadsNextToDedicatedPools() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            Thread thread = context.getBean(AsyncWorker.class).currentThread().get();
+
+            assertTrue(thread.isVirtual());
+        });
+    }
+
+    @Test
+    public void asyncMethodsRunOnPlatformThreadsWhenVirtualThreadsAreOff() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false").run(context -> {
+            Thread thread = context.getBean(AsyncWorker.class).currentThread().get();
+
+            assertFalse(thread.isVirtual());
+            assertTrue(thread.getName().startsWith("task-"));
+        });
+    }
+
+    @Configuration
+    @EnableAsync(proxyTargetClass = true)
+    static class DedicatedPools {
+
+        @Bean
+        public ThreadPoolTaskExecutor mailSenderExecutor() {
+            return new ThreadPoolTaskExecutor();
+        }
+
+        @Bean
+        public ThreadPoolTaskExecutor imageProcessingExecutor() {
+            return new ThreadPoolTaskExecutor();
+        }
+
+        @Bean
+        public AsyncWorker asyncWorker() {
+            return new AsyncWorker();
+        }
+    }
+
+    static class AsyncWorker {
+
+        @Async
+        public CompletableFuture<Thread> currentThread() {
+            return CompletableFuture.completedFuture(Thread.currentThread());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package kg.nurtelecom.opinion.config;
+
+import kg.nurtelecom.opinion.payload.PrecompressedPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrecompressedPageHttpMessageConverterTest {
+
+    private final PrecompressedPageHttpMessageConverter converter = new PrecompressedPageHttpMessageConverter();
+    private final byte[] gzippedJson = {31, -117, 8, 0, 1, 2, 3};
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/announcements");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void writesStoredGzipToClientsThatAcceptIt() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, br");
+        assertTrue(converter.canWrite(PrecompressedPage.class, MediaType.APPLICATION_JSON));
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(page(), MediaType.APPLICATION_JSON, output);
+
+        assertEquals("gzip", output.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(output.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(gzippedJson.length, output.getHeaders().getContentLength());
+        assertArrayEquals(gzippedJson, output.getBodyAsBytes());
+    }
+
+    @Test
+    public void leavesOtherClientsToJackson() {
+        assertFalse(converter.canWrite(PrecompressedPage.class, MediaType.APPLICATION_JSON));
+
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+        assertFalse(converter.canWrite(PrecompressedPage.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void leavesSparseFieldsetsToJackson() {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        request.setParameter("fields", "id,title");
+
+        assertFalse(converter.canWrite(PrecompressedPage.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void writesNothingButPrecompressedPagesAndReadsNothing() {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        assertFalse(converter.canWrite(PageImpl.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(PrecompressedPage.class, MediaType.APPLICATION_XML));
+        assertFalse(converter.canRead(PrecompressedPage.class, MediaType.APPLICATION_JSON));
+    }
+
+    private PrecompressedPage<String> page() {
+        return new PrecompressedPage<>(new PageImpl<>(List.of("a"), PageRequest.of(0, 10), 1), gzippedJson);
+    }
+}
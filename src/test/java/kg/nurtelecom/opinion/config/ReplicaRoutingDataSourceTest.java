@@ -0,0 +1,107 @@
+package kg.nurtelecom.opinion.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate replicaJdbcTemplate;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        replicaJdbcTemplate = new JdbcTemplate(replica);
+        replicaJdbcTemplate.execute("CREATE TABLE replica_status (seconds_behind_source BIGINT)");
+        replicaJdbcTemplate.update("INSERT INTO replica_status VALUES (0)");
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), 5,
+                "SELECT seconds_behind_source FROM replica_status", "seconds_behind_source");
+        routingDataSource.afterPropertiesSet();
+        routingDataSource.checkReplicationLag();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReplicaRoutingDataSource.clear();
+    }
+
+    @Test
+    public void readOnlyTransactionShouldUseReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    public void readWriteTransactionShouldUsePrimary() {
+        assertEquals("primary", readWriteTransaction.execute(status -> node()));
+    }
+
+    @Test
+    public void queryOutsideTransactionShouldUsePrimary() {
+        assertEquals("primary", node());
+    }
+
+    @Test
+    public void laggingReplicaShouldFallBackToPrimary() {
+        replicaJdbcTemplate.update("UPDATE replica_status SET seconds_behind_source = 60");
+        routingDataSource.checkReplicationLag();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+
+        replicaJdbcTemplate.update("UPDATE replica_status SET seconds_behind_source = 1");
+        routingDataSource.checkReplicationLag();
+
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    public void stoppedReplicationShouldFallBackToPrimary() {
+        replicaJdbcTemplate.update("UPDATE replica_status SET seconds_behind_source = NULL");
+        routingDataSource.checkReplicationLag();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+    }
+
+    @Test
+    public void usePrimaryShouldKeepReadsOnPrimary() {
+        ReplicaRoutingDataSource.usePrimary();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
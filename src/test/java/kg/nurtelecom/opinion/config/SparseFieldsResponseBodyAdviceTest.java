@@ -0,0 +1,82 @@
+package kg.nurtelecom.opinion.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
+import kg.nurtelecom.opinion.payload.user.UserResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SparseFieldsResponseBodyAdviceTest {
+
+    private final SparseFieldsResponseBodyAdvice advice = new SparseFieldsResponseBodyAdvice();
+    private final ObjectMapper objectMapper = objectMapper();
+
+    @Test
+    public void everyFieldIsWrittenWithoutFieldsParameter() throws Exception {
+        JsonNode json = write(new MockHttpServletRequest("GET", "/api/articles"));
+
+        assertEquals(Set.of("id", "title", "short_description", "cover_image", "date_time", ArticlesGetDTO.AUTHOR,
+                ArticlesGetDTO.RATING, ArticlesGetDTO.TOTAL_FAVOURITES, ArticlesGetDTO.TOTAL_COMMENTS, "total_views",
+                ArticlesGetDTO.IN_FAVOURITES), names(json));
+    }
+
+    @Test
+    public void onlyRequestedFieldsAndIdAreWritten() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/articles");
+        request.addParameter("fields", "title,rating");
+
+        JsonNode json = write(request);
+
+        assertEquals(Set.of("id", "title", ArticlesGetDTO.RATING), names(json));
+        assertEquals(5, json.get(ArticlesGetDTO.RATING).asLong());
+    }
+
+    @Test
+    public void nestedObjectsAreKeptWhole() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/articles");
+        request.addParameter("fields", ArticlesGetDTO.AUTHOR);
+
+        JsonNode json = write(request);
+
+        assertEquals(Set.of("id", "nickname", "avatar"), names(json.get(ArticlesGetDTO.AUTHOR)));
+    }
+
+    private JsonNode write(MockHttpServletRequest request) throws Exception {
+        ArticlesGetDTO card = new ArticlesGetDTO(1L, "Статья", "Описание", "cover.png", LocalDateTime.of(2024, 1, 1, 12, 0),
+                new UserResponse(2L, "author", "avatar.png"), 5L, 3L, 4L, 100L, true);
+        MappingJacksonValue body = (MappingJacksonValue) advice.beforeBodyWrite(card, null, MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(request),
+                new ServletServerHttpResponse(new MockHttpServletResponse()));
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        new MappingJackson2HttpMessageConverter(objectMapper).write(body, MediaType.APPLICATION_JSON, output);
+        return objectMapper.readTree(output.getBodyAsString());
+    }
+
+    private static Set<String> names(JsonNode json) {
+        Set<String> names = new HashSet<>();
+        json.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private static ObjectMapper objectMapper() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().fieldsFilterCustomizer().customize(builder);
+        return builder.build();
+    }
+}
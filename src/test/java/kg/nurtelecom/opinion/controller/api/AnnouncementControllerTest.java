@@ -1,6 +1,7 @@
 package kg.nurtelecom.opinion.controller.api;
 
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.announcement.AnnouncementResponse;
 import kg.nurtelecom.opinion.service.AnnouncementService;
 import org.junit.jupiter.api.Test;
@@ -34,11 +35,11 @@ class AnnouncementControllerTest {
         Pageable mockPageable = mock(Pageable.class);
         ResponseEntity<Page<AnnouncementResponse>> expectedResponse = ResponseEntity.ok(mockPage);
 
-        when(announcementService.getAnnouncements(mockPageable, this.mockUser)).thenReturn(expectedResponse);
+        when(announcementService.getAnnouncements(mockPageable, this.mockUser, FieldSet.ALL)).thenReturn(expectedResponse);
 
-        ResponseEntity<Page<AnnouncementResponse>> response = announcementController.getAnnouncements(mockPageable, this.mockUser);
+        ResponseEntity<Page<AnnouncementResponse>> response = announcementController.getAnnouncements(mockPageable, null, this.mockUser);
 
-        verify(announcementService, times(1)).getAnnouncements(mockPageable, this.mockUser);
+        verify(announcementService, times(1)).getAnnouncements(mockPageable, this.mockUser, FieldSet.ALL);
         assertNotNull(response);
         assertEquals(expectedResponse, response);
         assertEquals(expectedResponse.getBody(), response.getBody());
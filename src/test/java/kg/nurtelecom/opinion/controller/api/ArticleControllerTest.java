@@ -1,10 +1,12 @@
 package kg.nurtelecom.opinion.controller.api;
 
 import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
 import kg.nurtelecom.opinion.payload.article.ArticleGetDTO;
 import kg.nurtelecom.opinion.payload.article.ArticleRequest;
 import kg.nurtelecom.opinion.payload.article.ArticleResponse;
 import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
+import kg.nurtelecom.opinion.payload.article.RelatedArticleDTO;
 import kg.nurtelecom.opinion.payload.user.UserResponse;
 import kg.nurtelecom.opinion.service.ArticleService;
 import kg.nurtelecom.opinion.service.implementations.DailyVisitServiceImpl;
@@ -21,6 +23,8 @@ import org.springframework.http.ResponseEntity;
 
 import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -73,17 +77,58 @@ class ArticleControllerTest {
         Page<ArticlesGetDTO> expectedPage = mock(Page.class);
         articleController = new ArticleController(this.articleService, this.dailyVisitServiceImpl);
 
-        when(articleService.getArticles(any(), any())).thenReturn(ResponseEntity.ok(expectedPage));
+        when(articleService.getArticles(any(), any(), any())).thenReturn(ResponseEntity.ok(expectedPage));
 
-        ResponseEntity<Page<ArticlesGetDTO>> response = articleController.getArticles(this.mockPageable, this.mockUser);
+        ResponseEntity<Page<ArticlesGetDTO>> response = articleController.getArticles(this.mockPageable, null, this.mockUser);
 
-        verify(articleService, times(1)).getArticles(this.mockPageable, this.mockUser);
+        verify(articleService, times(1)).getArticles(this.mockPageable, this.mockUser, FieldSet.ALL);
         assertNotNull(response);
         assertEquals(ResponseEntity.ok(expectedPage), response);
         assertEquals(expectedPage, response.getBody());
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
+    @Test
+    void getTrendingArticlesShouldReturnValidResponseEntity() {
+        Page<ArticlesGetDTO> expectedPage = mock(Page.class);
+        when(articleService.getTrendingArticles(any(), any(), any())).thenReturn(ResponseEntity.ok(expectedPage));
+
+        ResponseEntity<Page<ArticlesGetDTO>> response = articleController.getTrendingArticles(this.mockPageable, null, this.mockUser);
+
+        verify(articleService, times(1)).getTrendingArticles(this.mockPageable, this.mockUser, FieldSet.ALL);
+        assertNotNull(response);
+        assertEquals(expectedPage, response.getBody());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void getFeedShouldReturnValidResponseEntity() {
+        Page<ArticlesGetDTO> expectedPage = mock(Page.class);
+        when(articleService.getFeed(any(), any(), any())).thenReturn(ResponseEntity.ok(expectedPage));
+
+        ResponseEntity<Page<ArticlesGetDTO>> response = articleController.getFeed(this.mockPageable, List.of("title", "cover_image"), this.mockUser);
+
+        verify(articleService, times(1)).getFeed(this.mockPageable, this.mockUser,
+                new FieldSet(Set.of("id", "title", "cover_image")));
+        assertNotNull(response);
+        assertEquals(expectedPage, response.getBody());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void getRelatedArticlesShouldReturnValidResponseEntity() {
+        List<RelatedArticleDTO> expectedResult = List.of(
+                new RelatedArticleDTO(2L, "Title", "Description", "img_path.jpg", LocalDateTime.now()));
+        when(articleService.getRelatedArticles(eq(this.mockArticleId))).thenReturn(ResponseEntity.ok(expectedResult));
+
+        ResponseEntity<List<RelatedArticleDTO>> response = articleController.getRelatedArticles(this.mockArticleId);
+
+        verify(articleService, times(1)).getRelatedArticles(this.mockArticleId);
+        assertNotNull(response);
+        assertEquals(expectedResult, response.getBody());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
 //    @Test
 //    void getMyArticlesTestShouldReturnValidResponseEntity() {
 //        Page<ArticlesGetDTO> expectedPage = mock(Page.class);
@@ -101,11 +146,11 @@ class ArticleControllerTest {
     @Test
     void getUserArticlesShouldReturnValidResponseEntity() {
         Page<ArticlesGetDTO> expectedPage = mock(Page.class);
-        when(articleService.getUserArticles(eq(this.mockUser.getId()), any())).thenReturn(ResponseEntity.ok(expectedPage));
+        when(articleService.getUserArticles(eq(this.mockUser.getId()), any(), any())).thenReturn(ResponseEntity.ok(expectedPage));
 
-        ResponseEntity<Page<ArticlesGetDTO>> response = articleController.getUserArticles(this.mockUser.getId(), this.mockPageable);
+        ResponseEntity<Page<ArticlesGetDTO>> response = articleController.getUserArticles(this.mockUser.getId(), this.mockPageable, null);
 
-        verify(articleService, times(1)).getUserArticles(this.mockUser.getId(), this.mockPageable);
+        verify(articleService, times(1)).getUserArticles(this.mockUser.getId(), this.mockPageable, FieldSet.ALL);
         assertNotNull(response);
         assertEquals(ResponseEntity.ok(expectedPage), response);
         assertEquals(expectedPage, response.getBody());
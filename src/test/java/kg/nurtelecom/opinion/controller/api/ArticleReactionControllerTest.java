@@ -6,6 +6,7 @@ import kg.nurtelecom.opinion.entity.User;
 import kg.nurtelecom.opinion.enums.ReactionType;
 import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionRequest;
 import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionResponse;
+import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionStateResponse;
 import kg.nurtelecom.opinion.payload.user.GetUserResponse;
 import kg.nurtelecom.opinion.service.ArticleReactionService;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +22,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -69,15 +72,27 @@ public class ArticleReactionControllerTest {
 
     @Test
     public void testAddReactionToArticle() {
-        when(articleReactionService.addReactionToArticle(any(ArticleReactionRequest.class), any(User.class))).thenReturn(ResponseEntity.ok("Reaction added successfully."));
+        ArticleReactionStateResponse state = new ArticleReactionStateResponse(2L, ReactionType.LIKE, 5L, 2L, 3L);
+        when(articleReactionService.addReactionToArticle(any(ArticleReactionRequest.class), any(User.class))).thenReturn(ResponseEntity.ok(state));
 
         ArticleReactionRequest request = new ArticleReactionRequest(2L, ReactionType.LIKE);
         User user = new User();
-        ResponseEntity<String> responseEntity = articleReactionController.addReactionToArticle(request, user);
+        ResponseEntity<ArticleReactionStateResponse> responseEntity = articleReactionController.addReactionToArticle(request, user);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertEquals("Reaction added successfully.", responseEntity.getBody());
+        assertEquals(state, responseEntity.getBody());
     }
 
-}
+    @Test
+    public void testGetArticleReactionsByUser() {
+        Map<Long, ReactionType> reactions = Map.of(1L, ReactionType.LIKE, 3L, ReactionType.DISLIKE);
+        User user = new User();
+        when(articleReactionService.getArticleReactionsByUser(List.of(1L, 2L, 3L), user)).thenReturn(ResponseEntity.ok(reactions));
+
+        ResponseEntity<Map<Long, ReactionType>> responseEntity = articleReactionController.getArticleReactionsByUser(List.of(1L, 2L, 3L), user);
 
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(reactions, responseEntity.getBody());
+    }
+
+}
@@ -10,9 +10,13 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -51,20 +55,32 @@ public class ImageControllerTest {
 
 
     @Test
-    public void testDeleteImage() {
-        when(imageService.deleteImage(anyString())).thenReturn(ResponseEntity.ok().build());
+    public void testLoadImage() {
+        when(imageService.loadImage(any(MultipartFile.class)))
+                .thenReturn(CompletableFuture.completedFuture("imagePath"));
 
-        ResponseEntity<Void> response = imageController.deleteImage("imagePath");
+        ResponseEntity<String> response = imageController.loadImage(mockMultipartFile).join();
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("imagePath", response.getBody());
+    }
+
+    @Test
+    public void testGetImage() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        imageController.getImage("ab", "cd", "abcd.jpeg", request, response);
+
+        verify(imageService).sendImage("ab/cd/abcd.jpeg", request, response);
     }
 
     @Test
     public void testUpdateCoverImage() {
         when(imageService.updateCoverImage(anyLong(), any(MultipartFile.class), any(User.class)))
-                .thenReturn(ResponseEntity.ok("imagePath"));
+                .thenReturn(CompletableFuture.completedFuture(ResponseEntity.ok("imagePath")));
 
-        ResponseEntity<String> response = imageController.updateCoverImage(1L, mockMultipartFile, mockUser);
+        ResponseEntity<String> response = imageController.updateCoverImage(1L, mockMultipartFile, mockUser).join();
         assertNotNull(response.getBody());
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("imagePath", response.getBody());
@@ -83,9 +99,9 @@ public class ImageControllerTest {
     public void testChangeUserAvatar() {
 
         when(imageService.changeUserAvatar(any(User.class), any(MultipartFile.class)))
-                .thenReturn(ResponseEntity.ok().build());
+                .thenReturn(CompletableFuture.completedFuture(ResponseEntity.ok().build()));
 
-        ResponseEntity<Void> response = imageController.changeUserAvatar(mockUser, mockMultipartFile);
+        ResponseEntity<Void> response = imageController.changeUserAvatar(mockUser, mockMultipartFile).join();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
@@ -1,13 +1,22 @@
 package kg.nurtelecom.opinion.controller.api;
 
 
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.tag.TagArticlesResponse;
 import kg.nurtelecom.opinion.service.TagService;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
 
 public class TagControllerTest {
 
@@ -22,6 +31,19 @@ public class TagControllerTest {
         MockitoAnnotations.initMocks(this);
     }
 
+    @Test
+    public void testGetTagArticles() {
+        User user = mock(User.class);
+        TagArticlesResponse expected = new TagArticlesResponse(List.of(), "cursor");
+        when(tagService.getTagArticles(1L, null, 10, user, FieldSet.ALL)).thenReturn(ResponseEntity.ok(expected));
+
+        ResponseEntity<TagArticlesResponse> responseEntity = tagController.getTagArticles(1L, null, 10, null, user);
+
+        verify(tagService, times(1)).getTagArticles(1L, null, 10, user, FieldSet.ALL);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(expected, responseEntity.getBody());
+    }
+
 //    @Test
 //    public void testGetAllTags() {
 //
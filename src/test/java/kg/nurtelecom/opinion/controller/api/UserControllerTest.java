@@ -51,11 +51,11 @@ class UserControllerTest {
         GetUserResponse mockGetUserResponse = mock(GetUserResponse.class);
         ResponseEntity<GetUserResponse> expectedResponse = ResponseEntity.ok(mockGetUserResponse);
 
-        when(userService.getUserProfile(userId)).thenReturn(expectedResponse);
+        when(userService.getUserProfile(userId, null)).thenReturn(expectedResponse);
 
-        ResponseEntity<GetUserResponse> response = userController.getUserProfile(userId);
+        ResponseEntity<GetUserResponse> response = userController.getUserProfile(userId, null);
 
-        verify(userService, times(1)).getUserProfile(userId);
+        verify(userService, times(1)).getUserProfile(userId, null);
 
         assertNotNull(response);
         assertEquals(expectedResponse, response);
@@ -69,11 +69,11 @@ class UserControllerTest {
         GetUserResponse mockGetUserResponse = mock(GetUserResponse.class);
         ResponseEntity<GetUserResponse> expectedResponse = ResponseEntity.ok(mockGetUserResponse);
 
-        when(userService.getUserProfileByNick(userNickname)).thenReturn(expectedResponse);
+        when(userService.getUserProfileByNick(userNickname, null)).thenReturn(expectedResponse);
 
-        ResponseEntity<GetUserResponse> response = userController.getUserProfileByNick(userNickname);
+        ResponseEntity<GetUserResponse> response = userController.getUserProfileByNick(userNickname, null);
 
-        verify(userService, times(1)).getUserProfileByNick(userNickname);
+        verify(userService, times(1)).getUserProfileByNick(userNickname, null);
 
         assertNotNull(response);
         assertEquals(expectedResponse, response);
@@ -81,6 +81,23 @@ class UserControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
+    @Test
+    void getUserProfileShouldPassIfNoneMatchToService() {
+        Long userId = 1L;
+        String eTag = "W/\"5d41402abc4b2a76b9719d911017c592\"";
+        ResponseEntity<GetUserResponse> expectedResponse = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+
+        when(userService.getUserProfile(userId, eTag)).thenReturn(expectedResponse);
+
+        ResponseEntity<GetUserResponse> response = userController.getUserProfile(userId, eTag);
+
+        verify(userService, times(1)).getUserProfile(userId, eTag);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(eTag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
     @Test
     void deleteUserAccountShouldReturnValidResponseEntity() {
         ResponseEntity<Void> expectedResponse = ResponseEntity.ok().build();
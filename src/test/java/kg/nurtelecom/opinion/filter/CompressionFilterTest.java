@@ -0,0 +1,188 @@
+package kg.nurtelecom.opinion.filter;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class CompressionFilterTest {
+
+    private CompressionFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setUp() {
+        filter = new CompressionFilter(List.of("application/json=1024"), 1);
+        request = new MockHttpServletRequest("GET", "/api/articles/1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void largeJsonIsGzipped() throws Exception {
+        String body = "{\"content\":\"" + "статья ".repeat(1000) + "\"}";
+
+        filter.doFilter(request, response, writing(MediaType.APPLICATION_JSON_VALUE, body));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes();
+        assertEquals(body, new String(unzipped, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void smallJsonIsSentAsItIs() throws Exception {
+        filter.doFilter(request, response, writing(MediaType.APPLICATION_JSON_VALUE, "{\"id\":1}"));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertEquals(8, response.getContentLength());
+    }
+
+    @Test
+    public void otherContentTypesAndClientsWithoutGzipAreNotCompressed() throws Exception {
+        String body = "x".repeat(5000);
+        filter.doFilter(request, response, writing(MediaType.IMAGE_PNG_VALUE, body));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, response.getContentAsString());
+
+        MockHttpServletRequest refusing = new MockHttpServletRequest("GET", "/api/articles/1");
+        refusing.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity");
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        filter.doFilter(refusing, plain, writing(MediaType.APPLICATION_JSON_VALUE, body));
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, plain.getContentAsString());
+    }
+
+    @Test
+    public void asyncJsonIsGzippedInAsyncDispatch() throws Exception {
+        String body = "{\"content\":\"" + "статья ".repeat(1000) + "\"}";
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync(req, res));
+
+        assertTrue(request.isAsyncStarted());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        // the container dispatches again with the request and response the async processing was started with
+        AsyncContext asyncContext = request.getAsyncContext();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(asyncContext.getRequest(), asyncContext.getResponse(), writing(MediaType.APPLICATION_JSON_VALUE, body));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        byte[] unzipped = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes();
+        assertEquals(body, new String(unzipped, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void smallAsyncJsonIsWrittenOutInAsyncDispatch() throws Exception {
+        request.setAsyncSupported(true);
+        filter.doFilter(request, response, (req, res) -> req.startAsync(req, res));
+
+        AsyncContext asyncContext = request.getAsyncContext();
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(asyncContext.getRequest(), asyncContext.getResponse(),
+                writing(MediaType.APPLICATION_JSON_VALUE, "{\"id\":1}"));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertEquals(8, response.getContentLength());
+    }
+
+    @Test
+    public void nonBlockingWritesGoToTheContainerUncompressed() throws Exception {
+        ListeningResponse listening = new ListeningResponse();
+        String body = "{\"content\":\"" + "статья ".repeat(1000) + "\"}";
+        WriteListener listener = mock(WriteListener.class);
+
+        filter.doFilter(request, listening, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ServletOutputStream out = res.getOutputStream();
+            out.write(body.substring(0, 10).getBytes(StandardCharsets.UTF_8));
+            out.setWriteListener(listener);
+            assertTrue(out.isReady());
+            listening.ready = false;
+            assertFalse(out.isReady());
+            listening.ready = true;
+            out.write(body.substring(10).getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertSame(listener, listening.listener);
+        assertNull(listening.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, listening.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeListenerCantBeSetOnceCompressionStarted() throws Exception {
+        String body = "{\"content\":\"" + "статья ".repeat(1000) + "\"}";
+
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            assertThrows(IllegalStateException.class, () -> res.getOutputStream().setWriteListener(mock(WriteListener.class)));
+        });
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private static FilterChain writing(String contentType, String body) {
+        return (request, response) -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            response.setContentType(contentType);
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+            response.getOutputStream().flush();
+        };
+    }
+
+    private static class ListeningResponse extends MockHttpServletResponse {
+        private boolean ready = true;
+        private WriteListener listener;
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            ServletOutputStream out = super.getOutputStream();
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return ready;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    listener = writeListener;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package kg.nurtelecom.opinion.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import kg.nurtelecom.opinion.config.ReplicaRoutingDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadYourWritesFilterTest {
+
+    private ReadYourWritesFilter filter;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private List<String> nodes;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource replica = database("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_status (seconds_behind_source BIGINT)");
+        new JdbcTemplate(replica).update("INSERT INTO replica_status VALUES (0)");
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(database("primary"),
+                Map.of("replica-1", replica), 5, "SELECT seconds_behind_source FROM replica_status", "seconds_behind_source");
+        routingDataSource.afterPropertiesSet();
+        routingDataSource.checkReplicationLag();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnlyTransaction.setReadOnly(true);
+        filter = new ReadYourWritesFilter(10);
+        nodes = new ArrayList<>();
+    }
+
+    @Test
+    public void writeSetsTheWindowCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/articles"), response, reading());
+
+        String cookie = response.getHeader(HttpHeaders.SET_COOKIE);
+        assertNotNull(cookie);
+        assertTrue(cookie.startsWith(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE + "="));
+        assertTrue(cookie.contains("Max-Age=10"));
+        assertEquals(List.of("primary"), nodes);
+    }
+
+    @Test
+    public void readWithinTheWindowUsesPrimaryOnAnyInstance() throws Exception {
+        MockHttpServletResponse written = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/articles"), written, reading());
+        String value = written.getHeader(HttpHeaders.SET_COOKIE).split(";")[0].split("=")[1];
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/articles/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, value));
+        new ReadYourWritesFilter(10).doFilter(request, new MockHttpServletResponse(), reading());
+
+        assertEquals(List.of("primary", "primary"), nodes);
+    }
+
+    @Test
+    public void readWithoutOrAfterTheWindowUsesReplica() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/articles/1"), new MockHttpServletResponse(), reading());
+
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/articles/1");
+        expired.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, String.valueOf(System.currentTimeMillis() - 1)));
+        filter.doFilter(expired, new MockHttpServletResponse(), reading());
+
+        assertEquals(List.of("replica", "replica"), nodes);
+    }
+
+    @Test
+    public void windowFurtherOutThanConfiguredIsIgnored() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/articles/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.PRIMARY_UNTIL_COOKIE, String.valueOf(Long.MAX_VALUE)));
+
+        filter.doFilter(request, new MockHttpServletResponse(), reading());
+
+        assertEquals(List.of("replica"), nodes);
+    }
+
+    private FilterChain reading() {
+        return (request, response) -> nodes.add(readOnlyTransaction.execute(status ->
+                jdbcTemplate.queryForObject("SELECT name FROM node", String.class)));
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
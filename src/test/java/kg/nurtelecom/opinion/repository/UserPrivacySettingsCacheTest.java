@@ -0,0 +1,70 @@
+package kg.nurtelecom.opinion.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.entity.UserPrivacySettings;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:privacy-cache;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+public class UserPrivacySettingsCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void privacyChangeMadeElsewhereIsSeenAtOnce() {
+        Long settingsId = inTransaction(entityManager -> {
+            User user = new User();
+            user.setNickname("private");
+            user.setPrivacySettings(new UserPrivacySettings());
+            entityManager.persist(user);
+            return user.getPrivacySettings().getId();
+        });
+        assertTrue(isEmailVisible(settingsId));
+
+        // another instance hides the email
+        jdbcTemplate.update("UPDATE user_privacy_settings SET is_email_visible = FALSE WHERE id = ?", settingsId);
+
+        assertFalse(isEmailVisible(settingsId));
+        assertFalse(entityManagerFactory.getCache().contains(UserPrivacySettings.class, settingsId));
+    }
+
+    private boolean isEmailVisible(Long settingsId) {
+        return inTransaction(entityManager -> entityManager.find(UserPrivacySettings.class, settingsId).isEmailVisible());
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            T result = work.apply(entityManager);
+            entityManager.getTransaction().commit();
+            return result;
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import kg.nurtelecom.opinion.entity.Announcement;
+import kg.nurtelecom.opinion.enums.AccessType;
+import kg.nurtelecom.opinion.enums.AnnouncementTier;
+import kg.nurtelecom.opinion.event.AnnouncementChangedEvent;
+import kg.nurtelecom.opinion.payload.announcement.AnnouncementStats;
+import kg.nurtelecom.opinion.repository.AnnouncementRepository;
+import kg.nurtelecom.opinion.service.AnnouncementStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AnnouncementCacheServiceImplTest {
+
+    private AnnouncementRepository announcementRepository;
+    private AnnouncementCacheServiceImpl announcementCacheService;
+
+    @BeforeEach
+    public void setUp() {
+        announcementRepository = mock(AnnouncementRepository.class);
+        AnnouncementStatsService announcementStatsService = mock(AnnouncementStatsService.class);
+        when(announcementStatsService.loadStats(anyCollection(), isNull())).thenReturn(Map.of(1L, AnnouncementStats.EMPTY));
+        when(announcementRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(announcement(invocation.getArgument(0))));
+        when(announcementRepository.findByAccessTypeIn(anyCollection(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    Pageable pageable = invocation.getArgument(1);
+                    long first = pageable.getPageNumber() * 2L + 1;
+                    return new PageImpl<>(List.of(announcement(first), announcement(first + 1)), pageable, 10);
+                });
+
+        announcementCacheService = new AnnouncementCacheServiceImpl(announcementRepository, announcementStatsService,
+                mock(PlatformTransactionManager.class), new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(announcementCacheService, "ttlSeconds", 300L);
+        ReflectionTestUtils.setField(announcementCacheService, "maxPages", 10);
+        ReflectionTestUtils.setField(announcementCacheService, "maxAnnouncements", 2);
+        ReflectionTestUtils.setField(announcementCacheService, "compressionLevel", 1);
+    }
+
+    @Test
+    public void statsChangeDropsOnlyPagesWithTheAnnouncement() {
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(0, 2));
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(1, 2));
+
+        announcementCacheService.onAnnouncementChanged(new AnnouncementChangedEvent(3L, true));
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(0, 2));
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(1, 2));
+
+        verify(announcementRepository, times(1)).findByAccessTypeIn(anyCollection(), eq(PageRequest.of(0, 2)));
+        verify(announcementRepository, times(2)).findByAccessTypeIn(anyCollection(), eq(PageRequest.of(1, 2)));
+    }
+
+    @Test
+    public void announcementChangeDropsEveryPage() {
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(0, 2));
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(1, 2));
+
+        announcementCacheService.onAnnouncementChanged(new AnnouncementChangedEvent(3L, false));
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(0, 2));
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(1, 2));
+
+        verify(announcementRepository, times(2)).findByAccessTypeIn(anyCollection(), eq(PageRequest.of(0, 2)));
+        verify(announcementRepository, times(2)).findByAccessTypeIn(anyCollection(), eq(PageRequest.of(1, 2)));
+    }
+
+    @Test
+    public void pageLoadedDuringAChangeIsNotKept() {
+        when(announcementRepository.findByAccessTypeIn(anyCollection(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    announcementCacheService.onAnnouncementChanged(new AnnouncementChangedEvent(1L, true));
+                    return new PageImpl<>(List.of(announcement(1L)), invocation.getArgument(1), 1);
+                });
+
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(0, 2));
+        announcementCacheService.getPage(AnnouncementTier.PUBLIC, PageRequest.of(0, 2));
+
+        verify(announcementRepository, times(2)).findByAccessTypeIn(anyCollection(), any(Pageable.class));
+    }
+
+    @Test
+    public void leastRecentlyReadAnnouncementIsEvicted() {
+        announcementCacheService.getAnnouncement(1L);
+        announcementCacheService.getAnnouncement(2L);
+        announcementCacheService.getAnnouncement(1L);
+        announcementCacheService.getAnnouncement(3L);
+
+        announcementCacheService.getAnnouncement(1L);
+        announcementCacheService.getAnnouncement(2L);
+
+        verify(announcementRepository, times(1)).findById(1L);
+        verify(announcementRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    public void flushedViewsAreDroppedAndNewOnesCounted() {
+        announcementCacheService.recordView(1L);
+        announcementCacheService.recordView(1L);
+
+        announcementCacheService.flushViews();
+
+        verify(announcementRepository).incrementViewsCount(1L, 2L);
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(announcementCacheService, "pendingViews")).isEmpty());
+
+        announcementCacheService.recordView(1L);
+        assertEquals(6L, announcementCacheService.getAnnouncement(1L).orElseThrow().getTotalViews());
+    }
+
+    private static Announcement announcement(Long id) {
+        Announcement announcement = new Announcement("Объявление " + id, "Текст", null, LocalDateTime.now(), 5L, AccessType.ALL);
+        announcement.setId(id);
+        return announcement;
+    }
+}
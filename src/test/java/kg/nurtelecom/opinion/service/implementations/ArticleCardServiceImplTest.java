@@ -0,0 +1,90 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.article.ArticlesGetDTO;
+import kg.nurtelecom.opinion.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ArticleCardServiceImplTest {
+
+    private SavedArticlesRepository savedArticlesRepository;
+    private ArticleCommentRepository articleCommentRepository;
+    private ArticleReactionRepository articleReactionRepository;
+    private ArticleCardServiceImpl articleCardService;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        savedArticlesRepository = mock(SavedArticlesRepository.class);
+        articleCommentRepository = mock(ArticleCommentRepository.class);
+        articleReactionRepository = mock(ArticleReactionRepository.class);
+        articleCardService = new ArticleCardServiceImpl(mock(ArticleRepository.class), savedArticlesRepository,
+                articleCommentRepository, articleReactionRepository);
+        user = new User();
+        user.setId(3L);
+    }
+
+    @Test
+    public void unrequestedCountsAreNotQueried() {
+        List<ArticlesGetDTO> cards = articleCardService.toCards(List.of(card(1L, null, null)), user,
+                FieldSet.of(List.of("title")));
+
+        verifyNoInteractions(savedArticlesRepository, articleCommentRepository, articleReactionRepository);
+        ArticlesGetDTO card = cards.get(0);
+        assertNull(card.getAuthor());
+        assertNull(card.getRating());
+        assertNull(card.getTotalFavourites());
+        assertNull(card.getTotalComments());
+        assertNull(card.getInFavourites());
+    }
+
+    @Test
+    public void requestedCountsAreQueriedOnceForThePage() {
+        articleCardService.toCards(List.of(card(1L, 5L, 2L), card(2L, 1L, 0L)), user, FieldSet.of(List.of(
+                ArticlesGetDTO.TOTAL_FAVOURITES, ArticlesGetDTO.TOTAL_COMMENTS, ArticlesGetDTO.IN_FAVOURITES)));
+
+        verify(savedArticlesRepository).countByArticleIds(anyCollection());
+        verify(articleCommentRepository).countByArticleIds(anyCollection());
+        verify(savedArticlesRepository).findArticleIdsByUserIdAndArticleIds(eq(3L), anyCollection());
+        verifyNoInteractions(articleReactionRepository);
+    }
+
+    @Test
+    public void ratingComesFromCountersWhenPresent() {
+        List<ArticlesGetDTO> cards = articleCardService.toCards(List.of(card(1L, 5L, 2L)), user,
+                FieldSet.of(List.of(ArticlesGetDTO.RATING)));
+
+        assertEquals(3L, cards.get(0).getRating());
+        verifyNoInteractions(articleReactionRepository);
+    }
+
+    @Test
+    public void cardsShowRenditionsOrFallBackToOriginals() {
+        ArticleCard withoutRenditions = new ArticleCard(2L, "Статья", "Описание", "cover.png", null,
+                LocalDateTime.of(2024, 1, 1, 12, 0), 10L, 0L, 0L, ArticleStatus.APPROVED, 2L, "author", "avatar.png", null);
+
+        List<ArticlesGetDTO> cards = articleCardService.toCards(List.of(card(1L, 0L, 0L), withoutRenditions), user,
+                FieldSet.of(List.of("cover_image", ArticlesGetDTO.AUTHOR)));
+
+        assertEquals("cover-card.png", cards.get(0).getCoverImage());
+        assertEquals("avatar-thumbnail.png", cards.get(0).getAuthor().getAvatar());
+        assertEquals("cover.png", cards.get(1).getCoverImage());
+        assertEquals("avatar.png", cards.get(1).getAuthor().getAvatar());
+    }
+
+    private static ArticleCard card(Long id, Long likes, Long dislikes) {
+        return new ArticleCard(id, "Статья " + id, "Описание", "cover.png", "cover-card.png",
+                LocalDateTime.of(2024, 1, 1, 12, 0), 10L, likes, dislikes, ArticleStatus.APPROVED,
+                2L, "author", "avatar.png", "avatar-thumbnail.png");
+    }
+}
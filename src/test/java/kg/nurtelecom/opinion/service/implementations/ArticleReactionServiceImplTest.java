@@ -0,0 +1,220 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.ArticleReaction;
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.ArticleActivity;
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.event.ArticleActivityEvent;
+import kg.nurtelecom.opinion.exception.NotFoundException;
+import kg.nurtelecom.opinion.mapper.ArticleReactionMapper;
+import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionRequest;
+import kg.nurtelecom.opinion.payload.article_reaction.ArticleReactionStateResponse;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionChange;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionDelta;
+import kg.nurtelecom.opinion.repository.ArticleReactionRepository;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.ReactionCounts;
+import kg.nurtelecom.opinion.service.PooledIdService;
+import kg.nurtelecom.opinion.service.ReactionJournalService;
+import kg.nurtelecom.opinion.service.UserReactionCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ArticleReactionServiceImplTest {
+
+    private static final Long ARTICLE_ID = 7L;
+    private static final Long USER_ID = 3L;
+    private static final Long REACTION_ID = 51L;
+
+    private ArticleReactionRepository articleReactionRepository;
+    private ArticleRepository articleRepository;
+    private UserReactionCacheService userReactionCacheService;
+    private ReactionJournalService reactionJournalService;
+    private ApplicationEventPublisher eventPublisher;
+    private ArticleReactionServiceImpl articleReactionService;
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        articleReactionRepository = mock(ArticleReactionRepository.class);
+        articleRepository = mock(ArticleRepository.class);
+        userReactionCacheService = mock(UserReactionCacheService.class);
+        reactionJournalService = mock(ReactionJournalService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        PooledIdService pooledIdService = mock(PooledIdService.class);
+        when(pooledIdService.nextIds(ArticleReaction.class, 1)).thenReturn(List.of(REACTION_ID));
+        articleReactionService = new ArticleReactionServiceImpl(articleReactionRepository, articleRepository,
+                mock(ArticleReactionMapper.class), userReactionCacheService, reactionJournalService,
+                eventPublisher, pooledIdService, mock(PlatformTransactionManager.class));
+        user = new User();
+        user.setId(USER_ID);
+        whenCounts(10L, 4L);
+    }
+
+    @Test
+    public void newLikeAddsOneLike() {
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "LIKE")).thenReturn(1);
+
+        ArticleReactionStateResponse response = react(ReactionType.LIKE);
+
+        verify(articleRepository).addReactionCounts(ARTICLE_ID, 1, 0);
+        assertEquals(ReactionType.LIKE, response.reactionType());
+        verify(userReactionCacheService).evict(USER_ID);
+    }
+
+    @Test
+    public void repeatedLikeRemovesIt() {
+        when(articleReactionRepository.deleteReaction(ARTICLE_ID, USER_ID, "LIKE")).thenReturn(1);
+
+        ArticleReactionStateResponse response = react(ReactionType.LIKE);
+
+        verify(articleRepository).addReactionCounts(ARTICLE_ID, -1, 0);
+        verify(articleReactionRepository, never()).upsertReaction(any(), any(), any(), any());
+        assertNull(response.reactionType());
+    }
+
+    @Test
+    public void dislikeReplacesLike() {
+        // MySQL reports two affected rows when ON DUPLICATE KEY UPDATE changed an existing row
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "DISLIKE")).thenReturn(2);
+
+        ArticleReactionStateResponse response = react(ReactionType.DISLIKE);
+
+        verify(articleRepository).addReactionCounts(ARTICLE_ID, -1, 1);
+        assertEquals(ReactionType.DISLIKE, response.reactionType());
+    }
+
+    @Test
+    public void stateIsReadBackFromCounters() {
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "DISLIKE")).thenReturn(1);
+        whenCounts(10L, 5L);
+
+        ArticleReactionStateResponse response = react(ReactionType.DISLIKE);
+
+        assertEquals(10L, response.likes());
+        assertEquals(5L, response.dislikes());
+        assertEquals(5L, response.rating());
+    }
+
+    @Test
+    public void missingCountersFallBackToCounting() {
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "LIKE")).thenReturn(1);
+        whenCounts(null, null);
+        when(articleReactionRepository.countByArticleIdAndReactionType(ARTICLE_ID, ReactionType.LIKE)).thenReturn(2L);
+        when(articleReactionRepository.countByArticleIdAndReactionType(ARTICLE_ID, ReactionType.DISLIKE)).thenReturn(5L);
+
+        ArticleReactionStateResponse response = react(ReactionType.LIKE);
+
+        assertEquals(-3L, response.rating());
+    }
+
+    @Test
+    public void reactionToMissingArticleIsNotFound() {
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "LIKE"))
+                .thenThrow(new DataIntegrityViolationException("fk_article"));
+
+        assertThrows(NotFoundException.class, () -> react(ReactionType.LIKE));
+        verify(articleRepository, never()).addReactionCounts(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void newLikeIsPublishedAsActivity() {
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "LIKE")).thenReturn(1);
+
+        react(ReactionType.LIKE);
+
+        verify(eventPublisher).publishEvent(new ArticleActivityEvent(ARTICLE_ID, ArticleActivity.LIKE));
+    }
+
+    @Test
+    public void likeStoredByAConcurrentClickIsNotCountedAgain() {
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "LIKE")).thenReturn(0);
+
+        ArticleReactionStateResponse response = react(ReactionType.LIKE);
+
+        verify(articleRepository).addReactionCounts(ARTICLE_ID, 0, 0);
+        assertEquals(ReactionType.LIKE, response.reactionType());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void removedLikeTakesTheActivityBack() {
+        when(articleReactionRepository.deleteReaction(ARTICLE_ID, USER_ID, "LIKE")).thenReturn(1);
+
+        react(ReactionType.LIKE);
+
+        verify(eventPublisher).publishEvent(new ArticleActivityEvent(ARTICLE_ID, ArticleActivity.UNLIKE));
+    }
+
+    @Test
+    public void dislikeReplacingLikeTakesTheActivityBack() {
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "DISLIKE")).thenReturn(2);
+
+        react(ReactionType.DISLIKE);
+
+        verify(eventPublisher).publishEvent(new ArticleActivityEvent(ARTICLE_ID, ArticleActivity.UNLIKE));
+    }
+
+    @Test
+    public void newDislikeIsNoActivity() {
+        when(articleReactionRepository.upsertReaction(REACTION_ID, ARTICLE_ID, USER_ID, "DISLIKE")).thenReturn(1);
+
+        react(ReactionType.DISLIKE);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void journaledToggleBackAndForthEvensOut() {
+        when(reactionJournalService.isEnabled()).thenReturn(true);
+        when(reactionJournalService.getPendingDelta(ARTICLE_ID, 0L))
+                .thenReturn(Optional.of(ReactionDelta.NONE))
+                .thenReturn(Optional.of(new ReactionDelta(1, 0)));
+        when(reactionJournalService.toggle(eq(ARTICLE_ID), eq(USER_ID), eq(ReactionType.LIKE), any()))
+                .thenReturn(new ReactionChange(null, ReactionType.LIKE))
+                .thenReturn(new ReactionChange(ReactionType.LIKE, null));
+
+        assertEquals(11, react(ReactionType.LIKE).likes());
+        assertEquals(10, react(ReactionType.LIKE).likes());
+
+        verify(eventPublisher).publishEvent(new ArticleActivityEvent(ARTICLE_ID, ArticleActivity.LIKE));
+        verify(eventPublisher).publishEvent(new ArticleActivityEvent(ARTICLE_ID, ArticleActivity.UNLIKE));
+    }
+
+    @Test
+    public void journaledCountsAreReadAgainWhenAFlushCommitsInBetween() {
+        when(reactionJournalService.isEnabled()).thenReturn(true);
+        when(reactionJournalService.awaitFlushEpoch(ARTICLE_ID)).thenReturn(1L, 2L);
+        when(reactionJournalService.getPendingDelta(ARTICLE_ID, 1L)).thenReturn(Optional.empty());
+        when(reactionJournalService.getPendingDelta(ARTICLE_ID, 2L)).thenReturn(Optional.of(new ReactionDelta(2, 0)));
+        when(reactionJournalService.toggle(eq(ARTICLE_ID), eq(USER_ID), eq(ReactionType.DISLIKE), any()))
+                .thenReturn(new ReactionChange(ReactionType.LIKE, ReactionType.DISLIKE));
+
+        ArticleReactionStateResponse response = react(ReactionType.DISLIKE);
+
+        verify(articleRepository, times(2)).findReactionCounts(ARTICLE_ID);
+        assertEquals(11, response.likes());
+        assertEquals(5, response.dislikes());
+    }
+
+    private ArticleReactionStateResponse react(ReactionType reactionType) {
+        return articleReactionService.addReactionToArticle(new ArticleReactionRequest(ARTICLE_ID, reactionType), user).getBody();
+    }
+
+    private void whenCounts(Long likes, Long dislikes) {
+        ReactionCounts counts = mock(ReactionCounts.class);
+        when(counts.getLikes()).thenReturn(likes);
+        when(counts.getDislikes()).thenReturn(dislikes);
+        when(articleRepository.findReactionCounts(ARTICLE_ID)).thenReturn(Optional.of(counts));
+    }
+}
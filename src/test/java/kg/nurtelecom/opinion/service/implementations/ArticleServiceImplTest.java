@@ -0,0 +1,104 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.Article;
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.mapper.ArticleMapper;
+import kg.nurtelecom.opinion.mapper.TagMapper;
+import kg.nurtelecom.opinion.mapper.UserMapper;
+import kg.nurtelecom.opinion.payload.FieldSet;
+import kg.nurtelecom.opinion.payload.article.ArticleGetDTO;
+import kg.nurtelecom.opinion.repository.*;
+import kg.nurtelecom.opinion.service.*;
+import kg.nurtelecom.opinion.template.HtmlTemplateEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ArticleServiceImplTest {
+
+    private ArticleRepository articleRepository;
+    private ArticleReactionRepository articleReactionRepository;
+    private ArticleCacheService articleCacheService;
+    private ArticleServiceImpl articleService;
+
+    @BeforeEach
+    public void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        articleReactionRepository = mock(ArticleReactionRepository.class);
+        articleCacheService = mock(ArticleCacheService.class);
+        articleService = new ArticleServiceImpl(articleRepository, mock(UserRepository.class), articleReactionRepository,
+                mock(SavedArticlesRepository.class), mock(ArticleCommentRepository.class), mock(TagRepository.class),
+                mock(ArticleMapper.class), mock(UserMapper.class), mock(TagMapper.class), mock(MailSenderService.class),
+                articleCacheService, mock(AdminNotificationService.class), new HtmlTemplateEngine(),
+                mock(TrendingService.class), mock(RelatedArticlesService.class), mock(FeedService.class),
+                mock(ArticleCardService.class), mock(ApplicationEventPublisher.class), mock(EntityTagService.class));
+    }
+
+    @Test
+    public void cachedArticleShowsTheCurrentRating() {
+        when(articleCacheService.getArticle(1L)).thenReturn(cachedArticle(5L, 1L));
+        when(articleRepository.findReactionCounts(1L)).thenReturn(Optional.of(counts(7L, 1L)));
+
+        ArticleGetDTO article = articleService.getArticleFromCache(1L, null, FieldSet.of(List.of(ArticleGetDTO.RATING)));
+
+        assertEquals(6L, article.getRating());
+        verifyNoInteractions(articleReactionRepository);
+    }
+
+    @Test
+    public void cachedArticleWithoutCountersCountsReactions() {
+        when(articleCacheService.getArticle(1L)).thenReturn(cachedArticle(5L, 1L));
+        when(articleRepository.findReactionCounts(1L)).thenReturn(Optional.of(counts(null, null)));
+        when(articleReactionRepository.countByArticleIdAndReactionType(1L, ReactionType.LIKE)).thenReturn(2L);
+        when(articleReactionRepository.countByArticleIdAndReactionType(1L, ReactionType.DISLIKE)).thenReturn(3L);
+
+        ArticleGetDTO article = articleService.getArticleFromCache(1L, null, FieldSet.of(List.of(ArticleGetDTO.RATING)));
+
+        assertEquals(-1L, article.getRating());
+    }
+
+    @Test
+    public void ratingIsNotLoadedWhenNotRequested() {
+        when(articleCacheService.getArticle(1L)).thenReturn(cachedArticle(5L, 1L));
+
+        ArticleGetDTO article = articleService.getArticleFromCache(1L, null, FieldSet.of(List.of("title")));
+
+        assertNull(article.getRating());
+        verify(articleRepository, never()).findReactionCounts(any());
+    }
+
+    private static Article cachedArticle(Long likes, Long dislikes) {
+        User author = new User();
+        author.setId(2L);
+        Article article = new Article();
+        article.setId(1L);
+        article.setAuthor(author);
+        article.setStatus(ArticleStatus.APPROVED);
+        ReflectionTestUtils.setField(article, "likesCount", likes);
+        ReflectionTestUtils.setField(article, "dislikesCount", dislikes);
+        return article;
+    }
+
+    private static ReactionCounts counts(Long likes, Long dislikes) {
+        return new ReactionCounts() {
+            @Override
+            public Long getLikes() {
+                return likes;
+            }
+
+            @Override
+            public Long getDislikes() {
+                return dislikes;
+            }
+        };
+    }
+}
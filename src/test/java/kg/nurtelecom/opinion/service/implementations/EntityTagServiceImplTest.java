@@ -0,0 +1,81 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityTagServiceImplTest {
+
+    private final EntityTagServiceImpl entityTagService = new EntityTagServiceImpl();
+
+    @Test
+    public void matchesTheSameTagWithOrWithoutWeakPrefix() {
+        assertTrue(EntityTagServiceImpl.matches("W/\"abc\"", "W/\"abc\""));
+        assertTrue(EntityTagServiceImpl.matches("\"abc\"", "W/\"abc\""));
+        assertTrue(EntityTagServiceImpl.matches("W/\"abc\"", "\"abc\""));
+    }
+
+    @Test
+    public void matchesAnyTagInAList() {
+        assertTrue(EntityTagServiceImpl.matches("\"x\", W/\"abc\" ,\"y\"", "W/\"abc\""));
+        assertFalse(EntityTagServiceImpl.matches("\"x\", W/\"y\"", "W/\"abc\""));
+    }
+
+    @Test
+    public void matchesWildcard() {
+        assertTrue(EntityTagServiceImpl.matches("*", "W/\"abc\""));
+    }
+
+    @Test
+    public void doesNotMatchWithoutHeaderOrOnDifferentTag() {
+        assertFalse(EntityTagServiceImpl.matches(null, "W/\"abc\""));
+        assertFalse(EntityTagServiceImpl.matches("W/\"abd\"", "W/\"abc\""));
+        assertFalse(EntityTagServiceImpl.matches("abc", "W/\"abc\""));
+    }
+
+    @Test
+    public void tagIsStableForEqualParts() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        String first = entityTagService.tagOf(1L, updatedAt, 3L, "nick", null, List.of(1L, 2L));
+        String second = entityTagService.tagOf(1L, updatedAt, 3L, "nick", null, List.of(1L, 2L));
+        String changed = entityTagService.tagOf(1L, updatedAt, 4L, "nick", null, List.of(1L, 2L));
+
+        assertEquals(first, second);
+        assertNotEquals(first, changed);
+        assertTrue(first.startsWith("W/\""));
+    }
+
+    @Test
+    public void notModifiedDoesNotBuildTheBody() {
+        String tag = entityTagService.tagOf(1L);
+        AtomicInteger built = new AtomicInteger();
+
+        ResponseEntity<String> response = entityTagService.respond(tag, tag, CacheControl.noCache(), () -> {
+            built.incrementAndGet();
+            return "body";
+        });
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(tag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(0, built.get());
+    }
+
+    @Test
+    public void missBuildsTheBody() {
+        String tag = entityTagService.tagOf(1L);
+
+        ResponseEntity<String> response = entityTagService.respond("W/\"other\"", tag, CacheControl.noCache(), () -> "body");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(tag, response.getHeaders().getETag());
+        assertEquals("body", response.getBody());
+    }
+}
@@ -0,0 +1,220 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class FeedServiceImplTest {
+    private static final Long USER_ID = 7L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 10, 12, 0);
+    private static final Pageable ALL = PageRequest.of(0, 50);
+
+    private final Map<Long, LocalDateTime> times = new HashMap<>();
+    private final Map<Long, List<Long>> authors = new HashMap<>();
+    private final Map<Long, List<Long>> tags = new HashMap<>();
+    private final Map<Long, List<Long>> saved = new HashMap<>();
+    private final Set<Long> approved = new TreeSet<>();
+    private ArticleRepository articleRepository;
+    private SavedArticlesRepository savedArticlesRepository;
+    private long now = millis(NOW);
+
+    @BeforeEach
+    public void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        savedArticlesRepository = mock(SavedArticlesRepository.class);
+        when(articleRepository.findIdsByStatus(ArticleStatus.APPROVED)).thenAnswer(invocation -> new ArrayList<>(approved));
+        when(articleRepository.findRecentIdsByStatus(eq(ArticleStatus.APPROVED), any(), any()))
+                .thenAnswer(invocation -> new ArrayList<>(approved));
+        when(articleRepository.findTagFeatures(anyCollection()))
+                .thenAnswer(invocation -> features(invocation.getArgument(0), tags));
+        when(articleRepository.findAuthorFeatures(anyCollection()))
+                .thenAnswer(invocation -> features(invocation.getArgument(0), authors));
+        when(articleRepository.findFeedCandidates(anyCollection(), eq(ArticleStatus.APPROVED)))
+                .thenAnswer(invocation -> candidates(invocation.getArgument(0)));
+        when(savedArticlesRepository.findArticleIdsByUserId(anyLong(), any()))
+                .thenAnswer(invocation -> saved.getOrDefault(invocation.<Long>getArgument(0), List.of()));
+
+        article(1L, 100L, NOW.minusHours(3), 10L);
+        article(2L, 101L, NOW.minusHours(2), 20L);
+        article(3L, 102L, NOW.minusHours(1));
+        article(4L, USER_ID, NOW.minusMinutes(30));
+        article(5L, 101L, NOW.minusDays(5), 10L);
+        // the saved article gives the user an interest in tag 10 and author 101
+        saved.put(USER_ID, List.of(5L));
+    }
+
+    @Test
+    public void anonymousFeedIsNewestFirst() {
+        FeedServiceImpl feed = feed(2000, 20000);
+
+        assertEquals(List.of(4L, 3L, 2L, 1L, 5L), feed.getFeedArticleIds(null, ALL).getContent());
+        assertEquals(List.of(2L, 1L), feed.getFeedArticleIds(null, PageRequest.of(1, 2)).getContent());
+    }
+
+    @Test
+    public void timelineIsRankedByAffinityWithoutOwnAndSeenArticles() {
+        FeedServiceImpl feed = feed(2000, 20000);
+
+        // 2 has the liked author (weight 2), 1 the liked tag (weight 1), 3 is only newer
+        assertEquals(List.of(2L, 1L, 3L), feed.getFeedArticleIds(USER_ID, ALL).getContent());
+    }
+
+    @Test
+    public void userWithoutInteractionsGetsTheNewestArticles() {
+        FeedServiceImpl feed = feed(2000, 20000);
+
+        assertEquals(List.of(4L, 3L, 2L, 1L, 5L), feed.getFeedArticleIds(8L, ALL).getContent());
+    }
+
+    @Test
+    public void approvedArticleIsPushedIntoKeptTimelines() {
+        FeedServiceImpl feed = feed(2000, 20000);
+        feed.getFeedArticleIds(USER_ID, ALL);
+
+        now += Duration.ofMinutes(1).toMillis();
+        article(6L, 101L, NOW, 10L);
+        feed.onApprovedArticles(new ApprovedArticlesEvent(Set.copyOf(approved)));
+
+        assertEquals(List.of(6L, 2L, 1L, 3L), feed.getFeedArticleIds(USER_ID, ALL).getContent());
+        // fan-out on write, the profile is not loaded again
+        verify(savedArticlesRepository, times(1)).findArticleIdsByUserId(eq(USER_ID), any());
+        verify(articleRepository).findFeedCandidates(Set.of(6L), ArticleStatus.APPROVED);
+    }
+
+    @Test
+    public void takenDownArticleLeavesTimelinesAtOnce() {
+        FeedServiceImpl feed = feed(2000, 20000);
+        feed.getFeedArticleIds(USER_ID, ALL);
+
+        approved.remove(2L);
+        feed.onApprovedArticles(new ApprovedArticlesEvent(Set.copyOf(approved)));
+
+        assertEquals(List.of(1L, 3L), feed.getFeedArticleIds(USER_ID, ALL).getContent());
+        assertEquals(List.of(4L, 3L, 1L, 5L), feed.getFeedArticleIds(null, ALL).getContent());
+    }
+
+    @Test
+    public void timelineIsRebuiltAfterItsTtl() {
+        FeedServiceImpl feed = feed(2000, 20000);
+        feed.getFeedArticleIds(USER_ID, ALL);
+
+        saved.put(USER_ID, List.of(5L, 3L));
+        now += Duration.ofMinutes(30).toMillis();
+        assertEquals(List.of(2L, 1L, 3L), feed.getFeedArticleIds(USER_ID, ALL).getContent());
+
+        now += 1;
+        assertEquals(List.of(2L, 1L), feed.getFeedArticleIds(USER_ID, ALL).getContent());
+        verify(savedArticlesRepository, times(2)).findArticleIdsByUserId(eq(USER_ID), any());
+    }
+
+    @Test
+    public void timelinesAboveTheCapAreBuiltOnEveryRead() {
+        FeedServiceImpl feed = feed(2000, 1);
+        feed.getFeedArticleIds(USER_ID, ALL);
+        feed.getFeedArticleIds(USER_ID, ALL);
+        feed.getFeedArticleIds(8L, ALL);
+        feed.getFeedArticleIds(8L, ALL);
+
+        verify(savedArticlesRepository, times(1)).findArticleIdsByUserId(eq(USER_ID), any());
+        verify(savedArticlesRepository, times(2)).findArticleIdsByUserId(eq(8L), any());
+    }
+
+    @Test
+    public void inactiveTimelinesAreEvicted() {
+        FeedServiceImpl feed = feed(2000, 1);
+        feed.getFeedArticleIds(USER_ID, ALL);
+
+        now += Duration.ofHours(24).toMillis() + 1;
+        feed.evictInactive();
+        feed.getFeedArticleIds(8L, ALL);
+        feed.getFeedArticleIds(8L, ALL);
+
+        // the slot freed by user 7 is taken by user 8
+        verify(savedArticlesRepository, times(1)).findArticleIdsByUserId(eq(8L), any());
+    }
+
+    @Test
+    public void windowKeepsTheNewestArticles() {
+        FeedServiceImpl feed = feed(3, 20000);
+
+        assertEquals(List.of(4L, 3L, 2L), feed.getFeedArticleIds(null, ALL).getContent());
+
+        // an old article approved just now counts as new
+        now += Duration.ofMinutes(1).toMillis();
+        article(6L, 103L, NOW.minusDays(20));
+        feed.onApprovedArticles(new ApprovedArticlesEvent(Set.copyOf(approved)));
+        assertEquals(List.of(4L, 3L, 6L), feed.getFeedArticleIds(null, ALL).getContent());
+    }
+
+    @Test
+    public void windowDropsArticlesOlderThanItsDays() {
+        FeedServiceImpl feed = feed(2000, 20000);
+
+        now += Duration.ofDays(25).toMillis() + Duration.ofMinutes(1).toMillis();
+        feed.evictInactive();
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), feed.getFeedArticleIds(null, ALL).getContent());
+    }
+
+    private FeedServiceImpl feed(int windowSize, int maxTimelines) {
+        FeedServiceImpl feed = new FeedServiceImpl(articleRepository, savedArticlesRepository,
+                mock(ArticleReactionRepository.class), mock(ArticleCommentRepository.class),
+                30, windowSize, 300, maxTimelines, 24, 30, 48, 2, 200);
+        ReflectionTestUtils.setField(feed, "clock", (LongSupplier) () -> now);
+        feed.loadWindow();
+        return feed;
+    }
+
+    private void article(Long id, Long authorId, LocalDateTime dateTime, Long... tagIds) {
+        times.put(id, dateTime);
+        authors.put(id, List.of(authorId));
+        tags.put(id, List.of(tagIds));
+        approved.add(id);
+    }
+
+    private static long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static List<ArticleFeature> features(Collection<Long> ids, Map<Long, List<Long>> source) {
+        List<ArticleFeature> features = new ArrayList<>();
+        for (Long id : ids) {
+            for (Long featureId : source.getOrDefault(id, List.of())) {
+                ArticleFeature feature = mock(ArticleFeature.class);
+                when(feature.getArticleId()).thenReturn(id);
+                when(feature.getFeatureId()).thenReturn(featureId);
+                features.add(feature);
+            }
+        }
+        return features;
+    }
+
+    private List<FeedCandidate> candidates(Collection<Long> ids) {
+        List<FeedCandidate> candidates = new ArrayList<>();
+        for (Long id : ids) {
+            if (approved.contains(id)) {
+                FeedCandidate candidate = mock(FeedCandidate.class);
+                when(candidate.getId()).thenReturn(id);
+                when(candidate.getAuthorId()).thenReturn(authors.get(id).get(0));
+                when(candidate.getDateTime()).thenReturn(times.get(id));
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,126 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kg.nurtelecom.opinion.payload.image.ProcessedImage;
+import kg.nurtelecom.opinion.service.ImageDeletionService;
+import kg.nurtelecom.opinion.service.StoredImageService;
+import kg.nurtelecom.opinion.storage.ImageStore;
+import kg.nurtelecom.opinion.storage.StoredObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ImageProcessingServiceImplTest {
+
+    private ImageStore imageStore;
+    private StoredImageService storedImageService;
+    private ImageDeletionService imageDeletionService;
+    private ImageProcessingServiceImpl imageProcessingService;
+    private MockMultipartFile image;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        imageStore = mock(ImageStore.class);
+        storedImageService = mock(StoredImageService.class);
+        imageDeletionService = mock(ImageDeletionService.class);
+        AtomicInteger uploads = new AtomicInteger();
+        when(imageStore.store(any(), anyString())).thenAnswer(invocation -> {
+            int n = uploads.incrementAndGet();
+            return new StoredObject("key" + n, "http://images/key" + n + ".png");
+        });
+        when(imageStore.convertedUrl(any(), anyString())).thenReturn(Optional.empty());
+        when(storedImageService.find(anyString())).thenReturn(Optional.empty());
+        when(storedImageService.register(anyString(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        imageProcessingService = new ImageProcessingServiceImpl(imageStore, inlineExecutor(), inlineExecutor(),
+                storedImageService, imageDeletionService, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), "png", png);
+        image = new MockMultipartFile("photo", "photo.png", "image/png", png.toByteArray());
+    }
+
+    @Test
+    public void storedImageIsReusedWithoutUpload() {
+        ProcessedImage existing = new ProcessedImage("http://images/existing.png", null);
+        when(storedImageService.find(anyString())).thenReturn(Optional.of(existing));
+
+        String url = imageProcessingService.processWithRenditions(image, ProcessedImage::url).join();
+
+        assertEquals(existing.url(), url);
+        verify(storedImageService).register(anyString(), eq(existing));
+        verify(imageStore, never()).store(any(), anyString());
+    }
+
+    @Test
+    public void lockConflictIsRetried() {
+        when(storedImageService.register(anyString(), any()))
+                .thenThrow(new CannotAcquireLockException("deadlock"))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        String url = imageProcessingService.processWithRenditions(image, ProcessedImage::url).join();
+
+        assertEquals("http://images/key1.png", url);
+        verify(storedImageService, times(2)).register(anyString(), any());
+        verifyNoInteractions(imageDeletionService);
+    }
+
+    @Test
+    public void uploadsAreDiscardedWhenReferenceCannotBeStored() {
+        when(storedImageService.register(anyString(), any())).thenThrow(new CannotAcquireLockException("deadlock"));
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> imageProcessingService.processWithRenditions(image, ProcessedImage::url).join());
+
+        assertInstanceOf(CannotAcquireLockException.class, e.getCause());
+        verify(storedImageService, times(3)).register(anyString(), any());
+        verify(imageDeletionService).schedule(List.of("http://images/key1.png", "http://images/key2.png", "http://images/key3.png"));
+    }
+
+    @Test
+    public void failingCallbackDiscardsUploads() {
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> imageProcessingService.processWithRenditions(image, processed -> {
+                    throw new IllegalStateException("user is gone");
+                }).join());
+
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        verify(storedImageService, times(1)).register(anyString(), any());
+        verify(imageDeletionService).schedule(anyList());
+    }
+
+    @Test
+    public void concurrentlyStoredCopyWins() {
+        ProcessedImage theirs = new ProcessedImage("http://images/theirs.png", null);
+        when(storedImageService.register(anyString(), any())).thenReturn(theirs);
+
+        String url = imageProcessingService.processWithRenditions(image, ProcessedImage::url).join();
+
+        assertEquals(theirs.url(), url);
+        verify(imageDeletionService).schedule(List.of("http://images/key1.png", "http://images/key2.png", "http://images/key3.png"));
+    }
+
+    private ThreadPoolTaskExecutor inlineExecutor() {
+        ThreadPoolTaskExecutor executor = mock(ThreadPoolTaskExecutor.class);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        return executor;
+    }
+}
@@ -0,0 +1,220 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.Article;
+import kg.nurtelecom.opinion.entity.User;
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.exception.NotFoundException;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.UserRepository;
+import kg.nurtelecom.opinion.service.ArticleCacheService;
+import kg.nurtelecom.opinion.service.ImageDeletionService;
+import kg.nurtelecom.opinion.service.ImageProcessingService;
+import kg.nurtelecom.opinion.service.StoredImageService;
+import kg.nurtelecom.opinion.storage.ImageFile;
+import kg.nurtelecom.opinion.storage.ImageStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ImageServiceImplTest {
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final ImageFile FILE = new ImageFile("abc.png", "abc", CONTENT.length, "image/png", 1_700_000_000_000L);
+
+    private ImageStore imageStore;
+    private ArticleCacheService articleCacheService;
+    private StoredImageService storedImageService;
+    private ImageServiceImpl imageService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        imageStore = mock(ImageStore.class);
+        when(imageStore.find("abc.png")).thenReturn(Optional.of(FILE));
+        doAnswer(invocation -> {
+            long position = invocation.getArgument(1);
+            long count = invocation.getArgument(2);
+            WritableByteChannel target = invocation.getArgument(3);
+            target.write(ByteBuffer.wrap(CONTENT, (int) position, (int) count));
+            return null;
+        }).when(imageStore).transferTo(eq(FILE), anyLong(), anyLong(), any(WritableByteChannel.class));
+
+        articleCacheService = mock(ArticleCacheService.class);
+        storedImageService = mock(StoredImageService.class);
+        imageService = new ImageServiceImpl(mock(ArticleRepository.class), mock(UserRepository.class), imageStore,
+                articleCacheService, mock(ImageProcessingService.class), storedImageService,
+                mock(ImageDeletionService.class), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    public void wholeImageIsSentWithCacheHeaders() throws Exception {
+        MockHttpServletResponse response = send(request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("image/png", response.getContentType());
+        assertEquals("\"abc\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("public, max-age=31536000, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    public void singleRangeIsSentAsPartialContent() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals(4, response.getContentLengthLong());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void suffixRangeIsSentFromTheEnd() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("789", response.getContentAsString());
+        assertEquals("bytes 7-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void rangeEndBeyondTheImageIsCut() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=8-100");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("89", response.getContentAsString());
+        assertEquals("bytes 8-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void unsatisfiableRangeIsRejected() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-20");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        verify(imageStore, never()).transferTo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void malformedRangeIsRejected() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5-2");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(416, response.getStatus());
+        verify(imageStore, never()).transferTo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void severalRangesGetTheWholeImage() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,4-5");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    public void rangeForAnotherVersionGetsTheWholeImage() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    public void matchingEtagIsNotModified() throws Exception {
+        for (String ifNoneMatch : new String[]{"\"abc\"", "W/\"abc\"", "\"old\", \"abc\"", "*"}) {
+            MockHttpServletRequest request = request();
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+            MockHttpServletResponse response = send(request);
+
+            assertEquals(304, response.getStatus(), ifNoneMatch);
+            assertEquals(0, response.getContentAsByteArray().length, ifNoneMatch);
+            assertEquals("\"abc\"", response.getHeader(HttpHeaders.ETAG), ifNoneMatch);
+        }
+        verify(imageStore, never()).transferTo(any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void otherEtagGetsTheImage() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"old\"");
+
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    public void unknownKeyIsNotFound() {
+        assertThrows(NotFoundException.class, () -> imageService.sendImage("missing.png", request(),
+                new MockHttpServletResponse()));
+    }
+
+    @Test
+    public void onlyTheAuthorReleasesTheCoverImage() {
+        User author = new User();
+        author.setId(1L);
+        User other = new User();
+        other.setId(2L);
+        Article article = new Article();
+        article.setId(5L);
+        article.setAuthor(author);
+        article.setStatus(ArticleStatus.APPROVED);
+        article.setCoverImage("cover.png");
+        when(articleCacheService.getArticle(5L)).thenReturn(article);
+        when(storedImageService.release("cover.png")).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.BAD_REQUEST, imageService.deleteCoverImage(5L, other).getStatusCode());
+        verify(storedImageService, never()).release(anyString());
+
+        assertEquals(HttpStatus.NO_CONTENT, imageService.deleteCoverImage(5L, author).getStatusCode());
+        verify(storedImageService).release("cover.png");
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        imageService.sendImage("abc.png", request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/images/abc.png");
+    }
+}
@@ -0,0 +1,122 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.MailType;
+import kg.nurtelecom.opinion.exception.EmailSendingException;
+import kg.nurtelecom.opinion.repository.MailMessageRepository;
+import kg.nurtelecom.opinion.repository.MailQuotaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:mail-quota;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+public class MailQueueQuotaTest {
+    private static final String RECIPIENT = "victim@example.com";
+
+    @Autowired
+    private MailMessageRepository mailMessageRepository;
+    @Autowired
+    private MailQuotaRepository mailQuotaRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private MailQueueServiceImpl mailQueueService;
+
+    @BeforeEach
+    public void setUp() {
+        mailMessageRepository.deleteAll();
+        mailQuotaRepository.deleteAll();
+        mailQueueService = new MailQueueServiceImpl(mailMessageRepository, mailQuotaRepository, mock(JavaMailSender.class),
+                mock(ThreadPoolTaskExecutor.class), transactionManager);
+        ReflectionTestUtils.setField(mailQueueService, "recipientLimit", 10L);
+        ReflectionTestUtils.setField(mailQueueService, "recipientWindowMinutes", 60L);
+    }
+
+    @Test
+    public void concurrentSharesDoNotExceedTheLimit() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < 30; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        share();
+                    } catch (EmailSendingException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10, mailMessageRepository.count());
+        assertEquals(20, rejected.get());
+    }
+
+    @Test
+    public void sharesDoNotBlockTransactionalMail() {
+        for (int i = 0; i < 10; i++) {
+            share();
+        }
+
+        assertThrows(EmailSendingException.class, this::share);
+        mailQueueService.enqueue(MailType.TRANSACTIONAL, "opinion@example.com", RECIPIENT, "Password Reset", "Текст", true);
+
+        assertEquals(11, mailMessageRepository.count());
+    }
+
+    @Test
+    public void pastWindowsArePurged() {
+        share();
+        mailQuotaRepository.findAll().forEach(quota -> {
+            quota.setWindowStart(quota.getWindowStart().minusHours(2));
+            mailQuotaRepository.save(quota);
+        });
+        share();
+
+        mailQueueService.purgeQuotas();
+
+        assertEquals(1, mailQuotaRepository.count());
+        assertFalse(mailQuotaRepository.findAll().get(0).getWindowStart().isBefore(LocalDateTime.now().minusHours(1)));
+    }
+
+    private void share() {
+        mailQueueService.enqueue(MailType.SHARE, "nick", RECIPIENT, "Пользователь поделился", "Текст", true);
+    }
+}
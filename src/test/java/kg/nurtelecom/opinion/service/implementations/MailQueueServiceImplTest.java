@@ -0,0 +1,182 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import kg.nurtelecom.opinion.entity.MailMessage;
+import kg.nurtelecom.opinion.enums.MailStatus;
+import kg.nurtelecom.opinion.enums.MailType;
+import kg.nurtelecom.opinion.exception.EmailSendingException;
+import kg.nurtelecom.opinion.repository.MailMessageRepository;
+import kg.nurtelecom.opinion.repository.MailQuotaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MailQueueServiceImplTest {
+
+    private MailMessageRepository mailMessageRepository;
+    private MailQuotaRepository mailQuotaRepository;
+    private JavaMailSender mailSender;
+    private ThreadPoolTaskExecutor mailSenderExecutor;
+    private MailQueueServiceImpl mailQueueService;
+
+    @BeforeEach
+    public void setUp() {
+        mailMessageRepository = mock(MailMessageRepository.class);
+        mailQuotaRepository = mock(MailQuotaRepository.class);
+        mailSender = mock(JavaMailSender.class);
+        mailSenderExecutor = mock(ThreadPoolTaskExecutor.class);
+        when(mailSenderExecutor.getMaxPoolSize()).thenReturn(2);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(mailSenderExecutor).execute(any(Runnable.class));
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        when(mailMessageRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mailQueueService = new MailQueueServiceImpl(mailMessageRepository, mailQuotaRepository, mailSender,
+                mailSenderExecutor, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(mailQueueService, "batchSize", 20);
+        ReflectionTestUtils.setField(mailQueueService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(mailQueueService, "initialBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(mailQueueService, "maxBackoffSeconds", 3600L);
+        ReflectionTestUtils.setField(mailQueueService, "leaseSeconds", 120L);
+        ReflectionTestUtils.setField(mailQueueService, "recipientLimit", 10L);
+        ReflectionTestUtils.setField(mailQueueService, "recipientWindowMinutes", 60L);
+    }
+
+    @Test
+    public void shareMailOverTheRecipientLimitIsRejected() {
+        when(mailQuotaRepository.findMailCount(eq("user@example.com"), any())).thenReturn(11);
+
+        assertThrows(EmailSendingException.class, () -> mailQueueService.enqueue(MailType.SHARE, "nick",
+                "user@example.com", "Тема", "Текст", true));
+
+        verify(mailQuotaRepository).countMail(eq("user@example.com"), any());
+        verify(mailMessageRepository, never()).save(any());
+    }
+
+    @Test
+    public void transactionalMailIsNotCountedAgainstTheRecipientLimit() {
+        when(mailQuotaRepository.findMailCount(any(), any())).thenReturn(100);
+
+        mailQueueService.enqueue(MailType.TRANSACTIONAL, "opinion@example.com", "user@example.com", "Password Reset",
+                "Текст", true);
+
+        verify(mailMessageRepository).save(any(MailMessage.class));
+        verifyNoInteractions(mailQuotaRepository);
+    }
+
+    @Test
+    public void claimedMessagesAreLeasedBeforeSending() {
+        MailMessage message = message("user@example.com");
+        List<MailStatus> statusesAtSend = new ArrayList<>();
+        List<LocalDateTime> leasesAtSend = new ArrayList<>();
+        whenDue(message);
+        doAnswer(invocation -> {
+            statusesAtSend.add(message.getStatus());
+            leasesAtSend.add(message.getNextAttemptAt());
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+        LocalDateTime before = LocalDateTime.now();
+
+        mailQueueService.dispatchPending();
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(mailMessageRepository).findDue(eq(List.of(MailStatus.PENDING, MailStatus.SENDING)), any(), pageable.capture());
+        assertEquals(40, pageable.getValue().getPageSize());
+        assertEquals(List.of(MailStatus.SENDING), statusesAtSend);
+        assertFalse(leasesAtSend.get(0).isBefore(before.plusSeconds(120)));
+        assertEquals(MailStatus.SENT, message.getStatus());
+        assertNotNull(message.getSentAt());
+    }
+
+    @Test
+    public void nothingIsClaimedWhenAllSendersAreBusy() {
+        when(mailSenderExecutor.getActiveCount()).thenReturn(2);
+
+        mailQueueService.dispatchPending();
+
+        verify(mailMessageRepository, never()).findDue(any(), any(), any());
+    }
+
+    @Test
+    public void failedMessageIsRetriedWithGrowingBackoff() {
+        MailMessage message = message("user@example.com");
+        whenDue(message);
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        mailQueueService.dispatchPending();
+
+        assertEquals(MailStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertEquals("connection refused", message.getLastError());
+        assertBetween(before.plusSeconds(30), LocalDateTime.now().plusSeconds(30), message.getNextAttemptAt());
+
+        before = LocalDateTime.now();
+        mailQueueService.dispatchPending();
+
+        assertEquals(2, message.getAttempts());
+        assertBetween(before.plusSeconds(60), LocalDateTime.now().plusSeconds(60), message.getNextAttemptAt());
+    }
+
+    @Test
+    public void messageIsDeadAfterMaxAttempts() {
+        MailMessage message = message("user@example.com");
+        message.setAttempts(2);
+        whenDue(message);
+        doThrow(new MailSendException("mailbox unavailable")).when(mailSender).send(any(MimeMessage[].class));
+
+        mailQueueService.dispatchPending();
+
+        assertEquals(MailStatus.DEAD, message.getStatus());
+        assertEquals(3, message.getAttempts());
+    }
+
+    @Test
+    public void onlyFailedMessagesOfBatchAreRetried() {
+        MailMessage delivered = message("first@example.com");
+        MailMessage rejected = message("second@example.com");
+        whenDue(delivered, rejected);
+        doAnswer(invocation -> {
+            MimeMessage second = invocation.getArgument(1);
+            throw new MailSendException(Map.of(second, new Exception("recipient rejected")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        mailQueueService.dispatchPending();
+
+        assertEquals(MailStatus.SENT, delivered.getStatus());
+        assertEquals(0, delivered.getAttempts());
+        assertEquals(MailStatus.PENDING, rejected.getStatus());
+        assertEquals(1, rejected.getAttempts());
+    }
+
+    private MailMessage message(String recipient) {
+        return new MailMessage("opinion@example.com", recipient, "Тема", "Текст", false);
+    }
+
+    private void whenDue(MailMessage... messages) {
+        when(mailMessageRepository.findDue(any(), any(), any())).thenReturn(new ArrayList<>(List.of(messages)));
+    }
+
+    private void assertBetween(LocalDateTime from, LocalDateTime to, LocalDateTime actual) {
+        assertFalse(actual.isBefore(from), actual + " is before " + from);
+        assertFalse(actual.isAfter(to), actual + " is after " + to);
+    }
+}
@@ -0,0 +1,103 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import kg.nurtelecom.opinion.entity.MailMessage;
+import kg.nurtelecom.opinion.enums.MailStatus;
+import kg.nurtelecom.opinion.repository.MailMessageRepository;
+import kg.nurtelecom.opinion.repository.MailQuotaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class MailQueueSmtpTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private MailMessageRepository mailMessageRepository;
+    private MailQueueServiceImpl mailQueueService;
+
+    @BeforeEach
+    public void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl() {
+            @Override
+            protected Transport connectTransport() throws MessagingException {
+                connections.incrementAndGet();
+                return super.connectTransport();
+            }
+        };
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+
+        ThreadPoolTaskExecutor mailSenderExecutor = mock(ThreadPoolTaskExecutor.class);
+        when(mailSenderExecutor.getMaxPoolSize()).thenReturn(1);
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(mailSenderExecutor).execute(any(Runnable.class));
+        mailMessageRepository = mock(MailMessageRepository.class);
+        when(mailMessageRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mailQueueService = new MailQueueServiceImpl(mailMessageRepository, mock(MailQuotaRepository.class), mailSender,
+                mailSenderExecutor, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(mailQueueService, "batchSize", 20);
+        ReflectionTestUtils.setField(mailQueueService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(mailQueueService, "initialBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(mailQueueService, "maxBackoffSeconds", 3600L);
+        ReflectionTestUtils.setField(mailQueueService, "leaseSeconds", 120L);
+    }
+
+    @Test
+    public void batchIsDeliveredOverOneConnection() throws Exception {
+        List<MailMessage> messages = IntStream.range(0, 5)
+                .mapToObj(i -> new MailMessage("opinion@example.com", "user" + i + "@example.com", "Тема " + i,
+                        "<p>Письмо " + i + "</p>", true))
+                .toList();
+        when(mailMessageRepository.findDue(any(), any(), any())).thenReturn(new ArrayList<>(messages));
+
+        mailQueueService.dispatchPending();
+
+        assertTrue(greenMail.waitForIncomingEmail(5_000, 5));
+        assertEquals(1, connections.get());
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(5, received.length);
+        for (int i = 0; i < 5; i++) {
+            MimeMessage message = greenMail.getReceivedMessagesForDomain("user" + i + "@example.com")[0];
+            assertEquals("Тема " + i, message.getSubject());
+            assertTrue(message.getContentType().startsWith("text/html"));
+            assertEquals("<p>Письмо " + i + "</p>", message.getContent());
+        }
+        messages.forEach(message -> assertEquals(MailStatus.SENT, message.getStatus()));
+    }
+
+    @Test
+    public void unreachableServerLeavesTheBatchForRetry() {
+        greenMail.stop();
+        MailMessage message = new MailMessage("opinion@example.com", "user@example.com", "Тема", "Текст", false);
+        when(mailMessageRepository.findDue(any(), any(), any())).thenReturn(new ArrayList<>(List.of(message)));
+
+        mailQueueService.dispatchPending();
+
+        assertEquals(MailStatus.PENDING, message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertNotNull(message.getLastError());
+    }
+}
@@ -0,0 +1,236 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import kg.nurtelecom.opinion.entity.*;
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.repository.ArticleCommentRepository;
+import kg.nurtelecom.opinion.repository.ArticleReactionRepository;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import({PooledIdServiceImpl.class, PooledIdServiceImplTest.StatementCounting.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pooled-ids;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+public class PooledIdServiceImplTest {
+    private static final AtomicInteger COMMENT_BATCHES = new AtomicInteger();
+    private static final AtomicInteger COMMENT_SINGLE_INSERTS = new AtomicInteger();
+
+    @Autowired
+    private PooledIdServiceImpl pooledIdService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ArticleRepository articleRepository;
+    @Autowired
+    private ArticleCommentRepository articleCommentRepository;
+    @Autowired
+    private ArticleReactionRepository articleReactionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void everyPooledTableIsAGeneratorSegmentNamedAfterIt() {
+        List<Class<? extends PooledBaseEntity>> pooled = pooledEntities();
+        assertTrue(pooled.containsAll(List.of(ArticleComment.class, SavedArticle.class, ArticleReaction.class,
+                UserNotification.class, AdminNotification.class)));
+
+        for (Class<? extends PooledBaseEntity> entityClass : pooled) {
+            String table = entityClass.getAnnotation(Table.class).name();
+            jdbcTemplate.update("UPDATE " + PooledBaseEntity.GENERATOR_TABLE + " SET next_val = 1000 WHERE table_name = ?", table);
+
+            // the row holds the last id handed out, a block runs up to it plus the allocation size
+            assertEquals(List.of(1001L, 1002L), pooledIdService.nextIds(entityClass, 2), table);
+            assertEquals(1050L, nextVal(table), table);
+        }
+    }
+
+    @Test
+    public void generatorRowsAreMovedPastExistingIds() {
+        jdbcTemplate.update("INSERT INTO saved_articles (id) VALUES (500)");
+        jdbcTemplate.update("INSERT INTO article_reaction (id, reaction_type) VALUES (700, 'LIKE')");
+        jdbcTemplate.update("UPDATE " + PooledBaseEntity.GENERATOR_TABLE + " SET next_val = 900 WHERE table_name = 'user_notifications'");
+
+        pooledIdService.alignWithExistingRows();
+
+        assertEquals(500L, nextVal("saved_articles"));
+        assertEquals(700L, nextVal("article_reaction"));
+        // a generator already ahead of the table is left alone
+        assertEquals(900L, nextVal("user_notifications"));
+        assertEquals(0L, nextVal("article_comments"));
+
+        SavedArticle saved = new SavedArticle();
+        entityManagerFactory.unwrap(SessionFactory.class).inTransaction(session -> session.persist(saved));
+        assertEquals(501L, saved.getId());
+        assertEquals(List.of(701L), pooledIdService.nextIds(ArticleReaction.class, 1));
+    }
+
+    @Test
+    public void upsertedReactionTakesItsIdFromTheGenerator() {
+        Article article = articleRepository.save(new Article());
+        User user = user("reacting");
+
+        Long id = pooledIdService.nextIds(ArticleReaction.class, 1).get(0);
+        transactionTemplate.executeWithoutResult(status ->
+                articleReactionRepository.upsertReaction(id, article.getId(), user.getId(), "LIKE"));
+        Long unused = pooledIdService.nextIds(ArticleReaction.class, 1).get(0);
+        transactionTemplate.executeWithoutResult(status ->
+                articleReactionRepository.upsertReaction(unused, article.getId(), user.getId(), "DISLIKE"));
+
+        // replacing the reaction keeps the row and its id
+        assertEquals(List.of(Map.of("id", id, "reaction_type", "DISLIKE")),
+                jdbcTemplate.queryForList("SELECT id, reaction_type FROM article_reaction"));
+        // a Hibernate insert continues the same block
+        ArticleReaction persisted = new ArticleReaction(ReactionType.LIKE, article, user("persisting"));
+        transactionTemplate.executeWithoutResult(status -> articleReactionRepository.save(persisted));
+        assertEquals(unused + 1, persisted.getId());
+    }
+
+    @Test
+    public void savedCommentsGoOutAsBatchedInserts() {
+        Article article = new Article();
+        article.setTitle("batched");
+        articleRepository.save(article);
+        List<ArticleComment> comments = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ArticleComment comment = new ArticleComment();
+            comment.setText("comment " + i);
+            comment.setArticle(article);
+            comment.setDepth(0);
+            comments.add(comment);
+        }
+        COMMENT_BATCHES.set(0);
+        COMMENT_SINGLE_INSERTS.set(0);
+
+        articleCommentRepository.saveAll(comments);
+
+        // batch_size is 50
+        assertEquals(3, COMMENT_BATCHES.get());
+        assertEquals(0, COMMENT_SINGLE_INSERTS.get());
+        assertEquals(120, articleCommentRepository.count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Class<? extends PooledBaseEntity>> pooledEntities() {
+        List<Class<? extends PooledBaseEntity>> pooled = new ArrayList<>();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            if (PooledBaseEntity.class.isAssignableFrom(entity.getJavaType())) {
+                pooled.add((Class<? extends PooledBaseEntity>) entity.getJavaType());
+            }
+        }
+        return pooled;
+    }
+
+    private User user(String nickname) {
+        User user = new User();
+        user.setNickname(nickname);
+        user.setPrivacySettings(new UserPrivacySettings());
+        return userRepository.save(user);
+    }
+
+    private long nextVal(String table) {
+        return jdbcTemplate.queryForObject("SELECT next_val FROM " + PooledBaseEntity.GENERATOR_TABLE
+                + " WHERE table_name = ?", Long.class, table);
+    }
+
+    // counts how inserts into article_comments reach the driver
+    @TestConfiguration
+    static class StatementCounting {
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new CountingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class CountingDataSource extends DelegatingDataSource {
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                                && ((String) args[0]).startsWith("insert into article_comments")) {
+                            return countingStatement(statement);
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement countingStatement(PreparedStatement statement) {
+            return (PreparedStatement) Proxy.newProxyInstance(CountingDataSource.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "executeBatch" -> COMMENT_BATCHES.incrementAndGet();
+                            case "executeUpdate", "execute" -> COMMENT_SINGLE_INSERTS.incrementAndGet();
+                            default -> {
+                            }
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.ArticleReaction;
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.payload.article_reaction.ReactionDelta;
+import kg.nurtelecom.opinion.service.PooledIdService;
+import kg.nurtelecom.opinion.service.UserReactionCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ReactionJournalServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserReactionCacheService userReactionCacheService;
+    private PooledIdService pooledIdService;
+    private PlatformTransactionManager transactionManager;
+    private ReactionJournalServiceImpl journal;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        userReactionCacheService = mock(UserReactionCacheService.class);
+        pooledIdService = mock(PooledIdService.class);
+        when(pooledIdService.nextIds(eq(ArticleReaction.class), anyInt()))
+                .thenAnswer(invocation -> LongStream.range(100, 100 + invocation.<Integer>getArgument(1)).boxed().toList());
+        transactionManager = mock(PlatformTransactionManager.class);
+        journal = new ReactionJournalServiceImpl(jdbcTemplate, userReactionCacheService, pooledIdService,
+                transactionManager, true, 4, 250);
+    }
+
+    @Test
+    public void flushWritesTogglesAndRecountsArticles() {
+        journal.toggle(1L, 10L, ReactionType.LIKE, () -> null);
+        journal.toggle(2L, 10L, ReactionType.DISLIKE, () -> ReactionType.DISLIKE);
+        whenStored(2L, 10L, ReactionType.DISLIKE);
+
+        journal.flush();
+
+        assertEquals(List.of(List.of(100L, 1L, 10L, "LIKE")), rows(verifyBatch("INSERT")));
+        assertEquals(List.of(List.of(2L, 10L)), rows(verifyBatch("DELETE")));
+        assertEquals(2, verifyBatch("UPDATE article").size());
+        verify(userReactionCacheService).evict(10L);
+        assertTrue(journal.overlay(10L, List.of(1L, 2L), Map.of()).isEmpty());
+    }
+
+    @Test
+    public void flushComparesWithDatabaseNotWithToggleTimeState() {
+        // the toggle saw no reaction, another instance has stored the same like since
+        journal.toggle(1L, 10L, ReactionType.LIKE, () -> null);
+        whenStored(1L, 10L, ReactionType.LIKE);
+
+        journal.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    public void toggleBackToStoredStateIsStillWrittenWhenDatabaseDiffers() {
+        journal.toggle(1L, 10L, ReactionType.LIKE, () -> ReactionType.LIKE);
+        journal.toggle(1L, 10L, ReactionType.LIKE, () -> ReactionType.LIKE);
+        // the like this instance saw was removed elsewhere, the user's like still has to land
+
+        journal.flush();
+
+        assertEquals(List.of(List.of(100L, 1L, 10L, "LIKE")), rows(verifyBatch("INSERT")));
+    }
+
+    @Test
+    public void violatingToggleIsDroppedAndTheRestIsWritten() {
+        journal.toggle(1L, 10L, ReactionType.LIKE, () -> null);
+        journal.toggle(2L, 10L, ReactionType.LIKE, () -> null);
+        doAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(row -> row[1].equals(2L))) {
+                throw new DataIntegrityViolationException("fk_article");
+            }
+            return new int[rows.size()];
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+
+        journal.flush();
+
+        // the whole batch, then each toggle on its own
+        verify(jdbcTemplate, times(3)).batchUpdate(startsWith("INSERT"), anyList());
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE article"), anyList());
+        assertTrue(journal.overlay(10L, List.of(1L, 2L), Map.of()).isEmpty());
+
+        clearInvocations(jdbcTemplate);
+        journal.flush();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void transientFailureIsRetriedOnNextFlush() {
+        journal.toggle(1L, 10L, ReactionType.DISLIKE, () -> null);
+        doThrow(new DeadlockLoserDataAccessException("deadlock", null))
+                .doReturn(new int[1])
+                .when(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+
+        journal.flush();
+
+        assertEquals(Map.of(1L, ReactionType.DISLIKE), journal.overlay(10L, List.of(1L), Map.of()));
+        verify(userReactionCacheService, never()).evict(anyLong());
+
+        journal.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT"), anyList());
+        assertTrue(journal.overlay(10L, List.of(1L), Map.of()).isEmpty());
+        verify(userReactionCacheService).evict(10L);
+    }
+
+    @Test
+    public void pendingDeltaIsTakenAgainAfterACommit() throws Exception {
+        journal.toggle(1L, 10L, ReactionType.LIKE, () -> null);
+        long epoch = journal.awaitFlushEpoch(1L);
+        assertEquals(Optional.of(new ReactionDelta(1, 0)), journal.getPendingDelta(1L, epoch));
+        List<CompletableFuture<Long>> waiting = new ArrayList<>();
+        doAnswer(invocation -> {
+            // counters read now may or may not include the like
+            assertTrue(journal.getPendingDelta(1L, epoch).isEmpty());
+            waiting.add(CompletableFuture.supplyAsync(() -> journal.awaitFlushEpoch(1L)));
+            Thread.sleep(50);
+            assertFalse(waiting.get(0).isDone());
+            return null;
+        }).when(transactionManager).commit(any());
+
+        journal.flush();
+
+        long nextEpoch = waiting.get(0).get(1, TimeUnit.SECONDS);
+        assertTrue(journal.getPendingDelta(1L, epoch).isEmpty());
+        assertEquals(Optional.of(ReactionDelta.NONE), journal.getPendingDelta(1L, nextEpoch));
+    }
+
+    @Test
+    public void committedTogglesLeaveThePendingDeltaWithTheirCommit() {
+        journal.toggle(1L, 10L, ReactionType.LIKE, () -> null);
+        journal.toggle(1L, 11L, ReactionType.LIKE, () -> null);
+        List<Optional<ReactionDelta>> deltas = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.size() > 1) {
+                throw new DataIntegrityViolationException("fk_article");
+            }
+            // the first like is committed, only the second is still pending
+            deltas.add(journal.getPendingDelta(1L, journal.awaitFlushEpoch(1L)));
+            return new int[1];
+        }).when(jdbcTemplate).batchUpdate(startsWith("INSERT"), anyList());
+
+        journal.flush();
+
+        assertEquals(Optional.of(new ReactionDelta(1, 0)), deltas.get(1));
+        assertEquals(Optional.of(ReactionDelta.NONE), journal.getPendingDelta(1L, journal.awaitFlushEpoch(1L)));
+    }
+
+    @Test
+    public void flushIsScheduledOnlyWhenEnabled() {
+        ScheduledTaskRegistrar registrar = new ScheduledTaskRegistrar();
+        journal.configureTasks(registrar);
+        assertEquals(1, registrar.getFixedDelayTaskList().size());
+
+        ScheduledTaskRegistrar disabledRegistrar = new ScheduledTaskRegistrar();
+        new ReactionJournalServiceImpl(jdbcTemplate, userReactionCacheService, pooledIdService,
+                mock(PlatformTransactionManager.class), false, 4, 250).configureTasks(disabledRegistrar);
+        assertTrue(disabledRegistrar.getFixedDelayTaskList().isEmpty());
+    }
+
+    private void whenStored(Long articleId, Long userId, ReactionType reactionType) {
+        doAnswer(invocation -> {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.getLong("article_id")).thenReturn(articleId);
+            when(resultSet.getLong("user_id")).thenReturn(userId);
+            when(resultSet.getString("reaction_type")).thenReturn(reactionType.name());
+            ((RowCallbackHandler) invocation.getArgument(1)).processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> verifyBatch(String sqlPrefix) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(sqlPrefix), rows.capture());
+        return rows.getValue();
+    }
+
+    private List<List<Object>> rows(List<Object[]> rows) {
+        return rows.stream().map(List::of).toList();
+    }
+}
@@ -0,0 +1,214 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.payload.article.RelatedArticleDTO;
+import kg.nurtelecom.opinion.repository.ArticleFeature;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.ArticleSummary;
+import kg.nurtelecom.opinion.repository.SavedArticlesRepository;
+import kg.nurtelecom.opinion.service.implementations.RelatedArticlesServiceImpl.Neighbours;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RelatedArticlesServiceImplTest {
+    private final Map<Long, List<Long>> tags = new HashMap<>();
+    private final Map<Long, List<Long>> savers = new HashMap<>();
+    private final Set<Long> approved = new TreeSet<>();
+    private ArticleRepository articleRepository;
+    private SavedArticlesRepository savedArticlesRepository;
+
+    @BeforeEach
+    public void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        savedArticlesRepository = mock(SavedArticlesRepository.class);
+        when(articleRepository.findIdsByStatus(ArticleStatus.APPROVED)).thenAnswer(invocation -> new ArrayList<>(approved));
+        when(articleRepository.findTagFeatures(anyCollection()))
+                .thenAnswer(invocation -> features(tags, invocation.getArgument(0)));
+        when(savedArticlesRepository.findSaverFeatures(anyCollection()))
+                .thenAnswer(invocation -> features(savers, invocation.getArgument(0)));
+        when(articleRepository.findSummaries(anyCollection(), eq(ArticleStatus.APPROVED)))
+                .thenAnswer(invocation -> summaries(invocation.getArgument(0)));
+
+        // 1 and 2 share every tag, 1 and 3 share two of four tags and a saver, 4 shares nothing
+        article(1L, List.of(10L, 11L, 12L), List.of(100L));
+        article(2L, List.of(10L, 11L, 12L), List.of());
+        article(3L, List.of(10L, 11L, 13L), List.of(100L));
+        article(4L, List.of(50L, 51L), List.of(101L));
+    }
+
+    @Test
+    public void neighboursAreRankedByWeightedJaccard() {
+        RelatedArticlesServiceImpl service = service(16, 2, 500);
+        service.rebuild();
+
+        // 2: 0.7 * 1 + 0.3 * 0 = 0.7, 3: 0.7 * 2/4 + 0.3 * 1 = 0.65
+        assertEquals(List.of(2L, 3L), ids(service.getRelatedArticles(1L)));
+        assertEquals(List.of(1L, 3L), ids(service.getRelatedArticles(2L)));
+        assertEquals(List.of(), ids(service.getRelatedArticles(4L)));
+        assertTrue(service.getRelatedArticles(99L).isEmpty());
+    }
+
+    @Test
+    public void relatedArticlesAreCappedAtTheConfiguredCount() {
+        article(5L, List.of(10L, 11L, 12L), List.of());
+        RelatedArticlesServiceImpl service = service(16, 2, 500, 1);
+        service.rebuild();
+
+        assertEquals(1, ids(service.getRelatedArticles(1L)).size());
+    }
+
+    @Test
+    public void onlyArticlesSharingABandAreCompared() {
+        // one band of eight rows only collides when all eight minimum hashes agree, which identical articles always do
+        savers.put(2L, List.of(100L));
+        article(5L, List.of(10L, 20L, 21L, 22L, 23L, 24L, 25L, 26L, 27L, 28L), List.of());
+        RelatedArticlesServiceImpl service = service(1, 8, 500);
+        service.rebuild();
+
+        assertEquals(List.of(2L), ids(service.getRelatedArticles(1L)));
+        assertEquals(List.of(), ids(service.getRelatedArticles(5L)));
+
+        // with single row bands one shared tag is enough to become a candidate
+        RelatedArticlesServiceImpl wide = service(64, 1, 500);
+        wide.rebuild();
+        assertTrue(ids(wide.getRelatedArticles(5L)).contains(1L));
+    }
+
+    @Test
+    public void candidatesAreCappedPerArticle() {
+        article(5L, List.of(10L, 11L, 12L), List.of());
+        article(6L, List.of(10L, 11L, 12L), List.of());
+        RelatedArticlesServiceImpl service = service(16, 2, 1);
+        service.rebuild();
+
+        assertEquals(1, ids(service.getRelatedArticles(1L)).size());
+    }
+
+    @Test
+    public void approvedArticleIsLinkedBothWays() {
+        RelatedArticlesServiceImpl service = service(16, 2, 500);
+        service.rebuild();
+
+        article(5L, List.of(10L, 11L, 12L), List.of(100L));
+        service.onApprovedArticles(new ApprovedArticlesEvent(Set.copyOf(approved)));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(service.getRelatedArticles(5L)));
+        // identical tags and savers make 5 the best match of 1
+        assertEquals(List.of(5L, 2L, 3L), ids(service.getRelatedArticles(1L)));
+        verify(articleRepository).findSummaries(List.of(5L), ArticleStatus.APPROVED);
+    }
+
+    @Test
+    public void withdrawnArticleDisappearsFromTheIndex() {
+        RelatedArticlesServiceImpl service = service(16, 2, 500);
+        service.rebuild();
+
+        approved.remove(2L);
+        service.onApprovedArticles(new ApprovedArticlesEvent(Set.copyOf(approved)));
+
+        assertTrue(service.getRelatedArticles(2L).isEmpty());
+        assertEquals(List.of(3L), ids(service.getRelatedArticles(1L)));
+        assertEquals(List.of(1L), ids(service.getRelatedArticles(3L)));
+    }
+
+    @Test
+    public void coverCardIsPreferredOverCoverImage() {
+        RelatedArticlesServiceImpl service = service(16, 2, 500);
+        service.rebuild();
+
+        RelatedArticleDTO related = service.getRelatedArticles(1L).orElseThrow().get(0);
+        assertEquals("card-2", related.coverImage());
+    }
+
+    @Test
+    public void jaccardOfSortedIds() {
+        assertEquals(1.0, RelatedArticlesServiceImpl.jaccard(new long[]{1, 2, 3}, new long[]{1, 2, 3}));
+        assertEquals(0.5, RelatedArticlesServiceImpl.jaccard(new long[]{1, 2, 3}, new long[]{2, 3, 4}));
+        assertEquals(0.2, RelatedArticlesServiceImpl.jaccard(new long[]{1, 5}, new long[]{1, 2, 3, 4}));
+        assertEquals(0.0, RelatedArticlesServiceImpl.jaccard(new long[]{1, 2}, new long[]{3, 4}));
+        assertEquals(0.0, RelatedArticlesServiceImpl.jaccard(new long[0], new long[]{1}));
+    }
+
+    @Test
+    public void neighboursKeepTheBestScoresWithinCapacity() {
+        Neighbours neighbours = Neighbours.EMPTY
+                .offer(1, 0.5, 3)
+                .offer(2, 0.9, 3)
+                .offer(3, 0.1, 3)
+                .offer(4, 0.7, 3);
+
+        assertArrayEquals(new long[]{2, 4, 1}, neighbours.ids());
+        assertArrayEquals(new double[]{0.9, 0.7, 0.5}, neighbours.scores());
+        assertArrayEquals(new long[]{2, 4, 1}, neighbours.offer(5, 0.2, 3).ids());
+    }
+
+    @Test
+    public void neighboursReplaceAnOfferedIdInsteadOfRepeatingIt() {
+        Neighbours neighbours = Neighbours.EMPTY
+                .offer(1, 0.9, 3)
+                .offer(2, 0.5, 3)
+                .offer(3, 0.3, 3);
+
+        assertArrayEquals(new long[]{3, 1, 2}, neighbours.offer(3, 0.95, 3).ids());
+        assertArrayEquals(new long[]{2, 3, 1}, neighbours.offer(1, 0.2, 3).ids());
+        assertArrayEquals(new double[]{0.5, 0.3, 0.2}, neighbours.offer(1, 0.2, 3).scores());
+        assertArrayEquals(new long[]{1, 2, 3}, neighbours.offer(3, 0.4, 3).ids());
+    }
+
+    private RelatedArticlesServiceImpl service(int bands, int rows, int maxCandidates) {
+        return service(bands, rows, maxCandidates, 6);
+    }
+
+    private RelatedArticlesServiceImpl service(int bands, int rows, int maxCandidates, int neighbours) {
+        return new RelatedArticlesServiceImpl(articleRepository, savedArticlesRepository,
+                neighbours, 0.7, 0.3, bands, rows, maxCandidates);
+    }
+
+    private void article(Long id, List<Long> articleTags, List<Long> articleSavers) {
+        tags.put(id, articleTags);
+        savers.put(id, articleSavers);
+        approved.add(id);
+    }
+
+    private static List<Long> ids(Optional<List<RelatedArticleDTO>> related) {
+        return related.orElseThrow().stream().map(RelatedArticleDTO::id).toList();
+    }
+
+    private List<ArticleFeature> features(Map<Long, List<Long>> source, Collection<Long> ids) {
+        List<ArticleFeature> features = new ArrayList<>();
+        for (Long id : ids) {
+            for (Long featureId : source.getOrDefault(id, List.of())) {
+                ArticleFeature feature = mock(ArticleFeature.class);
+                when(feature.getArticleId()).thenReturn(id);
+                when(feature.getFeatureId()).thenReturn(featureId);
+                features.add(feature);
+            }
+        }
+        return features;
+    }
+
+    private List<ArticleSummary> summaries(Collection<Long> ids) {
+        List<ArticleSummary> summaries = new ArrayList<>();
+        for (Long id : ids) {
+            if (!approved.contains(id)) {
+                continue;
+            }
+            ArticleSummary summary = mock(ArticleSummary.class);
+            when(summary.getId()).thenReturn(id);
+            when(summary.getTitle()).thenReturn("title-" + id);
+            when(summary.getCoverImage()).thenReturn("image-" + id);
+            when(summary.getCoverCard()).thenReturn(id == 2L ? "card-2" : null);
+            when(summary.getDateTime()).thenReturn(LocalDateTime.of(2024, 1, 1, 12, 0));
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+}
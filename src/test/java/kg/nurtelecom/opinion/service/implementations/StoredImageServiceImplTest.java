@@ -0,0 +1,82 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.entity.ImageRenditions;
+import kg.nurtelecom.opinion.payload.image.ProcessedImage;
+import kg.nurtelecom.opinion.repository.StoredImageRepository;
+import kg.nurtelecom.opinion.service.ImageDeletionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stored-images;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+public class StoredImageServiceImplTest {
+    private static final String URL = "http://localhost/api/images/files/ab/cd/abcd.jpeg";
+
+    @Autowired
+    private StoredImageRepository storedImageRepository;
+    private StoredImageServiceImpl storedImageService;
+
+    @BeforeEach
+    public void setUp() {
+        storedImageService = new StoredImageServiceImpl(storedImageRepository, mock(ImageDeletionService.class));
+    }
+
+    @Test
+    public void sameUploadAddsAReference() {
+        storedImageService.register("raw-1", image());
+        storedImageService.register("raw-1", image());
+
+        assertEquals(1, storedImageRepository.count());
+        assertEquals(2, storedImageRepository.findByUrl(URL).orElseThrow().getReferenceCount());
+    }
+
+    @Test
+    public void uploadsThatReEncodeToTheSameUrlShareOneImage() {
+        storedImageService.register("raw-1", image());
+        ProcessedImage stored = storedImageService.register("raw-2", image());
+
+        assertEquals(URL, stored.url());
+        assertEquals(1, storedImageRepository.count());
+        assertEquals(2, storedImageRepository.findByUrl(URL).orElseThrow().getReferenceCount());
+    }
+
+    @Test
+    public void sharedImageIsReleasedOnlyByItsLastReference() {
+        storedImageService.register("raw-1", image());
+        storedImageService.register("raw-2", image());
+
+        assertEquals(Optional.empty(), storedImageService.release(URL));
+        Optional<ProcessedImage> released = storedImageService.release(URL);
+
+        assertEquals(URL, released.orElseThrow().url());
+        assertEquals("card.jpeg", released.get().renditions().getCard());
+        assertEquals(0, storedImageRepository.count());
+    }
+
+    @Test
+    public void untrackedImageIsReleasedRightAway() {
+        assertEquals("http://localhost/old.jpeg", storedImageService.release("http://localhost/old.jpeg").orElseThrow().url());
+    }
+
+    private static ProcessedImage image() {
+        return new ProcessedImage(URL, new ImageRenditions("card.jpeg", "thumbnail.jpeg", null, null, null));
+    }
+}
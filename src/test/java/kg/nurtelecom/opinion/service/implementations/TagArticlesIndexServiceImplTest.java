@@ -0,0 +1,178 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.enums.TagMatch;
+import kg.nurtelecom.opinion.event.ApprovedArticlesEvent;
+import kg.nurtelecom.opinion.event.ArticleChangedEvent;
+import kg.nurtelecom.opinion.exception.NotValidException;
+import kg.nurtelecom.opinion.payload.tag.TagArticlesSlice;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import kg.nurtelecom.opinion.repository.TagPosting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TagArticlesIndexServiceImplTest {
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    // article id -> tag ids, publication time and whether it is approved
+    private final Map<Long, List<Long>> tags = new HashMap<>();
+    private final Map<Long, LocalDateTime> times = new HashMap<>();
+    private final Set<Long> approved = new HashSet<>();
+    private TagArticlesIndexServiceImpl index;
+
+    @BeforeEach
+    public void setUp() {
+        ArticleRepository articleRepository = mock(ArticleRepository.class);
+        when(articleRepository.findIdsByStatus(ArticleStatus.APPROVED)).thenAnswer(invocation -> new ArrayList<>(approved));
+        when(articleRepository.findTagPostings(ArticleStatus.APPROVED)).thenAnswer(invocation -> postings(approved));
+        when(articleRepository.findTagPostingsByIdIn(anyCollection(), eq(ArticleStatus.APPROVED)))
+                .thenAnswer(invocation -> postings(invocation.getArgument(0)));
+        index = new TagArticlesIndexServiceImpl(articleRepository);
+
+        article(1L, NOON.minusHours(3), 10L);
+        article(2L, NOON.minusHours(2), 10L, 20L);
+        article(3L, NOON.minusHours(1), 20L);
+        article(4L, NOON, 10L, 20L);
+        article(5L, NOON, 10L);
+        index.rebuild();
+    }
+
+    @Test
+    public void anyListsEveryArticleOnceNewestFirst() {
+        TagArticlesSlice slice = index.findArticleIds(List.of(10L, 20L), TagMatch.ANY, null, 10);
+
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), slice.articleIds());
+        assertNull(slice.nextCursor());
+    }
+
+    @Test
+    public void allListsOnlyArticlesWithEveryTag() {
+        assertEquals(List.of(4L, 2L), index.findArticleIds(List.of(10L, 20L), TagMatch.ALL, null, 10).articleIds());
+        assertEquals(List.of(4L, 2L), index.findArticleIds(List.of(20L, 10L, 20L), TagMatch.ALL, null, 10).articleIds());
+    }
+
+    @Test
+    public void unknownTagMatchesNothingForAllAndIsIgnoredForAny() {
+        assertEquals(List.of(), index.findArticleIds(List.of(10L, 99L), TagMatch.ALL, null, 10).articleIds());
+        assertEquals(List.of(5L, 4L, 2L, 1L), index.findArticleIds(List.of(10L, 99L), TagMatch.ANY, null, 10).articleIds());
+    }
+
+    @Test
+    public void pagesFollowEachOtherAcrossEqualTimes() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TagArticlesSlice slice = index.findArticleIds(List.of(10L, 20L), TagMatch.ANY, cursor, 1);
+            seen.addAll(slice.articleIds());
+            cursor = slice.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // 4 and 5 share a publication time, the larger id comes first and neither is lost or repeated
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), seen);
+        assertEquals(5, pages);
+    }
+
+    @Test
+    public void pagesOfAllFollowEachOther() {
+        TagArticlesSlice first = index.findArticleIds(List.of(10L, 20L), TagMatch.ALL, null, 1);
+        TagArticlesSlice second = index.findArticleIds(List.of(10L, 20L), TagMatch.ALL, first.nextCursor(), 1);
+
+        assertEquals(List.of(4L), first.articleIds());
+        assertEquals(List.of(2L), second.articleIds());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    public void editedArticleIsReindexed() {
+        tags.put(2L, List.of(30L));
+        index.onArticleChanged(new ArticleChangedEvent(2L));
+
+        assertEquals(List.of(4L), index.findArticleIds(List.of(10L, 20L), TagMatch.ALL, null, 10).articleIds());
+        assertEquals(List.of(5L, 4L, 1L), index.findArticleIds(List.of(10L), TagMatch.ANY, null, 10).articleIds());
+        assertEquals(List.of(2L), index.findArticleIds(List.of(30L), TagMatch.ANY, null, 10).articleIds());
+    }
+
+    @Test
+    public void articleThatIsNoLongerApprovedIsDroppedOnChange() {
+        approved.remove(3L);
+        index.onArticleChanged(new ArticleChangedEvent(3L));
+
+        assertEquals(List.of(4L, 2L), index.findArticleIds(List.of(20L), TagMatch.ANY, null, 10).articleIds());
+    }
+
+    @Test
+    public void approvalsAndWithdrawalsFollowTheApprovedSet() {
+        article(6L, NOON.plusHours(1), 20L);
+        approved.remove(4L);
+        index.onApprovedArticles(new ApprovedArticlesEvent(Set.copyOf(approved)));
+
+        assertEquals(List.of(6L, 3L, 2L), index.findArticleIds(List.of(20L), TagMatch.ANY, null, 10).articleIds());
+        assertEquals(List.of(5L, 2L, 1L), index.findArticleIds(List.of(10L), TagMatch.ANY, null, 10).articleIds());
+    }
+
+    @Test
+    public void lastArticleOfATagTakesTheTagWithIt() {
+        approved.remove(3L);
+        approved.remove(2L);
+        approved.remove(4L);
+        index.onApprovedArticles(new ApprovedArticlesEvent(Set.copyOf(approved)));
+
+        assertEquals(List.of(), index.findArticleIds(List.of(20L), TagMatch.ANY, null, 10).articleIds());
+        assertEquals(List.of(5L, 1L), index.findArticleIds(List.of(10L, 20L), TagMatch.ANY, null, 10).articleIds());
+    }
+
+    @Test
+    public void invalidCursorIsRejected() {
+        for (String cursor : new String[]{"not base64!", "", Base64.getUrlEncoder().encodeToString("abc".getBytes()),
+                Base64.getUrlEncoder().encodeToString("1:x".getBytes())}) {
+            assertThrows(NotValidException.class, () -> index.findArticleIds(List.of(10L), TagMatch.ANY, cursor, 10), cursor);
+        }
+    }
+
+    private void article(Long id, LocalDateTime time, Long... tagIds) {
+        tags.put(id, List.of(tagIds));
+        times.put(id, time);
+        approved.add(id);
+    }
+
+    private List<TagPosting> postings(Collection<Long> articleIds) {
+        List<TagPosting> postings = new ArrayList<>();
+        for (Long articleId : articleIds) {
+            if (!approved.contains(articleId)) {
+                continue;
+            }
+            for (Long tagId : tags.get(articleId)) {
+                postings.add(posting(articleId, tagId, times.get(articleId)));
+            }
+        }
+        return postings;
+    }
+
+    private static TagPosting posting(Long articleId, Long tagId, LocalDateTime dateTime) {
+        return new TagPosting() {
+            @Override
+            public Long getArticleId() {
+                return articleId;
+            }
+
+            @Override
+            public Long getTagId() {
+                return tagId;
+            }
+
+            @Override
+            public LocalDateTime getDateTime() {
+                return dateTime;
+            }
+        };
+    }
+}
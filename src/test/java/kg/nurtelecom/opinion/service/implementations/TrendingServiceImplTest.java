@@ -0,0 +1,127 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ArticleActivity;
+import kg.nurtelecom.opinion.enums.ArticleStatus;
+import kg.nurtelecom.opinion.repository.ArticleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TrendingServiceImplTest {
+    private static final long HALF_LIFE = Duration.ofHours(24).toMillis();
+
+    private ArticleRepository articleRepository;
+    private TrendingServiceImpl trending;
+    private long start;
+
+    @BeforeEach
+    public void setUp() {
+        articleRepository = mock(ArticleRepository.class);
+        when(articleRepository.findIdsByIdInAndStatus(anyCollection(), eq(ArticleStatus.APPROVED)))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<Long>>getArgument(0)));
+        trending = new TrendingServiceImpl(articleRepository, 24, 3, 7);
+        start = (long) ReflectionTestUtils.getField(trending, "landmark");
+    }
+
+    @Test
+    public void laterActivityWeighsMoreThanTheSameActivityEarlier() {
+        trending.add(1L, 1, start);
+        trending.add(2L, 1, start + HALF_LIFE);
+        trending.add(3L, 1.5, start);
+
+        assertEquals(List.of(2L, 3L, 1L), ranking());
+        assertEquals(2.0, scores().get(2L), 1e-9);
+    }
+
+    @Test
+    public void topKKeepsTheBestArticles() {
+        trending.add(1L, 1, start);
+        trending.add(2L, 2, start);
+        trending.add(3L, 3, start);
+        trending.add(4L, 0.5, start);
+
+        assertEquals(List.of(3L, 2L, 1L), ranking());
+
+        trending.add(4L, 1, start);
+        assertEquals(List.of(3L, 2L, 4L), ranking());
+
+        // the score of an article that fell out of the top is kept, so it can come back
+        trending.add(1L, 2.5, start);
+        assertEquals(List.of(1L, 3L, 2L), ranking());
+    }
+
+    @Test
+    public void takenBackLikeNeverLeavesANegativeScore() {
+        trending.add(1L, ArticleActivity.LIKE.getWeight(), start);
+        trending.add(1L, ArticleActivity.UNLIKE.getWeight(), start + HALF_LIFE);
+
+        assertEquals(0.0, scores().get(1L));
+
+        trending.add(1L, ArticleActivity.VIEW.getWeight(), start + HALF_LIFE);
+        assertEquals(2.0, scores().get(1L), 1e-9);
+    }
+
+    @Test
+    public void rescalingKeepsTheOrderAndPrunesDecayedArticles() {
+        trending.add(1L, 100, start);
+        trending.add(2L, 1, start);
+        trending.add(3L, 50, start);
+
+        // ten half-lives later 1 and 3 keep about a thousandth of their score and 2 falls under the prune threshold
+        long later = start + 10 * HALF_LIFE;
+        trending.rescale(later);
+
+        assertEquals(later, ReflectionTestUtils.getField(trending, "landmark"));
+        assertEquals(Set.of(1L, 3L), scores().keySet());
+        assertEquals(100.0 / 1024, scores().get(1L), 1e-9);
+        assertEquals(List.of(1L, 3L), ranking());
+
+        // a fresh view is now worth a full point on the new landmark
+        trending.add(4L, 1, later);
+        assertEquals(List.of(4L, 1L, 3L), ranking());
+    }
+
+    @Test
+    public void refreshPublishesOnlyApprovedArticles() {
+        trending.add(1L, 3, start);
+        trending.add(2L, 2, start);
+        trending.add(3L, 1, start);
+        when(articleRepository.findIdsByIdInAndStatus(anyCollection(), eq(ArticleStatus.APPROVED)))
+                .thenReturn(List.of(3L, 1L));
+
+        trending.refresh();
+
+        assertEquals(List.of(1L, 3L), trending.getTrendingArticleIds(PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(3L), trending.getTrendingArticleIds(PageRequest.of(1, 1)).getContent());
+        verify(articleRepository).findIdsByIdInAndStatus(List.of(1L, 2L, 3L), ArticleStatus.APPROVED);
+    }
+
+    @Test
+    public void refreshWithoutActivityPublishesNothing() {
+        trending.refresh();
+
+        assertEquals(List.of(), trending.getTrendingArticleIds(PageRequest.of(0, 10)).getContent());
+        verifyNoInteractions(articleRepository);
+    }
+
+    private List<Long> ranking() {
+        trending.refresh();
+        return trending.getTrendingArticleIds(PageRequest.of(0, 10)).getContent();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Double> scores() {
+        return (Map<Long, Double>) ReflectionTestUtils.getField(trending, "scores");
+    }
+}
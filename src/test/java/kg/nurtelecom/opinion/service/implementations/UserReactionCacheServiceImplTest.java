@@ -0,0 +1,90 @@
+package kg.nurtelecom.opinion.service.implementations;
+
+import kg.nurtelecom.opinion.enums.ReactionType;
+import kg.nurtelecom.opinion.repository.ArticleReactionRepository;
+import kg.nurtelecom.opinion.repository.ArticleReactionState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UserReactionCacheServiceImplTest {
+
+    private ArticleReactionRepository articleReactionRepository;
+    private UserReactionCacheServiceImpl userReactionCacheService;
+
+    @BeforeEach
+    public void setUp() {
+        articleReactionRepository = mock(ArticleReactionRepository.class);
+        userReactionCacheService = new UserReactionCacheServiceImpl(articleReactionRepository);
+        ReflectionTestUtils.setField(userReactionCacheService, "enabled", true);
+        ReflectionTestUtils.setField(userReactionCacheService, "maxUsers", 10);
+        ReflectionTestUtils.setField(userReactionCacheService, "maxReactions", 3);
+        ReflectionTestUtils.setField(userReactionCacheService, "ttlSeconds", 600L);
+    }
+
+    @Test
+    public void reactionsAreLoadedOnceAndServedFromMemory() {
+        when(articleReactionRepository.findStatesByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(state(10L, ReactionType.LIKE), state(11L, ReactionType.DISLIKE)));
+
+        userReactionCacheService.getReactions(1L, List.of(10L, 11L, 12L));
+        Map<Long, ReactionType> reactions = userReactionCacheService.getReactions(1L, List.of(10L, 11L, 12L));
+
+        assertEquals(Map.of(10L, ReactionType.LIKE, 11L, ReactionType.DISLIKE), reactions);
+        verify(articleReactionRepository, times(1)).findStatesByUserId(eq(1L), any(Pageable.class));
+        verify(articleReactionRepository, never()).findStatesByUserIdAndArticleIds(anyLong(), anyCollection());
+    }
+
+    @Test
+    public void userWithTooManyReactionsIsNotLoadedAgainWithinTtl() {
+        when(articleReactionRepository.findStatesByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(LongStream.rangeClosed(1, 4).mapToObj(id -> state(id, ReactionType.LIKE)).toList());
+        when(articleReactionRepository.findStatesByUserIdAndArticleIds(1L, List.of(2L)))
+                .thenReturn(List.of(state(2L, ReactionType.LIKE)));
+
+        userReactionCacheService.getReactions(1L, List.of(2L));
+        Map<Long, ReactionType> reactions = userReactionCacheService.getReactions(1L, List.of(2L));
+
+        assertEquals(Map.of(2L, ReactionType.LIKE), reactions);
+        verify(articleReactionRepository, times(1)).findStatesByUserId(eq(1L), any(Pageable.class));
+        verify(articleReactionRepository, times(2)).findStatesByUserIdAndArticleIds(1L, List.of(2L));
+    }
+
+    @Test
+    public void evictDropsTheTooManyMarker() {
+        when(articleReactionRepository.findStatesByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(LongStream.rangeClosed(1, 4).mapToObj(id -> state(id, ReactionType.LIKE)).toList())
+                .thenReturn(List.of(state(2L, ReactionType.LIKE)));
+
+        userReactionCacheService.getReactions(1L, List.of(2L));
+        userReactionCacheService.evict(1L);
+        Map<Long, ReactionType> reactions = userReactionCacheService.getReactions(1L, List.of(2L));
+
+        assertEquals(Map.of(2L, ReactionType.LIKE), reactions);
+        verify(articleReactionRepository, times(2)).findStatesByUserId(eq(1L), any(Pageable.class));
+        verify(articleReactionRepository, times(1)).findStatesByUserIdAndArticleIds(anyLong(), anyCollection());
+    }
+
+    private static ArticleReactionState state(Long articleId, ReactionType reactionType) {
+        return new ArticleReactionState() {
+            @Override
+            public Long getArticleId() {
+                return articleId;
+            }
+
+            @Override
+            public ReactionType getReactionType() {
+                return reactionType;
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package kg.nurtelecom.opinion.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CloudinaryImageStoreTest {
+
+    private CloudinaryImageStore store;
+
+    @BeforeEach
+    public void setUp() {
+        Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap("cloud_name", "demo", "api_key", "key", "api_secret", "secret"));
+        store = new CloudinaryImageStore(cloudinary, "opinion");
+    }
+
+    @Test
+    public void keyOfKeepsFolders() {
+        assertEquals(Optional.of("opinion/abc123"),
+                store.keyOf("http://res.cloudinary.com/demo/image/upload/v1700000000/opinion/abc123.jpg"));
+        assertEquals(Optional.of("opinion/abc123"),
+                store.keyOf("http://res.cloudinary.com/demo/image/upload/opinion/abc123.webp"));
+    }
+
+    @Test
+    public void keyOfRootAsset() {
+        assertEquals(Optional.of("abc123"), store.keyOf("https://res.cloudinary.com/demo/image/upload/v1/abc123.png"));
+    }
+
+    @Test
+    public void keyOfConvertedUrlMatchesUploadedKey() {
+        StoredObject uploaded = new StoredObject("opinion/abc123", "http://res.cloudinary.com/demo/image/upload/v1/opinion/abc123.jpg");
+
+        String converted = store.convertedUrl(uploaded, "webp").orElseThrow();
+
+        assertEquals(store.keyOf(uploaded.url()), store.keyOf(converted));
+    }
+
+    @Test
+    public void keyOfIgnoresOtherAccountsAndSites() {
+        assertEquals(Optional.empty(), store.keyOf("http://res.cloudinary.com/other/image/upload/v1/opinion/abc123.jpg"));
+        assertEquals(Optional.empty(), store.keyOf("https://example.com/images/abc123.jpg"));
+    }
+}
@@ -0,0 +1,40 @@
+package kg.nurtelecom.opinion.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HtmlTemplateEngineTest {
+
+    private final HtmlTemplateEngine engine = new HtmlTemplateEngine();
+
+    @Test
+    public void everyTemplateRendersWithItsPlaceholders() {
+        Map<String, String> values = Map.of("name", "n", "URL", "u", "user_url", "uu", "nickname", "nn", "comment", "c");
+
+        for (TemplateName name : TemplateName.values()) {
+            String html = engine.render(name, values);
+
+            assertFalse(html.contains("[["), name.name());
+        }
+    }
+
+    @Test
+    public void passwordResetMailKeepsItsSquareBrackets() {
+        String html = engine.render(TemplateName.PASSWORD_RESET_MAIL, Map.of("name", "Айбек", "URL", "https://opinion.kg/reset?token=a&b"));
+
+        assertTrue(html.startsWith("Уважаемый/-ая Айбек,<br>[Вы недавно запросили ссылку для сброса пароля]<br>"));
+        assertTrue(html.contains("<a href=\"https://opinion.kg/reset?token=a&amp;b\" target=\"_self\">"));
+    }
+
+    @Test
+    public void mentionedCommentIsEscaped() {
+        String html = engine.render(TemplateName.MENTION_NOTIFICATION,
+                Map.of("user_url", "/users/1", "nickname", "nick", "comment", "<img src=x onerror=alert(1)>"));
+
+        assertTrue(html.contains("Содержание: \"&lt;img src=x onerror=alert(1)&gt;\"."));
+        assertFalse(html.contains("<img"));
+    }
+}
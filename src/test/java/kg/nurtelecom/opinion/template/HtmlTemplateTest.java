@@ -0,0 +1,84 @@
+package kg.nurtelecom.opinion.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HtmlTemplateTest {
+
+    @Test
+    public void placeholdersAreReplacedAndLiteralsKept() {
+        HtmlTemplate template = HtmlTemplate.compile("[[greeting]], <b>[[name]]</b>[[mark]]");
+
+        String html = template.render(Map.of("greeting", "Привет", "name", "Айбек", "mark", "!"));
+
+        assertEquals("Привет, <b>Айбек</b>!", html);
+    }
+
+    @Test
+    public void templateWithoutPlaceholdersIsReturnedAsIs() {
+        HtmlTemplate template = HtmlTemplate.compile("<p>[Без подстановок]</p>");
+
+        assertEquals("<p>[Без подстановок]</p>", template.render(Map.of()));
+    }
+
+    @Test
+    public void placeholderCanBeUsedMoreThanOnce() {
+        HtmlTemplate template = HtmlTemplate.compile("<a href=\"[[URL]]\">[[URL]]</a>");
+
+        assertEquals("<a href=\"/a\">/a</a>", template.render(Map.of("URL", "/a")));
+    }
+
+    @Test
+    public void valuesAreEscaped() {
+        HtmlTemplate template = HtmlTemplate.compile("<p title=\"[[title]]\">[[comment]]</p>");
+
+        String html = template.render(Map.of("title", "\"x\" & 'y'", "comment", "<script>alert(1)</script>"));
+
+        assertEquals("<p title=\"&quot;x&quot; &amp; &#39;y&#39;\">&lt;script&gt;alert(1)&lt;/script&gt;</p>", html);
+    }
+
+    @Test
+    public void valuesThatLookLikePlaceholdersAreNotExpanded() {
+        HtmlTemplate template = HtmlTemplate.compile("[[first]] [[second]]");
+
+        assertEquals("[[second]] x", template.render(Map.of("first", "[[second]]", "second", "x")));
+    }
+
+    @Test
+    public void missingValueIsReported() {
+        HtmlTemplate template = HtmlTemplate.compile("Здравствуйте, [[name]]");
+        Map<String, String> values = new HashMap<>();
+        values.put("name", null);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> template.render(values));
+        assertEquals("Не задано значение для [[name]]", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of()));
+    }
+
+    @Test
+    public void unclosedPlaceholderIsLeftAsLiteral() {
+        HtmlTemplate template = HtmlTemplate.compile("[[name]] пишет: [[comment");
+
+        assertEquals("Айбек пишет: [[comment", template.render(Map.of("name", "Айбек")));
+    }
+
+    @Test
+    public void closingBracketsWithoutOpeningAreLiteral() {
+        HtmlTemplate template = HtmlTemplate.compile("a]] [[b]] c]]");
+
+        assertEquals("a]] 1 c]]", template.render(Map.of("b", "1")));
+    }
+
+    @Test
+    public void valuesLongerThanTheTemplateAreRenderedWhole() {
+        HtmlTemplate template = HtmlTemplate.compile("<p>[[text]]</p>");
+
+        assertEquals("<p>" + "x&amp;".repeat(5_000) + "</p>", template.render(Map.of("text", "x&".repeat(5_000))));
+        assertEquals("<p>y</p>", template.render(Map.of("text", "y")));
+    }
+}